@@ -135,9 +135,9 @@ public class DataSeeder {
 
 
    private void seedOrderStatuses() {
-       List <String> order_statuses = Arrays.asList("pending", "in progress", "delivered");
+       List <String> order_statuses = Arrays.asList("pending", "in progress", "delivered", "cancelled");
        List<OrderStatus> orderStatuses = new ArrayList<>();
-       for (int i = 0; i < 3; i++) {
+       for (int i = 0; i < order_statuses.size(); i++) {
            OrderStatus orderStatus = OrderStatus.builder()
                    .name(order_statuses.get(i))
                    .build();
@@ -183,6 +183,8 @@ public class DataSeeder {
                }
            }
        }
+       orderRepository.fillMissingTotalCosts(0, Integer.MAX_VALUE);
+       restaurantRepository.rebuildRatingAggregates();
     }
 
 
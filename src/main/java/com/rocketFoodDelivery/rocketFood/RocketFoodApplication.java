@@ -2,8 +2,10 @@ package com.rocketFoodDelivery.rocketFood;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class RocketFoodApplication {
     public static void main(String[] args) {
         SpringApplication.run(RocketFoodApplication.class, args);
@@ -38,4 +38,13 @@ public class GlobalExceptionHandler {
         response.setDetails(ex.getMessage());
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
+
+    @ExceptionHandler(ConflictException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ResponseEntity<ApiErrorDTO> handleConflictException(ConflictException ex) {
+        ApiErrorDTO response = new ApiErrorDTO();
+        response.setError("Conflict");
+        response.setDetails(ex.getMessage());
+        return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,125 @@
+package com.rocketFoodDelivery.rocketFood.controller.api;
+
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ConflictException;
+import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
+import com.rocketFoodDelivery.rocketFood.security.TokenVersionRegistry;
+import com.rocketFoodDelivery.rocketFood.service.CourierDispatcher;
+import com.rocketFoodDelivery.rocketFood.service.OrderArchiver;
+import com.rocketFoodDelivery.rocketFood.service.OrderCostBackfillService;
+import com.rocketFoodDelivery.rocketFood.service.RestaurantRollupService;
+import com.rocketFoodDelivery.rocketFood.service.StatusRegistry;
+import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalInt;
+
+@RestController
+public class AdminApiController {
+    private final StatusRegistry statusRegistry;
+    private final OrderCostBackfillService orderCostBackfillService;
+    private final OrderArchiver orderArchiver;
+    private final RestaurantRollupService restaurantRollupService;
+    private final CourierDispatcher courierDispatcher;
+    private final TokenVersionRegistry tokenVersionRegistry;
+
+    @Autowired
+    public AdminApiController(StatusRegistry statusRegistry,
+                              OrderCostBackfillService orderCostBackfillService,
+                              OrderArchiver orderArchiver,
+                              RestaurantRollupService restaurantRollupService,
+                              CourierDispatcher courierDispatcher,
+                              TokenVersionRegistry tokenVersionRegistry) {
+        this.statusRegistry = statusRegistry;
+        this.orderCostBackfillService = orderCostBackfillService;
+        this.orderArchiver = orderArchiver;
+        this.restaurantRollupService = restaurantRollupService;
+        this.courierDispatcher = courierDispatcher;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+    }
+
+    /**
+     * Reloads the order and courier status lookup tables after they were edited in the database.
+     */
+    @PostMapping("/api/admin/statuses/refresh")
+    public ResponseEntity<Object> refreshStatuses() {
+        statusRegistry.refresh();
+        Map<String, Object> statuses = new LinkedHashMap<>();
+        statuses.put("order_statuses", statusRegistry.getOrderStatuses());
+        statuses.put("courier_statuses", statusRegistry.getCourierStatuses());
+        return ResponseBuilder.buildOkResponse(statuses);
+    }
+
+    /**
+     * Fills unit costs and order totals missing on orders placed before they were persisted.
+     */
+    @PostMapping("/api/admin/orders/backfill-costs")
+    public ResponseEntity<Object> backfillOrderCosts() {
+        try {
+            return ResponseBuilder.buildOkResponse(orderCostBackfillService.backfill());
+        } catch (ConflictException ex) {
+            return ResponseBuilder.buildConflictExceptionResponse(ex);
+        }
+    }
+
+    /**
+     * Runs the order archiver now, whether or not the nightly run is enabled.
+     */
+    @PostMapping("/api/admin/orders/archive")
+    public ResponseEntity<Object> archiveOrders() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("archived", orderArchiver.archive());
+        return ResponseBuilder.buildOkResponse(result);
+    }
+
+    /**
+     * Recomputes the restaurant rollups of the days from, inclusive, to to, exclusive, from the orders table.
+     */
+    @PostMapping("/api/admin/rollups/rebuild")
+    public ResponseEntity<Object> rebuildRollups(
+            @RequestParam("from") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam("to") @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (!from.isBefore(to)) {
+            return ResponseBuilder.buildBadRequestExceptionResponse(
+                    new BadRequestException("Invalid or missing parameters", "from must be before to"));
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("rows", restaurantRollupService.rebuild(from, to));
+        return ResponseBuilder.buildOkResponse(result);
+    }
+
+    /**
+     * Reloads the courier dispatch pool, picking up couriers added or deactivated since startup.
+     */
+    @PostMapping("/api/admin/couriers/reload")
+    public ResponseEntity<Object> reloadCourierPool() {
+        courierDispatcher.load();
+        return ResponseBuilder.buildOkResponse(courierDispatcher.getPoolSizes());
+    }
+
+    /**
+     * Revokes every access token issued to a user so far, the user has to log in again.
+     */
+    @PostMapping("/api/admin/users/{id}/revoke-tokens")
+    public ResponseEntity<Object> revokeTokens(@PathVariable int id) {
+        OptionalInt version = tokenVersionRegistry.revoke(id);
+        if (version.isEmpty()) {
+            return ResponseBuilder.buildResourceNotFoundExceptionResponse(
+                    new ResourceNotFoundException(String.format("User with id %d not found", id)));
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("user_id", id);
+        result.put("token_version", version.getAsInt());
+        return ResponseBuilder.buildOkResponse(result);
+    }
+}
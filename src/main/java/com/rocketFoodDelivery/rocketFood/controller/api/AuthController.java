@@ -3,41 +3,55 @@ package com.rocketFoodDelivery.rocketFood.controller.api;
 import com.rocketFoodDelivery.rocketFood.dtos.AuthRequestDTO;
 import com.rocketFoodDelivery.rocketFood.dtos.AuthResponseErrorDTO;
 import com.rocketFoodDelivery.rocketFood.dtos.AuthResponseSuccessDTO;
-import com.rocketFoodDelivery.rocketFood.models.Courier;
-import com.rocketFoodDelivery.rocketFood.models.Customer;
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
 import com.rocketFoodDelivery.rocketFood.models.UserEntity;
-import com.rocketFoodDelivery.rocketFood.repository.CourierRepository;
-import com.rocketFoodDelivery.rocketFood.repository.CustomerRepository;
 import com.rocketFoodDelivery.rocketFood.security.JwtUtil;
+import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.Optional;
-
 
 @RestController
 public class AuthController {
-    private CourierRepository courierRepository;
-    private CustomerRepository customerRepository;
+    private final MeterRegistry meterRegistry;
+    private final Timer successTimer;
+    private final Timer failureTimer;
+    private final Timer rejectedTimer;
     @Autowired
     AuthenticationManager authManager;
     @Autowired
     JwtUtil jwtUtil;
-    public AuthController(CourierRepository courierRepository,CustomerRepository customerRepository){
-        this.courierRepository = courierRepository;
-        this.customerRepository = customerRepository;
+    public AuthController(MeterRegistry meterRegistry){
+        this.meterRegistry = meterRegistry;
+        this.successTimer = loginTimer(meterRegistry, "success");
+        this.failureTimer = loginTimer(meterRegistry, "failure");
+        this.rejectedTimer = loginTimer(meterRegistry, "rejected");
+    }
+
+    // Login latency, with p50/p99 to watch sign-in storms
+    private static Timer loginTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("auth.login")
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
     }
+
     @PostMapping("/api/auth")
     public ResponseEntity<?> authenticate(@RequestBody @Valid AuthRequestDTO request){
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             Authentication authentication = authManager.authenticate(
                     new UsernamePasswordAuthenticationToken(
@@ -45,24 +59,41 @@ public class AuthController {
             );
             UserEntity user = (UserEntity) authentication.getPrincipal();
             String accessToken = jwtUtil.generateAccessToken(user);
-            Optional<Courier> courier = courierRepository.findByUserEntityId(user.getId());
-            Optional<Customer> customer = customerRepository.findByUserEntityId(user.getId());
 
             AuthResponseSuccessDTO response = new AuthResponseSuccessDTO();
-            if(courier.isPresent()){
-                response.setCourier_id(courier.get().getId());
+            if(user.getCourierId() != null){
+                response.setCourier_id(user.getCourierId());
             }
-            if (customer.isPresent()){
-                response.setCustomer_id(customer.get().getId());
+            if (user.getCustomerId() != null){
+                response.setCustomer_id(user.getCustomerId());
             }
             response.setSuccess(true);
             response.setAccessToken(accessToken);
             response.setUser_id(user.getId());
+            sample.stop(successTimer);
             return ResponseEntity.ok().body(response);
         } catch (BadCredentialsException e) {
+            sample.stop(failureTimer);
             AuthResponseErrorDTO response = new AuthResponseErrorDTO();
             response.setSuccess(false);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
+        } catch (ServiceUnavailableException e) {
+            sample.stop(rejectedTimer);
+            return serviceUnavailable(e);
+        } catch (InternalAuthenticationServiceException e) {
+            // A rejection thrown while the provider loads the user, where some Spring Security
+            // versions also hash their dummy password, comes wrapped like any other load failure
+            if (!(e.getCause() instanceof ServiceUnavailableException)) {
+                throw e;
+            }
+            sample.stop(rejectedTimer);
+            return serviceUnavailable((ServiceUnavailableException) e.getCause());
         }
     }
+
+    // The password hashing pool is saturated, shed the login rather than queue it
+    private static ResponseEntity<?> serviceUnavailable(ServiceUnavailableException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                .body(ResponseBuilder.buildServiceUnavailableResponse(e.getMessage()).getBody());
+    }
 }
@@ -0,0 +1,104 @@
+package com.rocketFoodDelivery.rocketFood.controller.api;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierLocationDTO;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierLocationRequestDTO;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierTrailDTO;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.service.CourierLocationTracker;
+import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+public class CourierApiController {
+    private static final int MAX_TRAIL_SECONDS = 3600;
+
+    private final CourierLocationTracker courierLocationTracker;
+    private final int maxBatchSize;
+
+    @Autowired
+    public CourierApiController(CourierLocationTracker courierLocationTracker,
+                                @Value("${couriers.locations.max-batch-size:500}") int maxBatchSize) {
+        this.courierLocationTracker = courierLocationTracker;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Takes one GPS ping, or a batch of pings under locations, into the courier's in-memory buffer.
+     * Answers 202 since the positions are only written to the database later, downsampled.
+     * Only the courier itself may report.
+     */
+    @PostMapping("/api/couriers/{courier_id}/locations")
+    public ResponseEntity<Object> recordLocations(@PathVariable("courier_id") int courierId,
+                                                  @RequestBody ApiCourierLocationRequestDTO request,
+                                                  @AuthenticationPrincipal UserEntity user) {
+        if (!courierLocationTracker.canReport(courierId, user)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        List<ApiCourierLocationDTO> pings;
+        if (request.getLocations() != null) {
+            pings = request.getLocations();
+        } else if (request.getLatitude() != null && request.getLongitude() != null) {
+            long recordedAt = request.getRecorded_at() != null ? request.getRecorded_at() : 0;
+            pings = List.of(new ApiCourierLocationDTO(request.getLatitude(), request.getLongitude(), recordedAt));
+        } else {
+            return ResponseBuilder.buildBadRequestExceptionResponse(
+                    new BadRequestException("Invalid or missing parameters", "latitude and longitude, or locations, are required"));
+        }
+        if (pings.isEmpty() || pings.size() > maxBatchSize) {
+            return ResponseBuilder.buildBadRequestExceptionResponse(new BadRequestException("Invalid or missing parameters",
+                    "A request holds between 1 and " + maxBatchSize + " locations"));
+        }
+        if (!courierLocationTracker.isKnownCourier(courierId)) {
+            return ResponseBuilder.buildResourceNotFoundExceptionResponse(
+                    new ResourceNotFoundException("Courier with id " + courierId + " not found"));
+        }
+
+        int accepted = courierLocationTracker.record(courierId, pings);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("accepted", accepted);
+        result.put("rejected", pings.size() - accepted);
+        return ResponseBuilder.buildAcceptedResponse(result);
+    }
+
+    /**
+     * Latest position of a courier and its trail over the last trail_seconds, for that courier and
+     * employees.
+     */
+    @GetMapping("/api/couriers/{courier_id}/location")
+    public ResponseEntity<Object> getLocation(@PathVariable("courier_id") int courierId,
+                                              @RequestParam(name = "trail_seconds", defaultValue = "300") int trailSeconds,
+                                              @AuthenticationPrincipal UserEntity user) {
+        if (!courierLocationTracker.canTrack(courierId, user)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        if (trailSeconds < 0 || trailSeconds > MAX_TRAIL_SECONDS) {
+            return ResponseBuilder.buildBadRequestExceptionResponse(new BadRequestException("Invalid or missing parameters",
+                    "trail_seconds must be between 0 and " + MAX_TRAIL_SECONDS));
+        }
+        Optional<ApiCourierTrailDTO> trail = courierLocationTracker.getTrail(courierId,
+                System.currentTimeMillis() - trailSeconds * 1000L);
+        if (!trail.isPresent()) {
+            return ResponseBuilder.buildResourceNotFoundExceptionResponse(
+                    new ResourceNotFoundException("No known location for courier " + courierId));
+        }
+        return ResponseBuilder.buildOkResponse(trail.get());
+    }
+}
@@ -0,0 +1,160 @@
+package com.rocketFoodDelivery.rocketFood.controller.api;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiBatchOrderRequestDTO;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderIntakeStatusDTO;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.security.RateLimitFilter;
+import com.rocketFoodDelivery.rocketFood.security.RateLimitGroup;
+import com.rocketFoodDelivery.rocketFood.security.RateLimiter;
+import com.rocketFoodDelivery.rocketFood.service.OrderBatchService;
+import com.rocketFoodDelivery.rocketFood.service.OrderEventHub;
+import com.rocketFoodDelivery.rocketFood.service.OrderExportService;
+import com.rocketFoodDelivery.rocketFood.service.OrderIntakeQueue;
+import com.rocketFoodDelivery.rocketFood.service.OrderService;
+import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+public class OrderApiController {
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final OrderBatchService orderBatchService;
+    private final OrderIntakeQueue orderIntakeQueue;
+    private final OrderExportService orderExportService;
+    private final OrderEventHub orderEventHub;
+    private final OrderService orderService;
+    private final RateLimiter rateLimiter;
+    private final int maxBatchSize;
+
+    @Autowired
+    public OrderApiController(OrderBatchService orderBatchService,
+                              OrderIntakeQueue orderIntakeQueue,
+                              OrderExportService orderExportService,
+                              OrderEventHub orderEventHub,
+                              OrderService orderService,
+                              RateLimiter rateLimiter,
+                              @Value("${orders.batch.max-size:1000}") int maxBatchSize) {
+        this.orderBatchService = orderBatchService;
+        this.orderIntakeQueue = orderIntakeQueue;
+        this.orderExportService = orderExportService;
+        this.orderEventHub = orderEventHub;
+        this.orderService = orderService;
+        this.rateLimiter = rateLimiter;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Streams all orders as newline-delimited JSON, one order per line in id order.
+     * The body is gzip-compressed on the fly when the client sends Accept-Encoding: gzip, and an
+     * interrupted export can be resumed by passing the last order id received as after. The export
+     * is written on the request thread rather than as an async request, so it is not cut short by
+     * the async request timeout however long it runs.
+     */
+    @GetMapping("/api/orders/export")
+    public void exportOrders(
+            @RequestParam(name = "after", defaultValue = "0") int after,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            HttpServletResponse response) throws IOException {
+        boolean gzip = acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip");
+
+        response.setContentType(NDJSON.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"orders.ndjson\"");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            GZIPOutputStream compressed = new GZIPOutputStream(response.getOutputStream(), 64 * 1024);
+            orderExportService.exportOrders(after, compressed);
+            compressed.finish();
+        } else {
+            orderExportService.exportOrders(after, response.getOutputStream());
+        }
+    }
+
+    /**
+     * Server-Sent Events stream of the status changes of one order, as "status" events, for
+     * employees and the order's customer and courier.
+     */
+    @GetMapping(value = "/api/orders/{order_id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamOrderEvents(@PathVariable("order_id") int orderId,
+                                                        @AuthenticationPrincipal UserEntity user) {
+        if (!orderService.canFollowOrder(orderId, user)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return toStreamResponse(orderEventHub.subscribeToOrder(orderId));
+    }
+
+    /**
+     * Server-Sent Events stream of the status changes of every order of a customer, for employees
+     * and that customer.
+     */
+    @GetMapping(value = "/api/customers/{customer_id}/order-events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamCustomerOrderEvents(@PathVariable("customer_id") int customerId,
+                                                                @AuthenticationPrincipal UserEntity user) {
+        if (!orderService.canFollowCustomer(customerId, user)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        return toStreamResponse(orderEventHub.subscribeToCustomer(customerId));
+    }
+
+    private ResponseEntity<SseEmitter> toStreamResponse(Optional<SseEmitter> emitter) {
+        if (!emitter.isPresent()) {
+            // Connection cap reached, EventSource clients retry on their own
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "10").build();
+        }
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter.get());
+    }
+
+    @GetMapping("/api/orders/intake/{tracking_id}")
+    public ResponseEntity<Object> getIntakeStatus(@PathVariable("tracking_id") String trackingId) {
+        Optional<ApiOrderIntakeStatusDTO> status = orderIntakeQueue.getStatus(trackingId);
+        if (!status.isPresent()) {
+            return ResponseBuilder.buildResourceNotFoundExceptionResponse(
+                    new ResourceNotFoundException("No queued order with tracking id " + trackingId));
+        }
+        return ResponseBuilder.buildOkResponse(status.get());
+    }
+
+    /**
+     * Places several orders in one request. The batch counts one order write per order against the
+     * client's rate limit: the filter took the first token, the rest are charged here.
+     */
+    @PostMapping("/api/orders/batch")
+    public ResponseEntity<Object> createOrders(@RequestBody ApiBatchOrderRequestDTO request,
+                                               HttpServletRequest httpRequest) {
+        if (request.getOrders() == null || request.getOrders().isEmpty()) {
+            return ResponseBuilder.buildBadRequestExceptionResponse(new BadRequestException("Invalid or missing parameters", "No orders given"));
+        }
+        if (request.getOrders().size() > maxBatchSize) {
+            return ResponseBuilder.buildBadRequestExceptionResponse(new BadRequestException("Invalid or missing parameters",
+                    "A batch holds at most " + maxBatchSize + " orders"));
+        }
+        Object client = httpRequest.getAttribute(RateLimitFilter.CLIENT_KEY_ATTRIBUTE);
+        if (client != null) {
+            rateLimiter.charge(RateLimitGroup.ORDER_WRITES, (String) client, request.getOrders().size() - 1);
+        }
+        return ResponseBuilder.buildOkResponse(orderBatchService.placeOrders(request.getOrders()));
+    }
+}
@@ -1,19 +1,29 @@
 package com.rocketFoodDelivery.rocketFood.controller.api;
 
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCreateOrderDTO;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiCreateRestaurantDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderDTO;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiRestaurantDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiRestaurantRatingDTO;
+import com.rocketFoodDelivery.rocketFood.service.OrderIntakeQueue;
+import com.rocketFoodDelivery.rocketFood.service.RestaurantCatalogIndex;
+import com.rocketFoodDelivery.rocketFood.service.RestaurantRollupService;
 import com.rocketFoodDelivery.rocketFood.service.RestaurantService;
 import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
 import com.rocketFoodDelivery.rocketFood.exception.*;
 import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
 import com.rocketFoodDelivery.rocketFood.models.Restaurant;
+import com.rocketFoodDelivery.rocketFood.models.RollupGranularity;
 
 import jakarta.validation.Valid;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -24,11 +34,27 @@ import java.util.Optional;
 
 @RestController
 public class RestaurantApiController {
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Longest range one dashboard request may cover, in buckets
+    private static final int MAX_DASHBOARD_BUCKETS = 24 * 31;
+
+    // GET /api/restaurants/nearby search radius in km and result count
+    private static final double DEFAULT_NEARBY_RADIUS_KM = 5;
+    private static final double MAX_NEARBY_RADIUS_KM = 50;
+    private static final int DEFAULT_NEARBY_LIMIT = 20;
+
     private RestaurantService restaurantService;
+    private final OrderIntakeQueue orderIntakeQueue;
+    private final RestaurantRollupService restaurantRollupService;
 
     @Autowired
-    public RestaurantApiController(RestaurantService restaurantService) {
+    public RestaurantApiController(RestaurantService restaurantService, OrderIntakeQueue orderIntakeQueue,
+                                   RestaurantRollupService restaurantRollupService) {
         this.restaurantService = restaurantService;
+        this.orderIntakeQueue = orderIntakeQueue;
+        this.restaurantRollupService = restaurantRollupService;
     }
 
   
@@ -84,21 +110,108 @@ public ResponseEntity<Map<String, Object>> createRestaurant(@RequestBody ApiCrea
         return ResponseBuilder.buildOkResponse(restaurantWithRatingOptional.get());
     }
 
-  
+    /**
+     * Order, item, revenue and rating counters of a restaurant per hour or per day, read from the
+     * rollup table only. Without a range the last 24 hours, or the last 30 days, are returned.
+     */
+    @GetMapping("/api/restaurants/{id}/dashboard")
+    public ResponseEntity<Object> getRestaurantDashboard(
+            @PathVariable int id,
+            @RequestParam(name = "granularity", defaultValue = "hour") String granularityName,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        RollupGranularity granularity = RollupGranularity.fromName(granularityName);
+        if (granularity == null) {
+            return ResponseBuilder.buildBadRequestExceptionResponse(
+                    new BadRequestException("Invalid or missing parameters", "granularity must be hour or day"));
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from
+                : granularity == RollupGranularity.HOUR ? end.minusHours(24) : end.minusDays(30);
+        long buckets = granularity == RollupGranularity.HOUR
+                ? ChronoUnit.HOURS.between(start, end) : ChronoUnit.DAYS.between(start, end);
+        if (!start.isBefore(end) || buckets > MAX_DASHBOARD_BUCKETS) {
+            return ResponseBuilder.buildBadRequestExceptionResponse(new BadRequestException("Invalid or missing parameters",
+                    "from must be before to and the range may hold at most " + MAX_DASHBOARD_BUCKETS + " buckets"));
+        }
+        return ResponseBuilder.buildOkResponse(
+                restaurantRollupService.getDashboard(id, granularity, granularity.bucketStart(start), end));
+    }
 
      @GetMapping("/api/restaurants")
      public ResponseEntity<Object> getAllRestaurants(
          @RequestParam(name = "rating", required = false) Integer rating,
-         @RequestParam(name = "price_range", required = false) Integer priceRange) {
+         @RequestParam(name = "price_range", required = false) Integer priceRange,
+         @RequestParam(name = "limit", required = false) Integer limit,
+         @RequestParam(name = "cursor", required = false) String cursor,
+         @RequestParam(name = "sort", required = false) String sort) {
      
          // Validate the parameters
-         if ((rating != null && (rating < 1 || rating > 5)) || 
-             (priceRange != null && (priceRange < 1 || priceRange > 3))) {
+         if (!isValidFilter(rating, priceRange) ||
+             (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE))) {
              return new ResponseEntity<>("Invalid parameters", HttpStatus.BAD_REQUEST);
          }
-     
-         return ResponseBuilder.buildOkResponse(restaurantService.findRestaurantsByRatingAndPriceRange(rating, priceRange));
+
+         // Without any paging parameter the full filtered list is returned, as before
+         if (limit == null && cursor == null && sort == null) {
+             return ResponseBuilder.buildOkResponse(restaurantService.findRestaurantsByRatingAndPriceRange(rating, priceRange));
+         }
+
+         try {
+             int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+             return ResponseBuilder.buildOkResponse(restaurantService.findRestaurantsPage(rating, priceRange, sort, cursor, pageSize));
+         } catch (BadRequestException ex) {
+             return ResponseBuilder.buildBadRequestExceptionResponse(ex);
+         }
      }
+
+     @GetMapping("/api/restaurants/facets")
+     public ResponseEntity<Object> getRestaurantFacets(
+         @RequestParam(name = "rating", required = false) Integer rating,
+         @RequestParam(name = "price_range", required = false) Integer priceRange) {
+
+         if (!isValidFilter(rating, priceRange)) {
+             return new ResponseEntity<>("Invalid parameters", HttpStatus.BAD_REQUEST);
+         }
+
+         return ResponseBuilder.buildOkResponse(restaurantService.getRestaurantFacets(rating, priceRange));
+     }
+
+     /**
+      * The rating and price_range filters shared by GET /api/restaurants, /facets and /nearby: a
+      * rating of 1 to 5 stars and a price range of 1 to 3, each optional.
+      */
+     private static boolean isValidFilter(Integer rating, Integer priceRange) {
+         return (rating == null || (rating >= 1 && rating <= RestaurantCatalogIndex.MAX_RATING))
+                 && (priceRange == null || (priceRange >= 1 && priceRange <= RestaurantCatalogIndex.MAX_PRICE_RANGE));
+     }
+
+     /**
+      * The restaurants closest to a point, at most radius km away, closest first. The rating and
+      * price_range filters are the ones of GET /api/restaurants.
+      */
+     @GetMapping("/api/restaurants/nearby")
+     public ResponseEntity<Object> getNearbyRestaurants(
+         @RequestParam(name = "lat") double latitude,
+         @RequestParam(name = "lng") double longitude,
+         @RequestParam(name = "radius", required = false) Double radiusKm,
+         @RequestParam(name = "limit", required = false) Integer limit,
+         @RequestParam(name = "rating", required = false) Integer rating,
+         @RequestParam(name = "price_range", required = false) Integer priceRange) {
+
+         double radius = radiusKm != null ? radiusKm : DEFAULT_NEARBY_RADIUS_KM;
+         int pageSize = limit != null ? limit : DEFAULT_NEARBY_LIMIT;
+         if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180
+                 || !(radius > 0 && radius <= MAX_NEARBY_RADIUS_KM)
+                 || pageSize < 1 || pageSize > MAX_PAGE_SIZE
+                 || !isValidFilter(rating, priceRange)) {
+             return new ResponseEntity<>("Invalid parameters", HttpStatus.BAD_REQUEST);
+         }
+
+         return ResponseBuilder.buildOkResponse(
+                 restaurantService.findNearbyRestaurants(latitude, longitude, radius, pageSize, rating, priceRange));
+     }
+
      @GetMapping("/api/products")
 public ResponseEntity<?> getProductsForRestaurant(@RequestParam int restaurant) {
     List<Map<String, Object>> products = restaurantService.getProductsForRestaurant(restaurant);
@@ -120,6 +233,20 @@ public ResponseEntity<?> changeOrderStatus(@PathVariable("order_id") int orderId
         return ResponseBuilder.buildBadRequestExceptionResponse(ex);
     } catch (ResourceNotFoundException ex) {
         return ResponseBuilder.buildResourceNotFoundExceptionResponse(ex);
+    } catch (ConflictException ex) {
+        return ResponseBuilder.buildConflictExceptionResponse(ex);
+    }
+}
+
+@PostMapping("/api/{order_id}/rating")
+public ResponseEntity<?> rateOrder(@PathVariable("order_id") int orderId, @RequestBody ApiRestaurantRatingDTO body) {
+    try {
+        restaurantService.rateOrder(orderId, body.getRestaurant_rating());
+        return ResponseBuilder.buildOkResponse(body);
+    } catch (BadRequestException ex) {
+        return ResponseBuilder.buildBadRequestExceptionResponse(ex);
+    } catch (ResourceNotFoundException ex) {
+        return ResponseBuilder.buildResourceNotFoundExceptionResponse(ex);
     }
 }
 
@@ -127,7 +254,7 @@ public ResponseEntity<?> changeOrderStatus(@PathVariable("order_id") int orderId
 @GetMapping("/api/orders")
 public ResponseEntity<Object> getOrdersByUserTypeAndId(@RequestParam String type, @RequestParam int id) {
     try {
-        List<Map<String, Object>> orders = restaurantService.getOrdersByUserTypeAndId(type, id);
+        List<ApiOrderDTO> orders = restaurantService.getOrdersByUserTypeAndId(type, id);
         if (orders.isEmpty()) {
             return ResponseBuilder.buildResourceNotFoundExceptionResponse(new ResourceNotFoundException("No orders found"));
         }
@@ -136,17 +263,29 @@ public ResponseEntity<Object> getOrdersByUserTypeAndId(@RequestParam String type
         return ResponseBuilder.buildBadRequestExceptionResponse(new BadRequestException("Invalid or missing parameters", null));
     }
 }
+@GetMapping(value = "/api/orders", params = "limit")
+public ResponseEntity<Object> getOrdersPage(@RequestParam String type, @RequestParam int id,
+                                            @RequestParam int limit,
+                                            @RequestParam(required = false) Integer before,
+                                            @RequestParam(required = false) Integer after,
+                                            @RequestParam(required = false) List<String> status) {
+    if (limit < 1 || limit > MAX_PAGE_SIZE || (before != null && after != null)) {
+        return ResponseBuilder.buildBadRequestExceptionResponse(new BadRequestException("Invalid or missing parameters", null));
+    }
+    try {
+        return ResponseBuilder.buildOkResponse(restaurantService.getOrdersPage(type, id, status, before, after, limit));
+    } catch (IllegalArgumentException e) {
+        return ResponseBuilder.buildBadRequestExceptionResponse(new BadRequestException("Invalid or missing parameters", null));
+    }
+}
 @PostMapping("/api/orders")
 public ResponseEntity<Object> createOrder(@RequestBody Map<String, Object> request) {
     try {
-        if (!request.containsKey("courier_id")) {
-            return ResponseBuilder.buildBadRequestExceptionResponse(new BadRequestException("Courier id is missing", null));
-        }
-
-        int courierId = (int) request.get("courier_id"); // Extract the courier_id from the request
+        // Without a courier_id, or with 0, a free courier is assigned when the order is written
+        int courierId = request.get("courier_id") != null ? (int) request.get("courier_id") : 0;
 
         // Check if courierId exists
-        if (courierId <= 0) {
+        if (courierId < 0) {
             return ResponseBuilder.buildBadRequestExceptionResponse(new BadRequestException("Courier id does not exist", null));
         }
 
@@ -154,6 +293,23 @@ public ResponseEntity<Object> createOrder(@RequestBody Map<String, Object> reque
         int customerId = (int) request.get("customer_id");
         List<Map<String, Integer>> products = (List<Map<String, Integer>>) request.get("products");
 
+        // In asynchronous intake mode the order is only queued here and written by the intake writers
+        if (orderIntakeQueue.isEnabled()) {
+            if (restaurantId <= 0 || customerId <= 0 || products == null || products.isEmpty()) {
+                throw new IllegalArgumentException("Missing parameters for creating order");
+            }
+            ApiCreateOrderDTO queuedOrder = new ApiCreateOrderDTO();
+            queuedOrder.setRestaurant_id(restaurantId);
+            queuedOrder.setCustomer_id(customerId);
+            queuedOrder.setCourier_id(courierId);
+            queuedOrder.setProducts(products);
+            Optional<String> trackingId = orderIntakeQueue.submit(queuedOrder);
+            if (!trackingId.isPresent()) {
+                return ResponseBuilder.buildServiceUnavailableResponse("Order intake queue is full, retry later");
+            }
+            return ResponseBuilder.buildAcceptedResponse(orderIntakeQueue.getStatus(trackingId.get()).orElse(null));
+        }
+
         // Try to create the order
         Map<String, Object> order = restaurantService.createOrder(restaurantId, customerId, courierId, products); 
 
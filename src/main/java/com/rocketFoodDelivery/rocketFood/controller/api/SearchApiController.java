@@ -0,0 +1,40 @@
+package com.rocketFoodDelivery.rocketFood.controller.api;
+
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.service.MenuSearchIndex;
+import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class SearchApiController {
+    private static final int DEFAULT_LIMIT = 20;
+    private static final int MAX_LIMIT = 100;
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    private final MenuSearchIndex menuSearchIndex;
+
+    @Autowired
+    public SearchApiController(MenuSearchIndex menuSearchIndex) {
+        this.menuSearchIndex = menuSearchIndex;
+    }
+
+    /**
+     * Restaurants and dishes whose name or description holds every word of q, or a word starting
+     * with it, best match first. Answered from the in-memory search index only.
+     */
+    @GetMapping("/api/search")
+    public ResponseEntity<Object> search(@RequestParam(name = "q") String query,
+                                         @RequestParam(name = "limit", required = false) Integer limit) {
+        int pageSize = limit != null ? limit : DEFAULT_LIMIT;
+        if (query.isBlank() || query.length() > MAX_QUERY_LENGTH || pageSize < 1 || pageSize > MAX_LIMIT) {
+            return ResponseBuilder.buildBadRequestExceptionResponse(new BadRequestException("Invalid or missing parameters",
+                    "q must hold 1 to " + MAX_QUERY_LENGTH + " characters and limit be between 1 and " + MAX_LIMIT));
+        }
+        return ResponseBuilder.buildOkResponse(menuSearchIndex.search(query, pageSize));
+    }
+}
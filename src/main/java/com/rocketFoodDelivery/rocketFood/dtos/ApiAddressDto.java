@@ -25,4 +25,8 @@ public class ApiAddressDto {
     @JsonProperty("postal_code")
     @NotNull
     private String postalCode;
+
+    private Double latitude;
+
+    private Double longitude;
 }
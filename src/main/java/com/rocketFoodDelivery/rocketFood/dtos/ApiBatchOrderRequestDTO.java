@@ -0,0 +1,12 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class ApiBatchOrderRequestDTO {
+    List<ApiCreateOrderDTO> orders;
+}
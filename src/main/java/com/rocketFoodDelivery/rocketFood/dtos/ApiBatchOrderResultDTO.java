@@ -0,0 +1,29 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+// Outcome of one order of a batch, index is its position in the request.
+public class ApiBatchOrderResultDTO {
+    int index;
+    boolean success;
+    Integer order_id;
+    String error;
+
+    public static ApiBatchOrderResultDTO created(int index, int orderId) {
+        return new ApiBatchOrderResultDTO(index, true, orderId, null);
+    }
+
+    public static ApiBatchOrderResultDTO failed(int index, String error) {
+        return new ApiBatchOrderResultDTO(index, false, null, error);
+    }
+}
@@ -0,0 +1,17 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+// One GPS ping of a courier, recorded_at in epoch milliseconds.
+public class ApiCourierLocationDTO {
+    double latitude;
+    double longitude;
+    long recorded_at;
+}
@@ -0,0 +1,21 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+// Body of POST /api/couriers/{courier_id}/locations: either a single ping or a batch under locations.
+// A missing recorded_at means now.
+public class ApiCourierLocationRequestDTO {
+    Double latitude;
+    Double longitude;
+    Long recorded_at;
+    List<ApiCourierLocationDTO> locations;
+}
@@ -0,0 +1,19 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+// Latest position of a courier and its positions over the requested window, oldest first.
+public class ApiCourierTrailDTO {
+    int courier_id;
+    ApiCourierLocationDTO latest;
+    List<ApiCourierLocationDTO> trail;
+}
@@ -0,0 +1,17 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+@Getter
+@Setter
+// One order of a POST /api/orders/batch request, same fields as the single order endpoint.
+public class ApiCreateOrderDTO {
+    int restaurant_id;
+    int customer_id;
+    int courier_id;
+    List<Map<String, Integer>> products;
+}
@@ -0,0 +1,26 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiNearbyRestaurantDto {
+    int id;
+
+    String name;
+
+    @JsonProperty("price_range")
+    int priceRange;
+
+    int rating;
+
+    @JsonProperty("distance_km")
+    double distanceKm;
+}
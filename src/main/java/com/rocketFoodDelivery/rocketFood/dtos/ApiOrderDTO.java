@@ -12,11 +12,15 @@ public class ApiOrderDTO {
     int id ;
     int customer_id;
     String customer_name;
+    String customer_email;
     String customer_address;
     int restaurant_id;
     String restaurant_name;
     String restaurant_address;
+    int courier_id;
+    String courier_name;
     String status;
+    Integer restaurant_rating;
     List <ApiProductForOrderApiDTO> products;
     long total_cost;
 }
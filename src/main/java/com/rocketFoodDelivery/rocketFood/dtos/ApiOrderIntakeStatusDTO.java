@@ -0,0 +1,21 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+// Status of an order accepted by the asynchronous intake queue: queued, created or failed.
+public class ApiOrderIntakeStatusDTO {
+    String tracking_id;
+    String status;
+    Integer order_id;
+    String error;
+}
@@ -0,0 +1,19 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+// One page of order history, newest first. Pass next_before/next_after back as before/after to move on.
+public class ApiOrderPageDTO {
+    List<ApiOrderDTO> orders;
+    Integer next_before;
+    Integer next_after;
+}
@@ -0,0 +1,19 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+// Pushed to the order and customer event streams whenever an order changes status.
+public class ApiOrderStatusEventDTO {
+    int order_id;
+    int customer_id;
+    String status;
+    int version;
+    long changed_at;
+}
@@ -0,0 +1,23 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiRestaurantFacetsDto {
+    int total;
+
+    @JsonProperty("price_range")
+    Map<Integer, Integer> priceRange;
+
+    Map<Integer, Integer> rating;
+}
@@ -0,0 +1,22 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ApiRestaurantPageDto {
+    List<ApiRestaurantDto> restaurants;
+
+    // Opaque token for the next page, null on the last page.
+    @JsonProperty("next_cursor")
+    String nextCursor;
+}
@@ -0,0 +1,23 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+// One hour or day of a restaurant dashboard, read from restaurant_order_rollups.
+public class ApiRestaurantRollupDTO {
+    String bucket_start;
+    int orders;
+    int items;
+    long revenue;
+    BigDecimal average_rating;
+    Map<String, Integer> orders_by_status;
+}
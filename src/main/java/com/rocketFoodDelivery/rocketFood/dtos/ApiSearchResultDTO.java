@@ -0,0 +1,21 @@
+package com.rocketFoodDelivery.rocketFood.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+// One GET /api/search hit: a restaurant, or a product with the restaurant serving it.
+public class ApiSearchResultDTO {
+    String type;
+    int id;
+    String name;
+    String description;
+    int restaurant_id;
+    String restaurant_name;
+    double score;
+}
@@ -23,4 +23,7 @@ public class Address {
     private String city;
     @Column(name = "postal_code", nullable = false)
     private String postalCode;
+    // WGS84 coordinates, null until the address is geocoded
+    private Double latitude;
+    private Double longitude;
 }
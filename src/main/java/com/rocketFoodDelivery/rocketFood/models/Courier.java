@@ -1,5 +1,6 @@
 package com.rocketFoodDelivery.rocketFood.models;
 
+import com.rocketFoodDelivery.rocketFood.security.UserRoleChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import lombok.AllArgsConstructor;
@@ -14,6 +15,7 @@ import org.hibernate.annotations.OnDeleteAction;
 @AllArgsConstructor
 @Builder
 @Entity
+@EntityListeners(UserRoleChangeListener.class)
 public class Courier {
     @Id
     @GeneratedValue( strategy = GenerationType.IDENTITY)
@@ -21,7 +23,7 @@ public class Courier {
 
     @ManyToOne(cascade = CascadeType.REMOVE)
     @OnDelete(action = OnDeleteAction.CASCADE)
-    @JoinColumn(name = "user_id",unique = true ,nullable = false)
+    @JoinColumn(name = "user_id",unique = true ,nullable = false, updatable = false)
     private UserEntity userEntity;
 
     @ManyToOne(cascade = CascadeType.REMOVE)
@@ -0,0 +1,39 @@
+package com.rocketFoodDelivery.rocketFood.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Downsampled courier position history. Live pings stay in memory in the courier location ring
+ * buffers and only one position per persist interval is written here, in bulk.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "courier_locations", indexes = {
+        @Index(name = "idx_courier_locations_courier_time", columnList = "courier_id, recorded_at")
+})
+public class CourierLocation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "courier_id", nullable = false)
+    private int courierId;
+
+    @Column(nullable = false)
+    private double latitude;
+
+    @Column(nullable = false)
+    private double longitude;
+
+    @Column(name = "recorded_at", nullable = false, columnDefinition = "datetime(3)")
+    private LocalDateTime recordedAt;
+}
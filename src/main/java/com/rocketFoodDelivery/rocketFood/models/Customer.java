@@ -1,5 +1,6 @@
 package com.rocketFoodDelivery.rocketFood.models;
 
+import com.rocketFoodDelivery.rocketFood.security.UserRoleChangeListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Email;
 import lombok.AllArgsConstructor;
@@ -15,13 +16,14 @@ import org.hibernate.annotations.OnDeleteAction;
 @Builder
 @Entity
 @Table(name = "customers")
+@EntityListeners(UserRoleChangeListener.class)
 public class Customer {
     @Id
     @GeneratedValue( strategy = GenerationType.IDENTITY)
     private int id;
 
     @OneToOne
-    @JoinColumn(name = "user_id", unique = true , nullable = false)
+    @JoinColumn(name = "user_id", unique = true , nullable = false, updatable = false)
     private UserEntity userEntity;
 
     @ManyToOne(cascade = CascadeType.REMOVE)
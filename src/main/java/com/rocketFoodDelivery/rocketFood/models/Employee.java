@@ -1,5 +1,6 @@
 package com.rocketFoodDelivery.rocketFood.models;
 
+import com.rocketFoodDelivery.rocketFood.security.UserRoleChangeListener;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -12,13 +13,14 @@ import lombok.NoArgsConstructor;
 @Builder
 @Entity
 @Table(name = "employees")
+@EntityListeners(UserRoleChangeListener.class)
 public class Employee {
     @Id
     @GeneratedValue( strategy = GenerationType.IDENTITY)
     private int id;
 
     @OneToOne(cascade = CascadeType.REMOVE)
-    @JoinColumn(name = "user_id",unique = true , nullable = false)
+    @JoinColumn(name = "user_id",unique = true , nullable = false, updatable = false)
     private UserEntity userEntity;
 
     @OneToOne(cascade = CascadeType.REMOVE)
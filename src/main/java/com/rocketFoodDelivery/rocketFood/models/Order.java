@@ -10,12 +10,19 @@ import lombok.NoArgsConstructor;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
 
+import java.time.LocalDateTime;
+
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_customer_status", columnList = "customer_id, status_id"),
+        @Index(name = "idx_orders_courier_status", columnList = "courier_id, status_id"),
+        @Index(name = "idx_orders_restaurant_status", columnList = "restaurant_id, status_id"),
+        @Index(name = "idx_orders_status_delivered_at", columnList = "status_id, delivered_at")
+})
 public class Order {
     @Id
     @GeneratedValue( strategy = GenerationType.IDENTITY)
@@ -46,6 +53,36 @@ public class Order {
     @Max(5)
     private int restaurant_rating;
 
+    // Sum of quantity * unit cost of the lines, fixed when the order is placed; null until backfilled
+    @Column(name = "total_cost")
+    private Integer total_cost;
+
+    // Lifecycle timestamps; rows that predate them are dated when the columns were added
+    @Column(name = "created_at", nullable = false, columnDefinition = "datetime default CURRENT_TIMESTAMP")
+    private LocalDateTime created_at;
+
+    @Column(name = "status_changed_at", nullable = false, columnDefinition = "datetime default CURRENT_TIMESTAMP")
+    private LocalDateTime status_changed_at;
+
+    // Set by the transition to delivered; the order archiver moves orders delivered long enough ago
+    @Column(name = "delivered_at")
+    private LocalDateTime delivered_at;
+
+    // Bumped by every status transition, which only applies when the version it read is still current
+    @Version
+    @Column(nullable = false, columnDefinition = "int default 0")
+    private int version;
+
+    @PrePersist
+    private void stampCreation() {
+        if (created_at == null) {
+            created_at = LocalDateTime.now();
+        }
+        if (status_changed_at == null) {
+            status_changed_at = created_at;
+        }
+    }
+
     public void setOrderStatus(OrderStatus order_status) {
         this.order_status = order_status;
     }
@@ -0,0 +1,55 @@
+package com.rocketFoodDelivery.rocketFood.models;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The states an order goes through, named after their order_statuses rows.
+ * An order moves pending -> in progress -> delivered and can be cancelled until it is delivered.
+ */
+public enum OrderLifecycle {
+    PENDING("pending"),
+    IN_PROGRESS("in progress"),
+    DELIVERED("delivered"),
+    CANCELLED("cancelled");
+
+    private final String statusName;
+
+    OrderLifecycle(String statusName) {
+        this.statusName = statusName;
+    }
+
+    public String getStatusName() {
+        return statusName;
+    }
+
+    public Set<OrderLifecycle> nextStates() {
+        switch (this) {
+            case PENDING:
+                return EnumSet.of(IN_PROGRESS, CANCELLED);
+            case IN_PROGRESS:
+                return EnumSet.of(DELIVERED, CANCELLED);
+            default:
+                return EnumSet.noneOf(OrderLifecycle.class);
+        }
+    }
+
+    public boolean canMoveTo(OrderLifecycle next) {
+        return nextStates().contains(next);
+    }
+
+    /**
+     * @return The state with the given status name, ignoring case, or null when there is none.
+     */
+    public static OrderLifecycle fromStatusName(String statusName) {
+        if (statusName == null) {
+            return null;
+        }
+        for (OrderLifecycle state : values()) {
+            if (state.statusName.equalsIgnoreCase(statusName.trim())) {
+                return state;
+            }
+        }
+        return null;
+    }
+}
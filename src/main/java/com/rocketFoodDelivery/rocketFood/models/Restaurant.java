@@ -15,7 +15,11 @@ import org.hibernate.annotations.OnDeleteAction;
 @AllArgsConstructor
 @Builder
 @Entity
-@Table(name = "restaurants")
+@Table(name = "restaurants", indexes = {
+        @Index(name = "idx_restaurants_price_range_id", columnList = "price_range, id"),
+        @Index(name = "idx_restaurants_name_id", columnList = "name, id"),
+        @Index(name = "idx_restaurants_rating_id", columnList = "rating DESC, id")
+})
 public class Restaurant {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -44,4 +48,26 @@ public class Restaurant {
 
     @Column(nullable = false)
     private String email;
+
+    // Running totals of orders.restaurant_rating, maintained on every order write
+    // so reads never have to aggregate the orders table.
+    @Column(name = "rating_sum", nullable = false, columnDefinition = "int default 0")
+    private int ratingSum;
+
+    @Column(name = "rating_count", nullable = false, columnDefinition = "int default 0")
+    private int ratingCount;
+
+    // Share of the totals above that comes from orders moved to the order archive,
+    // so the aggregates can still be rebuilt once those orders left the orders table.
+    @Column(name = "archived_rating_sum", nullable = false, columnDefinition = "int default 0")
+    private int archivedRatingSum;
+
+    @Column(name = "archived_rating_count", nullable = false, columnDefinition = "int default 0")
+    private int archivedRatingCount;
+
+    // Average rating rounded up, 0 when unrated. MySQL recomputes it whenever the totals above
+    // change, so sorting and filtering by rating can use an index.
+    @Column(name = "rating", insertable = false, updatable = false,
+            columnDefinition = "int GENERATED ALWAYS AS (COALESCE(CEIL(rating_sum / NULLIF(rating_count, 0)), 0)) STORED")
+    private int rating;
 }
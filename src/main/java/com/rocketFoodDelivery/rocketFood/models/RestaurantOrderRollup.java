@@ -0,0 +1,66 @@
+package com.rocketFoodDelivery.rocketFood.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Per restaurant counters for the orders placed in one hour or one day.
+ * Rows are upserted by the order write paths, never read back by them, and are what the restaurant
+ * dashboard reads instead of aggregating orders and product_orders. The status counts say where the
+ * orders placed in the bucket are now, so a transition moves one order between two counts.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "restaurant_order_rollups", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_rollups_restaurant_bucket", columnNames = {"restaurant_id", "granularity", "bucket_start"})
+})
+public class RestaurantOrderRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(name = "restaurant_id", nullable = false)
+    private int restaurantId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 8)
+    private RollupGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(name = "orders_placed", nullable = false, columnDefinition = "int default 0")
+    private int ordersPlaced;
+
+    @Column(nullable = false, columnDefinition = "int default 0")
+    private int items;
+
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long revenue;
+
+    @Column(name = "rating_sum", nullable = false, columnDefinition = "int default 0")
+    private int ratingSum;
+
+    @Column(name = "rating_count", nullable = false, columnDefinition = "int default 0")
+    private int ratingCount;
+
+    @Column(name = "pending_count", nullable = false, columnDefinition = "int default 0")
+    private int pendingCount;
+
+    @Column(name = "in_progress_count", nullable = false, columnDefinition = "int default 0")
+    private int inProgressCount;
+
+    @Column(name = "delivered_count", nullable = false, columnDefinition = "int default 0")
+    private int deliveredCount;
+
+    @Column(name = "cancelled_count", nullable = false, columnDefinition = "int default 0")
+    private int cancelledCount;
+}
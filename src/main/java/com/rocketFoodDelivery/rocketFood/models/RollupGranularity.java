@@ -0,0 +1,40 @@
+package com.rocketFoodDelivery.rocketFood.models;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Bucket sizes of {@link RestaurantOrderRollup}.
+ */
+public enum RollupGranularity {
+    HOUR(ChronoUnit.HOURS, "%Y-%m-%d %H:00:00"),
+    DAY(ChronoUnit.DAYS, "%Y-%m-%d 00:00:00");
+
+    private final ChronoUnit unit;
+    private final String sqlFormat;
+
+    RollupGranularity(ChronoUnit unit, String sqlFormat) {
+        this.unit = unit;
+        this.sqlFormat = sqlFormat;
+    }
+
+    public LocalDateTime bucketStart(LocalDateTime time) {
+        return time.truncatedTo(unit);
+    }
+
+    /**
+     * @return The MySQL DATE_FORMAT pattern that truncates a datetime to the start of its bucket.
+     */
+    public String getSqlFormat() {
+        return sqlFormat;
+    }
+
+    public static RollupGranularity fromName(String name) {
+        for (RollupGranularity granularity : values()) {
+            if (granularity.name().equalsIgnoreCase(name)) {
+                return granularity;
+            }
+        }
+        return null;
+    }
+}
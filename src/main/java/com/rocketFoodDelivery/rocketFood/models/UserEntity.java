@@ -31,8 +31,16 @@ public class UserEntity implements UserDetails {
     private String email;
     private String password;
 
+    // Bumped to revoke every access token issued to the user so far
+    @Column(name = "token_version", nullable = false, columnDefinition = "int default 0")
+    private int tokenVersion;
+
     @Transient // This annotation indicates that this field is not part of the database schema
     private boolean isEmployee;
+    @Transient
+    private Integer customerId;
+    @Transient
+    private Integer courierId;
     @JsonIgnore
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
@@ -41,6 +49,12 @@ public class UserEntity implements UserDetails {
         if (isEmployee()) {
             authorities.add(new SimpleGrantedAuthority("ROLE_EMPLOYEE"));
         }
+        if (customerId != null) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_CUSTOMER"));
+        }
+        if (courierId != null) {
+            authorities.add(new SimpleGrantedAuthority("ROLE_COURIER"));
+        }
         return authorities;
     }
 
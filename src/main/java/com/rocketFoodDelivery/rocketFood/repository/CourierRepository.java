@@ -2,11 +2,16 @@ package com.rocketFoodDelivery.rocketFood.repository;
 
 import com.rocketFoodDelivery.rocketFood.models.Courier;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CourierRepository extends JpaRepository <Courier, Integer> {
     Optional<Courier> findByUserEntityId(int id);
+
+    @Query("SELECT c.id FROM Courier c")
+    List<Integer> findAllIds();
 }
@@ -8,6 +8,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,10 +23,47 @@ public interface OrderRepository extends JpaRepository<Order, Integer> {
     @Query(nativeQuery = true, value = "TODO Write SQL query here")
     List<Order> findOrdersByRestaurantId(@Param("restaurantId") int restaurantId);
 
-    // TODO
-   
-        @Modifying
-        @Transactional
-        @Query("update Order o set o.order_status.name = :status where o.id = :orderId")
-        void updateOrderStatus(@Param("orderId") int orderId, @Param("status") String status);
-    }
\ No newline at end of file
+    /**
+     * @return At most one row of (status_id, version, customer_id, restaurant_id, created_at, courier_id) for the order.
+     */
+    @Query(nativeQuery = true, value = "SELECT status_id, version, customer_id, restaurant_id, created_at, courier_id FROM orders WHERE id = :orderId")
+    List<Object[]> findStatusSnapshot(@Param("orderId") int orderId);
+
+    /**
+     * Moves an order to another status only if it still has the status and version it was read with.
+     * status_changed_at is set to changedAt, and so is delivered_at when the order is moved to the delivered status.
+     *
+     * @return 1 when the transition applied, 0 when another update got there first.
+     */
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value =
+            "UPDATE orders SET status_id = :toStatusId, version = version + 1, status_changed_at = :changedAt, " +
+            "delivered_at = IF(:delivered, :changedAt, delivered_at) " +
+            "WHERE id = :orderId AND status_id = :fromStatusId AND version = :version")
+    int transitionStatus(@Param("orderId") int orderId,
+                         @Param("fromStatusId") int fromStatusId,
+                         @Param("version") int version,
+                         @Param("toStatusId") int toStatusId,
+                         @Param("delivered") boolean delivered,
+                         @Param("changedAt") LocalDateTime changedAt);
+
+    @Query(nativeQuery = true, value = "SELECT COALESCE(MAX(id), 0) FROM orders")
+    int findMaxId();
+
+    /**
+     * Computes total_cost from the line items' unit costs for orders saved without one.
+     *
+     * @return The number of orders updated.
+     */
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value =
+        "UPDATE orders o " +
+        "JOIN (SELECT order_id, SUM(product_quantity * product_unit_cost) AS total_cost " +
+        "      FROM product_orders WHERE order_id BETWEEN :fromOrderId AND :toOrderId GROUP BY order_id) t " +
+        "  ON t.order_id = o.id " +
+        "SET o.total_cost = t.total_cost " +
+        "WHERE o.total_cost IS NULL AND o.id BETWEEN :fromOrderId AND :toOrderId")
+    int fillMissingTotalCosts(@Param("fromOrderId") int fromOrderId, @Param("toOrderId") int toOrderId);
+}
\ No newline at end of file
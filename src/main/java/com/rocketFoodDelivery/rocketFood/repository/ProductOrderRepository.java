@@ -20,6 +20,19 @@ public interface ProductOrderRepository extends JpaRepository<ProductOrder, Inte
     @Query(nativeQuery = true, value = "TODO Write SQL query here")
     void deleteProductOrdersByOrderId(@Param("orderId") int orderId);
 
+    /**
+     * Snapshots the current product cost on line items that were saved without a unit cost.
+     *
+     * @return The number of line items updated.
+     */
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value =
+        "UPDATE product_orders op JOIN products p ON p.id = op.product_id " +
+        "SET op.product_unit_cost = p.cost " +
+        "WHERE op.product_unit_cost IS NULL AND op.order_id BETWEEN :fromOrderId AND :toOrderId")
+    int fillMissingUnitCosts(@Param("fromOrderId") int fromOrderId, @Param("toOrderId") int toOrderId);
+
     Optional<ProductOrder> findById(int id);
     List<ProductOrder> findByOrderId(int id);
     List<ProductOrder> findByProductId(int id);
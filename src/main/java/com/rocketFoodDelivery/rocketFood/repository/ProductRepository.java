@@ -18,6 +18,21 @@ public interface ProductRepository extends JpaRepository<Product, Integer> {
     List <Product> findAll();
     List<Product> findByRestaurantId(int restaurantId);
 
+    /**
+     * Lists the searchable text of every product, for the search index.
+     *
+     * @return One row per product: id, restaurant id, name, description.
+     */
+    @Query(nativeQuery = true, value = "SELECT p.id, p.restaurant_id, p.name, p.description FROM products p")
+    List<Object[]> findSearchableProducts();
+
+    /**
+     * Same as {@link #findSearchableProducts()} for the products of one restaurant.
+     */
+    @Query(nativeQuery = true, value =
+        "SELECT p.id, p.restaurant_id, p.name, p.description FROM products p WHERE p.restaurant_id = :restaurantId")
+    List<Object[]> findSearchableProductsByRestaurantId(@Param("restaurantId") int restaurantId);
+
     
     @Query(nativeQuery = true, value = "TODO Write SQL query here")
     List<Product> findProductsByRestaurantId(@Param("restaurantId") int restaurantId);
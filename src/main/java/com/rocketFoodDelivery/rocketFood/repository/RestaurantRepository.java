@@ -17,7 +17,14 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, Integer>
     List<Restaurant> findAll();
 
     /**
-     * Finds a restaurant by its ID along with the calculated average rating rounded up to the ceiling.
+     * Lists the id and name of every restaurant, for the search index.
+     */
+    @Query(nativeQuery = true, value = "SELECT r.id, r.name FROM restaurants r")
+    List<Object[]> findSearchableRestaurants();
+
+    /**
+     * Finds a restaurant by its ID along with the average rating rounded up to the ceiling.
+     * The average is read from the stored rating column, derived from rating_sum/rating_count.
      *
      * @param restaurantId The ID of the restaurant to retrieve.
      * @return A list of Object arrays representing the selected columns from the query result.
@@ -25,18 +32,16 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, Integer>
      *         An empty list is returned if no restaurant is found with the specified ID.
      */
     @Query(nativeQuery = true, value =
-        "SELECT r.id, r.name, r.price_range, COALESCE(CEIL(SUM(o.restaurant_rating) / NULLIF(COUNT(o.id), 0)), 0) AS rating " +
+        "SELECT r.id, r.name, r.price_range, r.rating " +
         "FROM restaurants r " +
-        "LEFT JOIN orders o ON r.id = o.restaurant_id " +
-        "WHERE r.id = :restaurantId " +
-        "GROUP BY r.id")
+        "WHERE r.id = :restaurantId")
     List<Object[]> findRestaurantWithAverageRatingById(@Param("restaurantId") int restaurantId);
     
     /**
      * Finds restaurants based on the provided rating and price range.
      *
-     * Executes a native SQL query that retrieves restaurants with their information, including a calculated
-     * average rating rounded up to the ceiling.
+     * Executes a native SQL query that retrieves restaurants with their information, including the
+     * average rating rounded up to the ceiling, read from the stored rating column.
      *
      * @param rating     The minimum rounded-up average rating of the restaurants. (Optional)
      * @param priceRange The price range of the restaurants. (Optional)
@@ -46,15 +51,162 @@ public interface RestaurantRepository extends JpaRepository<Restaurant, Integer>
      */
     @Query(nativeQuery = true, value =
         "SELECT * FROM (" +
-        "   SELECT r.id, r.name, r.price_range, COALESCE(CEIL(SUM(o.restaurant_rating) / NULLIF(COUNT(o.id), 0)), 0) AS rating " +
+        "   SELECT r.id, r.name, r.price_range, r.rating " +
         "   FROM restaurants r " +
-        "   LEFT JOIN orders o ON r.id = o.restaurant_id " +
         "   WHERE (:priceRange IS NULL OR r.price_range = :priceRange) " +
-        "   GROUP BY r.id" +
         ") AS result " +
         "WHERE (:rating IS NULL OR result.rating = :rating)")
     List<Object[]> findRestaurantsByRatingAndPriceRange(@Param("rating") Integer rating, @Param("priceRange") Integer priceRange);
 
+    /**
+     * Keyset-paginated variant of {@link #findRestaurantsByRatingAndPriceRange}, ordered by id.
+     * Pass a null cursorId for the first page; the next page starts after the last id returned.
+     * Each page is an index range scan on the primary key, never an OFFSET scan.
+     */
+    @Query(nativeQuery = true, value =
+        "SELECT * FROM (" +
+        "   SELECT r.id, r.name, r.price_range, r.rating " +
+        "   FROM restaurants r " +
+        "   WHERE (:priceRange IS NULL OR r.price_range = :priceRange) " +
+        "   AND (:cursorId IS NULL OR r.id > :cursorId) " +
+        ") AS result " +
+        "WHERE (:rating IS NULL OR result.rating = :rating) " +
+        "ORDER BY result.id " +
+        "LIMIT :limit")
+    List<Object[]> findRestaurantsPageById(@Param("rating") Integer rating, @Param("priceRange") Integer priceRange,
+                                           @Param("cursorId") Integer cursorId, @Param("limit") int limit);
+
+    /**
+     * Keyset-paginated restaurants ordered by rating (highest first), then id.
+     * The cursor is the rating and id of the last restaurant of the previous page. Each page is a
+     * range scan of the (rating DESC, id) index on the stored rating column.
+     */
+    @Query(nativeQuery = true, value =
+        "SELECT r.id, r.name, r.price_range, r.rating " +
+        "FROM restaurants r " +
+        "WHERE (:priceRange IS NULL OR r.price_range = :priceRange) " +
+        "AND (:rating IS NULL OR r.rating = :rating) " +
+        "AND (:cursorId IS NULL OR r.rating < :cursorRating " +
+        "     OR (r.rating = :cursorRating AND r.id > :cursorId)) " +
+        "ORDER BY r.rating DESC, r.id " +
+        "LIMIT :limit")
+    List<Object[]> findRestaurantsPageByRating(@Param("rating") Integer rating, @Param("priceRange") Integer priceRange,
+                                               @Param("cursorRating") Integer cursorRating, @Param("cursorId") Integer cursorId,
+                                               @Param("limit") int limit);
+
+    /**
+     * Keyset-paginated restaurants ordered by price range, then id.
+     * The cursor is the price range and id of the last restaurant of the previous page.
+     */
+    @Query(nativeQuery = true, value =
+        "SELECT * FROM (" +
+        "   SELECT r.id, r.name, r.price_range, r.rating " +
+        "   FROM restaurants r " +
+        "   WHERE (:priceRange IS NULL OR r.price_range = :priceRange) " +
+        "   AND (:cursorId IS NULL OR (r.price_range, r.id) > (:cursorPriceRange, :cursorId)) " +
+        ") AS result " +
+        "WHERE (:rating IS NULL OR result.rating = :rating) " +
+        "ORDER BY result.price_range, result.id " +
+        "LIMIT :limit")
+    List<Object[]> findRestaurantsPageByPriceRange(@Param("rating") Integer rating, @Param("priceRange") Integer priceRange,
+                                                   @Param("cursorPriceRange") Integer cursorPriceRange, @Param("cursorId") Integer cursorId,
+                                                   @Param("limit") int limit);
+
+    /**
+     * Keyset-paginated restaurants ordered by name, then id.
+     * The cursor is the name and id of the last restaurant of the previous page.
+     */
+    @Query(nativeQuery = true, value =
+        "SELECT * FROM (" +
+        "   SELECT r.id, r.name, r.price_range, r.rating " +
+        "   FROM restaurants r " +
+        "   WHERE (:priceRange IS NULL OR r.price_range = :priceRange) " +
+        "   AND (:cursorId IS NULL OR (r.name, r.id) > (:cursorName, :cursorId)) " +
+        ") AS result " +
+        "WHERE (:rating IS NULL OR result.rating = :rating) " +
+        "ORDER BY result.name, result.id " +
+        "LIMIT :limit")
+    List<Object[]> findRestaurantsPageByName(@Param("rating") Integer rating, @Param("priceRange") Integer priceRange,
+                                             @Param("cursorName") String cursorName, @Param("cursorId") Integer cursorId,
+                                             @Param("limit") int limit);
+
+    /**
+     * Applies a delta to the persisted rating aggregates of a restaurant.
+     *
+     * @param restaurantId The ID of the restaurant to update.
+     * @param ratingDelta  The amount to add to rating_sum (negative to remove a rating).
+     * @param countDelta   The amount to add to rating_count (1 on insert, -1 on delete, 0 on re-rate).
+     * @return The number of rows updated, 0 if the restaurant does not exist.
+     */
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value =
+        "UPDATE restaurants SET rating_sum = rating_sum + :ratingDelta, rating_count = rating_count + :countDelta " +
+        "WHERE id = :restaurantId")
+    int adjustRatingAggregate(@Param("restaurantId") int restaurantId, @Param("ratingDelta") int ratingDelta, @Param("countDelta") int countDelta);
+
+    /**
+     * Finds restaurants whose persisted rating aggregates no longer match the orders table plus
+     * the archived share.
+     *
+     * @return One row per drifted restaurant: id, stored sum, stored count, actual sum, actual count.
+     */
+    @Query(nativeQuery = true, value =
+        "SELECT r.id, r.rating_sum, r.rating_count, " +
+        "       COALESCE(t.rating_sum, 0) + r.archived_rating_sum, COALESCE(t.rating_count, 0) + r.archived_rating_count " +
+        "FROM restaurants r " +
+        "LEFT JOIN (SELECT restaurant_id, SUM(restaurant_rating) AS rating_sum, COUNT(*) AS rating_count " +
+        "           FROM orders GROUP BY restaurant_id) t ON t.restaurant_id = r.id " +
+        "WHERE r.rating_sum <> COALESCE(t.rating_sum, 0) + r.archived_rating_sum " +
+        "   OR r.rating_count <> COALESCE(t.rating_count, 0) + r.archived_rating_count")
+    List<Object[]> findRatingAggregateDrift();
+
+    /**
+     * Rebuilds the rating aggregates of every drifted restaurant from the orders table plus the
+     * archived share.
+     *
+     * @return The number of restaurants that were corrected.
+     */
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value =
+        "UPDATE restaurants r " +
+        "LEFT JOIN (SELECT restaurant_id, SUM(restaurant_rating) AS rating_sum, COUNT(*) AS rating_count " +
+        "           FROM orders GROUP BY restaurant_id) t ON t.restaurant_id = r.id " +
+        "SET r.rating_sum = COALESCE(t.rating_sum, 0) + r.archived_rating_sum, " +
+        "    r.rating_count = COALESCE(t.rating_count, 0) + r.archived_rating_count " +
+        "WHERE r.rating_sum <> COALESCE(t.rating_sum, 0) + r.archived_rating_sum " +
+        "   OR r.rating_count <> COALESCE(t.rating_count, 0) + r.archived_rating_count")
+    int rebuildRatingAggregates();
+
+    /**
+     * Fills in the rating aggregates of a restaurant that has none yet from the orders table plus
+     * the archived share. Only touches a row whose rating_count is still 0, so concurrent callers
+     * cannot count the same orders twice.
+     *
+     * @return 1 when the aggregates were filled in, 0 otherwise.
+     */
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value =
+        "UPDATE restaurants r " +
+        "SET r.rating_sum = r.archived_rating_sum + " +
+        "        (SELECT COALESCE(SUM(o.restaurant_rating), 0) FROM orders o WHERE o.restaurant_id = r.id), " +
+        "    r.rating_count = r.archived_rating_count + " +
+        "        (SELECT COUNT(*) FROM orders o WHERE o.restaurant_id = r.id) " +
+        "WHERE r.id = :restaurantId AND r.rating_count = 0")
+    int backfillRatingAggregate(@Param("restaurantId") int restaurantId);
+
+    /**
+     * Reads the current rating aggregates of a restaurant, locking its row so the values are the
+     * latest committed ones rather than the transaction's snapshot.
+     *
+     * @return At most one row: rating_sum, rating_count.
+     */
+    @Query(nativeQuery = true, value =
+        "SELECT rating_sum, rating_count FROM restaurants WHERE id = :restaurantId FOR UPDATE")
+    List<Object[]> findRatingAggregateForUpdate(@Param("restaurantId") int restaurantId);
+
     
     @Modifying
     @Transactional
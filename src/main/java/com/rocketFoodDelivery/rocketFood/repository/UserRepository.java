@@ -2,8 +2,11 @@ package com.rocketFoodDelivery.rocketFood.repository;
 
 import com.rocketFoodDelivery.rocketFood.models.UserEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -16,5 +19,24 @@ public interface UserRepository extends JpaRepository <UserEntity, Integer> {
     List<UserEntity> findAllByOrderByIdDesc();
     Optional<UserEntity> findByEmail(String email);
 
+    /**
+     * Reads everything login needs about a user in one statement, without loading any entity.
+     *
+     * @return One row, or none for an unknown email: id, name, email, password, token version,
+     *         employee id, customer id and courier id (each null when the user is not one).
+     */
+    @Query(nativeQuery = true, value =
+        "SELECT u.id, u.name, u.email, u.password, u.token_version, " +
+        "       (SELECT e.id FROM employees e WHERE e.user_id = u.id), " +
+        "       (SELECT c.id FROM customers c WHERE c.user_id = u.id), " +
+        "       (SELECT co.id FROM courier co WHERE co.user_id = u.id) " +
+        "FROM users u WHERE u.email = :email")
+    List<Object[]> findLoginByEmail(@Param("email") String email);
+
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = "UPDATE users SET password = :password WHERE id = :userId")
+    int updatePassword(@Param("userId") int userId, @Param("password") String password);
+
 
 }
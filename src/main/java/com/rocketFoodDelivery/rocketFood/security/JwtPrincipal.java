@@ -0,0 +1,76 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What a verified access token says about its bearer. Everything the filter needs to authenticate
+ * a request is in the token's claims, so building this never touches the database.
+ */
+public class JwtPrincipal {
+    private final int id;
+    private final String email;
+    private final boolean employee;
+    private final Integer customerId;
+    private final Integer courierId;
+    private final int tokenVersion;
+    // Epoch millis of the token's exp claim, Long.MAX_VALUE when it has none
+    private final long expiresAt;
+
+    public JwtPrincipal(int id, String email, boolean employee, Integer customerId, Integer courierId,
+                        int tokenVersion, long expiresAt) {
+        this.id = id;
+        this.email = email;
+        this.employee = employee;
+        this.customerId = customerId;
+        this.courierId = courierId;
+        this.tokenVersion = tokenVersion;
+        this.expiresAt = expiresAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public boolean isEmployee() {
+        return employee;
+    }
+
+    public Integer getCustomerId() {
+        return customerId;
+    }
+
+    public Integer getCourierId() {
+        return courierId;
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    /**
+     * @return The same roles as UserEntity.getAuthorities for the user the token was issued to.
+     */
+    public List<String> getRoles() {
+        List<String> roles = new ArrayList<>();
+        if (employee) {
+            roles.add("ROLE_EMPLOYEE");
+        }
+        if (customerId != null) {
+            roles.add("ROLE_CUSTOMER");
+        }
+        if (courierId != null) {
+            roles.add("ROLE_COURIER");
+        }
+        return Collections.unmodifiableList(roles);
+    }
+}
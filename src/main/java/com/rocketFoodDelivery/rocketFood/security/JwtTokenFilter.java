@@ -16,11 +16,18 @@ import org.springframework.util.ObjectUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 public class JwtTokenFilter extends OncePerRequestFilter {
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final TokenVersionRegistry tokenVersionRegistry;
+
     @Autowired
-    private JwtUtil jwtUtil;
+    public JwtTokenFilter(VerifiedTokenCache verifiedTokenCache, TokenVersionRegistry tokenVersionRegistry) {
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.tokenVersionRegistry = tokenVersionRegistry;
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -34,12 +41,14 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 
         String token = getAccessToken(request);
 
-        if (!jwtUtil.validateAccessToken(token)) {
+        // One signature check and parse per token, and none at all while it is cached
+        Optional<JwtPrincipal> principal = verifiedTokenCache.resolve(token);
+        if (principal.isEmpty() || !tokenVersionRegistry.isCurrent(principal.get())) {
             filterChain.doFilter(request, response);
             return;
         }
 
-        setAuthenticationContext(token, request);
+        setAuthenticationContext(principal.get(), request);
         filterChain.doFilter(request, response);
     }
 
@@ -58,11 +67,11 @@ public class JwtTokenFilter extends OncePerRequestFilter {
         return token;
     }
 
-    private void setAuthenticationContext(String token, HttpServletRequest request) {
-        UserDetails userDetails = getUserDetails(token);
+    private void setAuthenticationContext(JwtPrincipal principal, HttpServletRequest request) {
+        UserDetails userDetails = getUserDetails(principal);
 
         UsernamePasswordAuthenticationToken
-                authentication = new UsernamePasswordAuthenticationToken(userDetails, null, null);
+                authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
 
         authentication.setDetails(
                 new WebAuthenticationDetailsSource().buildDetails(request));
@@ -70,12 +79,15 @@ public class JwtTokenFilter extends OncePerRequestFilter {
         SecurityContextHolder.getContext().setAuthentication(authentication);
     }
 
-    private UserDetails getUserDetails(String token) {
+    private UserDetails getUserDetails(JwtPrincipal principal) {
         UserEntity userDetails = new UserEntity();
-        String[] jwtSubject = jwtUtil.getSubject(token).split(",");
 
-        userDetails.setId(Integer.parseInt(jwtSubject[0]));
-        userDetails.setEmail(jwtSubject[1]);
+        userDetails.setId(principal.getId());
+        userDetails.setEmail(principal.getEmail());
+        userDetails.setEmployee(principal.isEmployee());
+        userDetails.setCustomerId(principal.getCustomerId());
+        userDetails.setCourierId(principal.getCourierId());
+        userDetails.setTokenVersion(principal.getTokenVersion());
 
         return userDetails;
     }
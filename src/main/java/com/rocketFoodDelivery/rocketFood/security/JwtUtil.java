@@ -2,28 +2,68 @@ package com.rocketFoodDelivery.rocketFood.security;
 
 import com.rocketFoodDelivery.rocketFood.models.UserEntity;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.util.Date;
+import java.util.Optional;
+
 @Component
 public class JwtUtil {
+    private static final String USER_ID_CLAIM = "uid";
+    private static final String EMPLOYEE_CLAIM = "emp";
+    private static final String CUSTOMER_ID_CLAIM = "customer_id";
+    private static final String COURIER_ID_CLAIM = "courier_id";
+    private static final String TOKEN_VERSION_CLAIM = "ver";
+
+    // Built once, the secret is base64 decoded the same way jjwt does for a String key
+    private final Key signingKey;
+    private final JwtParser parser;
 
-    @Value("${jwt.secret-key}")
-    private String secretKey;
+    @Autowired
+    public JwtUtil(@Value("${jwt.secret-key}") String secretKey) {
+        this.signingKey = new SecretKeySpec(TextCodec.BASE64.decode(secretKey), SignatureAlgorithm.HS512.getJcaName());
+        this.parser = Jwts.parser().setSigningKey(signingKey);
+    }
 
+    /**
+     * Issues a token carrying the user's id, employee flag, customer and courier ids and token
+     * version, so requests bearing it are authenticated from the token alone. The user must have
+     * been loaded through UserService.findLoginUser. The subject stays "id,email" for older readers.
+     */
     public String generateAccessToken(UserEntity user) {
-        return Jwts.builder()
+        JwtBuilder builder = Jwts.builder()
                 .setSubject(String.format("%s,%s", user.getId(), user.getEmail()))
-                .signWith(SignatureAlgorithm.HS512, secretKey)
-                .compact();
+                .claim(USER_ID_CLAIM, user.getId())
+                .claim(EMPLOYEE_CLAIM, user.isEmployee())
+                .claim(TOKEN_VERSION_CLAIM, user.getTokenVersion());
+        if (user.getCustomerId() != null) {
+            builder.claim(CUSTOMER_ID_CLAIM, user.getCustomerId());
+        }
+        if (user.getCourierId() != null) {
+            builder.claim(COURIER_ID_CLAIM, user.getCourierId());
+        }
+        return builder.signWith(SignatureAlgorithm.HS512, signingKey).compact();
     }
     private static final Logger LOGGER = LoggerFactory.getLogger(JwtUtil.class);
     public boolean validateAccessToken(String token) {
+        return verify(token).isPresent();
+    }
+
+    /**
+     * Checks the token's signature and expiry and reads its bearer, in a single parse.
+     *
+     * @return The bearer, or empty when the token is not valid.
+     */
+    public Optional<JwtPrincipal> verify(String token) {
         try {
-            Jwts.parser().setSigningKey(secretKey).parseClaimsJws(token);
-            return true;
+            return Optional.of(toPrincipal(parseClaims(token)));
         } catch (ExpiredJwtException ex) {
             LOGGER.error("JWT expired", ex.getMessage());
         } catch (IllegalArgumentException ex) {
@@ -34,8 +74,10 @@ public class JwtUtil {
             LOGGER.error("JWT is not supported", ex);
         } catch (SignatureException ex) {
             LOGGER.error("Signature validation failed");
+        } catch (RequiredTypeException | IndexOutOfBoundsException ex) {
+            LOGGER.error("JWT claims are invalid", ex);
         }
-        return false;
+        return Optional.empty();
 
     }
     public String getSubject(String token) {
@@ -43,9 +85,27 @@ public class JwtUtil {
     }
 
     private Claims parseClaims(String token) {
-        return Jwts.parser()
-                .setSigningKey(secretKey)
-                .parseClaimsJws(token)
-                .getBody();
+        return parser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * Reads the bearer from the claims. Tokens issued before the structured claims only have the
+     * subject, and are read as a plain user at token version 0.
+     */
+    private static JwtPrincipal toPrincipal(Claims claims) {
+        if (claims.getSubject() == null) {
+            throw new MalformedJwtException("JWT has no subject");
+        }
+        String[] subject = claims.getSubject().split(",");
+        Integer userId = claims.get(USER_ID_CLAIM, Integer.class);
+        Boolean employee = claims.get(EMPLOYEE_CLAIM, Boolean.class);
+        Integer tokenVersion = claims.get(TOKEN_VERSION_CLAIM, Integer.class);
+        Date expiration = claims.getExpiration();
+        return new JwtPrincipal(userId != null ? userId : Integer.parseInt(subject[0]), subject[1],
+                Boolean.TRUE.equals(employee),
+                claims.get(CUSTOMER_ID_CLAIM, Integer.class),
+                claims.get(COURIER_ID_CLAIM, Integer.class),
+                tokenVersion != null ? tokenVersion : 0,
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,112 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@link RateLimiter} to API requests, after {@link JwtTokenFilter} so that authenticated
+ * requests are counted per user id and anonymous ones per client IP. Requests over the limit of
+ * their group get 429 with a Retry-After header, before reaching any controller.
+ * <p>
+ * The client IP is the address of the TCP peer. Behind a reverse proxy that would put every
+ * anonymous client in the proxy's bucket, so the proxy addresses go in rate-limit.trusted-proxies:
+ * for requests coming from one of them the client is the right-most X-Forwarded-For entry that is
+ * not itself a trusted proxy. The header is ignored from any other peer, as a client can set it
+ * to anything.
+ * <p>
+ * The client key is left in the {@link #CLIENT_KEY_ATTRIBUTE} request attribute for controllers
+ * that {@link RateLimiter#charge} more than one token for a request.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final byte[] TOO_MANY_REQUESTS_BODY =
+            "{\"error\":\"429 Too Many Requests\",\"details\":\"Rate limit exceeded, retry later\"}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    public static final String CLIENT_KEY_ATTRIBUTE = RateLimitFilter.class.getName() + ".clientKey";
+
+    private final RateLimiter rateLimiter;
+    private final boolean enabled;
+    private final Set<String> trustedProxies;
+
+    @Autowired
+    public RateLimitFilter(RateLimiter rateLimiter,
+                           @Value("${rate-limit.enabled:true}") boolean enabled,
+                           @Value("${rate-limit.trusted-proxies:}") Set<String> trustedProxies) {
+        this.rateLimiter = rateLimiter;
+        this.enabled = enabled;
+        this.trustedProxies = trustedProxies;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        RateLimitGroup group = enabled
+                ? RateLimitGroup.of(request.getMethod(), request.getRequestURI().substring(request.getContextPath().length()))
+                : null;
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String client = clientKey(request);
+        request.setAttribute(CLIENT_KEY_ATTRIBUTE, client);
+        long waitNanos = rateLimiter.tryAcquire(group, client);
+        if (waitNanos > 0) {
+            long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getOutputStream().write(TOO_MANY_REQUESTS_BODY);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserEntity user) {
+            return "user:" + user.getId();
+        }
+        return "ip:" + clientAddress(request);
+    }
+
+    private String clientAddress(HttpServletRequest request) {
+        String address = request.getRemoteAddr();
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor == null || !trustedProxies.contains(address)) {
+            return address;
+        }
+        String[] hops = forwardedFor.split(",");
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (hop.isEmpty()) {
+                break;
+            }
+            address = hop;
+            if (!trustedProxies.contains(hop)) {
+                break;
+            }
+        }
+        return address;
+    }
+}
@@ -0,0 +1,48 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import java.util.regex.Pattern;
+
+/**
+ * Endpoint groups with a request budget of their own, see {@link RateLimiter}.
+ */
+public enum RateLimitGroup {
+    // POST /api/auth, counted per client IP
+    AUTH("auth"),
+    // Order placement and order status/rating changes
+    ORDER_WRITES("order-writes"),
+    // Every other GET under /api
+    READS("reads"),
+    // Every other write under /api: restaurants, courier locations, admin calls
+    WRITES("writes");
+
+    private static final Pattern ORDER_ACTION = Pattern.compile("/api/\\d+/(status|rating)");
+
+    private final String propertyName;
+
+    RateLimitGroup(String propertyName) {
+        this.propertyName = propertyName;
+    }
+
+    public String getPropertyName() {
+        return propertyName;
+    }
+
+    /**
+     * @return The group of a request, or null for requests outside the API, which are not rate limited.
+     */
+    public static RateLimitGroup of(String method, String path) {
+        if (!path.startsWith("/api/")) {
+            return null;
+        }
+        if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method)) {
+            return READS;
+        }
+        if (path.equals("/api/auth")) {
+            return AUTH;
+        }
+        if (path.startsWith("/api/orders") || ORDER_ACTION.matcher(path).matches()) {
+            return ORDER_WRITES;
+        }
+        return WRITES;
+    }
+}
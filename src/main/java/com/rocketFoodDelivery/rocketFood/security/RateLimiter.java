@@ -0,0 +1,141 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets per client and endpoint group. Group G allows bursts of rate-limit.G.capacity
+ * requests, refilled at rate-limit.G.refill-per-second. Each bucket is a single AtomicLong holding
+ * the time at which it will be full again (the generic cell rate algorithm), so taking a token is
+ * one compare-and-set with no lock and no allocation, and buckets live in a ConcurrentHashMap per
+ * group. Buckets that have been full for rate-limit.idle-eviction-seconds are dropped by
+ * {@link #evictIdle()}; a client coming back just starts with a full bucket.
+ * <p>
+ * A request that stands for several operations, like a batch of orders, takes one token at the
+ * filter and the rest through {@link #charge}, which books them even past the burst: the request
+ * has already been let through, and the client then waits for the bucket to refill that far.
+ */
+@Component
+public class RateLimiter {
+    private final Map<RateLimitGroup, Limit> limits = new EnumMap<>(RateLimitGroup.class);
+    private final Map<RateLimitGroup, Map<String, AtomicLong>> buckets = new EnumMap<>(RateLimitGroup.class);
+    private final Map<RateLimitGroup, Counter> rejectedCounters = new EnumMap<>(RateLimitGroup.class);
+    private final long idleNanos;
+
+    @Autowired
+    public RateLimiter(MeterRegistry meterRegistry,
+                       @Value("${rate-limit.auth.capacity:10}") int authCapacity,
+                       @Value("${rate-limit.auth.refill-per-second:1}") double authRefillPerSecond,
+                       @Value("${rate-limit.order-writes.capacity:20}") int orderWritesCapacity,
+                       @Value("${rate-limit.order-writes.refill-per-second:5}") double orderWritesRefillPerSecond,
+                       @Value("${rate-limit.reads.capacity:100}") int readsCapacity,
+                       @Value("${rate-limit.reads.refill-per-second:50}") double readsRefillPerSecond,
+                       @Value("${rate-limit.writes.capacity:30}") int writesCapacity,
+                       @Value("${rate-limit.writes.refill-per-second:10}") double writesRefillPerSecond,
+                       @Value("${rate-limit.idle-eviction-seconds:300}") long idleEvictionSeconds) {
+        this.idleNanos = TimeUnit.SECONDS.toNanos(idleEvictionSeconds);
+        limits.put(RateLimitGroup.AUTH, new Limit(authCapacity, authRefillPerSecond));
+        limits.put(RateLimitGroup.ORDER_WRITES, new Limit(orderWritesCapacity, orderWritesRefillPerSecond));
+        limits.put(RateLimitGroup.READS, new Limit(readsCapacity, readsRefillPerSecond));
+        limits.put(RateLimitGroup.WRITES, new Limit(writesCapacity, writesRefillPerSecond));
+        for (RateLimitGroup group : RateLimitGroup.values()) {
+            Map<String, AtomicLong> groupBuckets = new ConcurrentHashMap<>();
+            buckets.put(group, groupBuckets);
+            rejectedCounters.put(group, meterRegistry.counter("rate-limit.rejected", "group", group.getPropertyName()));
+            Gauge.builder("rate-limit.buckets", groupBuckets, Map::size)
+                    .tag("group", group.getPropertyName())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Takes a token from the client's bucket for the group.
+     *
+     * @return 0 when the request may proceed, otherwise how many nanoseconds until a token is available.
+     */
+    public long tryAcquire(RateLimitGroup group, String client) {
+        return tryAcquire(group, client, System.nanoTime());
+    }
+
+    long tryAcquire(RateLimitGroup group, String client, long now) {
+        Limit limit = limits.get(group);
+        AtomicLong bucket = bucket(group, client, now);
+        while (true) {
+            long fullAt = bucket.get();
+            long start = fullAt - now > 0 ? fullAt : now;
+            long wait = start - now - limit.burstNanos;
+            if (wait > 0) {
+                rejectedCounters.get(group).increment();
+                return wait;
+            }
+            if (bucket.compareAndSet(fullAt, start + limit.intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Takes extra tokens from the client's bucket for a request that was already let through, even
+     * if that leaves the bucket in debt. Following requests of the client are refused until it has
+     * refilled.
+     */
+    public void charge(RateLimitGroup group, String client, int tokens) {
+        charge(group, client, tokens, System.nanoTime());
+    }
+
+    void charge(RateLimitGroup group, String client, int tokens, long now) {
+        if (tokens <= 0) {
+            return;
+        }
+        long cost = limits.get(group).intervalNanos * tokens;
+        bucket(group, client, now).getAndUpdate(fullAt -> (fullAt - now > 0 ? fullAt : now) + cost);
+    }
+
+    private AtomicLong bucket(RateLimitGroup group, String client, long now) {
+        Map<String, AtomicLong> groupBuckets = buckets.get(group);
+        AtomicLong bucket = groupBuckets.get(client);
+        if (bucket == null) {
+            bucket = groupBuckets.computeIfAbsent(client, key -> new AtomicLong(now));
+        }
+        return bucket;
+    }
+
+    /**
+     * Drops the buckets of clients idle long enough for their bucket to be full. A request racing
+     * with the removal may be counted against a bucket that is then discarded, letting one extra
+     * request through.
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.eviction-ms:60000}")
+    public void evictIdle() {
+        evictIdle(System.nanoTime());
+    }
+
+    void evictIdle(long now) {
+        for (Map<String, AtomicLong> groupBuckets : buckets.values()) {
+            groupBuckets.values().removeIf(bucket -> now - bucket.get() > idleNanos);
+        }
+    }
+
+    private static class Limit {
+        // Time one token takes to refill
+        final long intervalNanos;
+        // How far ahead of now a bucket may be booked, capacity - 1 tokens
+        final long burstNanos;
+
+        Limit(int capacity, double refillPerSecond) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+            this.burstNanos = intervalNanos * (Math.max(1, capacity) - 1);
+        }
+    }
+}
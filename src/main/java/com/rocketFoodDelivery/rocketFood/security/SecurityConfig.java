@@ -1,19 +1,21 @@
 package com.rocketFoodDelivery.rocketFood.security;
 
-import com.rocketFoodDelivery.rocketFood.repository.UserRepository;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.service.UserService;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
-import org.springframework.security.crypto.password.NoOpPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -25,18 +27,54 @@ public class SecurityConfig {
     @Autowired
     private JwtTokenFilter jwtTokenFilter;
     @Autowired
-    UserRepository userRepository;
+    private RateLimitFilter rateLimitFilter;
+    @Autowired
+    UserService userService;
+    @Autowired
+    UserDetailsCache userDetailsCache;
     @Bean
     public UserDetailsService userDetailsService(){
         return new UserDetailsService() {
             @Override
             public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-                return userRepository.findByEmail(username)
+                // One query for the user and its employee/customer/courier ids
+                return userService.findLoginUser(username)
                         .orElseThrow(
                                 () -> new UsernameNotFoundException("User " + username + " not   found."));
             }
         };
     }
+
+    /**
+     * Stores the rehashed password of a user whose stored one was legacy plain text or made with
+     * an older algorithm, right after a successful login.
+     */
+    @Bean
+    public UserDetailsPasswordService userDetailsPasswordService() {
+        return (user, newPassword) -> {
+            UserEntity userEntity = (UserEntity) user;
+            userService.updatePassword(userEntity.getId(), newPassword);
+            userEntity.setPassword(newPassword);
+            return userEntity;
+        };
+    }
+
+    /**
+     * Checks passwords against the login users cached by {@link UserDetailsCache}, going to the
+     * database only on a miss or when the cached password does not match. Hashing runs on the
+     * pool of {@link PasswordHashingService}, the application's PasswordEncoder.
+     */
+    @Bean
+    public DaoAuthenticationProvider authenticationProvider(UserDetailsService userDetailsService,
+                                                            PasswordEncoder passwordEncoder,
+                                                            UserDetailsPasswordService userDetailsPasswordService) {
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsPasswordService(userDetailsPasswordService);
+        provider.setUserCache(userDetailsCache);
+        return provider;
+    }
     @Bean
     public AuthenticationManager authenticationManager(
             AuthenticationConfiguration authConfig) throws Exception {
@@ -50,6 +88,10 @@ public class SecurityConfig {
         http.authorizeRequests()
                 .requestMatchers("/api/auth").permitAll()
                 .requestMatchers("/backoffice/**").permitAll()
+                // Maintenance endpoints, token revocation included, are for employees only
+                .requestMatchers("/api/admin/**").hasRole("EMPLOYEE")
+                // The full order export carries every customer's email and address
+                .requestMatchers("/api/orders/export").hasRole("EMPLOYEE")
 
 
                 .anyRequest().authenticated();
@@ -63,15 +105,10 @@ public class SecurityConfig {
                         }
                 );
         http.addFilterBefore(jwtTokenFilter, UsernamePasswordAuthenticationFilter.class);
+        http.addFilterAfter(rateLimitFilter, JwtTokenFilter.class);
         return http.build();
     }
 
-
-
-    @Bean
-    public PasswordEncoder getPasswordEncoder(){
-        return NoOpPasswordEncoder.getInstance();
-    }
 }
 
 
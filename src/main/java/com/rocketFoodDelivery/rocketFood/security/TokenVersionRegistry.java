@@ -0,0 +1,73 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Current token version of every user, used to revoke access tokens without a lookup per request.
+ * A token is accepted only while its ver claim is not older than users.token_version. Only users
+ * whose version was ever bumped are held, everyone else is at 0. The map is replaced wholesale on
+ * each refresh, so revocations made by other instances are picked up within
+ * jwt.token-version.refresh-ms.
+ */
+@Component
+public class TokenVersionRegistry {
+    private static final Logger logger = Logger.getLogger(TokenVersionRegistry.class.getName());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final UserDetailsCache userDetailsCache;
+    private volatile Map<Integer, Integer> versions = Map.of();
+
+    @Autowired
+    public TokenVersionRegistry(JdbcTemplate jdbcTemplate, UserDetailsCache userDetailsCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.userDetailsCache = userDetailsCache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${jwt.token-version.refresh-ms:30000}", initialDelayString = "${jwt.token-version.refresh-ms:30000}")
+    public void refresh() {
+        try {
+            Map<Integer, Integer> loaded = new HashMap<>();
+            jdbcTemplate.query("SELECT id, token_version FROM users WHERE token_version > 0",
+                    rs -> { loaded.put(rs.getInt("id"), rs.getInt("token_version")); });
+            versions = loaded;
+        } catch (DataAccessException e) {
+            logger.log(Level.WARNING, "Token version refresh failed, keeping the previous versions", e);
+        }
+    }
+
+    public boolean isCurrent(JwtPrincipal principal) {
+        return principal.getTokenVersion() >= versions.getOrDefault(principal.getId(), 0);
+    }
+
+    /**
+     * Invalidates every access token issued to the user so far. Tokens issued afterwards carry the new version.
+     *
+     * @return The new token version, or empty when the user does not exist.
+     */
+    public synchronized OptionalInt revoke(int userId) {
+        if (jdbcTemplate.update("UPDATE users SET token_version = token_version + 1 WHERE id = ?", userId) == 0) {
+            return OptionalInt.empty();
+        }
+        List<Integer> version = jdbcTemplate.queryForList("SELECT token_version FROM users WHERE id = ?", Integer.class, userId);
+        Map<Integer, Integer> updated = new HashMap<>(versions);
+        updated.put(userId, version.get(0));
+        versions = updated;
+        // A cached login user would otherwise keep getting tokens at the old version
+        userDetailsCache.removeUserFromCache(userId);
+        return OptionalInt.of(version.get(0));
+    }
+}
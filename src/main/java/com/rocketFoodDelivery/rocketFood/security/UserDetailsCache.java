@@ -0,0 +1,144 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongSupplier;
+
+/**
+ * Login users by email for security.user-cache.ttl-seconds, so a burst of sign-ins does not run
+ * the login query for every attempt. The authentication provider checks the password against the
+ * cached user and reloads it from the database when that fails, so a password changed elsewhere
+ * only costs one extra query. UserService and TokenVersionRegistry evict a user when they change
+ * it.
+ * <p>
+ * The cached employee flag and customer and courier ids are what new access tokens are signed
+ * with. Adding or removing an employee, customer or courier row through JPA revokes the user's
+ * tokens via {@link UserRoleChangeListener}, which evicts it here too; a role row changed directly
+ * in the database only reaches new tokens once the entry expires, after at most ttl-seconds.
+ * <p>
+ * Bounded to security.user-cache.max-entries users, dropping expired entries first, then
+ * arbitrary ones until a tenth of the room is free; a max-entries of 0 turns caching off.
+ */
+@Component
+public class UserDetailsCache implements UserCache {
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<String, CachedUser> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final LongSupplier clock;
+
+    @Autowired
+    public UserDetailsCache(MeterRegistry meterRegistry,
+                            @Value("${security.user-cache.max-entries:10000}") int maxEntries,
+                            @Value("${security.user-cache.ttl-seconds:60}") int ttlSeconds) {
+        this(meterRegistry, maxEntries, ttlSeconds, System::currentTimeMillis);
+    }
+
+    UserDetailsCache(MeterRegistry meterRegistry, int maxEntries, int ttlSeconds, LongSupplier clock) {
+        this.clock = clock;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.hitCounter = meterRegistry.counter("security.user-cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("security.user-cache", "result", "miss");
+        Gauge.builder("security.user-cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * @return A copy of the cached user, so callers may change it freely, or null when not cached.
+     */
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        CachedUser cached = entries.get(key(username));
+        if (cached == null || cached.expiresAt <= clock.getAsLong()) {
+            missCounter.increment();
+            return null;
+        }
+        hitCounter.increment();
+        return copy(cached.user);
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        if (maxEntries <= 0 || !(user instanceof UserEntity)) {
+            return;
+        }
+        long now = clock.getAsLong();
+        if (entries.size() >= maxEntries) {
+            evict(now);
+        }
+        entries.put(key(user.getUsername()), new CachedUser(copy((UserEntity) user), now + ttlMillis));
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        entries.remove(key(username));
+    }
+
+    /**
+     * Drops a user whatever its email, for changes made by id.
+     */
+    public void removeUserFromCache(int userId) {
+        entries.values().removeIf(cached -> cached.user.getId() == userId);
+    }
+
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.values().removeIf(cached -> cached.expiresAt <= now);
+            int target = maxEntries - Math.max(1, maxEntries / 10);
+            Iterator<CachedUser> iterator = entries.values().iterator();
+            while (entries.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    // MySQL compares emails case-insensitively, so the cache does too
+    private static String key(String username) {
+        return username.toLowerCase(Locale.ROOT);
+    }
+
+    private static UserEntity copy(UserEntity user) {
+        UserEntity copy = UserEntity.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .password(user.getPassword())
+                .tokenVersion(user.getTokenVersion())
+                .customerId(user.getCustomerId())
+                .courierId(user.getCourierId())
+                .build();
+        copy.setEmployee(user.isEmployee());
+        return copy;
+    }
+
+    private static class CachedUser {
+        final UserEntity user;
+        final long expiresAt;
+
+        CachedUser(UserEntity user, long expiresAt) {
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import com.rocketFoodDelivery.rocketFood.models.Courier;
+import com.rocketFoodDelivery.rocketFood.models.Customer;
+import com.rocketFoodDelivery.rocketFood.models.Employee;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.util.TransactionUtils;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Revokes a user's access tokens when an employee, customer or courier row is added for or removed
+ * from them. Tokens carry the emp, customer_id and courier_id claims and do not expire, so without
+ * this a demoted employee would keep admin rights. The user_id of those rows is not updatable, so
+ * moving a role to another user always goes through a delete and an insert. Rows changed directly
+ * in the database still need POST /api/admin/users/{id}/revoke-tokens.
+ */
+public class UserRoleChangeListener {
+    private final ObjectProvider<TokenVersionRegistry> tokenVersionRegistry;
+
+    @Autowired
+    public UserRoleChangeListener(ObjectProvider<TokenVersionRegistry> tokenVersionRegistry) {
+        this.tokenVersionRegistry = tokenVersionRegistry;
+    }
+
+    @PostPersist
+    @PostRemove
+    public void roleChanged(Object role) {
+        UserEntity user = userOf(role);
+        if (user == null) {
+            return;
+        }
+        int userId = user.getId();
+        TransactionUtils.runAfterCommit(() -> tokenVersionRegistry.getObject().revoke(userId));
+    }
+
+    private static UserEntity userOf(Object role) {
+        if (role instanceof Employee employee) {
+            return employee.getUserEntity();
+        }
+        if (role instanceof Customer customer) {
+            return customer.getUserEntity();
+        }
+        if (role instanceof Courier courier) {
+            return courier.getUserEntity();
+        }
+        return null;
+    }
+}
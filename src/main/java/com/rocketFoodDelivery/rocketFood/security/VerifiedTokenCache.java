@@ -0,0 +1,130 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bearers of recently verified access tokens, so a client sending the same token on every request
+ * pays for the HS512 signature check once per jwt.cache.ttl-seconds instead of on each request.
+ * Entries are keyed by the SHA-256 digest of the token, so raw tokens are not kept in memory, and
+ * never outlive the token's own expiry. The cache holds at most jwt.cache.max-entries tokens: past
+ * that, expired entries are dropped first, then arbitrary ones until a tenth of the room is free.
+ * A max-entries of 0 turns caching off.
+ */
+@Component
+public class VerifiedTokenCache {
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    private final JwtUtil jwtUtil;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Map<String, CachedPrincipal> entries = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    @Autowired
+    public VerifiedTokenCache(JwtUtil jwtUtil,
+                              MeterRegistry meterRegistry,
+                              @Value("${jwt.cache.max-entries:10000}") int maxEntries,
+                              @Value("${jwt.cache.ttl-seconds:300}") int ttlSeconds) {
+        this.jwtUtil = jwtUtil;
+        this.maxEntries = maxEntries;
+        this.ttlMillis = ttlSeconds * 1000L;
+        this.hitCounter = meterRegistry.counter("jwt.cache", "result", "hit");
+        this.missCounter = meterRegistry.counter("jwt.cache", "result", "miss");
+        Gauge.builder("jwt.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    /**
+     * @return The bearer of the token, from the cache or by verifying it, or empty when the token is not valid.
+     */
+    public Optional<JwtPrincipal> resolve(String token) {
+        if (maxEntries <= 0) {
+            return jwtUtil.verify(token);
+        }
+        String key = digest(token);
+        long now = System.currentTimeMillis();
+        CachedPrincipal cached = entries.get(key);
+        if (cached != null && cached.validUntil > now) {
+            hitCounter.increment();
+            return Optional.of(cached.principal);
+        }
+
+        missCounter.increment();
+        Optional<JwtPrincipal> principal = jwtUtil.verify(token);
+        if (principal.isPresent()) {
+            if (entries.size() >= maxEntries) {
+                evict(now);
+            }
+            entries.put(key, new CachedPrincipal(principal.get(), Math.min(principal.get().getExpiresAt(), now + ttlMillis)));
+        } else if (cached != null) {
+            entries.remove(key, cached);
+        }
+        return principal;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Makes room for new entries. Only one thread evicts at a time, the others insert meanwhile,
+     * so the cache may briefly run over its bound by a few entries.
+     */
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            entries.values().removeIf(entry -> entry.validUntil <= now);
+            int target = maxEntries - Math.max(1, maxEntries / 10);
+            Iterator<CachedPrincipal> iterator = entries.values().iterator();
+            while (entries.size() > target && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+            }
+        } finally {
+            evicting.set(false);
+        }
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getEncoder().encodeToString(hash);
+    }
+
+    private static class CachedPrincipal {
+        final JwtPrincipal principal;
+        final long validUntil;
+
+        CachedPrincipal(JwtPrincipal principal, long validUntil) {
+            this.principal = principal;
+            this.validUntil = validUntil;
+        }
+    }
+}
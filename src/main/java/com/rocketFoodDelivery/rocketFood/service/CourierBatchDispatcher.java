@@ -0,0 +1,296 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.models.OrderLifecycle;
+import com.rocketFoodDelivery.rocketFood.util.GeoDistance;
+import com.rocketFoodDelivery.rocketFood.util.MinCostAssignment;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Windowed courier assignment, enabled with couriers.dispatch.batch.enabled=true.
+ * Orders placed without a courier are then written with no courier and queued here instead of
+ * taking the first courier {@link CourierDispatcher} hands out. Every window, on a scheduler thread
+ * of its own, the queued orders are matched against the couriers with spare capacity as one
+ * minimum cost assignment on the distance between the courier's address and the restaurant's
+ * address, and all assignments are written in a single transaction. A courier gets at most one
+ * order per window; orders left over wait for the next one.
+ */
+@Component
+public class CourierBatchDispatcher {
+    private static final Logger logger = Logger.getLogger(CourierBatchDispatcher.class.getName());
+
+    // Cost of a pair where either address has no coordinates, so located couriers are preferred
+    private static final double UNKNOWN_DISTANCE_KM = 1000.0;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CourierDispatcher courierDispatcher;
+    private final StatusRegistry statusRegistry;
+    private final boolean enabled;
+    private final long windowMs;
+    private final int maxBatchSize;
+    private final int maxCandidates;
+    private final ConcurrentLinkedDeque<Integer> pendingOrders = new ConcurrentLinkedDeque<>();
+    private final Timer solveTimer;
+    private final DistributionSummary batchSizeSummary;
+    private final Counter assignedCounter;
+    private final Counter deferredCounter;
+    private ThreadPoolTaskScheduler scheduler;
+
+    @Autowired
+    public CourierBatchDispatcher(JdbcTemplate jdbcTemplate,
+                                  TransactionTemplate transactionTemplate,
+                                  CourierDispatcher courierDispatcher,
+                                  StatusRegistry statusRegistry,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${couriers.dispatch.batch.enabled:false}") boolean enabled,
+                                  @Value("${couriers.dispatch.batch.window-ms:2000}") long windowMs,
+                                  @Value("${couriers.dispatch.batch.max-size:200}") int maxBatchSize,
+                                  @Value("${couriers.dispatch.batch.max-candidates:2000}") int maxCandidates) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.courierDispatcher = courierDispatcher;
+        this.statusRegistry = statusRegistry;
+        this.enabled = enabled;
+        this.windowMs = windowMs;
+        this.maxBatchSize = maxBatchSize;
+        this.maxCandidates = maxCandidates;
+        meterRegistry.gauge("couriers.dispatch.batch.pending", pendingOrders, ConcurrentLinkedDeque::size);
+        this.solveTimer = meterRegistry.timer("couriers.dispatch.batch.solve");
+        this.batchSizeSummary = meterRegistry.summary("couriers.dispatch.batch.size");
+        this.assignedCounter = meterRegistry.counter("couriers.dispatch.batch.orders", "outcome", "assigned");
+        this.deferredCounter = meterRegistry.counter("couriers.dispatch.batch.orders", "outcome", "deferred");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // Not a bean, so @Scheduled jobs keep the default scheduler and a slow solve delays no one else
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("courier-batch-dispatch-");
+        scheduler.initialize();
+        scheduler.scheduleWithFixedDelay(this::dispatchWindow, Duration.ofMillis(windowMs));
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    /**
+     * Queues the orders left without a courier before a restart.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadUnassigned() {
+        if (!enabled) {
+            return;
+        }
+        pendingOrders.addAll(jdbcTemplate.queryForList(
+                "SELECT id FROM orders WHERE courier_id IS NULL AND status_id = ? ORDER BY id",
+                Integer.class, statusRegistry.getOrderStatusId(OrderLifecycle.PENDING)));
+    }
+
+    /**
+     * Queues a committed order that has no courier yet.
+     */
+    public void enqueue(int orderId) {
+        pendingOrders.addLast(orderId);
+    }
+
+    private void dispatchWindow() {
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Courier batch dispatch failed, its orders wait for the next window", e);
+        }
+    }
+
+    /**
+     * Assigns couriers to up to max-size queued orders, oldest first. Orders that end the window
+     * without a written assignment go back to the front of the queue, including when a query or
+     * the write fails.
+     *
+     * @return The number of orders assigned.
+     */
+    public synchronized int dispatch() {
+        List<Integer> batch = new ArrayList<>();
+        Integer orderId;
+        while (batch.size() < maxBatchSize && (orderId = pendingOrders.pollFirst()) != null) {
+            batch.add(orderId);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Set<Integer> unassigned = new LinkedHashSet<>(batch);
+        try {
+            // Orders cancelled or given a courier meanwhile are not returned and simply leave the queue
+            Map<Integer, double[]> restaurantPositions = findRestaurantPositions(batch);
+            unassigned.retainAll(restaurantPositions.keySet());
+            List<Integer> orders = new ArrayList<>(unassigned);
+            List<Integer> couriers = courierDispatcher.findAvailableCouriers(maxCandidates);
+            if (orders.isEmpty() || couriers.isEmpty()) {
+                return 0;
+            }
+            if (orders.size() > couriers.size()) {
+                orders = new ArrayList<>(orders.subList(0, couriers.size()));
+            }
+            batchSizeSummary.record(orders.size());
+
+            Map<Integer, double[]> courierPositions = findCourierPositions(couriers);
+            double[][] cost = new double[orders.size()][couriers.size()];
+            for (int i = 0; i < orders.size(); i++) {
+                double[] from = restaurantPositions.get(orders.get(i));
+                for (int j = 0; j < couriers.size(); j++) {
+                    cost[i][j] = distanceKm(from, courierPositions.get(couriers.get(j)));
+                }
+            }
+            int[] match = solveTimer.record(() -> MinCostAssignment.solve(cost));
+
+            Map<Integer, Integer> assignments = new LinkedHashMap<>();
+            int deferred = 0;
+            for (int i = 0; i < orders.size(); i++) {
+                int courierId = couriers.get(match[i]);
+                // A courier filled up by an immediate assignment since the candidates were listed
+                if (courierDispatcher.claim(courierId)) {
+                    assignments.put(orders.get(i), courierId);
+                } else {
+                    deferred++;
+                }
+            }
+
+            Map<Integer, Integer> applied;
+            try {
+                applied = apply(assignments);
+            } catch (RuntimeException e) {
+                assignments.values().forEach(courierDispatcher::release);
+                throw e;
+            }
+            for (Map.Entry<Integer, Integer> assignment : assignments.entrySet()) {
+                // Written, or no longer pending without a courier: either way it leaves the queue
+                unassigned.remove(assignment.getKey());
+                if (!assignment.getValue().equals(applied.get(assignment.getKey()))) {
+                    courierDispatcher.release(assignment.getValue());
+                }
+            }
+            assignedCounter.increment(applied.size());
+            deferredCounter.increment(deferred);
+            return applied.size();
+        } finally {
+            requeue(unassigned);
+        }
+    }
+
+    /**
+     * Writes all assignments in one transaction, each only if the order is still pending without a courier.
+     *
+     * @return The assignments that were written.
+     */
+    private Map<Integer, Integer> apply(Map<Integer, Integer> assignments) {
+        if (assignments.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        int pendingStatusId = statusRegistry.getOrderStatusId(OrderLifecycle.PENDING);
+        return transactionTemplate.execute(status -> {
+            List<Object[]> updates = new ArrayList<>();
+            assignments.forEach((order, courier) -> updates.add(new Object[] { courier, order, pendingStatusId }));
+            jdbcTemplate.batchUpdate(
+                    "UPDATE orders SET courier_id = ? WHERE id = ? AND courier_id IS NULL AND status_id = ?", updates);
+
+            // Batched update counts are not reliable with rewritten batches, read the outcome back instead
+            Map<Integer, Integer> applied = new HashMap<>();
+            String sql = String.format("SELECT id, courier_id FROM orders WHERE id IN (%s)", placeholders(assignments.size()));
+            jdbcTemplate.query(sql, rs -> {
+                int courierId = rs.getInt("courier_id");
+                if (!rs.wasNull() && assignments.get(rs.getInt("id")) == courierId) {
+                    applied.put(rs.getInt("id"), courierId);
+                }
+            }, assignments.keySet().toArray());
+            return applied;
+        });
+    }
+
+    private void requeue(Collection<Integer> orders) {
+        List<Integer> reversed = new ArrayList<>(orders);
+        Collections.reverse(reversed);
+        reversed.forEach(pendingOrders::addFirst);
+    }
+
+    private Map<Integer, double[]> findRestaurantPositions(List<Integer> orderIds) {
+        Map<Integer, double[]> positions = new HashMap<>();
+        String sql = "SELECT o.id, a.latitude, a.longitude FROM orders o " +
+                "JOIN restaurants r ON r.id = o.restaurant_id JOIN addresses a ON a.id = r.address_id " +
+                "WHERE o.courier_id IS NULL AND o.status_id = " + statusRegistry.getOrderStatusId(OrderLifecycle.PENDING) +
+                " AND o.id IN (%s)";
+        queryPositions(sql, orderIds, positions);
+        return positions;
+    }
+
+    private Map<Integer, double[]> findCourierPositions(List<Integer> courierIds) {
+        Map<Integer, double[]> positions = new HashMap<>();
+        queryPositions("SELECT c.id, a.latitude, a.longitude FROM courier c JOIN addresses a ON a.id = c.address_id " +
+                "WHERE c.id IN (%s)", courierIds, positions);
+        return positions;
+    }
+
+    private void queryPositions(String sqlTemplate, Collection<Integer> ids, Map<Integer, double[]> positions) {
+        String sql = String.format(sqlTemplate, placeholders(ids.size()));
+        jdbcTemplate.query(sql, rs -> {
+            double latitude = rs.getDouble("latitude");
+            boolean located = !rs.wasNull();
+            double longitude = rs.getDouble("longitude");
+            located &= !rs.wasNull();
+            positions.put(rs.getInt("id"), located ? new double[] { latitude, longitude } : null);
+        }, ids.toArray());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+
+    /**
+     * Great-circle distance between two (latitude, longitude) points, or a large fixed distance
+     * when either is unknown.
+     */
+    static double distanceKm(double[] from, double[] to) {
+        if (from == null || to == null) {
+            return UNKNOWN_DISTANCE_KM;
+        }
+        return GeoDistance.haversineKm(from[0], from[1], to[0], to[1]);
+    }
+}
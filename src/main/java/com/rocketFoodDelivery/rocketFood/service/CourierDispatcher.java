@@ -0,0 +1,356 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.models.CourierStatus;
+import com.rocketFoodDelivery.rocketFood.models.OrderLifecycle;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory pool of couriers used to assign one to an order when the client does not pick one.
+ * Each courier keeps an active order counter, and its courier status follows from it: free with no
+ * order, busy below the per-courier capacity, full at capacity, offline when deactivated. Couriers
+ * with spare capacity wait in a free and a busy queue; an assignment takes the first courier off
+ * the free queue, or the busy queue when no one is free, and claims it with a compare-and-set on
+ * its counter, so two orders never both take a courier's last slot. Status changes are only
+ * recorded in memory and written back to the courier table in batches by {@link #flushStatuses()}.
+ */
+@Component
+public class CourierDispatcher {
+    private static final Logger logger = Logger.getLogger(CourierDispatcher.class.getName());
+
+    // Set in a courier's state when it takes no orders, the low bits hold its active order count
+    private static final int OFFLINE = 1 << 30;
+    private static final int ACTIVE_MASK = OFFLINE - 1;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StatusRegistry statusRegistry;
+    private final int capacity;
+    private final Map<Integer, CourierSlot> couriers = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<CourierSlot> freePool = new ConcurrentLinkedQueue<>();
+    private final ConcurrentLinkedQueue<CourierSlot> busyPool = new ConcurrentLinkedQueue<>();
+    private final Set<CourierSlot> changed = ConcurrentHashMap.newKeySet();
+    private final Timer assignTimer;
+    private final Counter unavailableCounter;
+
+    @Autowired
+    public CourierDispatcher(JdbcTemplate jdbcTemplate,
+                             StatusRegistry statusRegistry,
+                             MeterRegistry meterRegistry,
+                             @Value("${couriers.dispatch.capacity:3}") int capacity) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statusRegistry = statusRegistry;
+        this.capacity = capacity;
+        this.assignTimer = meterRegistry.timer("couriers.dispatch.assign");
+        this.unavailableCounter = meterRegistry.counter("couriers.dispatch.unavailable");
+        for (String status : StatusRegistry.COURIER_STATUS_NAMES) {
+            Gauge.builder("couriers.pool", this, dispatcher -> dispatcher.getPoolSizes().get(status))
+                    .tag("status", status)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Brings the pool in line with the courier table. Couriers new to the pool start with their
+     * pending and in progress orders counted, couriers gone from the table are dropped, and every
+     * courier's online flag follows its active column and persisted status. Couriers already in the
+     * pool keep their in-memory order count: every claim and release since they were added went
+     * through it, including claims for orders not committed yet that the table cannot show, so a
+     * reload during traffic loses none of them.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        String sql = "SELECT c.id, c.active, c.courier_status_id, COUNT(o.id) AS active_orders " +
+                "FROM courier c LEFT JOIN orders o ON o.courier_id = c.id AND o.status_id IN (?, ?) " +
+                "GROUP BY c.id, c.active, c.courier_status_id";
+        Map<Integer, CourierSlot> loaded = new LinkedHashMap<>();
+        jdbcTemplate.query(sql, rs -> {
+            String persisted = statusRegistry.findCourierStatus(rs.getInt("courier_status_id"))
+                    .map(CourierStatus::getName).orElse(null);
+            boolean online = rs.getBoolean("active") && !"offline".equalsIgnoreCase(persisted);
+            CourierSlot slot = new CourierSlot(rs.getInt("id"), rs.getInt("active_orders"), online, persisted);
+            loaded.put(slot.id, slot);
+        }, statusRegistry.getOrderStatusId(OrderLifecycle.PENDING), statusRegistry.getOrderStatusId(OrderLifecycle.IN_PROGRESS));
+
+        // Dropped couriers may still sit in a queue, pollAvailable skips them
+        couriers.keySet().retainAll(loaded.keySet());
+        for (CourierSlot slot : loaded.values()) {
+            CourierSlot current = couriers.get(slot.id);
+            if (current == null) {
+                add(slot);
+                continue;
+            }
+            current.setOnline((slot.state.get() & OFFLINE) == 0);
+            current.persistedStatus = slot.persistedStatus;
+            changed.add(current);
+            requeue(current);
+        }
+        logger.log(Level.INFO, "Courier pool loaded with {0} couriers: {1}", new Object[] { loaded.size(), getPoolSizes() });
+    }
+
+    /**
+     * Adds a courier to the pool, replacing any earlier entry. Its status is written back on the next flush if it changed.
+     */
+    void register(int courierId, int activeOrders, boolean online) {
+        add(new CourierSlot(courierId, activeOrders, online, null));
+    }
+
+    private void add(CourierSlot slot) {
+        couriers.put(slot.id, slot);
+        changed.add(slot);
+        requeue(slot);
+    }
+
+    /**
+     * Claims an order slot on an online courier with spare capacity, preferring free couriers.
+     *
+     * @return The id of the claimed courier, or empty when every courier is full or offline.
+     */
+    public OptionalInt claim() {
+        long start = System.nanoTime();
+        try {
+            CourierSlot slot;
+            while ((slot = pollAvailable()) != null) {
+                boolean claimed = slot.tryClaim(capacity);
+                requeue(slot);
+                if (claimed) {
+                    changed.add(slot);
+                    return OptionalInt.of(slot.id);
+                }
+            }
+            unavailableCounter.increment();
+            return OptionalInt.empty();
+        } finally {
+            assignTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Claims an order slot on a given courier, for assignments chosen by {@link CourierBatchDispatcher}.
+     *
+     * @return false when the courier is unknown, offline or full.
+     */
+    public boolean claim(int courierId) {
+        CourierSlot slot = couriers.get(courierId);
+        if (slot == null || !slot.tryClaim(capacity)) {
+            return false;
+        }
+        changed.add(slot);
+        requeue(slot);
+        return true;
+    }
+
+    /**
+     * @return Up to limit online couriers with spare capacity, free ones first.
+     */
+    public List<Integer> findAvailableCouriers(int limit) {
+        List<Integer> free = new ArrayList<>();
+        List<Integer> busy = new ArrayList<>();
+        for (CourierSlot slot : couriers.values()) {
+            int state = slot.state.get();
+            if (!hasSpareCapacity(state)) {
+                continue;
+            }
+            if ((state & ACTIVE_MASK) == 0) {
+                free.add(slot.id);
+                if (free.size() >= limit) {
+                    break;
+                }
+            } else if (busy.size() < limit) {
+                busy.add(slot.id);
+            }
+        }
+        for (int i = 0; free.size() < limit && i < busy.size(); i++) {
+            free.add(busy.get(i));
+        }
+        return free;
+    }
+
+    /**
+     * Counts an order the client assigned to a given courier, taking one of its slots the same way
+     * {@link #claim(int)} does. Couriers added after the pool was loaded are not tracked until the
+     * next {@link #load()} and are accepted as they are.
+     *
+     * @return false when the courier is offline or already at capacity.
+     */
+    public boolean recordAssignment(int courierId) {
+        CourierSlot slot = couriers.get(courierId);
+        if (slot == null) {
+            return true;
+        }
+        if (!slot.tryClaim(capacity)) {
+            return false;
+        }
+        changed.add(slot);
+        requeue(slot);
+        return true;
+    }
+
+    /**
+     * Frees the slot of an order that was delivered or cancelled, or whose placement rolled back.
+     */
+    public void release(int courierId) {
+        CourierSlot slot = couriers.get(courierId);
+        if (slot == null) {
+            return;
+        }
+        int state;
+        do {
+            state = slot.state.get();
+            if ((state & ACTIVE_MASK) == 0) {
+                return;
+            }
+        } while (!slot.state.compareAndSet(state, state - 1));
+        changed.add(slot);
+        requeue(slot);
+    }
+
+    /**
+     * @return How many couriers of the pool are in each courier status.
+     */
+    public Map<String, Integer> getPoolSizes() {
+        Map<String, Integer> sizes = new LinkedHashMap<>();
+        StatusRegistry.COURIER_STATUS_NAMES.forEach(status -> sizes.put(status, 0));
+        for (CourierSlot slot : couriers.values()) {
+            sizes.merge(statusOf(slot.state.get()), 1, Integer::sum);
+        }
+        return sizes;
+    }
+
+    int getActiveOrders(int courierId) {
+        CourierSlot slot = couriers.get(courierId);
+        return slot == null ? 0 : slot.state.get() & ACTIVE_MASK;
+    }
+
+    /**
+     * Writes the current status of every courier whose counter moved since the last flush and whose
+     * status differs from the one last written, in one JDBC batch.
+     */
+    @Scheduled(fixedDelayString = "${couriers.dispatch.flush-ms:1000}")
+    public void flushStatuses() {
+        if (changed.isEmpty()) {
+            return;
+        }
+        List<CourierSlot> slots = new ArrayList<>();
+        List<String> statuses = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        for (CourierSlot slot : changed) {
+            changed.remove(slot);
+            String status = statusOf(slot.state.get());
+            if (!status.equals(slot.persistedStatus)) {
+                slots.add(slot);
+                statuses.add(status);
+                updates.add(new Object[] { statusRegistry.findCourierStatus(status).get().getId(), slot.id });
+            }
+        }
+        if (updates.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate("UPDATE courier SET courier_status_id = ? WHERE id = ?", updates);
+            for (int i = 0; i < slots.size(); i++) {
+                slots.get(i).persistedStatus = statuses.get(i);
+            }
+        } catch (DataAccessException e) {
+            logger.log(Level.WARNING, "Courier status write-back failed, retrying on the next flush", e);
+            changed.addAll(slots);
+        }
+    }
+
+    private CourierSlot pollAvailable() {
+        while (true) {
+            CourierSlot slot = freePool.poll();
+            if (slot == null) {
+                slot = busyPool.poll();
+            }
+            if (slot == null) {
+                return null;
+            }
+            slot.queued.set(false);
+            // Skip couriers dropped or replaced since they were queued
+            if (couriers.get(slot.id) == slot) {
+                return slot;
+            }
+        }
+    }
+
+    /**
+     * Puts a courier back in the queue matching its state when it can take another order and is not queued yet.
+     * Every state change is followed by a call to this, so a courier with spare capacity is never left out.
+     */
+    private void requeue(CourierSlot slot) {
+        int state = slot.state.get();
+        if (!hasSpareCapacity(state) || couriers.get(slot.id) != slot || !slot.queued.compareAndSet(false, true)) {
+            return;
+        }
+        if ((state & ACTIVE_MASK) == 0) {
+            freePool.offer(slot);
+        } else {
+            busyPool.offer(slot);
+        }
+    }
+
+    private boolean hasSpareCapacity(int state) {
+        return (state & OFFLINE) == 0 && (state & ACTIVE_MASK) < capacity;
+    }
+
+    private String statusOf(int state) {
+        if ((state & OFFLINE) != 0) {
+            return "offline";
+        }
+        int active = state & ACTIVE_MASK;
+        return active == 0 ? "free" : active < capacity ? "busy" : "full";
+    }
+
+    private static class CourierSlot {
+        final int id;
+        final AtomicInteger state;
+        final AtomicBoolean queued = new AtomicBoolean();
+        volatile String persistedStatus;
+
+        CourierSlot(int id, int activeOrders, boolean online, String persistedStatus) {
+            this.id = id;
+            this.state = new AtomicInteger(activeOrders | (online ? 0 : OFFLINE));
+            this.persistedStatus = persistedStatus;
+        }
+
+        void setOnline(boolean online) {
+            state.updateAndGet(current -> online ? current & ACTIVE_MASK : current | OFFLINE);
+        }
+
+        boolean tryClaim(int capacity) {
+            while (true) {
+                int current = state.get();
+                if ((current & OFFLINE) != 0 || current >= capacity) {
+                    return false;
+                }
+                if (state.compareAndSet(current, current + 1)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierLocationDTO;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierTrailDTO;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.repository.CourierRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Live courier positions. GPS pings are kept in memory in a fixed-size ring buffer per courier,
+ * three primitive arrays overwritten oldest first, so ingesting a ping never touches the database.
+ * {@link #flush()} periodically downsamples what arrived since its last run to at most one
+ * position per persist interval and writes those to courier_locations in one JDBC batch. Queries
+ * are answered from the buffers, and from courier_locations for couriers with no recent ping.
+ */
+@Component
+public class CourierLocationTracker {
+    private static final Logger logger = Logger.getLogger(CourierLocationTracker.class.getName());
+
+    static final String INSERT_LOCATION_SQL =
+            "INSERT INTO courier_locations (courier_id, latitude, longitude, recorded_at) VALUES (?, ?, ?, ?)";
+    // Pings stamped further ahead than this are dropped rather than trusted
+    private static final long MAX_CLOCK_SKEW_MS = 60_000;
+
+    private final CourierRepository courierRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final int bufferSize;
+    private final long persistIntervalMs;
+    private final long idleEvictionMs;
+    private final Map<Integer, LocationRing> rings = new ConcurrentHashMap<>();
+    private final Set<Integer> knownCouriers = ConcurrentHashMap.newKeySet();
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Counter persistedCounter;
+    private final LongSupplier clock;
+
+    @Autowired
+    public CourierLocationTracker(CourierRepository courierRepository,
+                                  JdbcTemplate jdbcTemplate,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${couriers.locations.buffer-size:120}") int bufferSize,
+                                  @Value("${couriers.locations.persist-interval-seconds:30}") int persistIntervalSeconds,
+                                  @Value("${couriers.locations.idle-eviction-minutes:60}") int idleEvictionMinutes) {
+        this(courierRepository, jdbcTemplate, meterRegistry, bufferSize, persistIntervalSeconds, idleEvictionMinutes,
+                System::currentTimeMillis);
+    }
+
+    CourierLocationTracker(CourierRepository courierRepository, JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                           int bufferSize, int persistIntervalSeconds, int idleEvictionMinutes, LongSupplier clock) {
+        this.clock = clock;
+        this.courierRepository = courierRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.bufferSize = bufferSize;
+        this.persistIntervalMs = persistIntervalSeconds * 1000L;
+        this.idleEvictionMs = idleEvictionMinutes * 60_000L;
+        this.acceptedCounter = meterRegistry.counter("couriers.locations.pings", "outcome", "accepted");
+        this.rejectedCounter = meterRegistry.counter("couriers.locations.pings", "outcome", "rejected");
+        this.persistedCounter = meterRegistry.counter("couriers.locations.persisted");
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadCouriers() {
+        knownCouriers.addAll(courierRepository.findAllIds());
+    }
+
+    /**
+     * Checks the courier against the ids loaded at startup, falling back to the courier table for
+     * couriers added since.
+     */
+    public boolean isKnownCourier(int courierId) {
+        if (knownCouriers.contains(courierId)) {
+            return true;
+        }
+        if (courierRepository.existsById(courierId)) {
+            knownCouriers.add(courierId);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Only the courier itself reports its position.
+     */
+    public boolean canReport(int courierId, UserEntity user) {
+        return user.getCourierId() != null && user.getCourierId() == courierId;
+    }
+
+    /**
+     * A courier's position and trail are visible to that courier and to employees.
+     */
+    public boolean canTrack(int courierId, UserEntity user) {
+        return user.isEmployee() || canReport(courierId, user);
+    }
+
+    /**
+     * Appends pings to the courier's ring buffer in time order. Pings with out of range
+     * coordinates, stamped in the future, or not newer than the courier's latest ping are dropped.
+     * A recorded_at of 0 means now.
+     *
+     * @return The number of pings kept.
+     */
+    public int record(int courierId, List<ApiCourierLocationDTO> pings) {
+        long now = clock.getAsLong();
+        List<ApiCourierLocationDTO> valid = new ArrayList<>(pings.size());
+        for (ApiCourierLocationDTO ping : pings) {
+            if (ping.getRecorded_at() == 0) {
+                ping.setRecorded_at(now);
+            }
+            if (isValid(ping, now)) {
+                valid.add(ping);
+            }
+        }
+        valid.sort(Comparator.comparingLong(ApiCourierLocationDTO::getRecorded_at));
+
+        int accepted;
+        do {
+            LocationRing ring = rings.computeIfAbsent(courierId, id -> new LocationRing(bufferSize));
+            accepted = ring.add(valid);
+            if (accepted < 0) {
+                // Evicted by the flusher in the meantime, start a new buffer
+                rings.remove(courierId, ring);
+            }
+        } while (accepted < 0);
+
+        acceptedCounter.increment(accepted);
+        rejectedCounter.increment(pings.size() - accepted);
+        return accepted;
+    }
+
+    /**
+     * @return The courier's latest position and its positions since sinceMillis, oldest first, or
+     * empty when the courier never sent one.
+     */
+    public Optional<ApiCourierTrailDTO> getTrail(int courierId, long sinceMillis) {
+        LocationRing ring = rings.get(courierId);
+        List<ApiCourierLocationDTO> trail = ring != null ? ring.since(sinceMillis) : null;
+        if (trail == null) {
+            return findPersistedTrail(courierId, sinceMillis);
+        }
+        ApiCourierLocationDTO latest = trail.isEmpty() ? ring.latest() : trail.get(trail.size() - 1);
+        return Optional.of(new ApiCourierTrailDTO(courierId, latest, trail));
+    }
+
+    private Optional<ApiCourierTrailDTO> findPersistedTrail(int courierId, long sinceMillis) {
+        RowMapper<ApiCourierLocationDTO> mapper = (rs, rowNum) -> new ApiCourierLocationDTO(
+                rs.getDouble("latitude"), rs.getDouble("longitude"), rs.getTimestamp("recorded_at").getTime());
+        List<ApiCourierLocationDTO> latest = jdbcTemplate.query(
+                "SELECT latitude, longitude, recorded_at FROM courier_locations WHERE courier_id = ? " +
+                "ORDER BY recorded_at DESC LIMIT 1", mapper, courierId);
+        if (latest.isEmpty()) {
+            return Optional.empty();
+        }
+        List<ApiCourierLocationDTO> trail = jdbcTemplate.query(
+                "SELECT latitude, longitude, recorded_at FROM courier_locations WHERE courier_id = ? AND recorded_at >= ? " +
+                "ORDER BY recorded_at", mapper, courierId, new Timestamp(sinceMillis));
+        return Optional.of(new ApiCourierTrailDTO(courierId, latest.get(0), trail));
+    }
+
+    /**
+     * Persists, for every courier, the pings received since the last flush thinned out to one per
+     * persist interval, then drops the buffers of couriers idle for longer than the eviction delay.
+     */
+    @Scheduled(fixedDelayString = "${couriers.locations.flush-ms:10000}")
+    public void flush() {
+        long idleBefore = clock.getAsLong() - idleEvictionMs;
+        List<Object[]> rows = new ArrayList<>();
+        Map<LocationRing, Long> previousMarks = new IdentityHashMap<>();
+        for (Map.Entry<Integer, LocationRing> entry : rings.entrySet()) {
+            long previous = entry.getValue().collectUnpersisted(entry.getKey(), persistIntervalMs, idleBefore, rows);
+            previousMarks.put(entry.getValue(), previous);
+        }
+
+        if (!rows.isEmpty()) {
+            try {
+                jdbcTemplate.batchUpdate(INSERT_LOCATION_SQL, rows);
+                persistedCounter.increment(rows.size());
+            } catch (DataAccessException e) {
+                logger.log(Level.WARNING, "Courier location flush failed, retrying on the next run", e);
+                previousMarks.forEach(LocationRing::resetPersistedMark);
+                return;
+            }
+        }
+
+        rings.entrySet().removeIf(entry -> entry.getValue().retireIfIdle(idleBefore));
+    }
+
+    private static boolean isValid(ApiCourierLocationDTO ping, long now) {
+        return ping.getLatitude() >= -90 && ping.getLatitude() <= 90
+                && ping.getLongitude() >= -180 && ping.getLongitude() <= 180
+                && ping.getRecorded_at() <= now + MAX_CLOCK_SKEW_MS;
+    }
+
+    /**
+     * The latest pings of one courier. Slot (next - size + i) mod capacity holds the i-th oldest.
+     */
+    static class LocationRing {
+        final double[] latitudes;
+        final double[] longitudes;
+        final long[] times;
+        int next;
+        int size;
+        // Time of the last ping written to courier_locations, or 0
+        long persistedUpTo;
+        boolean retired;
+
+        LocationRing(int capacity) {
+            latitudes = new double[capacity];
+            longitudes = new double[capacity];
+            times = new long[capacity];
+        }
+
+        /**
+         * @return The number of pings added, or -1 when the ring was retired and must not be used.
+         */
+        synchronized int add(List<ApiCourierLocationDTO> pings) {
+            if (retired) {
+                return -1;
+            }
+            int added = 0;
+            for (ApiCourierLocationDTO ping : pings) {
+                if (size > 0 && ping.getRecorded_at() <= times[slot(size - 1)]) {
+                    continue;
+                }
+                latitudes[next] = ping.getLatitude();
+                longitudes[next] = ping.getLongitude();
+                times[next] = ping.getRecorded_at();
+                next = (next + 1) % times.length;
+                size = Math.min(size + 1, times.length);
+                added++;
+            }
+            return added;
+        }
+
+        synchronized ApiCourierLocationDTO latest() {
+            return size == 0 ? null : toLocation(slot(size - 1));
+        }
+
+        /**
+         * @return The pings newer than or at sinceMillis, oldest first, or null when the ring is empty.
+         */
+        synchronized List<ApiCourierLocationDTO> since(long sinceMillis) {
+            if (size == 0) {
+                return null;
+            }
+            List<ApiCourierLocationDTO> trail = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                int slot = slot(i);
+                if (times[slot] >= sinceMillis) {
+                    trail.add(toLocation(slot));
+                }
+            }
+            return trail;
+        }
+
+        /**
+         * Adds a row for each ping at least intervalMs after the previously persisted one, and for
+         * the latest ping once the courier went idle, so the last known position is never lost.
+         *
+         * @return The persisted mark before this call, to restore if the rows cannot be written.
+         */
+        synchronized long collectUnpersisted(int courierId, long intervalMs, long idleBefore, List<Object[]> rows) {
+            long previous = persistedUpTo;
+            for (int i = 0; i < size; i++) {
+                int slot = slot(i);
+                boolean lastOfIdle = i == size - 1 && times[slot] < idleBefore;
+                if (times[slot] > persistedUpTo && (times[slot] - persistedUpTo >= intervalMs || lastOfIdle)) {
+                    rows.add(new Object[] { courierId, latitudes[slot], longitudes[slot], new Timestamp(times[slot]) });
+                    persistedUpTo = times[slot];
+                }
+            }
+            return previous;
+        }
+
+        synchronized void resetPersistedMark(long mark) {
+            persistedUpTo = mark;
+        }
+
+        /**
+         * Retires the ring once its latest ping is older than idleBefore and persisted. A ping added
+         * after this flush collected its rows keeps the ring until the next flush writes it.
+         */
+        synchronized boolean retireIfIdle(long idleBefore) {
+            if (size == 0 || (times[slot(size - 1)] < idleBefore && times[slot(size - 1)] <= persistedUpTo)) {
+                retired = true;
+            }
+            return retired;
+        }
+
+        private int slot(int index) {
+            return Math.floorMod(next - size + index, times.length);
+        }
+
+        private ApiCourierLocationDTO toLocation(int slot) {
+            return new ApiCourierLocationDTO(latitudes[slot], longitudes[slot], times[slot]);
+        }
+    }
+}
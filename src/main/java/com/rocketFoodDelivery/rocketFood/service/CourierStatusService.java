@@ -1,21 +1,20 @@
 package com.rocketFoodDelivery.rocketFood.service;
 
 import com.rocketFoodDelivery.rocketFood.models.CourierStatus;
-import com.rocketFoodDelivery.rocketFood.repository.CourierStatusRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 @Service
 public class CourierStatusService {
 
-    CourierStatusRepository courierStatusRepository;
+    StatusRegistry statusRegistry;
     
     @Autowired
-    public CourierStatusService(CourierStatusRepository courierStatusRepository){
-        this.courierStatusRepository = courierStatusRepository;
+    public CourierStatusService(StatusRegistry statusRegistry){
+        this.statusRegistry = statusRegistry;
     }
 
     public CourierStatus findByName(String name) {
-        return courierStatusRepository.findByName(name);
+        return statusRegistry.findCourierStatus(name).orElse(null);
     }
 }
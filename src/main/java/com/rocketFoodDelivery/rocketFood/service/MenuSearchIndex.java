@@ -0,0 +1,311 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiSearchResultDTO;
+import com.rocketFoodDelivery.rocketFood.repository.ProductRepository;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+/**
+ * In-process inverted index over restaurant names and product names and descriptions, used by
+ * GET /api/search. Text is lowercased, stripped of accents and cut into words; each word maps to
+ * the documents holding it with a weight that depends on the field it came from. The words are
+ * kept sorted, so every query word also matches the indexed words it is a prefix of ("burg" finds
+ * "burger"), at a lower weight than an exact match. A document matches when it matches every query
+ * word, and ranks by the sum of its best weight for each of them.
+ */
+@Component
+public class MenuSearchIndex {
+    private static final Logger logger = Logger.getLogger(MenuSearchIndex.class.getName());
+
+    public static final String RESTAURANT = "restaurant";
+    public static final String PRODUCT = "product";
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+    private static final float RESTAURANT_NAME_WEIGHT = 3f;
+    private static final float PRODUCT_NAME_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+    private static final float PREFIX_FACTOR = 0.5f;
+
+    private final RestaurantRepository restaurantRepository;
+    private final ProductRepository productRepository;
+    private final int minPrefixLength;
+    private final int maxPrefixTerms;
+    private final Map<Integer, Document> restaurants = new HashMap<>();
+    private final Map<Integer, Document> products = new HashMap<>();
+    private final TreeMap<String, Map<Document, Float>> postings = new TreeMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Timer queryTimer;
+    private final DistributionSummary resultsSummary;
+
+    @Autowired
+    public MenuSearchIndex(RestaurantRepository restaurantRepository,
+                           ProductRepository productRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${search.min-prefix-length:2}") int minPrefixLength,
+                           @Value("${search.max-prefix-terms:500}") int maxPrefixTerms) {
+        this.restaurantRepository = restaurantRepository;
+        this.productRepository = productRepository;
+        this.minPrefixLength = minPrefixLength;
+        this.maxPrefixTerms = maxPrefixTerms;
+        this.queryTimer = meterRegistry.timer("search.query");
+        this.resultsSummary = meterRegistry.summary("search.results");
+    }
+
+    /**
+     * Rebuilds the whole index from the restaurants and products tables.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        List<Object[]> restaurantRows = restaurantRepository.findSearchableRestaurants();
+        List<Object[]> productRows = productRepository.findSearchableProducts();
+        lock.writeLock().lock();
+        try {
+            restaurants.clear();
+            products.clear();
+            postings.clear();
+            restaurantRows.forEach(this::addRestaurant);
+            productRows.forEach(this::addProduct);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.log(Level.INFO, "Search index loaded with {0} restaurants, {1} products and {2} words",
+                new Object[] { restaurantRows.size(), productRows.size(), postings.size() });
+    }
+
+    /**
+     * Re-reads a restaurant and its products and replaces their entries, or drops them when the
+     * restaurant no longer exists.
+     */
+    public void refreshRestaurant(int restaurantId) {
+        List<Object[]> restaurantRows = restaurantRepository.findRestaurantWithAverageRatingById(restaurantId);
+        List<Object[]> productRows = productRepository.findSearchableProductsByRestaurantId(restaurantId);
+        lock.writeLock().lock();
+        try {
+            removeRestaurantDocuments(restaurantId);
+            if (!restaurantRows.isEmpty()) {
+                addRestaurant(restaurantRows.get(0));
+                productRows.forEach(this::addProduct);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drops a restaurant and all of its products.
+     */
+    public void deleteRestaurant(int restaurantId) {
+        lock.writeLock().lock();
+        try {
+            removeRestaurantDocuments(restaurantId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return Up to limit restaurants and products matching every word of the query, best first.
+     */
+    public List<ApiSearchResultDTO> search(String query, int limit) {
+        return queryTimer.record(() -> {
+            List<ApiSearchResultDTO> results = find(tokenize(query), limit);
+            resultsSummary.record(results.size());
+            return results;
+        });
+    }
+
+    private List<ApiSearchResultDTO> find(Set<String> words, int limit) {
+        if (words.isEmpty()) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            List<Map<Document, Float>> matchesPerWord = new ArrayList<>();
+            for (String word : words) {
+                Map<Document, Float> matches = match(word);
+                if (matches.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                matchesPerWord.add(matches);
+            }
+            // Intersect starting from the rarest word, so the candidate set only shrinks
+            matchesPerWord.sort(Comparator.comparingInt(Map::size));
+
+            Comparator<Scored> ranking = Comparator.comparingDouble((Scored scored) -> scored.score)
+                    .thenComparing(scored -> -scored.document.name.length())
+                    .thenComparing(scored -> -scored.document.id);
+            PriorityQueue<Scored> best = new PriorityQueue<>(ranking);
+            candidates:
+            for (Map.Entry<Document, Float> candidate : matchesPerWord.get(0).entrySet()) {
+                float score = candidate.getValue();
+                for (int i = 1; i < matchesPerWord.size(); i++) {
+                    Float weight = matchesPerWord.get(i).get(candidate.getKey());
+                    if (weight == null) {
+                        continue candidates;
+                    }
+                    score += weight;
+                }
+                Scored scored = new Scored(candidate.getKey(), score);
+                if (best.size() < limit) {
+                    best.add(scored);
+                } else if (ranking.compare(scored, best.peek()) > 0) {
+                    best.poll();
+                    best.add(scored);
+                }
+            }
+
+            List<Scored> ranked = new ArrayList<>(best);
+            ranked.sort(ranking.reversed());
+            List<ApiSearchResultDTO> results = new ArrayList<>(ranked.size());
+            for (Scored scored : ranked) {
+                Document document = scored.document;
+                Document restaurant = restaurants.get(document.restaurantId);
+                results.add(new ApiSearchResultDTO(document.type, document.id, document.name, document.description,
+                        document.restaurantId, restaurant != null ? restaurant.name : null,
+                        Math.round(scored.score * 100) / 100.0));
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The best weight of every document holding the word, or an indexed word it is a prefix of.
+     */
+    private Map<Document, Float> match(String word) {
+        Map<Document, Float> matches = new HashMap<>();
+        Map<Document, Float> exact = postings.get(word);
+        if (exact != null) {
+            matches.putAll(exact);
+        }
+        if (word.length() < minPrefixLength) {
+            return matches;
+        }
+        int expanded = 0;
+        for (Map<Document, Float> extended : postings.subMap(word, false, word + Character.MAX_VALUE, false).values()) {
+            // Very short prefixes can match a large part of the vocabulary, cap the work per word
+            if (++expanded > maxPrefixTerms) {
+                break;
+            }
+            extended.forEach((document, weight) -> matches.merge(document, weight * PREFIX_FACTOR, Math::max));
+        }
+        return matches;
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) {
+            return words;
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String word : SEPARATORS.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    private void addRestaurant(Object[] row) {
+        int id = ((Number) row[0]).intValue();
+        add(restaurants, new Document(RESTAURANT, id, id, (String) row[1], null));
+    }
+
+    private void addProduct(Object[] row) {
+        add(products, new Document(PRODUCT, ((Number) row[0]).intValue(), ((Number) row[1]).intValue(),
+                (String) row[2], (String) row[3]));
+    }
+
+    private void removeRestaurantDocuments(int restaurantId) {
+        remove(restaurants.remove(restaurantId));
+        List<Document> menu = new ArrayList<>();
+        for (Document product : products.values()) {
+            if (product.restaurantId == restaurantId) {
+                menu.add(product);
+            }
+        }
+        for (Document product : menu) {
+            remove(products.remove(product.id));
+        }
+    }
+
+    private void add(Map<Integer, Document> documents, Document document) {
+        documents.put(document.id, document);
+        Map<String, Float> weights = new HashMap<>();
+        float nameWeight = RESTAURANT.equals(document.type) ? RESTAURANT_NAME_WEIGHT : PRODUCT_NAME_WEIGHT;
+        tokenize(document.name).forEach(word -> weights.merge(word, nameWeight, Float::sum));
+        tokenize(document.description).forEach(word -> weights.merge(word, DESCRIPTION_WEIGHT, Float::sum));
+        weights.forEach((word, weight) -> postings.computeIfAbsent(word, key -> new HashMap<>()).put(document, weight));
+        document.words = weights.keySet().toArray(new String[0]);
+    }
+
+    private void remove(Document document) {
+        if (document == null) {
+            return;
+        }
+        for (String word : document.words) {
+            Map<Document, Float> holders = postings.get(word);
+            holders.remove(document);
+            if (holders.isEmpty()) {
+                postings.remove(word);
+            }
+        }
+    }
+
+    /**
+     * An indexed restaurant or product. Compared by identity, every write replaces the instance.
+     */
+    private static class Document {
+        final String type;
+        final int id;
+        final int restaurantId;
+        final String name;
+        final String description;
+        String[] words;
+
+        Document(String type, int id, int restaurantId, String name, String description) {
+            this.type = type;
+            this.id = id;
+            this.restaurantId = restaurantId;
+            this.name = name != null ? name : "";
+            this.description = description;
+        }
+    }
+
+    private static class Scored {
+        final Document document;
+        final float score;
+
+        Scored(Document document, float score) {
+            this.document = document;
+            this.score = score;
+        }
+    }
+}
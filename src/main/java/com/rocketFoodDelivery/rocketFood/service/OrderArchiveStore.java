@@ -0,0 +1,511 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only cold storage for archived orders, kept in numbered segment files under
+ * orders.archive.dir.
+ * Each order is stored as one deflate-compressed JSON record, so a single order can be read
+ * without decompressing its neighbours. Every segment-N.seg has a segment-N.idx next to it made of
+ * fixed-width entries (order id, customer id, courier id, restaurant id, offset, length), which is
+ * loaded into primitive arrays at startup. Reads go through a read-only memory mapping of the
+ * segment. A record only counts once its index entry is written, so bytes left behind by an
+ * interrupted append are never read.
+ */
+@Component
+public class OrderArchiveStore {
+    static final int INDEX_ENTRY_BYTES = 28;
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final long maxSegmentBytes;
+    private final List<Segment> segments = new ArrayList<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public OrderArchiveStore(ObjectMapper objectMapper,
+                             @Value("${orders.archive.dir:data/order-archive}") String directory,
+                             @Value("${orders.archive.segment-max-mb:64}") long maxSegmentMegabytes) {
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.maxSegmentBytes = maxSegmentMegabytes * 1024 * 1024;
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().matches("segment-\\d+\\.seg")).sorted().toList();
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            Segment segment = new Segment(Integer.parseInt(name.substring(8, name.length() - 4)), file,
+                    directory.resolve(name.replace(".seg", ".idx")));
+            segment.loadIndex();
+            segments.add(segment);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            for (Segment segment : segments) {
+                segment.close();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Appends the orders and makes them durable, data first and index second.
+     */
+    public void append(List<ApiOrderDTO> orders) throws IOException {
+        if (orders.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            Files.createDirectories(directory);
+            Segment segment = segments.isEmpty() ? newSegment(1) : segments.get(segments.size() - 1);
+            List<ApiOrderDTO> pending = new ArrayList<>();
+            List<byte[]> records = new ArrayList<>();
+            long size = segment.data().size();
+            for (ApiOrderDTO order : orders) {
+                byte[] record = compress(objectMapper.writeValueAsBytes(order));
+                if (size + RECORD_HEADER_BYTES + record.length > maxSegmentBytes && (segment.count > 0 || !pending.isEmpty())) {
+                    segment.write(pending, records);
+                    pending.clear();
+                    records.clear();
+                    segment = newSegment(segment.number + 1);
+                    size = 0;
+                }
+                pending.add(order);
+                records.add(record);
+                size += RECORD_HEADER_BYTES + record.length;
+            }
+            segment.write(pending, records);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<ApiOrderDTO> find(int orderId) {
+        lock.readLock().lock();
+        try {
+            // Newest first: an order archived twice after an interrupted run resolves to its last copy
+            for (int i = segments.size() - 1; i >= 0; i--) {
+                int entry = segments.get(i).entryOf(orderId);
+                if (entry >= 0) {
+                    return Optional.of(segments.get(i).read(entry));
+                }
+            }
+            return Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param ownerType customer, courier or restaurant.
+     * @return The ids of the archived orders of the owner, ascending and without duplicates.
+     */
+    public int[] findIdsByOwner(String ownerType, int ownerId) {
+        int column = ownerColumn(ownerType);
+        lock.readLock().lock();
+        try {
+            int[] ids = new int[0];
+            int found = 0;
+            for (Segment segment : segments) {
+                int[] owners = segment.owners(column);
+                int[] sorted = segment.entriesByOwner(column);
+                for (int i = segment.firstEntryOf(column, ownerId); i < sorted.length && owners[sorted[i]] == ownerId; i++) {
+                    if (found == ids.length) {
+                        ids = Arrays.copyOf(ids, Math.max(16, found * 2));
+                    }
+                    ids[found++] = segment.orderIds[sorted[i]];
+                }
+            }
+            return sortedDistinct(ids, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The ids of all archived orders above afterId, ascending and without duplicates.
+     */
+    public int[] findIdsAfter(int afterId) {
+        lock.readLock().lock();
+        try {
+            int total = 0;
+            for (Segment segment : segments) {
+                total += segment.count;
+            }
+            int[] ids = new int[total];
+            int found = 0;
+            for (Segment segment : segments) {
+                for (int entry = 0; entry < segment.count; entry++) {
+                    if (segment.orderIds[entry] > afterId) {
+                        ids[found++] = segment.orderIds[entry];
+                    }
+                }
+            }
+            return sortedDistinct(ids, found);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reads the given orders, skipping ids that are not archived, in the order of the ids.
+     */
+    public List<ApiOrderDTO> findAll(int[] orderIds) {
+        List<ApiOrderDTO> orders = new ArrayList<>(orderIds.length);
+        for (int orderId : orderIds) {
+            find(orderId).ifPresent(orders::add);
+        }
+        return orders;
+    }
+
+    public boolean isEmpty() {
+        lock.readLock().lock();
+        try {
+            return segments.stream().allMatch(segment -> segment.count == 0);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Segment newSegment(int number) throws IOException {
+        String name = String.format("segment-%06d", number);
+        Segment segment = new Segment(number, directory.resolve(name + ".seg"), directory.resolve(name + ".idx"));
+        segment.loadIndex();
+        segments.add(segment);
+        return segment;
+    }
+
+    private static int ownerColumn(String ownerType) {
+        if ("customer".equalsIgnoreCase(ownerType)) {
+            return 0;
+        } else if ("courier".equalsIgnoreCase(ownerType)) {
+            return 1;
+        } else if ("restaurant".equalsIgnoreCase(ownerType)) {
+            return 2;
+        }
+        throw new IllegalArgumentException("Invalid user type");
+    }
+
+    /**
+     * Sorts the entry numbers by the given key column, then by entry. Keys are never negative, so
+     * sorting (key, entry) packed into a long sorts by key then entry.
+     */
+    private static int[] sortedBy(int[] keys, int count) {
+        long[] packed = new long[count];
+        for (int i = 0; i < count; i++) {
+            packed[i] = ((long) keys[i] << 32) | i;
+        }
+        Arrays.sort(packed);
+        int[] sorted = new int[count];
+        for (int i = 0; i < count; i++) {
+            sorted[i] = (int) packed[i];
+        }
+        return sorted;
+    }
+
+    private static int[] sortedDistinct(int[] ids, int length) {
+        int[] sorted = Arrays.copyOf(ids, length);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, distinct);
+    }
+
+    private static byte[] compress(byte[] json) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(json);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 2 + 16);
+            byte[] chunk = new byte[1024];
+            while (!deflater.finished()) {
+                out.write(chunk, 0, deflater.deflate(chunk));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] decompress(ByteBuffer record) {
+        byte[] input = new byte[record.remaining()];
+        record.get(input);
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(input);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(input.length * 3);
+            byte[] chunk = new byte[1024];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(chunk);
+                if (inflated == 0 && inflater.needsInput()) {
+                    throw new IOException("Truncated archive record");
+                }
+                out.write(chunk, 0, inflated);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException | IOException e) {
+            throw new IllegalStateException("Corrupt archive record", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private class Segment {
+        final int number;
+        final Path dataFile;
+        final Path indexFile;
+        FileChannel dataChannel;
+        MappedByteBuffer mapped;
+        int count;
+        int[] orderIds = new int[0];
+        int[] customerIds = new int[0];
+        int[] courierIds = new int[0];
+        int[] restaurantIds = new int[0];
+        long[] offsets = new long[0];
+        int[] lengths = new int[0];
+        // Entries sorted by order id for lookups, and by customer, courier and restaurant for
+        // findIdsByOwner, each rebuilt lazily after an append. Read without the segment's monitor.
+        volatile int[] sortedEntries;
+        volatile int[][] ownerEntries;
+
+        Segment(int number, Path dataFile, Path indexFile) {
+            this.number = number;
+            this.dataFile = dataFile;
+            this.indexFile = indexFile;
+        }
+
+        FileChannel data() throws IOException {
+            if (dataChannel == null) {
+                dataChannel = FileChannel.open(dataFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            }
+            return dataChannel;
+        }
+
+        void loadIndex() throws IOException {
+            if (!Files.exists(indexFile)) {
+                return;
+            }
+            ByteBuffer index = ByteBuffer.wrap(Files.readAllBytes(indexFile));
+            int entries = index.remaining() / INDEX_ENTRY_BYTES;
+            if (index.remaining() % INDEX_ENTRY_BYTES != 0) {
+                // The last append was interrupted mid-entry; cut the partial entry off, or the next
+                // append would land after it and shift every later entry
+                try (FileChannel indexChannel = FileChannel.open(indexFile, StandardOpenOption.WRITE)) {
+                    indexChannel.truncate((long) entries * INDEX_ENTRY_BYTES);
+                    indexChannel.force(false);
+                }
+            }
+            grow(entries);
+            for (int i = 0; i < entries; i++) {
+                orderIds[i] = index.getInt();
+                customerIds[i] = index.getInt();
+                courierIds[i] = index.getInt();
+                restaurantIds[i] = index.getInt();
+                offsets[i] = index.getLong();
+                lengths[i] = index.getInt();
+            }
+            count = entries;
+        }
+
+        void write(List<ApiOrderDTO> orders, List<byte[]> records) throws IOException {
+            if (orders.isEmpty()) {
+                return;
+            }
+            FileChannel channel = data();
+            long position = channel.size();
+            ByteBuffer index = ByteBuffer.allocate(orders.size() * INDEX_ENTRY_BYTES);
+            grow(count + orders.size());
+            int entry = count;
+            for (int i = 0; i < orders.size(); i++) {
+                ApiOrderDTO order = orders.get(i);
+                byte[] record = records.get(i);
+                ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER_BYTES + record.length);
+                buffer.putInt(order.getId()).putInt(record.length).put(record).flip();
+                while (buffer.hasRemaining()) {
+                    position += channel.write(buffer, position);
+                }
+                long offset = position - record.length;
+                index.putInt(order.getId()).putInt(order.getCustomer_id()).putInt(order.getCourier_id())
+                        .putInt(order.getRestaurant_id()).putLong(offset).putInt(record.length);
+
+                orderIds[entry] = order.getId();
+                customerIds[entry] = order.getCustomer_id();
+                courierIds[entry] = order.getCourier_id();
+                restaurantIds[entry] = order.getRestaurant_id();
+                offsets[entry] = offset;
+                lengths[entry] = record.length;
+                entry++;
+            }
+            channel.force(false);
+
+            index.flip();
+            try (FileChannel indexChannel = FileChannel.open(indexFile, StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (index.hasRemaining()) {
+                    indexChannel.write(index);
+                }
+                indexChannel.force(false);
+            }
+            count = entry;
+            sortedEntries = null;
+            ownerEntries = null;
+        }
+
+        int entryOf(int orderId) {
+            int[] sorted = sortedEntries;
+            if (sorted == null) {
+                sorted = sortEntries();
+            }
+            int low = 0;
+            int high = sorted.length - 1;
+            int match = -1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                int id = orderIds[sorted[middle]];
+                if (id < orderId) {
+                    low = middle + 1;
+                } else if (id > orderId) {
+                    high = middle - 1;
+                } else {
+                    // Keep looking right for the latest copy of the order
+                    match = sorted[middle];
+                    low = middle + 1;
+                }
+            }
+            return match;
+        }
+
+        synchronized int[] sortEntries() {
+            if (sortedEntries == null) {
+                sortedEntries = sortedBy(orderIds, count);
+            }
+            return sortedEntries;
+        }
+
+        int[] entriesByOwner(int column) {
+            int[][] sorted = ownerEntries;
+            if (sorted == null) {
+                sorted = sortOwnerEntries();
+            }
+            return sorted[column];
+        }
+
+        synchronized int[][] sortOwnerEntries() {
+            if (ownerEntries == null) {
+                ownerEntries = new int[][] { sortedBy(customerIds, count), sortedBy(courierIds, count),
+                        sortedBy(restaurantIds, count) };
+            }
+            return ownerEntries;
+        }
+
+        /**
+         * @return The position in {@link #entriesByOwner} of the first entry of the owner, or where it
+         * would be.
+         */
+        int firstEntryOf(int column, int ownerId) {
+            int[] owners = owners(column);
+            int[] sorted = entriesByOwner(column);
+            int low = 0;
+            int high = sorted.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (owners[sorted[middle]] < ownerId) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        ApiOrderDTO read(int entry) {
+            try {
+                ByteBuffer record = mapping(offsets[entry] + lengths[entry]).duplicate();
+                record.position((int) offsets[entry]).limit((int) (offsets[entry] + lengths[entry]));
+                return objectMapper.readValue(decompress(record.slice()), ApiOrderDTO.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        /**
+         * Maps the segment read-only, remapping when the records to read lie past the current mapping.
+         */
+        synchronized MappedByteBuffer mapping(long end) throws IOException {
+            if (mapped == null || mapped.capacity() < end) {
+                FileChannel channel = data();
+                mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+            return mapped;
+        }
+
+        int[] owners(int column) {
+            return column == 0 ? customerIds : column == 1 ? courierIds : restaurantIds;
+        }
+
+        void grow(int capacity) {
+            if (capacity <= orderIds.length) {
+                return;
+            }
+            int size = Math.max(capacity, orderIds.length * 2);
+            orderIds = Arrays.copyOf(orderIds, size);
+            customerIds = Arrays.copyOf(customerIds, size);
+            courierIds = Arrays.copyOf(courierIds, size);
+            restaurantIds = Arrays.copyOf(restaurantIds, size);
+            offsets = Arrays.copyOf(offsets, size);
+            lengths = Arrays.copyOf(lengths, size);
+        }
+
+        void close() throws IOException {
+            if (dataChannel != null) {
+                dataChannel.close();
+            }
+        }
+    }
+}
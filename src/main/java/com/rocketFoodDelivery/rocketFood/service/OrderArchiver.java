@@ -0,0 +1,158 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderDTO;
+import com.rocketFoodDelivery.rocketFood.models.OrderLifecycle;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Moves orders delivered more than orders.archive.min-age-days ago out of orders and
+ * product_orders into {@link OrderArchiveStore}, in batches of orders.archive.batch-size.
+ * A batch is first written to the archive and made durable, then removed from the hot tables in one
+ * transaction, together with moving its ratings to the restaurants' archived rating share. An order
+ * whose rating changed in between is left in place. Its archived copy is never served because the
+ * hot tables are always read first.
+ */
+@Service
+public class OrderArchiver {
+    private static final Logger logger = Logger.getLogger(OrderArchiver.class.getName());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OrderArchiveStore orderArchiveStore;
+    private final StatusRegistry statusRegistry;
+    private final boolean enabled;
+    private final int minAgeDays;
+    private final int batchSize;
+
+    @Autowired
+    public OrderArchiver(JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate,
+                         OrderArchiveStore orderArchiveStore,
+                         StatusRegistry statusRegistry,
+                         @Value("${orders.archive.enabled:false}") boolean enabled,
+                         @Value("${orders.archive.min-age-days:30}") int minAgeDays,
+                         @Value("${orders.archive.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.orderArchiveStore = orderArchiveStore;
+        this.statusRegistry = statusRegistry;
+        this.enabled = enabled;
+        this.minAgeDays = minAgeDays;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(cron = "${orders.archive.cron:0 30 3 * * *}")
+    public void scheduledArchive() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * @return The number of orders moved to the archive.
+     */
+    public synchronized int archive() {
+        int deliveredStatusId = statusRegistry.getOrderStatusId(OrderLifecycle.DELIVERED);
+        // Orders delivered before delivered_at was recorded start their waiting period now
+        jdbcTemplate.update("UPDATE orders SET delivered_at = CURRENT_TIMESTAMP WHERE status_id = ? AND delivered_at IS NULL",
+                deliveredStatusId);
+        Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(minAgeDays));
+
+        int archived = 0;
+        int lastId = 0;
+        while (true) {
+            List<Integer> ids = jdbcTemplate.queryForList(
+                    "SELECT id FROM orders WHERE status_id = ? AND delivered_at < ? AND id > ? ORDER BY id LIMIT ?",
+                    Integer.class, deliveredStatusId, cutoff, lastId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            lastId = ids.get(ids.size() - 1);
+
+            String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+            List<ApiOrderDTO> orders = new ArrayList<>();
+            OrderHistoryAssembler assembler = new OrderHistoryAssembler(orders::add);
+            jdbcTemplate.query(OrderHistoryAssembler.SELECT_ORDER_LINES + "WHERE o.id IN (" + placeholders + ") ORDER BY o.id",
+                    assembler, ids.toArray());
+            assembler.finish();
+
+            try {
+                orderArchiveStore.append(orders);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write the order archive, no orders were removed", e);
+            }
+            archived += removeArchived(orders, deliveredStatusId);
+        }
+        logger.log(Level.INFO, "Archived {0} delivered orders", archived);
+        return archived;
+    }
+
+    private int removeArchived(List<ApiOrderDTO> orders, int deliveredStatusId) {
+        if (orders.isEmpty()) {
+            return 0;
+        }
+        return transactionTemplate.execute(status -> {
+            Map<Integer, ApiOrderDTO> byId = new HashMap<>();
+            for (ApiOrderDTO order : orders) {
+                byId.put(order.getId(), order);
+            }
+            String placeholders = String.join(", ", Collections.nCopies(orders.size(), "?"));
+            List<Object> args = new ArrayList<>(byId.keySet());
+            args.add(deliveredStatusId);
+
+            // Lock the rows and keep only those still identical to what was archived
+            Set<Integer> unchanged = new HashSet<>();
+            jdbcTemplate.query("SELECT id, restaurant_rating FROM orders WHERE id IN (" + placeholders + ") AND status_id = ? FOR UPDATE",
+                    rs -> {
+                        int rating = rs.getInt("restaurant_rating");
+                        Integer current = rs.wasNull() ? null : rating;
+                        if (Objects.equals(byId.get(rs.getInt("id")).getRestaurant_rating(), current)) {
+                            unchanged.add(rs.getInt("id"));
+                        }
+                    }, args.toArray());
+            if (unchanged.isEmpty()) {
+                return 0;
+            }
+
+            Map<Integer, int[]> ratingShares = new HashMap<>();
+            List<Object[]> orderIds = new ArrayList<>();
+            for (Integer orderId : unchanged) {
+                ApiOrderDTO order = byId.get(orderId);
+                int[] share = ratingShares.computeIfAbsent(order.getRestaurant_id(), id -> new int[2]);
+                // Moves the order's rating (orders.restaurant_rating is NOT NULL) into the restaurant's archived share
+                share[0] += order.getRestaurant_rating();
+                share[1]++;
+                orderIds.add(new Object[] { orderId });
+            }
+            List<Object[]> shareUpdates = new ArrayList<>();
+            for (Map.Entry<Integer, int[]> share : ratingShares.entrySet()) {
+                shareUpdates.add(new Object[] { share.getValue()[0], share.getValue()[1], share.getKey() });
+            }
+            jdbcTemplate.batchUpdate("UPDATE restaurants SET archived_rating_sum = archived_rating_sum + ?, " +
+                    "archived_rating_count = archived_rating_count + ? WHERE id = ?", shareUpdates);
+            jdbcTemplate.batchUpdate("DELETE FROM product_orders WHERE order_id = ?", orderIds);
+            jdbcTemplate.batchUpdate("DELETE FROM orders WHERE id = ?", orderIds);
+            return unchanged.size();
+        });
+    }
+}
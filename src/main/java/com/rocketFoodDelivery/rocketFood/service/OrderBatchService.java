@@ -0,0 +1,345 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiBatchOrderResultDTO;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCreateOrderDTO;
+import com.rocketFoodDelivery.rocketFood.models.OrderLifecycle;
+import com.rocketFoodDelivery.rocketFood.util.TransactionUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bulk order ingestion for POST /api/orders/batch.
+ * All orders of a request are validated with one set-based query per referenced table, then the
+ * valid ones are written in groups, each group in its own transaction with JDBC batches for both
+ * orders and product_orders. A group that fails at write time is retried order by order, so a
+ * single bad order only ever fails itself. Orders without a courier get one from
+ * {@link CourierDispatcher} right before their group is written.
+ */
+@Service
+public class OrderBatchService {
+    private static final Logger logger = Logger.getLogger(OrderBatchService.class.getName());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final RestaurantCatalogIndex restaurantCatalogIndex;
+    private final StatusRegistry statusRegistry;
+    private final RestaurantRollupService restaurantRollupService;
+    private final CourierDispatcher courierDispatcher;
+    private final CourierBatchDispatcher courierBatchDispatcher;
+    private final Timer batchTimer;
+    private final MeterRegistry meterRegistry;
+    private final int groupSize;
+
+    @Autowired
+    public OrderBatchService(JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             RestaurantCatalogIndex restaurantCatalogIndex,
+                             StatusRegistry statusRegistry,
+                             RestaurantRollupService restaurantRollupService,
+                             CourierDispatcher courierDispatcher,
+                             CourierBatchDispatcher courierBatchDispatcher,
+                             MeterRegistry meterRegistry,
+                             @Value("${orders.batch.group-size:100}") int groupSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.restaurantCatalogIndex = restaurantCatalogIndex;
+        this.statusRegistry = statusRegistry;
+        this.restaurantRollupService = restaurantRollupService;
+        this.courierDispatcher = courierDispatcher;
+        this.courierBatchDispatcher = courierBatchDispatcher;
+        this.meterRegistry = meterRegistry;
+        this.batchTimer = meterRegistry.timer("orders.placement", "mode", "batch");
+        this.groupSize = groupSize;
+    }
+
+    public List<ApiBatchOrderResultDTO> placeOrders(List<ApiCreateOrderDTO> orders) {
+        return batchTimer.record(() -> {
+            ApiBatchOrderResultDTO[] results = new ApiBatchOrderResultDTO[orders.size()];
+            List<PendingOrder> valid = validate(orders, results);
+
+            for (int from = 0; from < valid.size(); from += groupSize) {
+                List<PendingOrder> group = valid.subList(from, Math.min(from + groupSize, valid.size()));
+                try {
+                    writeGroup(group, results);
+                } catch (DataAccessException e) {
+                    logger.log(Level.WARNING, "Order batch group failed, retrying its orders one by one", e);
+                    for (PendingOrder order : group) {
+                        try {
+                            writeGroup(List.of(order), results);
+                        } catch (DataAccessException single) {
+                            results[order.index] = ApiBatchOrderResultDTO.failed(order.index, "Order could not be saved");
+                        }
+                    }
+                }
+            }
+
+            List<ApiBatchOrderResultDTO> outcome = new ArrayList<>(results.length);
+            Collections.addAll(outcome, results);
+            long created = outcome.stream().filter(ApiBatchOrderResultDTO::isSuccess).count();
+            meterRegistry.counter("orders.placed", "mode", "batch").increment(created);
+            return outcome;
+        });
+    }
+
+    /**
+     * Validates every order against four set-based lookups and returns the ones that can be written.
+     * Orders that cannot are given a failed result right away.
+     */
+    private List<PendingOrder> validate(List<ApiCreateOrderDTO> orders, ApiBatchOrderResultDTO[] results) {
+        Set<Integer> restaurantIds = new HashSet<>();
+        Set<Integer> customerIds = new HashSet<>();
+        Set<Integer> courierIds = new HashSet<>();
+        Set<Integer> productIds = new HashSet<>();
+        List<Map<Integer, Integer>> quantities = new ArrayList<>();
+
+        for (int i = 0; i < orders.size(); i++) {
+            ApiCreateOrderDTO order = orders.get(i);
+            Map<Integer, Integer> lines = null;
+            if (order == null || order.getRestaurant_id() == 0 || order.getCustomer_id() == 0
+                    || order.getCourier_id() < 0 || order.getProducts() == null || order.getProducts().isEmpty()) {
+                results[i] = ApiBatchOrderResultDTO.failed(i, "Invalid or missing parameters");
+            } else {
+                try {
+                    lines = OrderPlacementService.mergeQuantities(order.getProducts());
+                    restaurantIds.add(order.getRestaurant_id());
+                    customerIds.add(order.getCustomer_id());
+                    if (order.getCourier_id() != 0) {
+                        courierIds.add(order.getCourier_id());
+                    }
+                    productIds.addAll(lines.keySet());
+                } catch (IllegalArgumentException e) {
+                    results[i] = ApiBatchOrderResultDTO.failed(i, e.getMessage());
+                }
+            }
+            quantities.add(lines);
+        }
+
+        Map<Integer, int[]> restaurantRatings = new HashMap<>();
+        queryIn("SELECT id, rating_sum, rating_count FROM restaurants WHERE id IN (%s)", restaurantIds,
+                rs -> restaurantRatings.put(rs.getInt("id"), new int[] { rs.getInt("rating_sum"), rs.getInt("rating_count") }));
+        Set<Integer> existingCustomers = new HashSet<>();
+        queryIn("SELECT id FROM customers WHERE id IN (%s)", customerIds, rs -> existingCustomers.add(rs.getInt("id")));
+        Set<Integer> existingCouriers = new HashSet<>();
+        queryIn("SELECT id FROM courier WHERE id IN (%s)", courierIds, rs -> existingCouriers.add(rs.getInt("id")));
+        Map<Integer, int[]> productsById = new HashMap<>();
+        queryIn("SELECT id, restaurant_id, cost FROM products WHERE id IN (%s)", productIds,
+                rs -> productsById.put(rs.getInt("id"), new int[] { rs.getInt("restaurant_id"), rs.getInt("cost") }));
+
+        List<PendingOrder> valid = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            ApiCreateOrderDTO order = orders.get(i);
+            int[] rating = restaurantRatings.get(order.getRestaurant_id());
+            String error = null;
+            if (rating == null) {
+                error = "No restaurant found with ID: " + order.getRestaurant_id();
+            } else if (rating[1] == 0) {
+                error = "No rating found for restaurant with ID: " + order.getRestaurant_id();
+            } else if (!existingCustomers.contains(order.getCustomer_id())) {
+                error = "No customer found with ID: " + order.getCustomer_id();
+            } else if (order.getCourier_id() != 0 && !existingCouriers.contains(order.getCourier_id())) {
+                error = "No courier found with ID: " + order.getCourier_id();
+            }
+
+            PendingOrder pending = new PendingOrder(i, order, quantities.get(i));
+            for (Map.Entry<Integer, Integer> line : pending.quantities.entrySet()) {
+                int[] product = productsById.get(line.getKey());
+                if (error == null && (product == null || product[0] != order.getRestaurant_id())) {
+                    error = "Product " + line.getKey() + " does not belong to restaurant " + order.getRestaurant_id();
+                }
+                if (product != null) {
+                    pending.unitCosts.put(line.getKey(), product[1]);
+                }
+            }
+
+            if (error != null) {
+                results[i] = ApiBatchOrderResultDTO.failed(i, error);
+            } else {
+                pending.restaurantRating = rating[0] / rating[1];
+                valid.add(pending);
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Writes one group of validated orders in a single transaction: a batch of order inserts, a
+     * batch of line item inserts, one rating aggregate update per restaurant and one rollup upsert.
+     * The couriers taken for the group are given back if the transaction fails.
+     */
+    private void writeGroup(List<PendingOrder> requested, ApiBatchOrderResultDTO[] results) {
+        List<PendingOrder> group = assignCouriers(requested, results);
+        if (group.isEmpty()) {
+            return;
+        }
+        try {
+            insertGroup(group, results);
+        } catch (RuntimeException e) {
+            group.forEach(order -> courierDispatcher.release(order.courierId));
+            throw e;
+        }
+    }
+
+    /**
+     * Gives each order without a courier one from {@link CourierDispatcher}, unless batch dispatch
+     * is on, and counts the others against their courier. Orders left without a courier, or whose
+     * courier is offline or full, fail.
+     *
+     * @return The orders that have a courier.
+     */
+    private List<PendingOrder> assignCouriers(List<PendingOrder> group, ApiBatchOrderResultDTO[] results) {
+        List<PendingOrder> assigned = new ArrayList<>(group.size());
+        for (PendingOrder order : group) {
+            if (order.order.getCourier_id() != 0) {
+                if (courierDispatcher.recordAssignment(order.order.getCourier_id())) {
+                    order.courierId = order.order.getCourier_id();
+                    assigned.add(order);
+                } else {
+                    results[order.index] = ApiBatchOrderResultDTO.failed(order.index,
+                            "Courier " + order.order.getCourier_id() + " is offline or cannot take another order");
+                }
+                continue;
+            }
+            if (courierBatchDispatcher.isEnabled()) {
+                // Written without a courier and queued for the next dispatch window
+                order.courierId = 0;
+                assigned.add(order);
+                continue;
+            }
+            OptionalInt courierId = courierDispatcher.claim();
+            if (courierId.isPresent()) {
+                order.courierId = courierId.getAsInt();
+                assigned.add(order);
+            } else {
+                results[order.index] = ApiBatchOrderResultDTO.failed(order.index, "No courier is available right now");
+            }
+        }
+        return assigned;
+    }
+
+    private void insertGroup(List<PendingOrder> group, ApiBatchOrderResultDTO[] results) {
+        int pendingStatusId = statusRegistry.getOrderStatusId(OrderLifecycle.PENDING);
+        LocalDateTime placedAt = LocalDateTime.now();
+        List<Integer> orderIds = transactionTemplate.execute(status -> {
+            List<Integer> ids = jdbcTemplate.execute((ConnectionCallback<List<Integer>>) connection -> {
+                List<Integer> generated = new ArrayList<>(group.size());
+                try (PreparedStatement ps = connection.prepareStatement(OrderPlacementService.INSERT_ORDER_SQL,
+                        Statement.RETURN_GENERATED_KEYS)) {
+                    for (PendingOrder order : group) {
+                        ps.setInt(1, order.order.getRestaurant_id());
+                        ps.setInt(2, order.order.getCustomer_id());
+                        if (order.courierId == 0) {
+                            ps.setNull(3, Types.INTEGER);
+                        } else {
+                            ps.setInt(3, order.courierId);
+                        }
+                        ps.setInt(4, order.restaurantRating);
+                        ps.setInt(5, pendingStatusId);
+                        ps.setInt(6, OrderPlacementService.totalCost(order.quantities, order.unitCosts));
+                        ps.setTimestamp(7, Timestamp.valueOf(placedAt));
+                        ps.setTimestamp(8, Timestamp.valueOf(placedAt));
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        while (keys.next()) {
+                            generated.add(keys.getInt(1));
+                        }
+                    }
+                }
+                return generated;
+            });
+
+            List<Object[]> lineItems = new ArrayList<>();
+            Map<Integer, int[]> ratingDeltas = new HashMap<>();
+            List<RestaurantRollupService.Placement> placements = new ArrayList<>(group.size());
+            for (int i = 0; i < group.size(); i++) {
+                PendingOrder order = group.get(i);
+                placements.add(new RestaurantRollupService.Placement(order.order.getRestaurant_id(), placedAt,
+                        OrderPlacementService.itemCount(order.quantities),
+                        OrderPlacementService.totalCost(order.quantities, order.unitCosts), order.restaurantRating));
+                for (Map.Entry<Integer, Integer> line : order.quantities.entrySet()) {
+                    lineItems.add(new Object[] { ids.get(i), line.getKey(), line.getValue(), order.unitCosts.get(line.getKey()) });
+                }
+                int[] delta = ratingDeltas.computeIfAbsent(order.order.getRestaurant_id(), id -> new int[2]);
+                delta[0] += order.restaurantRating;
+                delta[1]++;
+            }
+            jdbcTemplate.batchUpdate(OrderPlacementService.INSERT_PRODUCT_ORDER_SQL, lineItems);
+
+            List<Object[]> aggregateUpdates = new ArrayList<>();
+            for (Map.Entry<Integer, int[]> delta : ratingDeltas.entrySet()) {
+                aggregateUpdates.add(new Object[] { delta.getValue()[0], delta.getValue()[1], delta.getKey() });
+            }
+            jdbcTemplate.batchUpdate(
+                    "UPDATE restaurants SET rating_sum = rating_sum + ?, rating_count = rating_count + ? WHERE id = ?",
+                    aggregateUpdates);
+            restaurantRollupService.recordPlacements(placements);
+
+            TransactionUtils.runAfterCommit(() -> {
+                ratingDeltas.keySet().forEach(restaurantCatalogIndex::refresh);
+                for (int i = 0; i < group.size(); i++) {
+                    if (group.get(i).courierId == 0) {
+                        courierBatchDispatcher.enqueue(ids.get(i));
+                    }
+                }
+            });
+            return ids;
+        });
+
+        for (int i = 0; i < group.size(); i++) {
+            results[group.get(i).index] = ApiBatchOrderResultDTO.created(group.get(i).index, orderIds.get(i));
+        }
+    }
+
+    private void queryIn(String sqlTemplate, Collection<Integer> ids, RowCallbackHandler handler) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        String sql = String.format(sqlTemplate, String.join(", ", Collections.nCopies(ids.size(), "?")));
+        jdbcTemplate.query(sql, handler, ids.toArray());
+    }
+
+    private static class PendingOrder {
+        final int index;
+        final ApiCreateOrderDTO order;
+        final Map<Integer, Integer> quantities;
+        final Map<Integer, Integer> unitCosts = new HashMap<>();
+        int restaurantRating;
+        int courierId;
+
+        PendingOrder(int index, ApiCreateOrderDTO order, Map<Integer, Integer> quantities) {
+            this.index = index;
+            this.order = order;
+            this.quantities = quantities;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.exception.ConflictException;
+import com.rocketFoodDelivery.rocketFood.repository.OrderRepository;
+import com.rocketFoodDelivery.rocketFood.repository.ProductOrderRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One-time job that fills product_orders.product_unit_cost and orders.total_cost for rows written
+ * before they were persisted at order creation. Line items get the product's current cost, which
+ * is the best price still known for them. The job walks the orders in id ranges of
+ * orders.cost-backfill.chunk-size, each range in its own short statements, and only touches rows
+ * that are still null, so it can be stopped and run again safely.
+ */
+@Service
+public class OrderCostBackfillService {
+    private static final Logger logger = Logger.getLogger(OrderCostBackfillService.class.getName());
+
+    private final OrderRepository orderRepository;
+    private final ProductOrderRepository productOrderRepository;
+    private final int chunkSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public OrderCostBackfillService(OrderRepository orderRepository,
+                                    ProductOrderRepository productOrderRepository,
+                                    @Value("${orders.cost-backfill.chunk-size:5000}") int chunkSize) {
+        this.orderRepository = orderRepository;
+        this.productOrderRepository = productOrderRepository;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return The number of line items and orders that were filled in.
+     * @throws ConflictException When a backfill is already running.
+     */
+    public Map<String, Integer> backfill() {
+        if (!running.compareAndSet(false, true)) {
+            throw new ConflictException("The order cost backfill is already running");
+        }
+        try {
+            int maxId = orderRepository.findMaxId();
+            int lineItems = 0;
+            int orders = 0;
+            for (int from = 1; from <= maxId; from += chunkSize) {
+                int to = from + chunkSize - 1;
+                lineItems += productOrderRepository.fillMissingUnitCosts(from, to);
+                orders += orderRepository.fillMissingTotalCosts(from, to);
+            }
+            logger.log(Level.INFO, "Order cost backfill filled {0} line items and {1} orders", new Object[] { lineItems, orders });
+
+            Map<String, Integer> result = new LinkedHashMap<>();
+            result.put("line_items", lineItems);
+            result.put("orders", orders);
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+}
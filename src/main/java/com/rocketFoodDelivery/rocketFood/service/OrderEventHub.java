@@ -0,0 +1,218 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderStatusEventDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans order status changes out to Server-Sent Events subscribers, per order and per customer.
+ * Publishing only drops the event into each matching subscriber's bounded buffer; a small pool of
+ * sender threads writes the buffers to the connections, so a slow client can neither hold up a
+ * status change nor make memory grow. When a buffer is full its oldest event is dropped.
+ * Idle subscribers get a heartbeat comment and are closed after orders.events.idle-timeout-seconds
+ * without a status change; EventSource clients reconnect on their own.
+ */
+@Component
+public class OrderEventHub {
+    private static final Object HEARTBEAT = new Object();
+
+    private final Map<Integer, Set<Subscriber>> byOrder = new ConcurrentHashMap<>();
+    private final Map<Integer, Set<Subscriber>> byCustomer = new ConcurrentHashMap<>();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ExecutorService senders;
+    private final int maxConnections;
+    private final int bufferSize;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final Counter publishedCounter;
+    private final Counter droppedCounter;
+    private final Counter rejectedCounter;
+
+    @Autowired
+    public OrderEventHub(MeterRegistry meterRegistry,
+                         @Value("${orders.events.max-connections:5000}") int maxConnections,
+                         @Value("${orders.events.buffer-size:16}") int bufferSize,
+                         @Value("${orders.events.senders:4}") int senders,
+                         @Value("${orders.events.idle-timeout-seconds:300}") long idleTimeoutSeconds,
+                         @Value("${orders.events.max-lifetime-seconds:3600}") long maxLifetimeSeconds) {
+        this.maxConnections = maxConnections;
+        this.bufferSize = bufferSize;
+        this.idleTimeoutMillis = TimeUnit.SECONDS.toMillis(idleTimeoutSeconds);
+        this.maxLifetimeMillis = TimeUnit.SECONDS.toMillis(maxLifetimeSeconds);
+        this.senders = Executors.newFixedThreadPool(senders, runnable -> {
+            Thread thread = new Thread(runnable, "order-events-sender");
+            thread.setDaemon(true);
+            return thread;
+        });
+        meterRegistry.gauge("orders.events.subscribers", connections);
+        this.publishedCounter = meterRegistry.counter("orders.events.published");
+        this.droppedCounter = meterRegistry.counter("orders.events.dropped");
+        this.rejectedCounter = meterRegistry.counter("orders.events.rejected");
+    }
+
+    /**
+     * @return The stream for one order, or empty when orders.events.max-connections is reached.
+     */
+    public Optional<SseEmitter> subscribeToOrder(int orderId) {
+        return subscribe(byOrder, orderId);
+    }
+
+    /**
+     * @return The stream for all orders of a customer, or empty when the connection cap is reached.
+     */
+    public Optional<SseEmitter> subscribeToCustomer(int customerId) {
+        return subscribe(byCustomer, customerId);
+    }
+
+    public void publish(ApiOrderStatusEventDTO event) {
+        publishedCounter.increment();
+        deliver(byOrder.get(event.getOrder_id()), event);
+        deliver(byCustomer.get(event.getCustomer_id()), event);
+    }
+
+    public int getConnections() {
+        return connections.get();
+    }
+
+    /**
+     * Keeps idle connections open through proxies and closes those idle for too long.
+     */
+    @Scheduled(fixedDelayString = "${orders.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        long idleSince = System.currentTimeMillis() - idleTimeoutMillis;
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.lastEventAt < idleSince) {
+                subscriber.emitter.complete();
+                remove(subscriber);
+            } else if (subscriber.buffer.isEmpty() && subscriber.buffer.offer(HEARTBEAT)) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+            remove(subscriber);
+        }
+        senders.shutdownNow();
+    }
+
+    private Optional<SseEmitter> subscribe(Map<Integer, Set<Subscriber>> topics, int key) {
+        if (connections.incrementAndGet() > maxConnections) {
+            connections.decrementAndGet();
+            rejectedCounter.increment();
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(maxLifetimeMillis);
+        Subscriber subscriber = new Subscriber(emitter, topics, key, bufferSize);
+        subscribers.add(subscriber);
+        topics.compute(key, (k, set) -> {
+            Set<Subscriber> topic = set == null ? ConcurrentHashMap.newKeySet() : set;
+            topic.add(subscriber);
+            return topic;
+        });
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(error -> remove(subscriber));
+        return Optional.of(emitter);
+    }
+
+    private void deliver(Set<Subscriber> targets, ApiOrderStatusEventDTO event) {
+        if (targets == null) {
+            return;
+        }
+        for (Subscriber subscriber : targets) {
+            while (!subscriber.buffer.offer(event)) {
+                if (subscriber.buffer.poll() != null) {
+                    droppedCounter.increment();
+                }
+            }
+            subscriber.lastEventAt = System.currentTimeMillis();
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            Object next;
+            while ((next = subscriber.buffer.poll()) != null) {
+                try {
+                    if (next == HEARTBEAT) {
+                        subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        ApiOrderStatusEventDTO event = (ApiOrderStatusEventDTO) next;
+                        subscriber.emitter.send(SseEmitter.event()
+                                .id(event.getOrder_id() + ":" + event.getVersion())
+                                .name("status")
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    // The client disconnected or the emitter already completed
+                    droppedCounter.increment(subscriber.buffer.size() + 1);
+                    subscriber.buffer.clear();
+                    remove(subscriber);
+                }
+            }
+            subscriber.draining.set(false);
+            // An event may have arrived after the last poll but before the flag was cleared
+        } while (!subscriber.buffer.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscribers.remove(subscriber);
+        subscriber.topics.computeIfPresent(subscriber.key, (key, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+        connections.decrementAndGet();
+    }
+
+    private static class Subscriber {
+        final SseEmitter emitter;
+        final Map<Integer, Set<Subscriber>> topics;
+        final int key;
+        final BlockingQueue<Object> buffer;
+        final AtomicBoolean draining = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+        volatile long lastEventAt = System.currentTimeMillis();
+
+        Subscriber(SseEmitter emitter, Map<Integer, Set<Subscriber>> topics, int key, int bufferSize) {
+            this.emitter = emitter;
+            this.topics = topics;
+            this.key = key;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Streams every order as newline-delimited JSON for GET /api/orders/export.
+ * The query runs on a forward-only, read-only result set with the MySQL driver in row streaming
+ * mode, and each order is written out as soon as {@link OrderHistoryAssembler} has seen its last
+ * line, so memory use does not depend on how many orders are exported.
+ */
+@Service
+public class OrderExportService {
+    private static final byte[] NEWLINE = { '\n' };
+
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final OrderArchiveStore orderArchiveStore;
+
+    @Autowired
+    public OrderExportService(DataSource dataSource, ObjectMapper objectMapper, OrderArchiveStore orderArchiveStore,
+                              @Value("${orders.export.fetch-size:-2147483648}") int fetchSize) {
+        this(streamingJdbcTemplate(dataSource, fetchSize), objectMapper, orderArchiveStore);
+    }
+
+    OrderExportService(JdbcTemplate streamingJdbcTemplate, ObjectMapper objectMapper, OrderArchiveStore orderArchiveStore) {
+        this.streamingJdbcTemplate = streamingJdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.orderArchiveStore = orderArchiveStore;
+    }
+
+    // Connector/J only streams rows instead of buffering the whole result with Integer.MIN_VALUE
+    private static JdbcTemplate streamingJdbcTemplate(DataSource dataSource, int fetchSize) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        return jdbcTemplate;
+    }
+
+    /**
+     * Writes all orders with an id greater than afterId, in id order, one JSON document per line.
+     * Archived orders are interleaved by id, read one at a time from the archive.
+     * The caller owns the output stream and closes it.
+     */
+    public void exportOrders(int afterId, OutputStream target) throws IOException {
+        BufferedOutputStream out = new BufferedOutputStream(target, 64 * 1024);
+        String sql = OrderHistoryAssembler.SELECT_ORDER_LINES + "WHERE o.id > ? ORDER BY o.id";
+
+        int[] archivedIds = orderArchiveStore.findIdsAfter(afterId);
+        int[] nextArchived = { 0 };
+        OrderHistoryAssembler assembler = new OrderHistoryAssembler(order -> {
+            nextArchived[0] = writeArchivedBefore(out, archivedIds, nextArchived[0], order.getId());
+            if (nextArchived[0] < archivedIds.length && archivedIds[nextArchived[0]] == order.getId()) {
+                nextArchived[0]++;
+            }
+            writeLine(out, order);
+        });
+        try {
+            streamingJdbcTemplate.query(connection -> {
+                PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setInt(1, afterId);
+                return ps;
+            }, assembler);
+            assembler.finish();
+            writeArchivedBefore(out, archivedIds, nextArchived[0], Integer.MAX_VALUE);
+        } catch (UncheckedIOException e) {
+            // The client went away, stop reading rows
+            throw e.getCause();
+        }
+        out.flush();
+    }
+
+    /**
+     * Writes the archived orders from position next up to, not including, order id limit.
+     *
+     * @return The position of the first archived id not written.
+     */
+    private int writeArchivedBefore(OutputStream out, int[] archivedIds, int next, int limit) {
+        while (next < archivedIds.length && archivedIds[next] < limit) {
+            orderArchiveStore.find(archivedIds[next]).ifPresent(order -> writeLine(out, order));
+            next++;
+        }
+        return next;
+    }
+
+    private void writeLine(OutputStream out, ApiOrderDTO order) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(order));
+            out.write(NEWLINE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderDTO;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiProductForOrderApiDTO;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Turns the one-row-per-order-line result of {@link #SELECT_ORDER_LINES} into nested
+ * {@link ApiOrderDTO}s while the rows are being read. The query must be ordered by order id, in
+ * either direction, so the lines of an order arrive together; each order is handed to the sink as soon as its last line has
+ * been seen, so at most one order is held in memory at a time. Prices are the unit costs and order
+ * total stored when the order was placed, not the products' current costs; only orders placed
+ * before those were stored, and not yet backfilled, are priced at the current costs.
+ */
+public class OrderHistoryAssembler implements RowCallbackHandler {
+    static final String ORDER_LINE_COLUMNS = "SELECT o.id, c.id as customer_id, cu.name as customer_name, c.email as customer_email, " +
+            "CONCAT(a.street_address, ', ', a.city, ', ', a.postal_code) as customer_address, " +
+            "r.id as restaurant_id, r.name as restaurant_name, " +
+            "CONCAT(ra.street_address, ', ', ra.city, ', ', ra.postal_code) as restaurant_address, " +
+            "cour.id as courier_id, u.name as courier_name, os.name as status, o.restaurant_rating, o.total_cost, " +
+            // Lines written before unit costs were persisted fall back to the product's current cost
+            "p.id as product_id, p.name as product_name, op.product_quantity, " +
+            "COALESCE(op.product_unit_cost, p.cost) as unit_cost ";
+
+    // Joins from the orders row (aliased o) to everything an order line shows.
+    static final String ORDER_LINE_JOINS = "JOIN customers c ON o.customer_id = c.id " +
+            "JOIN users cu ON c.user_id = cu.id " +
+            "JOIN addresses a ON c.address_id = a.id " +
+            "JOIN restaurants r ON o.restaurant_id = r.id " +
+            "JOIN addresses ra ON r.address_id = ra.id " +
+            // Orders waiting for batch dispatch have no courier yet
+            "LEFT JOIN courier cour ON o.courier_id = cour.id " +
+            "LEFT JOIN users u ON cour.user_id = u.id " +
+            "JOIN order_statuses os ON o.status_id = os.id " +
+            "JOIN product_orders op ON o.id = op.order_id " +
+            "JOIN products p ON op.product_id = p.id ";
+
+    static final String SELECT_ORDER_LINES = ORDER_LINE_COLUMNS + "FROM orders o " + ORDER_LINE_JOINS;
+
+    private final Consumer<ApiOrderDTO> sink;
+    private ApiOrderDTO current;
+    // Set for orders placed before total_cost was persisted, whose total is summed from their lines
+    private boolean summingLines;
+
+    public OrderHistoryAssembler(Consumer<ApiOrderDTO> sink) {
+        this.sink = sink;
+    }
+
+    @Override
+    public void processRow(ResultSet rs) throws SQLException {
+        int orderId = rs.getInt("id");
+        if (current == null || current.getId() != orderId) {
+            finish();
+            current = new ApiOrderDTO();
+            current.setId(orderId);
+            current.setCustomer_id(rs.getInt("customer_id"));
+            current.setCustomer_name(rs.getString("customer_name"));
+            current.setCustomer_email(rs.getString("customer_email"));
+            current.setCustomer_address(rs.getString("customer_address"));
+            current.setRestaurant_id(rs.getInt("restaurant_id"));
+            current.setRestaurant_name(rs.getString("restaurant_name"));
+            current.setRestaurant_address(rs.getString("restaurant_address"));
+            current.setCourier_id(rs.getInt("courier_id"));
+            current.setCourier_name(rs.getString("courier_name"));
+            current.setStatus(rs.getString("status"));
+            int rating = rs.getInt("restaurant_rating");
+            current.setRestaurant_rating(rs.wasNull() ? null : rating);
+            current.setProducts(new ArrayList<>());
+            long totalCost = rs.getLong("total_cost");
+            summingLines = rs.wasNull();
+            current.setTotal_cost(summingLines ? 0 : totalCost);
+        }
+
+        ApiProductForOrderApiDTO product = new ApiProductForOrderApiDTO();
+        product.setId(rs.getInt("product_id"));
+        product.setProduct_name(rs.getString("product_name"));
+        product.setQuantity(rs.getInt("product_quantity"));
+        product.setUnit_cost(rs.getInt("unit_cost"));
+        product.setTotal_cost(product.getQuantity() * product.getUnit_cost());
+        current.getProducts().add(product);
+        if (summingLines) {
+            current.setTotal_cost(current.getTotal_cost() + product.getTotal_cost());
+        }
+    }
+
+    /**
+     * Emits the order still being assembled. Must be called once the result set is exhausted.
+     */
+    public void finish() {
+        if (current != null) {
+            sink.accept(current);
+            current = null;
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiBatchOrderResultDTO;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCreateOrderDTO;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderIntakeStatusDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Optional write-behind intake for POST /api/orders, enabled with orders.intake.async=true.
+ * Accepted orders go into a bounded ring buffer and the request returns straight away with a
+ * tracking id. A small pool of writer threads drains the buffer in batches through
+ * {@link OrderBatchService}, so a slow database holds writer threads instead of Tomcat threads.
+ * When the buffer is full new orders are rejected rather than queued without bound.
+ */
+@Component
+public class OrderIntakeQueue {
+    private static final Logger logger = Logger.getLogger(OrderIntakeQueue.class.getName());
+
+    private final OrderBatchService orderBatchService;
+    private final boolean enabled;
+    private final int writers;
+    private final int batchSize;
+    private final long statusTtlMillis;
+    private final BlockingQueue<QueuedOrder> buffer;
+    private final Map<String, TrackedStatus> statuses = new ConcurrentHashMap<>();
+    private final LongSupplier clock;
+    private final Counter acceptedCounter;
+    private final Counter rejectedCounter;
+    private final Counter drainedCounter;
+    private final DistributionSummary drainBatchSize;
+    private ExecutorService writerPool;
+    private volatile boolean running;
+
+    @Autowired
+    public OrderIntakeQueue(OrderBatchService orderBatchService,
+                            MeterRegistry meterRegistry,
+                            @Value("${orders.intake.async:false}") boolean enabled,
+                            @Value("${orders.intake.capacity:10000}") int capacity,
+                            @Value("${orders.intake.writers:2}") int writers,
+                            @Value("${orders.intake.batch-size:200}") int batchSize,
+                            @Value("${orders.intake.status-ttl-seconds:600}") long statusTtlSeconds) {
+        this(orderBatchService, meterRegistry, enabled, capacity, writers, batchSize, statusTtlSeconds,
+                System::currentTimeMillis);
+    }
+
+    OrderIntakeQueue(OrderBatchService orderBatchService, MeterRegistry meterRegistry, boolean enabled, int capacity,
+                     int writers, int batchSize, long statusTtlSeconds, LongSupplier clock) {
+        this.clock = clock;
+        this.orderBatchService = orderBatchService;
+        this.enabled = enabled;
+        this.writers = writers;
+        this.batchSize = batchSize;
+        this.statusTtlMillis = TimeUnit.SECONDS.toMillis(statusTtlSeconds);
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        meterRegistry.gauge("orders.intake.queue.depth", buffer, BlockingQueue::size);
+        this.acceptedCounter = meterRegistry.counter("orders.intake.accepted");
+        this.rejectedCounter = meterRegistry.counter("orders.intake.rejected");
+        this.drainedCounter = meterRegistry.counter("orders.intake.drained");
+        this.drainBatchSize = meterRegistry.summary("orders.intake.drain.batch.size");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writerPool = Executors.newFixedThreadPool(writers, runnable -> {
+            Thread thread = new Thread(runnable, "order-intake-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < writers; i++) {
+            writerPool.submit(this::drainLoop);
+        }
+    }
+
+    /**
+     * Waits for the writers to flush what is already buffered before the application stops.
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (writerPool == null) {
+            return;
+        }
+        running = false;
+        writerPool.shutdown();
+        if (!writerPool.awaitTermination(30, TimeUnit.SECONDS)) {
+            logger.log(Level.WARNING, "Order intake writers stopped with {0} orders still queued", buffer.size());
+            writerPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Enqueues an order that already passed request validation.
+     *
+     * @return The tracking id, or empty when the buffer is full and the order was rejected.
+     */
+    public Optional<String> submit(ApiCreateOrderDTO order) {
+        String trackingId = UUID.randomUUID().toString();
+        statuses.put(trackingId, new TrackedStatus(new ApiOrderIntakeStatusDTO(trackingId, "queued", null, null)));
+        if (!buffer.offer(new QueuedOrder(trackingId, order))) {
+            statuses.remove(trackingId);
+            rejectedCounter.increment();
+            return Optional.empty();
+        }
+        acceptedCounter.increment();
+        return Optional.of(trackingId);
+    }
+
+    public Optional<ApiOrderIntakeStatusDTO> getStatus(String trackingId) {
+        TrackedStatus tracked = statuses.get(trackingId);
+        return tracked == null ? Optional.empty() : Optional.of(tracked.status);
+    }
+
+    public int getDepth() {
+        return buffer.size();
+    }
+
+    /**
+     * Forgets the outcome of orders that finished more than orders.intake.status-ttl-seconds ago.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void evictFinishedStatuses() {
+        long cutoff = clock.getAsLong() - statusTtlMillis;
+        statuses.values().removeIf(tracked -> !"queued".equals(tracked.status.getStatus()) && tracked.finishedAt < cutoff);
+    }
+
+    private void drainLoop() {
+        List<QueuedOrder> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                QueuedOrder first = buffer.poll(500, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.log(Level.SEVERE, "Order intake writer failed on a batch of " + batch.size() + " orders", e);
+                for (QueuedOrder order : batch) {
+                    finish(order.trackingId, new ApiOrderIntakeStatusDTO(order.trackingId, "failed", null, "Order could not be saved"));
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<QueuedOrder> batch) {
+        List<ApiCreateOrderDTO> orders = new ArrayList<>(batch.size());
+        for (QueuedOrder order : batch) {
+            orders.add(order.order);
+        }
+        List<ApiBatchOrderResultDTO> results = orderBatchService.placeOrders(orders);
+        for (int i = 0; i < batch.size(); i++) {
+            ApiBatchOrderResultDTO result = results.get(i);
+            String trackingId = batch.get(i).trackingId;
+            finish(trackingId, result.isSuccess()
+                    ? new ApiOrderIntakeStatusDTO(trackingId, "created", result.getOrder_id(), null)
+                    : new ApiOrderIntakeStatusDTO(trackingId, "failed", null, result.getError()));
+        }
+        drainedCounter.increment(batch.size());
+        drainBatchSize.record(batch.size());
+    }
+
+    private void finish(String trackingId, ApiOrderIntakeStatusDTO status) {
+        TrackedStatus tracked = new TrackedStatus(status);
+        tracked.finishedAt = clock.getAsLong();
+        statuses.put(trackingId, tracked);
+    }
+
+    private static class QueuedOrder {
+        final String trackingId;
+        final ApiCreateOrderDTO order;
+
+        QueuedOrder(String trackingId, ApiCreateOrderDTO order) {
+            this.trackingId = trackingId;
+            this.order = order;
+        }
+    }
+
+    private static class TrackedStatus {
+        final ApiOrderIntakeStatusDTO status;
+        long finishedAt;
+
+        TrackedStatus(ApiOrderIntakeStatusDTO status) {
+            this.status = status;
+        }
+    }
+}
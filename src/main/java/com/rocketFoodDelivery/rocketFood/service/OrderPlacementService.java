@@ -0,0 +1,285 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.exception.ConflictException;
+import com.rocketFoodDelivery.rocketFood.models.OrderLifecycle;
+import com.rocketFoodDelivery.rocketFood.util.TransactionUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Places orders in a fixed number of round trips: one validation query, one order insert, one
+ * JDBC batch for the line items and one rating aggregate update. An order placed without a
+ * courier gets one from {@link CourierDispatcher}, or from {@link CourierBatchDispatcher} when batch dispatch is on. The response is assembled from
+ * what those statements already returned instead of re-reading the order.
+ */
+@Service
+public class OrderPlacementService {
+    static final String INSERT_ORDER_SQL =
+            "INSERT INTO orders (restaurant_id, customer_id, courier_id, restaurant_rating, status_id, total_cost, created_at, status_changed_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String INSERT_PRODUCT_ORDER_SQL =
+            "INSERT INTO product_orders (order_id, product_id, product_quantity, product_unit_cost) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RestaurantRatingService restaurantRatingService;
+    private final RestaurantCatalogIndex restaurantCatalogIndex;
+    private final StatusRegistry statusRegistry;
+    private final RestaurantRollupService restaurantRollupService;
+    private final CourierDispatcher courierDispatcher;
+    private final CourierBatchDispatcher courierBatchDispatcher;
+    // Tagged mode=single, next to the mode=batch meters of OrderBatchService, to compare throughput.
+    private final Timer placementTimer;
+    private final Counter placedCounter;
+
+    @Autowired
+    public OrderPlacementService(JdbcTemplate jdbcTemplate,
+                                 RestaurantRatingService restaurantRatingService,
+                                 RestaurantCatalogIndex restaurantCatalogIndex,
+                                 StatusRegistry statusRegistry,
+                                 RestaurantRollupService restaurantRollupService,
+                                 CourierDispatcher courierDispatcher,
+                                 CourierBatchDispatcher courierBatchDispatcher,
+                                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.restaurantRatingService = restaurantRatingService;
+        this.restaurantCatalogIndex = restaurantCatalogIndex;
+        this.statusRegistry = statusRegistry;
+        this.restaurantRollupService = restaurantRollupService;
+        this.courierDispatcher = courierDispatcher;
+        this.courierBatchDispatcher = courierBatchDispatcher;
+        this.placementTimer = meterRegistry.timer("orders.placement", "mode", "single");
+        this.placedCounter = meterRegistry.counter("orders.placed", "mode", "single");
+    }
+
+    @Transactional
+    public Map<String, Object> placeOrder(int restaurantId, int customerId, int courierId, List<Map<String, Integer>> products) {
+        Map<String, Object> order = placementTimer.record(() -> insertOrder(restaurantId, customerId, courierId, products));
+        placedCounter.increment();
+        return order;
+    }
+
+    private Map<String, Object> insertOrder(int restaurantId, int customerId, int requestedCourierId, List<Map<String, Integer>> products) {
+        if (restaurantId == 0 || customerId == 0 || products == null || products.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameters for creating order");
+        }
+        Map<Integer, Integer> quantities = mergeQuantities(products);
+        int courierId = assignCourier(requestedCourierId);
+        OrderContext context = validate(restaurantId, customerId, courierId, quantities);
+
+        int pendingStatusId = statusRegistry.getOrderStatusId(OrderLifecycle.PENDING);
+        int totalCost = totalCost(quantities, context.productCosts);
+        Timestamp placedAt = Timestamp.valueOf(LocalDateTime.now());
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_ORDER_SQL, Statement.RETURN_GENERATED_KEYS);
+            ps.setInt(1, restaurantId);
+            ps.setInt(2, customerId);
+            if (courierId == 0) {
+                ps.setNull(3, Types.INTEGER);
+            } else {
+                ps.setInt(3, courierId);
+            }
+            ps.setInt(4, context.restaurantRating);
+            ps.setInt(5, pendingStatusId);
+            ps.setInt(6, totalCost);
+            ps.setTimestamp(7, placedAt);
+            ps.setTimestamp(8, placedAt);
+            return ps;
+        }, keyHolder);
+        int orderId = keyHolder.getKey().intValue();
+
+        List<Object[]> lineItems = new ArrayList<>();
+        List<Map<String, Object>> productLines = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+            int unitCost = context.productCosts.get(line.getKey());
+            lineItems.add(new Object[] { orderId, line.getKey(), line.getValue(), unitCost });
+
+            Map<String, Object> productLine = new LinkedHashMap<>();
+            productLine.put("product_id", line.getKey());
+            productLine.put("product_quantity", line.getValue());
+            productLine.put("product_unit_cost", unitCost);
+            productLines.add(productLine);
+        }
+        jdbcTemplate.batchUpdate(INSERT_PRODUCT_ORDER_SQL, lineItems);
+
+        restaurantRatingService.recordRating(restaurantId, context.restaurantRating);
+        restaurantRollupService.recordPlacements(List.of(new RestaurantRollupService.Placement(restaurantId,
+                placedAt.toLocalDateTime(), itemCount(quantities), totalCost, context.restaurantRating)));
+        TransactionUtils.runAfterCommit(() -> {
+            restaurantCatalogIndex.refresh(restaurantId);
+            if (courierId == 0) {
+                courierBatchDispatcher.enqueue(orderId);
+            }
+        });
+
+        Map<String, Object> order = new LinkedHashMap<>();
+        order.put("id", orderId);
+        order.put("restaurant_id", restaurantId);
+        order.put("customer_id", customerId);
+        order.put("courier_id", courierId == 0 ? null : courierId);
+        order.put("status_id", pendingStatusId);
+        order.put("restaurant_rating", context.restaurantRating);
+        order.put("restaurant_name", context.restaurantName);
+        order.put("customer_name", context.customerName);
+        order.put("courier_name", context.courierName);
+        order.put("products", productLines);
+        order.put("total_cost", totalCost);
+        return order;
+    }
+
+    /**
+     * Takes a courier from {@link CourierDispatcher} when none was requested, or counts the order
+     * against the requested one. The slot is given back if the placement rolls back. With batch
+     * dispatch enabled an order without a courier keeps none, 0, and is queued once committed.
+     *
+     * @throws ConflictException When no courier is requested and none is available, or the requested
+     *                           one is offline or full.
+     */
+    private int assignCourier(int requestedCourierId) {
+        int courierId = requestedCourierId;
+        if (requestedCourierId == 0 && courierBatchDispatcher.isEnabled()) {
+            return 0;
+        } else if (requestedCourierId == 0) {
+            courierId = courierDispatcher.claim()
+                    .orElseThrow(() -> new ConflictException("No courier is available right now, retry later"));
+        } else if (!courierDispatcher.recordAssignment(requestedCourierId)) {
+            throw new ConflictException("Courier " + requestedCourierId + " is offline or cannot take another order");
+        }
+        int assigned = courierId;
+        TransactionUtils.runAfterRollback(() -> courierDispatcher.release(assigned));
+        return courierId;
+    }
+
+    /**
+     * Sums the quantities of repeated product ids, since an order holds at most one line per product.
+     */
+    static Map<Integer, Integer> mergeQuantities(List<Map<String, Integer>> products) {
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (Map<String, Integer> product : products) {
+            Integer productId = product.get("id");
+            Integer quantity = product.get("quantity");
+            if (productId == null || quantity == null || quantity < 1) {
+                throw new IllegalArgumentException("Invalid product line: " + product);
+            }
+            quantities.merge(productId, quantity, Integer::sum);
+        }
+        return quantities;
+    }
+
+    /**
+     * Prices the lines with the unit costs captured at placement time.
+     */
+    static int totalCost(Map<Integer, Integer> quantities, Map<Integer, Integer> unitCosts) {
+        int total = 0;
+        for (Map.Entry<Integer, Integer> line : quantities.entrySet()) {
+            total += line.getValue() * unitCosts.get(line.getKey());
+        }
+        return total;
+    }
+
+    static int itemCount(Map<Integer, Integer> quantities) {
+        int items = 0;
+        for (int quantity : quantities.values()) {
+            items += quantity;
+        }
+        return items;
+    }
+
+    /**
+     * Checks in a single statement that the restaurant, customer and courier exist and that every
+     * product belongs to the restaurant, collecting the names and current product costs on the way.
+     */
+    private OrderContext validate(int restaurantId, int customerId, int courierId, Map<Integer, Integer> quantities) {
+        String placeholders = String.join(", ", Collections.nCopies(quantities.size(), "?"));
+        String sql = "SELECT r.name AS restaurant_name, r.rating_sum, r.rating_count, " +
+                "c.id AS customer_id, cu.name AS customer_name, " +
+                "cour.id AS courier_id, ou.name AS courier_name, " +
+                "p.id AS product_id, p.cost AS product_cost " +
+                "FROM restaurants r " +
+                "LEFT JOIN customers c ON c.id = ? " +
+                "LEFT JOIN users cu ON cu.id = c.user_id " +
+                "LEFT JOIN courier cour ON cour.id = ? " +
+                "LEFT JOIN users ou ON ou.id = cour.user_id " +
+                "LEFT JOIN products p ON p.restaurant_id = r.id AND p.id IN (" + placeholders + ") " +
+                "WHERE r.id = ?";
+
+        List<Object> args = new ArrayList<>();
+        args.add(customerId);
+        args.add(courierId);
+        args.addAll(quantities.keySet());
+        args.add(restaurantId);
+
+        OrderContext context = new OrderContext();
+        jdbcTemplate.query(sql, rs -> {
+            context.restaurantFound = true;
+            context.restaurantName = rs.getString("restaurant_name");
+            context.ratingSum = rs.getInt("rating_sum");
+            context.ratingCount = rs.getInt("rating_count");
+            context.customerFound = rs.getObject("customer_id") != null;
+            context.customerName = rs.getString("customer_name");
+            context.courierFound = rs.getObject("courier_id") != null;
+            context.courierName = rs.getString("courier_name");
+            if (rs.getObject("product_id") != null) {
+                context.productCosts.put(rs.getInt("product_id"), rs.getInt("product_cost"));
+            }
+        }, args.toArray());
+
+        if (!context.restaurantFound) {
+            throw new IllegalArgumentException("No restaurant found with ID: " + restaurantId);
+        }
+        if (context.ratingCount == 0) {
+            // Aggregates not filled in yet on a database that predates them
+            RestaurantRatingService.RatingAggregate aggregate = restaurantRatingService.backfillRating(restaurantId);
+            context.ratingSum = aggregate.sum;
+            context.ratingCount = aggregate.count;
+        }
+        if (context.ratingCount == 0) {
+            throw new IllegalArgumentException("No rating found for restaurant with ID: " + restaurantId);
+        }
+        if (!context.customerFound) {
+            throw new IllegalArgumentException("No customer found with ID: " + customerId);
+        }
+        if (courierId != 0 && !context.courierFound) {
+            throw new IllegalArgumentException("No courier found with ID: " + courierId);
+        }
+        for (Integer productId : quantities.keySet()) {
+            if (!context.productCosts.containsKey(productId)) {
+                throw new IllegalArgumentException("Product " + productId + " does not belong to restaurant " + restaurantId);
+            }
+        }
+        context.restaurantRating = context.ratingSum / context.ratingCount;
+        return context;
+    }
+
+    private static class OrderContext {
+        boolean restaurantFound;
+        String restaurantName;
+        int ratingSum;
+        int ratingCount;
+        int restaurantRating;
+        boolean customerFound;
+        String customerName;
+        boolean courierFound;
+        String courierName;
+        final Map<Integer, Integer> productCosts = new HashMap<>();
+    }
+}
@@ -1,10 +1,23 @@
 package com.rocketFoodDelivery.rocketFood.service;
 
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderStatusEventDTO;
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ConflictException;
+import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
+import com.rocketFoodDelivery.rocketFood.models.OrderLifecycle;
+import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
 import com.rocketFoodDelivery.rocketFood.repository.OrderRepository;
+import com.rocketFoodDelivery.rocketFood.util.TransactionUtils;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
 
 
 @Service
@@ -13,10 +26,113 @@ public class OrderService {
     private EntityManager entityManager;
 
     OrderRepository orderRepository;
+    private final StatusRegistry statusRegistry;
+    private final OrderEventHub orderEventHub;
+    private final RestaurantRollupService restaurantRollupService;
+    private final CourierDispatcher courierDispatcher;
     
     @Autowired
-    public OrderService(OrderRepository orderRepository) {
+    public OrderService(OrderRepository orderRepository, StatusRegistry statusRegistry, OrderEventHub orderEventHub,
+                        RestaurantRollupService restaurantRollupService, CourierDispatcher courierDispatcher) {
         this.orderRepository = orderRepository;
+        this.statusRegistry = statusRegistry;
+        this.orderEventHub = orderEventHub;
+        this.restaurantRollupService = restaurantRollupService;
+        this.courierDispatcher = courierDispatcher;
+    }
+
+    /**
+     * Moves an order to a new status following {@link OrderLifecycle}.
+     * Status ids come from {@link StatusRegistry}, the order's status and version are read once and
+     * the change is a single conditional update on both, so of two concurrent transitions from the
+     * same state only one can apply. The restaurant rollups move the order between status counts in
+     * the same transaction. Once committed, applied transitions are pushed to {@link OrderEventHub},
+     * and an order that is delivered or cancelled frees its slot in {@link CourierDispatcher}.
+     *
+     * @throws BadRequestException       When the status name is unknown.
+     * @throws ResourceNotFoundException When the order does not exist.
+     * @throws ConflictException         When the transition is not allowed from the current status,
+     *                                   the order is still waiting for a courier or it changed since
+     *                                   it was read.
+     */
+    @Transactional
+    public OrderStatus changeStatus(int orderId, String statusName) {
+        OrderLifecycle target = OrderLifecycle.fromStatusName(statusName);
+        if (target == null) {
+            throw new BadRequestException("Invalid or missing parameters", "Unknown order status: " + statusName);
+        }
+
+        OrderStatus targetStatus = statusRegistry.getOrderStatus(target);
+
+        List<Object[]> rows = orderRepository.findStatusSnapshot(orderId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Order with id " + orderId + " not found");
+        }
+        int currentStatusId = ((Number) rows.get(0)[0]).intValue();
+        int version = ((Number) rows.get(0)[1]).intValue();
+        int customerId = ((Number) rows.get(0)[2]).intValue();
+        int restaurantId = ((Number) rows.get(0)[3]).intValue();
+        LocalDateTime createdAt = toLocalDateTime(rows.get(0)[4]);
+        // No courier yet while the order waits for batch dispatch
+        int courierId = rows.get(0)[5] != null ? ((Number) rows.get(0)[5]).intValue() : 0;
+        String currentName = statusRegistry.findOrderStatus(currentStatusId).map(OrderStatus::getName).orElse(null);
+        OrderLifecycle current = OrderLifecycle.fromStatusName(currentName);
+
+        if (current == null || !current.canMoveTo(target)) {
+            throw new ConflictException("Order " + orderId + " cannot go from " + currentName + " to " + target.getStatusName());
+        }
+        // The batch dispatcher only assigns pending orders, one moved on without a courier would never get one
+        if (current == OrderLifecycle.PENDING && courierId == 0 && target != OrderLifecycle.CANCELLED) {
+            throw new ConflictException("Order " + orderId + " has no courier yet and cannot go to " + target.getStatusName());
+        }
+        LocalDateTime changedAt = LocalDateTime.now();
+        if (orderRepository.transitionStatus(orderId, currentStatusId, version, targetStatus.getId(),
+                target == OrderLifecycle.DELIVERED, changedAt) == 0) {
+            throw new ConflictException("Order " + orderId + " was updated concurrently, read it again and retry");
+        }
+        restaurantRollupService.recordStatusChange(restaurantId, createdAt, current, target);
+
+        ApiOrderStatusEventDTO event = new ApiOrderStatusEventDTO(orderId, customerId, targetStatus.getName(), version + 1,
+                System.currentTimeMillis());
+        TransactionUtils.runAfterCommit(() -> {
+            if (target.nextStates().isEmpty()) {
+                courierDispatcher.release(courierId);
+            }
+            orderEventHub.publish(event);
+        });
+        return targetStatus;
+    }
+
+    /**
+     * Whether a user may follow the status changes of an order: employees, the customer who placed
+     * it and the courier delivering it.
+     */
+    public boolean canFollowOrder(int orderId, UserEntity user) {
+        if (user.isEmployee()) {
+            return true;
+        }
+        List<Object[]> rows = orderRepository.findStatusSnapshot(orderId);
+        if (rows.isEmpty()) {
+            return false;
+        }
+        Object customerId = rows.get(0)[2];
+        Object courierId = rows.get(0)[5];
+        return (user.getCustomerId() != null && customerId != null && user.getCustomerId() == ((Number) customerId).intValue())
+                || (user.getCourierId() != null && courierId != null && user.getCourierId() == ((Number) courierId).intValue());
     }
 
-}
\ No newline at end of file
+    /**
+     * Whether a user may follow the status changes of every order of a customer: employees and
+     * that customer.
+     */
+    public boolean canFollowCustomer(int customerId, UserEntity user) {
+        return user.isEmployee() || (user.getCustomerId() != null && user.getCustomerId() == customerId);
+    }
+
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
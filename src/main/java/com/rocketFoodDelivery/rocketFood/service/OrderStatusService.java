@@ -1,7 +1,6 @@
 package com.rocketFoodDelivery.rocketFood.service;
 
 import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
-import com.rocketFoodDelivery.rocketFood.repository.OrderStatusRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -11,17 +10,21 @@ import java.util.Optional;
 
 @Service
 public class OrderStatusService {
-    private final OrderStatusRepository orderStatusRepository;
+    private final StatusRegistry statusRegistry;
 
     @Autowired
-    public OrderStatusService(OrderStatusRepository orderStatusRepository) {
-        this.orderStatusRepository = orderStatusRepository;
+    public OrderStatusService(StatusRegistry statusRegistry) {
+        this.statusRegistry = statusRegistry;
     }
     public List<OrderStatus> getAllOrderStatuses() {
-        return orderStatusRepository.findAll();
+        return statusRegistry.getOrderStatuses();
     }
     public Optional<OrderStatus> findById(int id) {
-        return orderStatusRepository.findById(id);
+        return statusRegistry.findOrderStatus(id);
     }
 
-}
\ No newline at end of file
+    public Optional<OrderStatus> findByName(String name) {
+        return statusRegistry.findOrderStatus(name);
+    }
+
+}
@@ -0,0 +1,223 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiRestaurantDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiRestaurantFacetsDto;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process index of the restaurant catalog used to answer rating/price filters and facet counts.
+ * Each price range (1-3) and each rounded rating (0-5, 0 meaning not rated yet) owns a bitset in
+ * which bit N is set when restaurant N falls in that bucket, so a filter is a single AND of two
+ * bitsets and a facet count is the cardinality of one.
+ */
+@Component
+public class RestaurantCatalogIndex {
+    public static final int MAX_PRICE_RANGE = 3;
+    public static final int MAX_RATING = 5;
+
+    private final RestaurantRepository restaurantRepository;
+    private final BitSet all = new BitSet();
+    private final BitSet[] byPriceRange = new BitSet[MAX_PRICE_RANGE + 1];
+    private final BitSet[] byRating = new BitSet[MAX_RATING + 1];
+    private final Map<Integer, ApiRestaurantDto> entries = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+
+    @Autowired
+    public RestaurantCatalogIndex(RestaurantRepository restaurantRepository) {
+        this.restaurantRepository = restaurantRepository;
+        for (int i = 0; i <= MAX_PRICE_RANGE; i++) {
+            byPriceRange[i] = new BitSet();
+        }
+        for (int i = 0; i <= MAX_RATING; i++) {
+            byRating[i] = new BitSet();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Rebuilds the whole index from the restaurants table.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        List<ApiRestaurantDto> restaurants = new ArrayList<>();
+        for (Object[] row : restaurantRepository.findRestaurantsByRatingAndPriceRange(null, null)) {
+            restaurants.add(RestaurantService.toRestaurantDto(row));
+        }
+        load(restaurants);
+    }
+
+    /**
+     * Re-reads a single restaurant by primary key and updates or drops its entry.
+     */
+    public void refresh(int restaurantId) {
+        List<Object[]> rows = restaurantRepository.findRestaurantWithAverageRatingById(restaurantId);
+        Optional<ApiRestaurantDto> restaurant = rows.isEmpty() ? Optional.empty()
+                : Optional.of(RestaurantService.toRestaurantDto(rows.get(0)));
+        if (restaurant.isPresent()) {
+            put(restaurant.get());
+        } else {
+            delete(restaurantId);
+        }
+    }
+
+    public void load(List<ApiRestaurantDto> restaurants) {
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            entries.clear();
+            for (BitSet bits : byPriceRange) {
+                bits.clear();
+            }
+            for (BitSet bits : byRating) {
+                bits.clear();
+            }
+            for (ApiRestaurantDto restaurant : restaurants) {
+                add(restaurant);
+            }
+            loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void put(ApiRestaurantDto restaurant) {
+        lock.writeLock().lock();
+        try {
+            remove(restaurant.getId());
+            add(restaurant);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(int restaurantId) {
+        lock.writeLock().lock();
+        try {
+            remove(restaurantId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ApiRestaurantDto> find(Integer rating, Integer priceRange) {
+        lock.readLock().lock();
+        try {
+            BitSet matches = filter(rating, priceRange);
+            List<ApiRestaurantDto> restaurants = new ArrayList<>(matches.cardinality());
+            for (int id = matches.nextSetBit(0); id >= 0; id = matches.nextSetBit(id + 1)) {
+                ApiRestaurantDto entry = entries.get(id);
+                restaurants.add(new ApiRestaurantDto(entry.getId(), entry.getName(), entry.getPriceRange(), entry.getRating()));
+            }
+            return restaurants;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return The ids of the restaurants matching the filters, as a bitset owned by the caller.
+     */
+    public BitSet findIds(Integer rating, Integer priceRange) {
+        lock.readLock().lock();
+        try {
+            return filter(rating, priceRange);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<ApiRestaurantDto> get(int restaurantId) {
+        lock.readLock().lock();
+        try {
+            ApiRestaurantDto entry = entries.get(restaurantId);
+            return entry == null ? Optional.empty()
+                    : Optional.of(new ApiRestaurantDto(entry.getId(), entry.getName(), entry.getPriceRange(), entry.getRating()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts restaurants per price range and per rating. Each dimension is narrowed by the filter on
+     * the other one, so with rating=3 the price range counts answer "how many 3-star restaurants are
+     * in each price range".
+     */
+    public ApiRestaurantFacetsDto facets(Integer rating, Integer priceRange) {
+        lock.readLock().lock();
+        try {
+            Map<Integer, Integer> priceRangeCounts = new LinkedHashMap<>();
+            BitSet ratingFilter = filter(rating, null);
+            for (int i = 1; i <= MAX_PRICE_RANGE; i++) {
+                priceRangeCounts.put(i, countIntersection(ratingFilter, byPriceRange[i]));
+            }
+
+            Map<Integer, Integer> ratingCounts = new LinkedHashMap<>();
+            BitSet priceRangeFilter = filter(null, priceRange);
+            for (int i = 0; i <= MAX_RATING; i++) {
+                ratingCounts.put(i, countIntersection(priceRangeFilter, byRating[i]));
+            }
+
+            return new ApiRestaurantFacetsDto(filter(rating, priceRange).cardinality(), priceRangeCounts, ratingCounts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet filter(Integer rating, Integer priceRange) {
+        BitSet matches = (BitSet) all.clone();
+        if (priceRange != null) {
+            matches.and(priceRange >= 1 && priceRange <= MAX_PRICE_RANGE ? byPriceRange[priceRange] : new BitSet());
+        }
+        if (rating != null) {
+            matches.and(rating >= 0 && rating <= MAX_RATING ? byRating[rating] : new BitSet());
+        }
+        return matches;
+    }
+
+    private static int countIntersection(BitSet a, BitSet b) {
+        BitSet intersection = (BitSet) a.clone();
+        intersection.and(b);
+        return intersection.cardinality();
+    }
+
+    private void add(ApiRestaurantDto restaurant) {
+        int id = restaurant.getId();
+        int priceRange = Math.max(0, Math.min(MAX_PRICE_RANGE, restaurant.getPriceRange()));
+        int rating = Math.max(0, Math.min(MAX_RATING, restaurant.getRating()));
+        all.set(id);
+        byPriceRange[priceRange].set(id);
+        byRating[rating].set(id);
+        entries.put(id, restaurant);
+    }
+
+    private void remove(int restaurantId) {
+        if (entries.remove(restaurantId) == null) {
+            return;
+        }
+        all.clear(restaurantId);
+        for (BitSet bits : byPriceRange) {
+            bits.clear(restaurantId);
+        }
+        for (BitSet bits : byRating) {
+            bits.clear(restaurantId);
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.util.GeoDistance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-process spatial index of restaurant addresses for nearest-restaurant queries. The map is cut
+ * into a grid of square cells of restaurants.geo.cell-degrees on each side, and every restaurant
+ * with a geocoded address is listed in the cell holding it. A query scans rings of cells of
+ * growing size around the cell of the search point and stops as soon as no cell further out can
+ * hold anything closer than the k-th result found so far, or once it is past the search radius.
+ * Within the search radius of a pole, where cells are too narrow for rings to bound distances, a
+ * query scans every cell of the rows the radius reaches instead. Restaurants whose address has no
+ * coordinates are not indexed.
+ */
+@Component
+public class RestaurantGeoIndex {
+    private static final Logger logger = Logger.getLogger(RestaurantGeoIndex.class.getName());
+
+    private static final String SELECT_LOCATIONS_SQL = "SELECT r.id, a.latitude, a.longitude FROM restaurants r " +
+            "JOIN addresses a ON a.id = r.address_id WHERE a.latitude IS NOT NULL AND a.longitude IS NOT NULL";
+    // Cells are sized in degrees, so they narrow towards the poles; past this latitude rings stop paying off
+    private static final double MAX_LATITUDE = 89.0;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+    private final Map<Long, Set<Integer>> cells = new HashMap<>();
+    // Restaurant id to its (latitude, longitude)
+    private final Map<Integer, double[]> positions = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Autowired
+    public RestaurantGeoIndex(JdbcTemplate jdbcTemplate,
+                              @Value("${restaurants.geo.cell-degrees:0.05}") double cellDegrees) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180 / cellDegrees) + 1;
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    /**
+     * Rebuilds the whole index from the restaurants and addresses tables.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reload() {
+        Map<Integer, double[]> loaded = new HashMap<>();
+        jdbcTemplate.query(SELECT_LOCATIONS_SQL, rs -> {
+            loaded.put(rs.getInt("id"), new double[] { rs.getDouble("latitude"), rs.getDouble("longitude") });
+        });
+        lock.writeLock().lock();
+        try {
+            cells.clear();
+            positions.clear();
+            loaded.forEach(this::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.log(Level.INFO, "Restaurant geo index loaded with {0} restaurants", loaded.size());
+    }
+
+    /**
+     * Re-reads the address of a single restaurant and moves, adds or drops its entry.
+     */
+    public void refresh(int restaurantId) {
+        List<double[]> rows = jdbcTemplate.query(SELECT_LOCATIONS_SQL + " AND r.id = ?",
+                (rs, rowNum) -> new double[] { rs.getDouble("latitude"), rs.getDouble("longitude") }, restaurantId);
+        lock.writeLock().lock();
+        try {
+            remove(restaurantId);
+            if (!rows.isEmpty()) {
+                add(restaurantId, rows.get(0));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void delete(int restaurantId) {
+        lock.writeLock().lock();
+        try {
+            remove(restaurantId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Finds the restaurants closest to a point.
+     *
+     * @param allowed Ids the results are restricted to, or null for any restaurant.
+     * @return Up to limit restaurants within radiusKm, closest first.
+     */
+    public List<Neighbor> findNearest(double latitude, double longitude, double radiusKm, int limit, BitSet allowed) {
+        double radiusDegrees = radiusKm / GeoDistance.KM_PER_DEGREE;
+        double farthestLatitude = Math.abs(latitude) + radiusDegrees;
+        double cosFarthestLatitude = Math.cos(Math.toRadians(farthestLatitude));
+        int centerRow = row(latitude);
+        int centerColumn = column(longitude);
+
+        PriorityQueue<Neighbor> nearest = new PriorityQueue<>(Comparator.comparingDouble(Neighbor::getDistanceKm).reversed());
+        lock.readLock().lock();
+        try {
+            if (farthestLatitude > MAX_LATITUDE) {
+                for (int row = row(latitude - radiusDegrees); row <= row(latitude + radiusDegrees); row++) {
+                    for (int column = 0; column < columns; column++) {
+                        collect(row, column, latitude, longitude, radiusKm, limit, allowed, nearest);
+                    }
+                }
+            } else {
+                for (int ring = 0; ring <= (columns - 1) / 2; ring++) {
+                    for (int dRow = -ring; dRow <= ring; dRow++) {
+                        int step = Math.abs(dRow) == ring ? 1 : Math.max(1, 2 * ring);
+                        for (int dColumn = -ring; dColumn <= ring; dColumn += step) {
+                            collect(centerRow + dRow, centerColumn + dColumn, latitude, longitude, radiusKm, limit, allowed, nearest);
+                        }
+                    }
+                    double ringDistanceKm = ringDistanceKm(ring, cosFarthestLatitude);
+                    if (ringDistanceKm > radiusKm || (nearest.size() == limit && nearest.peek().getDistanceKm() <= ringDistanceKm)) {
+                        break;
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<Neighbor> result = new ArrayList<>(nearest);
+        result.sort(Comparator.comparingDouble(Neighbor::getDistanceKm));
+        return result;
+    }
+
+    /**
+     * Lower bound on the distance to any restaurant within the search radius that is outside rings
+     * 0 to ring. It is at least ring cells away in latitude or in longitude, and two points no
+     * further from the equator than the farthest latitude, d degrees of longitude apart, are at
+     * least 2 * asin(cos(farthest latitude) * sin(d / 2)) apart, which is the smaller of the two.
+     */
+    private double ringDistanceKm(int ring, double cosFarthestLatitude) {
+        double halfSpan = Math.min(Math.PI / 2, Math.toRadians(ring * cellDegrees) / 2);
+        return 2 * GeoDistance.EARTH_RADIUS_KM * Math.asin(cosFarthestLatitude * Math.sin(halfSpan));
+    }
+
+    private void collect(int row, int column, double latitude, double longitude, double radiusKm, int limit,
+                         BitSet allowed, PriorityQueue<Neighbor> nearest) {
+        if (row < 0 || row >= rows) {
+            return;
+        }
+        Set<Integer> ids = cells.get(cellKey(row, Math.floorMod(column, columns)));
+        if (ids == null) {
+            return;
+        }
+        for (int id : ids) {
+            if (allowed != null && !allowed.get(id)) {
+                continue;
+            }
+            double[] position = positions.get(id);
+            double distanceKm = GeoDistance.haversineKm(latitude, longitude, position[0], position[1]);
+            if (distanceKm > radiusKm) {
+                continue;
+            }
+            if (nearest.size() < limit) {
+                nearest.add(new Neighbor(id, distanceKm));
+            } else if (distanceKm < nearest.peek().getDistanceKm()) {
+                nearest.poll();
+                nearest.add(new Neighbor(id, distanceKm));
+            }
+        }
+    }
+
+    private void add(int restaurantId, double[] position) {
+        positions.put(restaurantId, position);
+        cells.computeIfAbsent(cellKey(row(position[0]), column(position[1])), key -> new HashSet<>()).add(restaurantId);
+    }
+
+    private void remove(int restaurantId) {
+        double[] position = positions.remove(restaurantId);
+        if (position == null) {
+            return;
+        }
+        long key = cellKey(row(position[0]), column(position[1]));
+        Set<Integer> ids = cells.get(key);
+        ids.remove(restaurantId);
+        if (ids.isEmpty()) {
+            cells.remove(key);
+        }
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((Math.max(-90, Math.min(90, latitude)) + 90) / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), columns);
+    }
+
+    private static long cellKey(int row, int column) {
+        return ((long) row << 32) | column;
+    }
+
+    public static class Neighbor {
+        final int restaurantId;
+        final double distanceKm;
+
+        Neighbor(int restaurantId, double distanceKm) {
+            this.restaurantId = restaurantId;
+            this.distanceKm = distanceKm;
+        }
+
+        public int getRestaurantId() {
+            return restaurantId;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRepository;
+import com.rocketFoodDelivery.rocketFood.util.TransactionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the rating_sum/rating_count columns of restaurants in step with orders.restaurant_rating.
+ * Every code path that inserts, re-rates or deletes an order goes through here, and a scheduled
+ * reconciliation rebuilds the aggregates from the orders table in case anything slipped through.
+ * The same rebuild runs at startup, before the catalog is loaded, so a database that predates the
+ * columns does not read as unrated until the first nightly run.
+ */
+@Service
+public class RestaurantRatingService {
+    private static final Logger logger = Logger.getLogger(RestaurantRatingService.class.getName());
+
+    private final RestaurantRepository restaurantRepository;
+    private final RestaurantCatalogIndex restaurantCatalogIndex;
+
+    @Autowired
+    public RestaurantRatingService(RestaurantRepository restaurantRepository, RestaurantCatalogIndex restaurantCatalogIndex) {
+        this.restaurantRepository = restaurantRepository;
+        this.restaurantCatalogIndex = restaurantCatalogIndex;
+    }
+
+    public void recordRating(int restaurantId, int rating) {
+        restaurantRepository.adjustRatingAggregate(restaurantId, rating, 1);
+    }
+
+    public void replaceRating(int restaurantId, int oldRating, int newRating) {
+        if (oldRating != newRating) {
+            restaurantRepository.adjustRatingAggregate(restaurantId, newRating - oldRating, 0);
+        }
+    }
+
+    public void removeRating(int restaurantId, int rating) {
+        restaurantRepository.adjustRatingAggregate(restaurantId, -rating, -1);
+    }
+
+    /**
+     * Fills in the aggregates of a restaurant that has none yet, for an order placed before the
+     * startup rebuild has reached it.
+     *
+     * @return The aggregates after the backfill, 0/0 when the restaurant has no rated orders.
+     */
+    public RatingAggregate backfillRating(int restaurantId) {
+        if (restaurantRepository.backfillRatingAggregate(restaurantId) > 0) {
+            logger.log(Level.INFO, "Backfilled rating aggregates for restaurant {0}", restaurantId);
+        }
+        List<Object[]> rows = restaurantRepository.findRatingAggregateForUpdate(restaurantId);
+        if (rows.isEmpty()) {
+            return new RatingAggregate(0, 0);
+        }
+        return new RatingAggregate(((Number) rows.get(0)[0]).intValue(), ((Number) rows.get(0)[1]).intValue());
+    }
+
+    /**
+     * Rebuilds the aggregates from the orders table and logs every restaurant that had drifted.
+     *
+     * @return The number of restaurants that were corrected.
+     */
+    @Scheduled(cron = "${restaurants.rating-reconcile.cron:0 0 4 * * *}")
+    @Transactional
+    public int reconcileRatingAggregates() {
+        int corrected = rebuildDrifted();
+        if (corrected > 0) {
+            TransactionUtils.runAfterCommit(restaurantCatalogIndex::reload);
+        }
+        return corrected;
+    }
+
+    /**
+     * Backfills the aggregates on startup. Ordered ahead of {@link RestaurantCatalogIndex#reload},
+     * which loads the catalog from them right after.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @Transactional
+    public void backfillRatingAggregates() {
+        rebuildDrifted();
+    }
+
+    private int rebuildDrifted() {
+        List<Object[]> drift = restaurantRepository.findRatingAggregateDrift();
+        for (Object[] row : drift) {
+            logger.log(Level.WARNING, "Rating aggregate drift for restaurant {0}: stored {1}/{2}, actual {3}/{4}",
+                    new Object[] { row[0], row[1], row[2], row[3], row[4] });
+        }
+        if (drift.isEmpty()) {
+            return 0;
+        }
+        int corrected = restaurantRepository.rebuildRatingAggregates();
+        logger.log(Level.INFO, "Reconciled rating aggregates for {0} restaurants", corrected);
+        return corrected;
+    }
+
+    public static class RatingAggregate {
+        final int sum;
+        final int count;
+
+        public RatingAggregate(int sum, int count) {
+            this.sum = sum;
+            this.count = count;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiRestaurantRollupDTO;
+import com.rocketFoodDelivery.rocketFood.models.OrderLifecycle;
+import com.rocketFoodDelivery.rocketFood.models.RollupGranularity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Maintains restaurant_order_rollups, hourly and daily counters per restaurant of the orders
+ * placed, their items, revenue and ratings, and where those orders stand in their lifecycle.
+ * The counters are bumped with one batched upsert from inside the transaction of the write that
+ * changes them, so they commit or roll back with it. Revenue and items are booked when an order is
+ * placed; a cancellation only moves the order between status counts.
+ */
+@Service
+public class RestaurantRollupService {
+    private static final Logger logger = Logger.getLogger(RestaurantRollupService.class.getName());
+
+    private static final String[] COUNTER_COLUMNS = { "orders_placed", "items", "revenue", "rating_sum", "rating_count",
+            "pending_count", "in_progress_count", "delivered_count", "cancelled_count" };
+    private static final int ORDERS = 0;
+    private static final int ITEMS = 1;
+    private static final int REVENUE = 2;
+    private static final int RATING_SUM = 3;
+    private static final int RATING_COUNT = 4;
+    private static final int FIRST_STATUS = 5;
+
+    private static final String UPSERT_SQL = buildUpsertSql();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StatusRegistry statusRegistry;
+
+    @Autowired
+    public RestaurantRollupService(JdbcTemplate jdbcTemplate, StatusRegistry statusRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.statusRegistry = statusRegistry;
+    }
+
+    public void recordPlacements(Collection<Placement> placements) {
+        Map<BucketKey, long[]> deltas = new LinkedHashMap<>();
+        for (Placement placement : placements) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                long[] delta = deltas.computeIfAbsent(new BucketKey(placement.restaurantId, granularity,
+                        granularity.bucketStart(placement.placedAt)), key -> new long[COUNTER_COLUMNS.length]);
+                delta[ORDERS]++;
+                delta[ITEMS] += placement.items;
+                delta[REVENUE] += placement.revenue;
+                delta[RATING_SUM] += placement.rating;
+                delta[RATING_COUNT]++;
+                delta[statusCounter(OrderLifecycle.PENDING)]++;
+            }
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Moves an order placed at createdAt from one status count to another.
+     */
+    public void recordStatusChange(int restaurantId, LocalDateTime createdAt, OrderLifecycle from, OrderLifecycle to) {
+        Map<BucketKey, long[]> deltas = new LinkedHashMap<>();
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            long[] delta = new long[COUNTER_COLUMNS.length];
+            delta[statusCounter(from)]--;
+            delta[statusCounter(to)]++;
+            deltas.put(new BucketKey(restaurantId, granularity, granularity.bucketStart(createdAt)), delta);
+        }
+        apply(deltas);
+    }
+
+    public void adjustRating(int restaurantId, LocalDateTime createdAt, int ratingDelta) {
+        if (ratingDelta == 0) {
+            return;
+        }
+        Map<BucketKey, long[]> deltas = new LinkedHashMap<>();
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            long[] delta = new long[COUNTER_COLUMNS.length];
+            delta[RATING_SUM] = ratingDelta;
+            deltas.put(new BucketKey(restaurantId, granularity, granularity.bucketStart(createdAt)), delta);
+        }
+        apply(deltas);
+    }
+
+    /**
+     * Reads the dashboard buckets of a restaurant in [from, to), oldest first, from the rollup table only.
+     */
+    public List<ApiRestaurantRollupDTO> getDashboard(int restaurantId, RollupGranularity granularity,
+                                                     LocalDateTime from, LocalDateTime to) {
+        String sql = "SELECT bucket_start, " + String.join(", ", COUNTER_COLUMNS) + " FROM restaurant_order_rollups " +
+                "WHERE restaurant_id = ? AND granularity = ? AND bucket_start >= ? AND bucket_start < ? ORDER BY bucket_start";
+        return jdbcTemplate.query(sql, (rs, rowNum) -> {
+            ApiRestaurantRollupDTO bucket = new ApiRestaurantRollupDTO();
+            bucket.setBucket_start(rs.getTimestamp("bucket_start").toLocalDateTime().toString());
+            bucket.setOrders(rs.getInt("orders_placed"));
+            bucket.setItems(rs.getInt("items"));
+            bucket.setRevenue(rs.getLong("revenue"));
+            int ratingCount = rs.getInt("rating_count");
+            bucket.setAverage_rating(ratingCount == 0 ? null
+                    : BigDecimal.valueOf(rs.getInt("rating_sum")).divide(BigDecimal.valueOf(ratingCount), 2, RoundingMode.HALF_UP));
+            Map<String, Integer> byStatus = new LinkedHashMap<>();
+            for (OrderLifecycle state : OrderLifecycle.values()) {
+                byStatus.put(state.getStatusName(), rs.getInt(COUNTER_COLUMNS[statusCounter(state)]));
+            }
+            bucket.setOrders_by_status(byStatus);
+            return bucket;
+        }, restaurantId, granularity.name(), Timestamp.valueOf(from), Timestamp.valueOf(to));
+    }
+
+    /**
+     * Recomputes the rollups of the days in [from, to) from the orders still in the hot tables.
+     * Orders moved to the order archive are not read again, so the range should stay clear of
+     * days that were archived already.
+     *
+     * @return The number of rollup rows written.
+     */
+    @Transactional
+    public int rebuild(LocalDate from, LocalDate to) {
+        Timestamp start = Timestamp.valueOf(from.atStartOfDay());
+        Timestamp end = Timestamp.valueOf(to.atStartOfDay());
+        jdbcTemplate.update("DELETE FROM restaurant_order_rollups WHERE bucket_start >= ? AND bucket_start < ?", start, end);
+
+        int written = 0;
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            String sql = "INSERT INTO restaurant_order_rollups (restaurant_id, granularity, bucket_start, " +
+                    String.join(", ", COUNTER_COLUMNS) + ") " +
+                    "SELECT o.restaurant_id, ?, DATE_FORMAT(o.created_at, '" + granularity.getSqlFormat() + "') AS bucket, " +
+                    "COUNT(*), COALESCE(SUM(l.items), 0), COALESCE(SUM(o.total_cost), 0), SUM(o.restaurant_rating), COUNT(*), " +
+                    "SUM(o.status_id = ?), SUM(o.status_id = ?), SUM(o.status_id = ?), SUM(o.status_id = ?) " +
+                    "FROM orders o " +
+                    "LEFT JOIN (SELECT po.order_id, SUM(po.product_quantity) AS items FROM product_orders po " +
+                    "           JOIN orders lo ON lo.id = po.order_id " +
+                    "           WHERE lo.created_at >= ? AND lo.created_at < ? GROUP BY po.order_id) l ON l.order_id = o.id " +
+                    "WHERE o.created_at >= ? AND o.created_at < ? " +
+                    "GROUP BY o.restaurant_id, bucket";
+            written += jdbcTemplate.update(sql, granularity.name(),
+                    statusRegistry.getOrderStatusId(OrderLifecycle.PENDING),
+                    statusRegistry.getOrderStatusId(OrderLifecycle.IN_PROGRESS),
+                    statusRegistry.getOrderStatusId(OrderLifecycle.DELIVERED),
+                    statusRegistry.getOrderStatusId(OrderLifecycle.CANCELLED),
+                    start, end, start, end);
+        }
+        logger.log(Level.INFO, "Rebuilt {0} restaurant rollup rows from {1} to {2}", new Object[] { written, from, to });
+        return written;
+    }
+
+    private void apply(Map<BucketKey, long[]> deltas) {
+        List<Object[]> rows = new ArrayList<>(deltas.size());
+        for (Map.Entry<BucketKey, long[]> delta : deltas.entrySet()) {
+            Object[] row = new Object[3 + COUNTER_COLUMNS.length];
+            row[0] = delta.getKey().restaurantId;
+            row[1] = delta.getKey().granularity.name();
+            row[2] = Timestamp.valueOf(delta.getKey().bucketStart);
+            for (int i = 0; i < COUNTER_COLUMNS.length; i++) {
+                row[3 + i] = delta.getValue()[i];
+            }
+            rows.add(row);
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows);
+    }
+
+    private static int statusCounter(OrderLifecycle state) {
+        return FIRST_STATUS + state.ordinal();
+    }
+
+    private static String buildUpsertSql() {
+        StringBuilder sql = new StringBuilder("INSERT INTO restaurant_order_rollups (restaurant_id, granularity, bucket_start, ")
+                .append(String.join(", ", COUNTER_COLUMNS)).append(") VALUES (?, ?, ?");
+        for (int i = 0; i < COUNTER_COLUMNS.length; i++) {
+            sql.append(", ?");
+        }
+        sql.append(") ON DUPLICATE KEY UPDATE ");
+        for (int i = 0; i < COUNTER_COLUMNS.length; i++) {
+            sql.append(i == 0 ? "" : ", ").append(COUNTER_COLUMNS[i]).append(" = ").append(COUNTER_COLUMNS[i])
+                    .append(" + VALUES(").append(COUNTER_COLUMNS[i]).append(")");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * An order counted in the rollups when it is placed.
+     */
+    public static class Placement {
+        final int restaurantId;
+        final LocalDateTime placedAt;
+        final int items;
+        final long revenue;
+        final int rating;
+
+        public Placement(int restaurantId, LocalDateTime placedAt, int items, long revenue, int rating) {
+            this.restaurantId = restaurantId;
+            this.placedAt = placedAt;
+            this.items = items;
+            this.revenue = revenue;
+            this.rating = rating;
+        }
+    }
+
+    private static class BucketKey {
+        final int restaurantId;
+        final RollupGranularity granularity;
+        final LocalDateTime bucketStart;
+
+        BucketKey(int restaurantId, RollupGranularity granularity, LocalDateTime bucketStart) {
+            this.restaurantId = restaurantId;
+            this.granularity = granularity;
+            this.bucketStart = bucketStart;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof BucketKey)) {
+                return false;
+            }
+            BucketKey key = (BucketKey) other;
+            return restaurantId == key.restaurantId && granularity == key.granularity && bucketStart.equals(key.bucketStart);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(restaurantId, granularity, bucketStart);
+        }
+    }
+}
@@ -1,12 +1,20 @@
 package com.rocketFoodDelivery.rocketFood.service;
 
+import com.rocketFoodDelivery.rocketFood.dtos.ApiAddressDto;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiCreateRestaurantDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiNearbyRestaurantDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderDTO;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderPageDTO;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiRestaurantDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiRestaurantFacetsDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiRestaurantPageDto;
 import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
 import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
 import com.rocketFoodDelivery.rocketFood.models.Restaurant;
 import com.rocketFoodDelivery.rocketFood.repository.*;
 import com.rocketFoodDelivery.rocketFood.models.Order;
+import com.rocketFoodDelivery.rocketFood.util.CursorCodec;
+import com.rocketFoodDelivery.rocketFood.util.TransactionUtils;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
 
@@ -18,21 +26,22 @@ import org.springframework.transaction.annotation.Transactional;
 import com.rocketFoodDelivery.rocketFood.models.Address;
 
 
+import com.rocketFoodDelivery.rocketFood.models.OrderLifecycle;
 import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
 
 import com.rocketFoodDelivery.rocketFood.models.UserEntity;
 import org.springframework.jdbc.core.RowMapper;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
@@ -52,6 +61,15 @@ public class RestaurantService {
     private final AddressService addressService;
     private OrderStatusRepository orderStatusRepository;
     private final AddressRepository addressRepository;
+    private final RestaurantRatingService restaurantRatingService;
+    private final RestaurantCatalogIndex restaurantCatalogIndex;
+    private final RestaurantGeoIndex restaurantGeoIndex;
+    private final MenuSearchIndex menuSearchIndex;
+    private final OrderPlacementService orderPlacementService;
+    private final OrderService orderService;
+    private final StatusRegistry statusRegistry;
+    private final OrderArchiveStore orderArchiveStore;
+    private final RestaurantRollupService restaurantRollupService;
     private final JdbcTemplate jdbcTemplate;
     private static final Logger logger = Logger.getLogger(RestaurantService.class.getName());
 
@@ -65,6 +83,15 @@ public class RestaurantService {
             AddressService addressService,
             OrderStatusRepository orderStatusRepository, // Add this line
             AddressRepository addressRepository,
+            RestaurantRatingService restaurantRatingService,
+            RestaurantCatalogIndex restaurantCatalogIndex,
+            RestaurantGeoIndex restaurantGeoIndex,
+            MenuSearchIndex menuSearchIndex,
+            OrderPlacementService orderPlacementService,
+            OrderService orderService,
+            StatusRegistry statusRegistry,
+            OrderArchiveStore orderArchiveStore,
+            RestaurantRollupService restaurantRollupService,
             JdbcTemplate jdbcTemplate) {
         this.restaurantRepository = restaurantRepository;
         this.productRepository = productRepository;
@@ -74,6 +101,15 @@ public class RestaurantService {
         this.addressService = addressService;
         this.orderStatusRepository = orderStatusRepository; // And this line
         this.addressRepository = addressRepository;
+        this.restaurantRatingService = restaurantRatingService;
+        this.restaurantCatalogIndex = restaurantCatalogIndex;
+        this.restaurantGeoIndex = restaurantGeoIndex;
+        this.menuSearchIndex = menuSearchIndex;
+        this.orderPlacementService = orderPlacementService;
+        this.orderService = orderService;
+        this.statusRegistry = statusRegistry;
+        this.orderArchiveStore = orderArchiveStore;
+        this.restaurantRollupService = restaurantRollupService;
         this.jdbcTemplate = jdbcTemplate;
     }
 
@@ -85,38 +121,128 @@ public class RestaurantService {
         List<Object[]> restaurant = restaurantRepository.findRestaurantWithAverageRatingById(id);
 
         if (!restaurant.isEmpty()) {
-            Object[] row = restaurant.get(0);
-            int restaurantId = (int) row[0];
-            String name = (String) row[1];
-            int priceRange = (int) row[2];
-            double rating = (row[3] != null) ? ((BigDecimal) row[3]).setScale(1, RoundingMode.HALF_UP).doubleValue()
-                    : 0.0;
-            int roundedRating = (int) Math.ceil(rating);
-            ApiRestaurantDto restaurantDto = new ApiRestaurantDto(restaurantId, name, priceRange, roundedRating);
-            return Optional.of(restaurantDto);
+            return Optional.of(toRestaurantDto(restaurant.get(0)));
         } else {
             return Optional.empty();
         }
     }
 
     public List<ApiRestaurantDto> findRestaurantsByRatingAndPriceRange(Integer rating, Integer priceRange) {
+        if (restaurantCatalogIndex.isLoaded()) {
+            return restaurantCatalogIndex.find(rating, priceRange);
+        }
         List<Object[]> restaurants = restaurantRepository.findRestaurantsByRatingAndPriceRange(rating, priceRange);
 
         List<ApiRestaurantDto> restaurantDtos = new ArrayList<>();
 
         for (Object[] row : restaurants) {
-            int restaurantId = (int) row[0];
-            String name = (String) row[1];
-            int range = (int) row[2];
-            double avgRating = (row[3] != null) ? ((BigDecimal) row[3]).setScale(1, RoundingMode.HALF_UP).doubleValue()
-                    : 0.0;
-            int roundedAvgRating = (int) Math.ceil(avgRating);
-            restaurantDtos.add(new ApiRestaurantDto(restaurantId, name, range, roundedAvgRating));
+            restaurantDtos.add(toRestaurantDto(row));
         }
 
         return restaurantDtos;
     }
 
+    /**
+     * Returns one keyset page of restaurants. The page is fetched with one extra row so the next
+     * cursor is only handed out when there is something after it.
+     *
+     * @param sort   null (by id), "rating", "price_range" or "name".
+     * @param cursor The next_cursor of the previous page, or null for the first page.
+     */
+    public ApiRestaurantPageDto findRestaurantsPage(Integer rating, Integer priceRange, String sort, String cursor, int limit) {
+        CursorCodec.Cursor after = cursor == null ? null : CursorCodec.decode(cursor);
+        Integer cursorId = after == null ? null : after.getId();
+        List<Object[]> rows;
+        if (sort == null || sort.isEmpty()) {
+            rows = restaurantRepository.findRestaurantsPageById(rating, priceRange, cursorId, limit + 1);
+        } else if ("rating".equals(sort)) {
+            rows = restaurantRepository.findRestaurantsPageByRating(rating, priceRange,
+                    after == null ? null : after.getSortKeyAsInt(), cursorId, limit + 1);
+        } else if ("price_range".equals(sort)) {
+            rows = restaurantRepository.findRestaurantsPageByPriceRange(rating, priceRange,
+                    after == null ? null : after.getSortKeyAsInt(), cursorId, limit + 1);
+        } else if ("name".equals(sort)) {
+            rows = restaurantRepository.findRestaurantsPageByName(rating, priceRange,
+                    after == null ? null : after.getSortKey(), cursorId, limit + 1);
+        } else {
+            throw new BadRequestException("Invalid or missing parameters", "Unknown sort " + sort);
+        }
+
+        List<ApiRestaurantDto> restaurants = new ArrayList<>();
+        for (int i = 0; i < rows.size() && i < limit; i++) {
+            restaurants.add(toRestaurantDto(rows.get(i)));
+        }
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            ApiRestaurantDto last = restaurants.get(restaurants.size() - 1);
+            String sortKey;
+            if ("rating".equals(sort)) {
+                sortKey = String.valueOf(last.getRating());
+            } else if ("price_range".equals(sort)) {
+                sortKey = String.valueOf(last.getPriceRange());
+            } else if ("name".equals(sort)) {
+                sortKey = last.getName();
+            } else {
+                sortKey = null;
+            }
+            nextCursor = CursorCodec.encode(sortKey, last.getId());
+        }
+        return new ApiRestaurantPageDto(restaurants, nextCursor);
+    }
+
+    public ApiRestaurantFacetsDto getRestaurantFacets(Integer rating, Integer priceRange) {
+        if (!restaurantCatalogIndex.isLoaded()) {
+            restaurantCatalogIndex.reload();
+        }
+        return restaurantCatalogIndex.facets(rating, priceRange);
+    }
+
+    /**
+     * The restaurants closest to a point among those matching the rating/price range filters, read
+     * from the geo and catalog indexes only.
+     */
+    public List<ApiNearbyRestaurantDto> findNearbyRestaurants(double latitude, double longitude, double radiusKm,
+                                                              int limit, Integer rating, Integer priceRange) {
+        if (!restaurantCatalogIndex.isLoaded()) {
+            restaurantCatalogIndex.reload();
+        }
+        BitSet allowed = restaurantCatalogIndex.findIds(rating, priceRange);
+        List<ApiNearbyRestaurantDto> restaurants = new ArrayList<>();
+        for (RestaurantGeoIndex.Neighbor neighbor : restaurantGeoIndex.findNearest(latitude, longitude, radiusKm, limit, allowed)) {
+            restaurantCatalogIndex.get(neighbor.getRestaurantId()).ifPresent(restaurant -> restaurants.add(
+                    new ApiNearbyRestaurantDto(restaurant.getId(), restaurant.getName(), restaurant.getPriceRange(),
+                            restaurant.getRating(), Math.round(neighbor.getDistanceKm() * 1000) / 1000.0)));
+        }
+        return restaurants;
+    }
+
+    static ApiRestaurantDto toRestaurantDto(Object[] row) {
+        int restaurantId = (int) row[0];
+        String name = (String) row[1];
+        int priceRange = (int) row[2];
+        double rating = (row[3] != null) ? toRating(row[3]) : 0.0;
+        int roundedRating = (int) Math.ceil(rating);
+        return new ApiRestaurantDto(restaurantId, name, priceRange, roundedRating);
+    }
+
+    private void refreshCatalogEntry(int restaurantId) {
+        TransactionUtils.runAfterCommit(() -> restaurantCatalogIndex.refresh(restaurantId));
+    }
+
+    private void refreshGeoEntry(int restaurantId) {
+        TransactionUtils.runAfterCommit(() -> restaurantGeoIndex.refresh(restaurantId));
+    }
+
+    private void refreshSearchEntry(int restaurantId) {
+        TransactionUtils.runAfterCommit(() -> menuSearchIndex.refreshRestaurant(restaurantId));
+    }
+
+    // The stored rating column is an INT; older queries over the aggregates returned DECIMAL or BIGINT.
+    private static double toRating(Object value) {
+        return new BigDecimal(value.toString()).setScale(1, RoundingMode.HALF_UP).doubleValue();
+    }
+
     @PersistenceContext
     private EntityManager entityManager;
 
@@ -135,6 +261,8 @@ public class RestaurantService {
             address.setStreetAddress(restaurantDto.getAddress().getStreetAddress());
             address.setCity(restaurantDto.getAddress().getCity());
             address.setPostalCode(restaurantDto.getAddress().getPostalCode());
+            address.setLatitude(restaurantDto.getAddress().getLatitude());
+            address.setLongitude(restaurantDto.getAddress().getLongitude());
 
             Address savedAddress = addressRepository.save(address);
 
@@ -157,9 +285,14 @@ public class RestaurantService {
                     .setParameter(5, savedAddress.getId())
                     .setParameter(6, userEntity.getId())
                     .executeUpdate();
+            int restaurantId = restaurantRepository.getLastInsertedId();
+            refreshCatalogEntry(restaurantId);
+            refreshGeoEntry(restaurantId);
+            refreshSearchEntry(restaurantId);
 
             // Create and return ApiCreateRestaurantDto
             ApiCreateRestaurantDto createRestaurantDto = new ApiCreateRestaurantDto();
+            createRestaurantDto.setId(restaurantId);
             createRestaurantDto.setUserId(userEntity.getId());
             createRestaurantDto.setName(restaurantDto.getName());
             createRestaurantDto.setPriceRange(restaurantDto.getPriceRange());
@@ -217,6 +350,18 @@ public class RestaurantService {
 
             jdbcTemplate.update(updateSql, updatedRestaurantDto.getName(), updatedRestaurantDto.getPriceRange(),
                     updatedRestaurantDto.getPhone(), id);
+            ApiAddressDto address = updatedRestaurantDto.getAddress();
+            if (address != null) {
+                jdbcTemplate.update("UPDATE addresses a JOIN restaurants r ON r.address_id = a.id " +
+                        "SET a.street_address = COALESCE(?, a.street_address), a.city = COALESCE(?, a.city), " +
+                        "a.postal_code = COALESCE(?, a.postal_code), a.latitude = COALESCE(?, a.latitude), " +
+                        "a.longitude = COALESCE(?, a.longitude) WHERE r.id = ?",
+                        address.getStreetAddress(), address.getCity(), address.getPostalCode(),
+                        address.getLatitude(), address.getLongitude(), id);
+                refreshGeoEntry(id);
+            }
+            refreshCatalogEntry(id);
+            refreshSearchEntry(id);
 
             return Optional.of(updatedRestaurantDto);
         } catch (Exception e) {
@@ -229,6 +374,9 @@ public class RestaurantService {
     public void deleteRestaurant(int restaurantId) {
         logger.log(Level.INFO, "Deleting restaurant with id {0}", restaurantId);
 
+        // The orders below are removed with the restaurant, so its rating aggregates go back to zero.
+        jdbcTemplate.update("UPDATE restaurants SET rating_sum = 0, rating_count = 0 WHERE id = ?", restaurantId);
+
         String deleteOrdersSql = "DELETE FROM orders WHERE restaurant_id = ?";
         jdbcTemplate.update(deleteOrdersSql, restaurantId);
         logger.log(Level.INFO, "Deleted orders for restaurant with id {0}", restaurantId);
@@ -248,6 +396,11 @@ public class RestaurantService {
             throw new NoSuchElementException("Restaurant with id " + restaurantId + " not found");
         }
         logger.log(Level.INFO, "Deleted restaurant with id {0}", restaurantId);
+        TransactionUtils.runAfterCommit(() -> {
+            restaurantCatalogIndex.delete(restaurantId);
+            restaurantGeoIndex.delete(restaurantId);
+            menuSearchIndex.deleteRestaurant(restaurantId);
+        });
 
         if (addressId != null) {
             String deleteAddressSql = "DELETE FROM addresses WHERE id = ?";
@@ -266,110 +419,228 @@ public class RestaurantService {
     }
 
     public OrderStatus changeOrderStatus(int orderId, String newStatusName) {
-        Optional<OrderStatus> optionalStatus = orderStatusRepository.findByName(newStatusName);
-        if (!optionalStatus.isPresent()) {
-            throw new BadRequestException("Invalid or missing parameters", "Details about the error...");
+        return orderService.changeStatus(orderId, newStatusName);
+    }
+
+    @Transactional
+    public int rateOrder(int orderId, int rating) {
+        if (rating < 1 || rating > 5) {
+            throw new BadRequestException("Invalid or missing parameters", "Rating must be between 1 and 5");
+        }
+        List<Object[]> rows = jdbcTemplate.query(
+                "SELECT restaurant_id, restaurant_rating, created_at FROM orders WHERE id = ? FOR UPDATE",
+                (rs, rowNum) -> new Object[] { rs.getInt("restaurant_id"), rs.getInt("restaurant_rating"),
+                        rs.getTimestamp("created_at").toLocalDateTime() }, orderId);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Order with id " + orderId + " not found");
         }
-        OrderStatus newStatus = optionalStatus.get();
+        int restaurantId = (Integer) rows.get(0)[0];
+        int oldRating = (Integer) rows.get(0)[1];
+
+        jdbcTemplate.update("UPDATE orders SET restaurant_rating = ? WHERE id = ?", rating, orderId);
+        restaurantRatingService.replaceRating(restaurantId, oldRating, rating);
+        restaurantRollupService.adjustRating(restaurantId, (LocalDateTime) rows.get(0)[2], rating - oldRating);
+        refreshCatalogEntry(restaurantId);
+        return rating;
+    }
 
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new ResourceNotFoundException("Order with id " + orderId + " not found"));
-        order.setOrder_status(newStatus);
-        orderRepository.save(order);
+    public List<ApiOrderDTO> getOrdersByUserTypeAndId(String type, int id) {
+        String sql = OrderHistoryAssembler.SELECT_ORDER_LINES;
 
-        return newStatus;
-    }
+        if ("customer".equalsIgnoreCase(type)) {
+            sql += "WHERE c.id = ? ";
+        } else if ("courier".equalsIgnoreCase(type)) {
+            sql += "WHERE cour.id = ? ";
+        } else if ("restaurant".equalsIgnoreCase(type)) {
+            sql += "WHERE r.id = ? ";
+        } else {
+            throw new IllegalArgumentException("Invalid user type");
+        }
+        sql += "ORDER BY o.id";
+
+        // Rows are grouped into orders as they are read, the flat line rows are never collected
+        List<ApiOrderDTO> orders = new ArrayList<>();
+        OrderHistoryAssembler assembler = new OrderHistoryAssembler(orders::add);
+        jdbcTemplate.query(sql, assembler, id);
+        assembler.finish();
 
-    public List<Map<String, Object>> getOrdersByUserTypeAndId(String type, int id) {
-        String sql = "SELECT o.id, c.id as customer_id, c.email as customer_email, " +
-                "CONCAT(a.street_address, ', ', a.city, ', ', a.postal_code) as customer_address, " +
-                "r.id as restaurant_id, r.name as restaurant_name, " +
-                "CONCAT(ra.street_address, ', ', ra.city, ', ', ra.postal_code) as restaurant_address, " +
-                "cour.id as courier_id, u.name as courier_name, os.name as status, " +
-                "p.id as product_id, p.name as product_name, op.product_quantity, p.cost as unit_cost, " +
-                "(op.product_quantity * p.cost) as total_cost " +
-                "FROM orders o " +
-                "JOIN customers c ON o.customer_id = c.id " +
-                "JOIN addresses a ON c.address_id = a.id " +
-                "JOIN restaurants r ON o.restaurant_id = r.id " +
-                "JOIN addresses ra ON r.address_id = ra.id " +
-                "JOIN courier cour ON o.courier_id = cour.id " +
-                "JOIN users u ON cour.user_id = u.id " +
-                "JOIN order_statuses os ON o.status_id = os.id " +
-                "JOIN product_orders op ON o.id = op.order_id " +
-                "JOIN products p ON op.product_id = p.id ";
+        int[] archivedIds = orderArchiveStore.findIdsByOwner(type, id);
+        if (archivedIds.length == 0) {
+            return orders;
+        }
+        return mergeById(orders, orderArchiveStore.findAll(archivedIds), true, Integer.MAX_VALUE);
+    }
 
+    /**
+     * Returns one page of order history, newest first, for a customer, courier or restaurant.
+     * The page of order ids is picked first from the orders table alone, using the (owner, status)
+     * index and a keyset on orders.id, and only those orders are joined to their lines. Archived
+     * orders of the owner on the same side of the cursor are merged in by id.
+     *
+     * @param statuses Order status names to keep, or null for all.
+     * @param before   Only orders with a smaller id (older), or null.
+     * @param after    Only orders with a greater id (newer), or null. Ignored when before is given.
+     */
+    public ApiOrderPageDTO getOrdersPage(String type, int id, List<String> statuses, Integer before, Integer after, int limit) {
+        String ownerColumn;
         if ("customer".equalsIgnoreCase(type)) {
-            sql += "WHERE c.id = ?";
+            ownerColumn = "customer_id";
         } else if ("courier".equalsIgnoreCase(type)) {
-            sql += "WHERE cour.id = ?";
+            ownerColumn = "courier_id";
         } else if ("restaurant".equalsIgnoreCase(type)) {
-            sql += "WHERE r.id = ?";
+            ownerColumn = "restaurant_id";
         } else {
             throw new IllegalArgumentException("Invalid user type");
         }
 
-        return jdbcTemplate.queryForList(sql, id);
+        boolean forward = before == null && after != null;
+        List<Object> args = new ArrayList<>();
+        StringBuilder page = new StringBuilder("SELECT po.id FROM orders po WHERE po.").append(ownerColumn).append(" = ? ");
+        args.add(id);
+        if (statuses != null && !statuses.isEmpty()) {
+            List<Integer> statusIds = new ArrayList<>();
+            for (String status : statuses) {
+                statusRegistry.findOrderStatus(status).ifPresent(orderStatus -> statusIds.add(orderStatus.getId()));
+            }
+            if (statusIds.isEmpty()) {
+                return new ApiOrderPageDTO(new ArrayList<>(), null, null);
+            }
+            page.append("AND po.status_id IN (")
+                    .append(String.join(", ", Collections.nCopies(statusIds.size(), "?"))).append(") ");
+            args.addAll(statusIds);
+        }
+        if (before != null) {
+            page.append("AND po.id < ? ");
+            args.add(before);
+        } else if (after != null) {
+            page.append("AND po.id > ? ");
+            args.add(after);
+        }
+        page.append("ORDER BY po.id ").append(forward ? "ASC" : "DESC").append(" LIMIT ?");
+        args.add(limit + 1);
+
+        String sql = OrderHistoryAssembler.ORDER_LINE_COLUMNS +
+                "FROM (" + page + ") page JOIN orders o ON o.id = page.id " +
+                OrderHistoryAssembler.ORDER_LINE_JOINS +
+                "ORDER BY o.id " + (forward ? "ASC" : "DESC");
+
+        List<ApiOrderDTO> orders = new ArrayList<>();
+        OrderHistoryAssembler assembler = new OrderHistoryAssembler(orders::add);
+        jdbcTemplate.query(sql, assembler, args.toArray());
+        assembler.finish();
+
+        // Archived orders are all delivered, they only belong on the page without a status filter excluding them
+        boolean archivedMatch = statuses == null || statuses.isEmpty()
+                || statuses.stream().anyMatch(status -> OrderLifecycle.fromStatusName(status) == OrderLifecycle.DELIVERED);
+        if (archivedMatch) {
+            orders = mergeById(orders, findArchivedPage(type, id, before, after, limit + 1, forward), forward, limit + 1);
+        }
+
+        boolean more = orders.size() > limit;
+        if (more) {
+            orders.remove(orders.size() - 1);
+        }
+        if (forward) {
+            Collections.reverse(orders);
+        }
+
+        Integer nextBefore = null;
+        Integer nextAfter = null;
+        if (!orders.isEmpty()) {
+            // Walking back in time there is something newer whenever we started from a cursor, and the
+            // other way round when walking forward.
+            if (forward || more) {
+                nextBefore = orders.get(orders.size() - 1).getId();
+            }
+            if (forward ? more : before != null) {
+                nextAfter = orders.get(0).getId();
+            }
+        }
+        return new ApiOrderPageDTO(orders, nextBefore, nextAfter);
     }
 
     public Map<String, Object> createOrder(int restaurantId, int customerId, int courierId, List<Map<String, Integer>> products) {
-        if (restaurantId == 0 || customerId == 0 || courierId == 0 || products == null || products.isEmpty()) {
-            throw new IllegalArgumentException("Missing parameters for creating order");
-        }
-        // Fetch the restaurant_rating for the given restaurant_id from the orders table
-        String fetchRatingSql = "SELECT restaurant_rating FROM orders WHERE restaurant_id = " + restaurantId;
-        List<Integer> restaurantRatings = jdbcTemplate.query(fetchRatingSql,
-                (rs, rowNum) -> rs.getInt("restaurant_rating"));
-        if (restaurantRatings.isEmpty()) {
-            throw new IllegalArgumentException("No rating found for restaurant with ID: " + restaurantId);
+        return orderPlacementService.placeOrder(restaurantId, customerId, courierId, products);
+    }
+
+    /**
+     * Picks the archived orders of an owner that fall on a page, in page order, reading only those.
+     */
+    private List<ApiOrderDTO> findArchivedPage(String type, int id, Integer before, Integer after, int count, boolean forward) {
+        int[] ids = orderArchiveStore.findIdsByOwner(type, id);
+        List<Integer> page = new ArrayList<>();
+        if (forward) {
+            for (int i = 0; i < ids.length && page.size() < count; i++) {
+                if (ids[i] > after) {
+                    page.add(ids[i]);
+                }
+            }
+        } else {
+            for (int i = ids.length - 1; i >= 0 && page.size() < count; i--) {
+                if (before == null || ids[i] < before) {
+                    page.add(ids[i]);
+                }
+            }
         }
-        Integer restaurantRating = restaurantRatings.stream().mapToInt(Integer::intValue).sum()
-                / restaurantRatings.size();
-    
-        // Fetch the customer_id for the given customer_id from the orders table
-        String fetchCustomerSql = "SELECT customer_id FROM orders WHERE customer_id = " + customerId;
-        List<Integer> fetchedCustomerIds = jdbcTemplate.query(fetchCustomerSql,
-                (rs, rowNum) -> rs.getInt("customer_id"));
-        if (fetchedCustomerIds.isEmpty()) {
-            throw new IllegalArgumentException("No customer found with ID: " + customerId);
+        return orderArchiveStore.findAll(page.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    /**
+     * Merges two lists of orders sorted by id in the same direction, keeping at most limit orders.
+     * An order present in both is taken from the first list, the hot tables.
+     */
+    private static List<ApiOrderDTO> mergeById(List<ApiOrderDTO> hot, List<ApiOrderDTO> archived, boolean ascending, int limit) {
+        if (archived.isEmpty()) {
+            return hot;
         }
-        Integer fetchedCustomerId = fetchedCustomerIds.get(0); // Assuming there will always be at least one matching
-    
-        // Include the restaurant_rating, customer_id, and courier_id when creating a new order
-        String insertOrderSql = "INSERT INTO orders (restaurant_id, customer_id, courier_id, restaurant_rating, status_id) VALUES (?, ?, ?, ?, 1)";
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbcTemplate.update(connection -> {
-            PreparedStatement ps = connection.prepareStatement(insertOrderSql, Statement.RETURN_GENERATED_KEYS);
-            ps.setInt(1, restaurantId);
-            ps.setInt(2, fetchedCustomerId);
-            ps.setInt(3, courierId);
-            ps.setInt(4, restaurantRating);
-            return ps;
-        }, keyHolder);
-    
-        int orderId = keyHolder.getKey().intValue();
-    
-        String insertProductOrderSql = "INSERT INTO product_orders (order_id, product_id, product_quantity) VALUES (?, ?, ?)";
-        for (Map<String, Integer> product : products) {
-            jdbcTemplate.update(insertProductOrderSql, orderId, product.get("id"), product.get("quantity"));
+        List<ApiOrderDTO> merged = new ArrayList<>(Math.min(limit, hot.size() + archived.size()));
+        int h = 0;
+        int a = 0;
+        while (merged.size() < limit && (h < hot.size() || a < archived.size())) {
+            if (a == archived.size()) {
+                merged.add(hot.get(h++));
+            } else if (h == hot.size()) {
+                merged.add(archived.get(a++));
+            } else {
+                int hotId = hot.get(h).getId();
+                int archivedId = archived.get(a).getId();
+                if (hotId == archivedId) {
+                    a++;
+                } else if (ascending == archivedId < hotId) {
+                    merged.add(archived.get(a++));
+                } else {
+                    merged.add(hot.get(h++));
+                }
+            }
         }
-    
-        // Fetch the details of the created order
-        Map<String, Object> createdOrder = getOrderById(orderId);
-    
-        // Filter the order details to include only the newly created order
-    
-        return createdOrder;
+        return merged;
     }
+
     public Map<String, Object> getOrderById(int orderId) {
         String sql = "SELECT orders.*, restaurants.name AS restaurant_name, customerUsers.name AS customer_name, courierUsers.name AS courier_name " +
                      "FROM orders " +
                      "JOIN restaurants ON orders.restaurant_id = restaurants.id " +
                      "JOIN customers ON orders.customer_id = customers.id " +
                      "JOIN users AS customerUsers ON customers.user_id = customerUsers.id " +
-                     "JOIN courier ON orders.courier_id = courier.id " +
-                     "JOIN users AS courierUsers ON courier.user_id = courierUsers.id " +
+                     "LEFT JOIN courier ON orders.courier_id = courier.id " +
+                     "LEFT JOIN users AS courierUsers ON courier.user_id = courierUsers.id " +
                      "WHERE orders.id = ?";
-        return jdbcTemplate.queryForMap(sql, orderId);
+        try {
+            return jdbcTemplate.queryForMap(sql, orderId);
+        } catch (EmptyResultDataAccessException e) {
+            ApiOrderDTO archived = orderArchiveStore.find(orderId).orElseThrow(() -> e);
+            Map<String, Object> order = new LinkedHashMap<>();
+            order.put("id", archived.getId());
+            order.put("restaurant_id", archived.getRestaurant_id());
+            order.put("customer_id", archived.getCustomer_id());
+            order.put("courier_id", archived.getCourier_id());
+            order.put("status_id", statusRegistry.getOrderStatusId(OrderLifecycle.DELIVERED));
+            order.put("restaurant_rating", archived.getRestaurant_rating());
+            order.put("total_cost", archived.getTotal_cost());
+            order.put("restaurant_name", archived.getRestaurant_name());
+            order.put("customer_name", archived.getCustomer_name());
+            order.put("courier_name", archived.getCourier_name());
+            return order;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,160 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import com.rocketFoodDelivery.rocketFood.models.CourierStatus;
+import com.rocketFoodDelivery.rocketFood.models.OrderLifecycle;
+import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
+import com.rocketFoodDelivery.rocketFood.repository.CourierStatusRepository;
+import com.rocketFoodDelivery.rocketFood.repository.OrderStatusRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * In-memory copy of the order_statuses and courier_statuses lookup tables.
+ * Both tables only hold a handful of fixed rows, so they are read once at startup into immutable
+ * maps and every name or id lookup afterwards is answered without touching the database.
+ * {@link #refresh()} reads the tables again and swaps the maps in one step, for when rows were
+ * changed by hand. Callers get copies of the cached rows, so changing a returned entity never
+ * alters what the registry resolves.
+ */
+@Component
+public class StatusRegistry {
+    public static final List<String> COURIER_STATUS_NAMES = List.of("free", "busy", "full", "offline");
+
+    private static final Logger logger = Logger.getLogger(StatusRegistry.class.getName());
+
+    private final OrderStatusRepository orderStatusRepository;
+    private final CourierStatusRepository courierStatusRepository;
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public StatusRegistry(OrderStatusRepository orderStatusRepository, CourierStatusRepository courierStatusRepository) {
+        this.orderStatusRepository = orderStatusRepository;
+        this.courierStatusRepository = courierStatusRepository;
+    }
+
+    /**
+     * Reloads both tables, first inserting any lifecycle or courier status that is missing so every
+     * name the application relies on resolves.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        List<OrderStatus> orderStatuses = new ArrayList<>(orderStatusRepository.findAll());
+        for (OrderLifecycle state : OrderLifecycle.values()) {
+            if (orderStatuses.stream().noneMatch(status -> state.getStatusName().equalsIgnoreCase(status.getName()))) {
+                logger.log(Level.INFO, "Adding missing order status {0}", state.getStatusName());
+                orderStatuses.add(orderStatusRepository.save(OrderStatus.builder().name(state.getStatusName()).build()));
+            }
+        }
+
+        List<CourierStatus> courierStatuses = new ArrayList<>(courierStatusRepository.findAll());
+        for (String name : COURIER_STATUS_NAMES) {
+            if (courierStatuses.stream().noneMatch(status -> name.equalsIgnoreCase(status.getName()))) {
+                logger.log(Level.INFO, "Adding missing courier status {0}", name);
+                courierStatuses.add(courierStatusRepository.save(CourierStatus.builder().name(name).build()));
+            }
+        }
+
+        snapshot = new Snapshot(orderStatuses, courierStatuses);
+    }
+
+    public OrderStatus getOrderStatus(OrderLifecycle state) {
+        return findOrderStatus(state.getStatusName())
+                .orElseThrow(() -> new IllegalStateException("Order status " + state.getStatusName() + " is not registered"));
+    }
+
+    public int getOrderStatusId(OrderLifecycle state) {
+        OrderStatus status = current().orderByName.get(key(state.getStatusName()));
+        if (status == null) {
+            throw new IllegalStateException("Order status " + state.getStatusName() + " is not registered");
+        }
+        return status.getId();
+    }
+
+    public Optional<OrderStatus> findOrderStatus(String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(current().orderByName.get(key(name))).map(StatusRegistry::copyOrderStatus);
+    }
+
+    public Optional<OrderStatus> findOrderStatus(int id) {
+        return Optional.ofNullable(current().orderById.get(id)).map(StatusRegistry::copyOrderStatus);
+    }
+
+    public List<OrderStatus> getOrderStatuses() {
+        return current().orderStatuses.stream().map(StatusRegistry::copyOrderStatus).toList();
+    }
+
+    public List<CourierStatus> getCourierStatuses() {
+        return current().courierStatuses.stream().map(StatusRegistry::copyCourierStatus).toList();
+    }
+
+    public Optional<CourierStatus> findCourierStatus(String name) {
+        return name == null ? Optional.empty() : Optional.ofNullable(current().courierByName.get(key(name))).map(StatusRegistry::copyCourierStatus);
+    }
+
+    public Optional<CourierStatus> findCourierStatus(int id) {
+        return Optional.ofNullable(current().courierById.get(id)).map(StatusRegistry::copyCourierStatus);
+    }
+
+    private Snapshot current() {
+        Snapshot loaded = snapshot;
+        if (loaded == null) {
+            // Used before the application was ready, e.g. by a startup task
+            refresh();
+            loaded = snapshot;
+        }
+        return loaded;
+    }
+
+    private static OrderStatus copyOrderStatus(OrderStatus status) {
+        return new OrderStatus(status.getId(), status.getName());
+    }
+
+    private static CourierStatus copyCourierStatus(CourierStatus status) {
+        return new CourierStatus(status.getId(), status.getName());
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static class Snapshot {
+        final List<OrderStatus> orderStatuses;
+        final Map<String, OrderStatus> orderByName;
+        final Map<Integer, OrderStatus> orderById;
+        final List<CourierStatus> courierStatuses;
+        final Map<String, CourierStatus> courierByName;
+        final Map<Integer, CourierStatus> courierById;
+
+        Snapshot(List<OrderStatus> orderStatuses, List<CourierStatus> courierStatuses) {
+            Map<String, OrderStatus> orderByName = new HashMap<>();
+            Map<Integer, OrderStatus> orderById = new HashMap<>();
+            for (OrderStatus status : orderStatuses) {
+                orderByName.putIfAbsent(key(status.getName()), status);
+                orderById.put(status.getId(), status);
+            }
+            Map<String, CourierStatus> courierByName = new HashMap<>();
+            Map<Integer, CourierStatus> courierById = new HashMap<>();
+            for (CourierStatus status : courierStatuses) {
+                courierByName.putIfAbsent(key(status.getName()), status);
+                courierById.put(status.getId(), status);
+            }
+            this.orderStatuses = Collections.unmodifiableList(new ArrayList<>(orderStatuses));
+            this.orderByName = Collections.unmodifiableMap(orderByName);
+            this.orderById = Collections.unmodifiableMap(orderById);
+            this.courierStatuses = Collections.unmodifiableList(new ArrayList<>(courierStatuses));
+            this.courierByName = Collections.unmodifiableMap(courierByName);
+            this.courierById = Collections.unmodifiableMap(courierById);
+        }
+    }
+}
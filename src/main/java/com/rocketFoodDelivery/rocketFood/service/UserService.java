@@ -4,6 +4,8 @@ import com.rocketFoodDelivery.rocketFood.models.Employee;
 import com.rocketFoodDelivery.rocketFood.models.UserEntity;
 import com.rocketFoodDelivery.rocketFood.repository.EmployeeRepository;
 import com.rocketFoodDelivery.rocketFood.repository.UserRepository;
+import com.rocketFoodDelivery.rocketFood.security.UserDetailsCache;
+import com.rocketFoodDelivery.rocketFood.util.TransactionUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -14,11 +16,13 @@ import java.util.Optional;
 public class UserService {
     UserRepository userRepository;
     EmployeeRepository employeeRepository;
+    UserDetailsCache userDetailsCache;
 
     @Autowired
-    public UserService(UserRepository userRepository , EmployeeRepository employeeRepository){
+    public UserService(UserRepository userRepository , EmployeeRepository employeeRepository, UserDetailsCache userDetailsCache){
         this.userRepository = userRepository;
         this.employeeRepository = employeeRepository;
+        this.userDetailsCache = userDetailsCache;
     }
 
     public void populateEmployeeStatus(UserEntity userEntity) {
@@ -26,6 +30,29 @@ public class UserService {
         userEntity.setEmployee(employee.isPresent());
     }
 
+    /**
+     * Loads a user for login with its employee flag, customer and courier ids and token version
+     * set, so they can be written into its access token, in a single query.
+     */
+    public Optional<UserEntity> findLoginUser(String email) {
+        List<Object[]> rows = userRepository.findLoginByEmail(email);
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        Object[] row = rows.get(0);
+        UserEntity user = UserEntity.builder()
+                .id(((Number) row[0]).intValue())
+                .name((String) row[1])
+                .email((String) row[2])
+                .password((String) row[3])
+                .tokenVersion(((Number) row[4]).intValue())
+                .customerId(row[6] != null ? ((Number) row[6]).intValue() : null)
+                .courierId(row[7] != null ? ((Number) row[7]).intValue() : null)
+                .build();
+        user.setEmployee(row[5] != null);
+        return Optional.of(user);
+    }
+
     public List<UserEntity> findAllUsers(){
         return userRepository.findAll();
     }
@@ -43,12 +70,23 @@ public class UserService {
         }
     }
 
+    /**
+     * Replaces a user's stored password, which must already be encoded.
+     */
+    public void updatePassword(int userId, String encodedPassword) {
+        userRepository.updatePassword(userId, encodedPassword);
+        TransactionUtils.runAfterCommit(() -> userDetailsCache.removeUserFromCache(userId));
+    }
+
     public UserEntity saveUser(UserEntity user){
-        return userRepository.save(user);
+        UserEntity saved = userRepository.save(user);
+        TransactionUtils.runAfterCommit(() -> userDetailsCache.removeUserFromCache(saved.getId()));
+        return saved;
     }
     
     public void delete(int id) {
         userRepository.deleteById(id);
+        TransactionUtils.runAfterCommit(() -> userDetailsCache.removeUserFromCache(id));
     }
 
 
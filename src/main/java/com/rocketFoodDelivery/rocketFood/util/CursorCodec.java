@@ -0,0 +1,45 @@
+package com.rocketFoodDelivery.rocketFood.util;
+
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Encodes keyset pagination cursors as opaque URL-safe tokens.
+ * A cursor holds the sort key of the last row of a page and its id, which breaks ties.
+ */
+public class CursorCodec {
+
+    public static String encode(String sortKey, int id) {
+        String raw = (sortKey == null ? "" : sortKey) + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('|');
+            return new Cursor(raw.substring(0, separator), Integer.parseInt(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new BadRequestException("Invalid or missing parameters", "Invalid cursor");
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Cursor {
+        private final String sortKey;
+        private final int id;
+
+        public int getSortKeyAsInt() {
+            try {
+                return Integer.parseInt(sortKey);
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("Invalid or missing parameters", "Invalid cursor");
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.rocketFoodDelivery.rocketFood.util;
+
+/**
+ * Distances between WGS84 coordinates.
+ */
+public class GeoDistance {
+    public static final double EARTH_RADIUS_KM = 6371.0;
+    // Length of one degree of latitude, and of longitude at the equator
+    public static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    /**
+     * Great-circle distance between two points, with the haversine formula.
+     */
+    public static double haversineKm(double fromLatitude, double fromLongitude, double toLatitude, double toLongitude) {
+        double dLat = Math.toRadians(toLatitude - fromLatitude);
+        double dLng = Math.toRadians(toLongitude - fromLongitude);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(fromLatitude)) * Math.cos(Math.toRadians(toLatitude))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.http.ResponseEntity;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiErrorDTO;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiResponseDTO;
 import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+import com.rocketFoodDelivery.rocketFood.exception.ConflictException;
 
 import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
 
@@ -26,6 +27,10 @@ public class ResponseBuilder {
         return createSuccessResponse("Success", data, HttpStatus.CREATED);
     }
 
+    public static ResponseEntity<Object> buildAcceptedResponse(Object data) {
+        return createSuccessResponse("Accepted", data, HttpStatus.ACCEPTED);
+    }
+
     private static ResponseEntity<Object> createSuccessResponse(String message, Object data, HttpStatus status) {
         ApiResponseDTO response = new ApiResponseDTO();
         response.setMessage(message);
@@ -43,6 +48,14 @@ public class ResponseBuilder {
         return createErrorResponse("400 Bad Request", ex.getDetails(), HttpStatus.BAD_REQUEST);
     }
 
+    public static ResponseEntity<Object> buildConflictExceptionResponse(ConflictException ex) {
+        return createErrorResponse("409 Conflict", ex.getMessage(), HttpStatus.CONFLICT);
+    }
+
+    public static ResponseEntity<Object> buildServiceUnavailableResponse(String details) {
+        return createErrorResponse("503 Service Unavailable", details, HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     // public static ResponseEntity<Object> buildInternalServerErrorExceptionResponse(InternalServerErrorException ex) {
     //     return createErrorResponse("500 Internal Server Error", ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
     // }
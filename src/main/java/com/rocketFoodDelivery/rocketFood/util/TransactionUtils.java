@@ -0,0 +1,45 @@
+package com.rocketFoodDelivery.rocketFood.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Helpers for work that has to follow the outcome of the current transaction.
+ */
+public class TransactionUtils {
+
+    /**
+     * Runs the given action once the surrounding transaction commits, or immediately when there is
+     * none, so in-memory state never gets ahead of a write that is later rolled back.
+     */
+    public static void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    /**
+     * Runs the given action if the surrounding transaction rolls back, to undo in-memory state
+     * taken ahead of its writes. Without a transaction there is nothing to undo and it never runs.
+     */
+    public static void runAfterRollback(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+}
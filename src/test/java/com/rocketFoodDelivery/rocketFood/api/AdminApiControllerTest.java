@@ -0,0 +1,107 @@
+package com.rocketFoodDelivery.rocketFood.api;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Optional;
+import java.util.OptionalInt;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.rocketFoodDelivery.rocketFood.controller.api.AdminApiController;
+import com.rocketFoodDelivery.rocketFood.security.JwtPrincipal;
+import com.rocketFoodDelivery.rocketFood.security.JwtTokenFilter;
+import com.rocketFoodDelivery.rocketFood.security.PasswordHashingService;
+import com.rocketFoodDelivery.rocketFood.security.RateLimitFilter;
+import com.rocketFoodDelivery.rocketFood.security.RateLimiter;
+import com.rocketFoodDelivery.rocketFood.security.SecurityConfig;
+import com.rocketFoodDelivery.rocketFood.security.TokenVersionRegistry;
+import com.rocketFoodDelivery.rocketFood.security.UserDetailsCache;
+import com.rocketFoodDelivery.rocketFood.security.VerifiedTokenCache;
+import com.rocketFoodDelivery.rocketFood.service.CourierDispatcher;
+import com.rocketFoodDelivery.rocketFood.service.OrderArchiver;
+import com.rocketFoodDelivery.rocketFood.service.OrderCostBackfillService;
+import com.rocketFoodDelivery.rocketFood.service.RestaurantRollupService;
+import com.rocketFoodDelivery.rocketFood.service.StatusRegistry;
+import com.rocketFoodDelivery.rocketFood.service.UserService;
+
+/**
+ * The /api/admin endpoints behind the real security filter chain, with bearer tokens resolved by
+ * a mocked token cache.
+ */
+@WebMvcTest(AdminApiController.class)
+@Import({ SecurityConfig.class, JwtTokenFilter.class, RateLimitFilter.class })
+public class AdminApiControllerTest {
+    private static final String CUSTOMER_TOKEN = "customer-token";
+    private static final String EMPLOYEE_TOKEN = "employee-token";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private VerifiedTokenCache verifiedTokenCache;
+    @MockBean
+    private TokenVersionRegistry tokenVersionRegistry;
+    @MockBean
+    private RateLimiter rateLimiter;
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private UserDetailsCache userDetailsCache;
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+    @MockBean
+    private StatusRegistry statusRegistry;
+    @MockBean
+    private OrderCostBackfillService orderCostBackfillService;
+    @MockBean
+    private OrderArchiver orderArchiver;
+    @MockBean
+    private RestaurantRollupService restaurantRollupService;
+    @MockBean
+    private CourierDispatcher courierDispatcher;
+
+    @BeforeEach
+    public void setUp() {
+        when(verifiedTokenCache.resolve(CUSTOMER_TOKEN))
+                .thenReturn(Optional.of(new JwtPrincipal(2, "customer@example.com", false, 5, null, 0, Long.MAX_VALUE)));
+        when(verifiedTokenCache.resolve(EMPLOYEE_TOKEN))
+                .thenReturn(Optional.of(new JwtPrincipal(1, "employee@example.com", true, null, null, 0, Long.MAX_VALUE)));
+        when(tokenVersionRegistry.isCurrent(any())).thenReturn(true);
+    }
+
+    @Test
+    public void testAdminEndpointsRejectNonEmployees() throws Exception {
+        mockMvc.perform(post("/api/admin/users/{id}/revoke-tokens", 1).header("Authorization", "Bearer " + CUSTOMER_TOKEN))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/couriers/reload").header("Authorization", "Bearer " + CUSTOMER_TOKEN))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/admin/orders/archive"))
+                .andExpect(status().isUnauthorized());
+
+        verify(tokenVersionRegistry, never()).revoke(anyInt());
+        verify(courierDispatcher, never()).load();
+        verify(orderArchiver, never()).archive();
+    }
+
+    @Test
+    public void testEmployeeCanRevokeTokens() throws Exception {
+        when(tokenVersionRegistry.revoke(1)).thenReturn(OptionalInt.of(3));
+
+        mockMvc.perform(post("/api/admin/users/{id}/revoke-tokens", 1).header("Authorization", "Bearer " + EMPLOYEE_TOKEN))
+                .andExpect(status().isOk());
+
+        verify(tokenVersionRegistry).revoke(1);
+    }
+}
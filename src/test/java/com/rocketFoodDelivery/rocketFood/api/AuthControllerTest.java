@@ -0,0 +1,161 @@
+package com.rocketFoodDelivery.rocketFood.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.authentication.ProviderManager;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.rocketFoodDelivery.rocketFood.controller.api.AuthController;
+import com.rocketFoodDelivery.rocketFood.dtos.AuthRequestDTO;
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.repository.EmployeeRepository;
+import com.rocketFoodDelivery.rocketFood.repository.UserRepository;
+import com.rocketFoodDelivery.rocketFood.security.JwtUtil;
+import com.rocketFoodDelivery.rocketFood.security.PasswordHashingService;
+import com.rocketFoodDelivery.rocketFood.security.SecurityConfig;
+import com.rocketFoodDelivery.rocketFood.security.UserDetailsCache;
+import com.rocketFoodDelivery.rocketFood.service.UserService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Sign-in through the authentication provider built by {@link SecurityConfig}, with the login
+ * query served by a mocked UserRepository.
+ */
+public class AuthControllerTest {
+    private static final String EMAIL = "customer@example.com";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Object[]> loginRows = new ArrayList<>();
+    private UserRepository userRepository;
+    private UserDetailsCache userDetailsCache;
+    private PasswordHashingService passwordHashingService;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository = mock(UserRepository.class);
+        when(userRepository.findLoginByEmail(anyString())).thenReturn(loginRows);
+        userDetailsCache = new UserDetailsCache(meterRegistry, 100, 60);
+        passwordHashingService = new PasswordHashingService(meterRegistry, "bcrypt", 4, 1, 10, 5000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        passwordHashingService.stop();
+    }
+
+    @Test
+    public void testLegacyPasswordIsRehashedAndEvictedFromCache() {
+        loginRows.add(new Object[] { 7, "Customer", EMAIL, "secret", 0, null, 3, null });
+        AuthController controller = authController(passwordHashingService);
+
+        ResponseEntity<?> response = controller.authenticate(request("secret"));
+
+        assertEquals(200, response.getStatusCode().value());
+        ArgumentCaptor<String> stored = ArgumentCaptor.forClass(String.class);
+        verify(userRepository).updatePassword(eq(7), stored.capture());
+        assertTrue(stored.getValue().startsWith("{bcrypt}"));
+        assertTrue(passwordHashingService.matches("secret", stored.getValue()));
+        // The cached copy still held the plain text password
+        assertNull(userDetailsCache.getUserFromCache(EMAIL));
+    }
+
+    @Test
+    public void testWrongLegacyPasswordIsNotRehashed() {
+        loginRows.add(new Object[] { 7, "Customer", EMAIL, "secret", 0, null, 3, null });
+        AuthController controller = authController(passwordHashingService);
+
+        ResponseEntity<?> response = controller.authenticate(request("guess"));
+
+        assertEquals(401, response.getStatusCode().value());
+        verify(userRepository, never()).updatePassword(anyInt(), anyString());
+    }
+
+    @Test
+    public void testSaturatedHashingPoolWhileLoadingUserGives503() {
+        // The first sign-in encodes the provider's dummy password before loading the user
+        PasswordEncoder saturated = mock(PasswordEncoder.class);
+        when(saturated.encode(any())).thenThrow(new ServiceUnavailableException("Too many sign-ins in progress, retry shortly"));
+        loginRows.add(new Object[] { 7, "Customer", EMAIL, "{noop}secret", 0, null, 3, null });
+
+        ResponseEntity<?> response = authController(saturated).authenticate(request("secret"));
+
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void testSaturatedHashingPoolWhileCheckingPasswordGives503() {
+        PasswordEncoder saturated = mock(PasswordEncoder.class);
+        when(saturated.encode(any())).thenReturn("{noop}dummy");
+        when(saturated.matches(any(), anyString()))
+                .thenThrow(new ServiceUnavailableException("Too many sign-ins in progress, retry shortly"));
+        loginRows.add(new Object[] { 7, "Customer", EMAIL, "{noop}secret", 0, null, 3, null });
+
+        ResponseEntity<?> response = authController(saturated).authenticate(request("secret"));
+
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    public void testRejectionWrappedByTheProviderGives503() {
+        AuthenticationManager authManager = mock(AuthenticationManager.class);
+        ServiceUnavailableException rejected = new ServiceUnavailableException("Too many sign-ins in progress, retry shortly");
+        when(authManager.authenticate(any())).thenThrow(new InternalAuthenticationServiceException(rejected.getMessage(), rejected));
+        AuthController controller = new AuthController(meterRegistry);
+        ReflectionTestUtils.setField(controller, "authManager", authManager);
+
+        ResponseEntity<?> response = controller.authenticate(request("secret"));
+
+        assertEquals(503, response.getStatusCode().value());
+        assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+    }
+
+    private AuthController authController(PasswordEncoder passwordEncoder) {
+        UserService userService = new UserService(userRepository, mock(EmployeeRepository.class), userDetailsCache);
+        SecurityConfig securityConfig = new SecurityConfig();
+        ReflectionTestUtils.setField(securityConfig, "userService", userService);
+        ReflectionTestUtils.setField(securityConfig, "userDetailsCache", userDetailsCache);
+        DaoAuthenticationProvider provider = securityConfig.authenticationProvider(
+                securityConfig.userDetailsService(), passwordEncoder, securityConfig.userDetailsPasswordService());
+
+        JwtUtil jwtUtil = mock(JwtUtil.class);
+        when(jwtUtil.generateAccessToken(any(UserEntity.class))).thenReturn("token");
+        AuthController controller = new AuthController(meterRegistry);
+        ReflectionTestUtils.setField(controller, "authManager", new ProviderManager(provider));
+        ReflectionTestUtils.setField(controller, "jwtUtil", jwtUtil);
+        return controller;
+    }
+
+    private static AuthRequestDTO request(String password) {
+        AuthRequestDTO request = new AuthRequestDTO();
+        request.setEmail(EMAIL);
+        request.setPassword(password);
+        return request;
+    }
+}
@@ -0,0 +1,130 @@
+package com.rocketFoodDelivery.rocketFood.api;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.rocketFoodDelivery.rocketFood.controller.api.CourierApiController;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierLocationDTO;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierTrailDTO;
+import com.rocketFoodDelivery.rocketFood.security.JwtPrincipal;
+import com.rocketFoodDelivery.rocketFood.security.JwtTokenFilter;
+import com.rocketFoodDelivery.rocketFood.security.PasswordHashingService;
+import com.rocketFoodDelivery.rocketFood.security.RateLimitFilter;
+import com.rocketFoodDelivery.rocketFood.security.RateLimiter;
+import com.rocketFoodDelivery.rocketFood.security.SecurityConfig;
+import com.rocketFoodDelivery.rocketFood.security.TokenVersionRegistry;
+import com.rocketFoodDelivery.rocketFood.security.UserDetailsCache;
+import com.rocketFoodDelivery.rocketFood.security.VerifiedTokenCache;
+import com.rocketFoodDelivery.rocketFood.service.CourierLocationTracker;
+import com.rocketFoodDelivery.rocketFood.service.UserService;
+
+/**
+ * The courier location endpoints behind the real security filter chain: a courier reports only its
+ * own position, which only that courier and employees can read back.
+ */
+@WebMvcTest(CourierApiController.class)
+@Import({ SecurityConfig.class, JwtTokenFilter.class, RateLimitFilter.class })
+public class CourierApiControllerTest {
+    private static final String COURIER_TOKEN = "courier-token";
+    private static final String OTHER_COURIER_TOKEN = "other-courier-token";
+    private static final String CUSTOMER_TOKEN = "customer-token";
+    private static final String EMPLOYEE_TOKEN = "employee-token";
+    private static final String PING = "{\"latitude\": 45.5, \"longitude\": -73.6}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private VerifiedTokenCache verifiedTokenCache;
+    @MockBean
+    private TokenVersionRegistry tokenVersionRegistry;
+    @MockBean
+    private RateLimiter rateLimiter;
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private UserDetailsCache userDetailsCache;
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+    @MockBean
+    private CourierLocationTracker courierLocationTracker;
+
+    @BeforeEach
+    public void setUp() {
+        when(verifiedTokenCache.resolve(COURIER_TOKEN))
+                .thenReturn(Optional.of(new JwtPrincipal(3, "courier@example.com", false, null, 7, 0, Long.MAX_VALUE)));
+        when(verifiedTokenCache.resolve(OTHER_COURIER_TOKEN))
+                .thenReturn(Optional.of(new JwtPrincipal(4, "other@example.com", false, null, 8, 0, Long.MAX_VALUE)));
+        when(verifiedTokenCache.resolve(CUSTOMER_TOKEN))
+                .thenReturn(Optional.of(new JwtPrincipal(2, "customer@example.com", false, 5, null, 0, Long.MAX_VALUE)));
+        when(verifiedTokenCache.resolve(EMPLOYEE_TOKEN))
+                .thenReturn(Optional.of(new JwtPrincipal(1, "employee@example.com", true, null, null, 0, Long.MAX_VALUE)));
+        when(tokenVersionRegistry.isCurrent(any())).thenReturn(true);
+        when(courierLocationTracker.canReport(anyInt(), any())).thenCallRealMethod();
+        when(courierLocationTracker.canTrack(anyInt(), any())).thenCallRealMethod();
+        when(courierLocationTracker.isKnownCourier(7)).thenReturn(true);
+        when(courierLocationTracker.record(eq(7), anyList())).thenReturn(1);
+        ApiCourierLocationDTO latest = new ApiCourierLocationDTO(45.5, -73.6, 1000);
+        when(courierLocationTracker.getTrail(eq(7), anyLong()))
+                .thenReturn(Optional.of(new ApiCourierTrailDTO(7, latest, List.of(latest))));
+    }
+
+    @Test
+    public void testCourierReportsItsOwnPosition() throws Exception {
+        mockMvc.perform(post("/api/couriers/{id}/locations", 7).header("Authorization", "Bearer " + COURIER_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON).content(PING))
+                .andExpect(status().isAccepted());
+
+        verify(courierLocationTracker).record(eq(7), anyList());
+    }
+
+    @Test
+    public void testNobodyElseReportsForTheCourier() throws Exception {
+        for (String token : List.of(OTHER_COURIER_TOKEN, CUSTOMER_TOKEN, EMPLOYEE_TOKEN)) {
+            mockMvc.perform(post("/api/couriers/{id}/locations", 7).header("Authorization", "Bearer " + token)
+                            .contentType(MediaType.APPLICATION_JSON).content(PING))
+                    .andExpect(status().isForbidden());
+        }
+
+        verify(courierLocationTracker, never()).record(anyInt(), anyList());
+    }
+
+    @Test
+    public void testLocationIsReadByTheCourierAndEmployees() throws Exception {
+        for (String token : List.of(COURIER_TOKEN, EMPLOYEE_TOKEN)) {
+            mockMvc.perform(get("/api/couriers/{id}/location", 7).header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk());
+        }
+    }
+
+    @Test
+    public void testLocationIsForbiddenToOthers() throws Exception {
+        for (String token : List.of(OTHER_COURIER_TOKEN, CUSTOMER_TOKEN)) {
+            mockMvc.perform(get("/api/couriers/{id}/location", 7).header("Authorization", "Bearer " + token))
+                    .andExpect(status().isForbidden());
+        }
+
+        verify(courierLocationTracker, never()).getTrail(anyInt(), anyLong());
+    }
+}
@@ -0,0 +1,185 @@
+package com.rocketFoodDelivery.rocketFood.api;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.rocketFoodDelivery.rocketFood.controller.api.OrderApiController;
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.security.JwtPrincipal;
+import com.rocketFoodDelivery.rocketFood.security.JwtTokenFilter;
+import com.rocketFoodDelivery.rocketFood.security.PasswordHashingService;
+import com.rocketFoodDelivery.rocketFood.security.RateLimitFilter;
+import com.rocketFoodDelivery.rocketFood.security.RateLimiter;
+import com.rocketFoodDelivery.rocketFood.security.SecurityConfig;
+import com.rocketFoodDelivery.rocketFood.security.TokenVersionRegistry;
+import com.rocketFoodDelivery.rocketFood.security.UserDetailsCache;
+import com.rocketFoodDelivery.rocketFood.security.VerifiedTokenCache;
+import com.rocketFoodDelivery.rocketFood.service.OrderBatchService;
+import com.rocketFoodDelivery.rocketFood.service.OrderEventHub;
+import com.rocketFoodDelivery.rocketFood.service.OrderExportService;
+import com.rocketFoodDelivery.rocketFood.service.OrderIntakeQueue;
+import com.rocketFoodDelivery.rocketFood.service.OrderService;
+import com.rocketFoodDelivery.rocketFood.service.UserService;
+
+/**
+ * The order endpoints behind the real security filter chain: an event stream is only opened for a
+ * caller {@link OrderService} lets follow it, the full export is for employees, and a batch is
+ * refused past orders.batch.max-size (1000) orders.
+ */
+@WebMvcTest(OrderApiController.class)
+@Import({ SecurityConfig.class, JwtTokenFilter.class, RateLimitFilter.class })
+public class OrderApiControllerTest {
+    private static final String CUSTOMER_TOKEN = "customer-token";
+    private static final String EMPLOYEE_TOKEN = "employee-token";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private VerifiedTokenCache verifiedTokenCache;
+    @MockBean
+    private TokenVersionRegistry tokenVersionRegistry;
+    @MockBean
+    private RateLimiter rateLimiter;
+    @MockBean
+    private UserService userService;
+    @MockBean
+    private UserDetailsCache userDetailsCache;
+    @MockBean
+    private PasswordHashingService passwordHashingService;
+    @MockBean
+    private OrderBatchService orderBatchService;
+    @MockBean
+    private OrderIntakeQueue orderIntakeQueue;
+    @MockBean
+    private OrderExportService orderExportService;
+    @MockBean
+    private OrderEventHub orderEventHub;
+    @MockBean
+    private OrderService orderService;
+
+    @BeforeEach
+    public void setUp() {
+        when(verifiedTokenCache.resolve(CUSTOMER_TOKEN))
+                .thenReturn(Optional.of(new JwtPrincipal(2, "customer@example.com", false, 5, null, 0, Long.MAX_VALUE)));
+        when(verifiedTokenCache.resolve(EMPLOYEE_TOKEN))
+                .thenReturn(Optional.of(new JwtPrincipal(1, "employee@example.com", true, null, null, 0, Long.MAX_VALUE)));
+        when(tokenVersionRegistry.isCurrent(any())).thenReturn(true);
+        when(orderEventHub.subscribeToOrder(anyInt())).thenReturn(Optional.of(new SseEmitter()));
+        when(orderEventHub.subscribeToCustomer(anyInt())).thenReturn(Optional.of(new SseEmitter()));
+    }
+
+    @Test
+    public void testOrderStreamIsForbiddenToOthers() throws Exception {
+        when(orderService.canFollowOrder(eq(7), any(UserEntity.class))).thenReturn(false);
+
+        mockMvc.perform(get("/api/orders/{id}/events", 7).header("Authorization", "Bearer " + CUSTOMER_TOKEN))
+                .andExpect(status().isForbidden());
+
+        verify(orderEventHub, never()).subscribeToOrder(anyInt());
+    }
+
+    @Test
+    public void testOrderStreamIsOpenedForItsCustomer() throws Exception {
+        when(orderService.canFollowOrder(eq(7), any(UserEntity.class)))
+                .thenAnswer(invocation -> ((UserEntity) invocation.getArgument(1)).getCustomerId() == 5);
+
+        mockMvc.perform(get("/api/orders/{id}/events", 7).header("Authorization", "Bearer " + CUSTOMER_TOKEN))
+                .andExpect(request().asyncStarted());
+
+        verify(orderEventHub).subscribeToOrder(7);
+    }
+
+    @Test
+    public void testCustomerStreamChecksTheCustomer() throws Exception {
+        when(orderService.canFollowCustomer(anyInt(), any(UserEntity.class)))
+                .thenAnswer(invocation -> ((UserEntity) invocation.getArgument(1)).getCustomerId() == (int) invocation.getArgument(0));
+
+        mockMvc.perform(get("/api/customers/{id}/order-events", 6).header("Authorization", "Bearer " + CUSTOMER_TOKEN))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/customers/{id}/order-events", 5).header("Authorization", "Bearer " + CUSTOMER_TOKEN))
+                .andExpect(request().asyncStarted());
+
+        verify(orderEventHub, never()).subscribeToCustomer(6);
+        verify(orderEventHub).subscribeToCustomer(5);
+    }
+
+    @Test
+    public void testExportIsForEmployeesOnly() throws Exception {
+        mockMvc.perform(get("/api/orders/export").header("Authorization", "Bearer " + CUSTOMER_TOKEN))
+                .andExpect(status().isForbidden());
+        verify(orderExportService, never()).exportOrders(anyInt(), any());
+
+        mockMvc.perform(get("/api/orders/export").header("Authorization", "Bearer " + EMPLOYEE_TOKEN))
+                .andExpect(status().isOk());
+        verify(orderExportService).exportOrders(eq(0), any());
+    }
+
+    @Test
+    public void testExportIsGzippedOnRequest() throws Exception {
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(orderExportService).exportOrders(anyInt(), any());
+
+        MvcResult result = mockMvc.perform(get("/api/orders/export").param("after", "41")
+                        .header("Authorization", "Bearer " + EMPLOYEE_TOKEN)
+                        .header("Accept-Encoding", "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andReturn();
+
+        verify(orderExportService).exportOrders(eq(41), any());
+        byte[] body = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray())).readAllBytes();
+        assertEquals("{\"id\":1}\n{\"id\":2}\n", new String(body, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testBatchIsLimitedToMaxSizeOrders() throws Exception {
+        String order = "{\"restaurant_id\": 1, \"customer_id\": 5, \"products\": [{\"id\": 10, \"quantity\": 1}]}";
+
+        mockMvc.perform(post("/api/orders/batch").header("Authorization", "Bearer " + CUSTOMER_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON).content(batch(order, 1001)))
+                .andExpect(status().isBadRequest());
+        verify(orderBatchService, never()).placeOrders(any());
+
+        mockMvc.perform(post("/api/orders/batch").header("Authorization", "Bearer " + CUSTOMER_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON).content(batch(order, 1000)))
+                .andExpect(status().isOk());
+        verify(orderBatchService).placeOrders(any());
+    }
+
+    private static String batch(String order, int size) {
+        return "{\"orders\": [" + String.join(", ", Collections.nCopies(size, order)) + "]}";
+    }
+}
@@ -47,6 +47,7 @@ import com.rocketFoodDelivery.rocketFood.controller.api.RestaurantApiController;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiAddressDto;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiCreateRestaurantDto;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiErrorDTO;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderDTO;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiResponseDTO;
 import com.rocketFoodDelivery.rocketFood.dtos.ApiRestaurantDto;
 import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
@@ -54,6 +55,8 @@ import com.rocketFoodDelivery.rocketFood.exception.ResourceNotFoundException;
 import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
 import com.rocketFoodDelivery.rocketFood.models.Restaurant;
 import com.rocketFoodDelivery.rocketFood.repository.UserRepository;
+import com.rocketFoodDelivery.rocketFood.service.OrderIntakeQueue;
+import com.rocketFoodDelivery.rocketFood.service.RestaurantRollupService;
 import com.rocketFoodDelivery.rocketFood.service.RestaurantService;
 import com.rocketFoodDelivery.rocketFood.util.ResponseBuilder;
 import static org.hamcrest.Matchers.is;
@@ -140,7 +143,8 @@ public class RestaurantApiControllerTest {
         // Mock service behavior
         when(restaurantService.getRestaurant(anyInt())).thenReturn(new Restaurant());
         doNothing().when(restaurantService).deleteRestaurant(anyInt());
-        RestaurantApiController restaurantApiController = new RestaurantApiController(restaurantService);
+        RestaurantApiController restaurantApiController = new RestaurantApiController(restaurantService, mock(OrderIntakeQueue.class),
+                mock(RestaurantRollupService.class));
 
         MockMvc mockMvc = MockMvcBuilders.standaloneSetup(restaurantApiController).build();
         // Validate response code and content
@@ -161,7 +165,8 @@ public class RestaurantApiControllerTest {
         when(restaurantService.getRestaurant(anyInt())).thenThrow(new NoSuchElementException());
 
         // Inject the mocked RestaurantService into RestaurantApiController
-        RestaurantApiController restaurantApiController = new RestaurantApiController(restaurantService);
+        RestaurantApiController restaurantApiController = new RestaurantApiController(restaurantService, mock(OrderIntakeQueue.class),
+                mock(RestaurantRollupService.class));
 
         // MockMvc setup
         MockMvc mockMvc = MockMvcBuilders.standaloneSetup(restaurantApiController).build();
@@ -289,7 +294,7 @@ public class RestaurantApiControllerTest {
     @Test
     public void testGetOrdersByUserTypeAndId_Success() {
         when(restaurantService.getOrdersByUserTypeAndId(anyString(), anyInt()))
-                .thenReturn(Collections.singletonList(Map.of("key", "value")));
+                .thenReturn(Collections.singletonList(new ApiOrderDTO()));
 
         ResponseEntity<Object> response = restaurantController.getOrdersByUserTypeAndId("customer", 1);
 
@@ -332,7 +337,8 @@ public class RestaurantApiControllerTest {
         when(restaurantService.createOrder(anyInt(), anyInt(), anyInt(), anyList())).thenReturn(order);
 
         // Inject the mocked RestaurantService into RestaurantApiController
-        RestaurantApiController restaurantApiController = new RestaurantApiController(restaurantService);
+        RestaurantApiController restaurantApiController = new RestaurantApiController(restaurantService, mock(OrderIntakeQueue.class),
+                mock(RestaurantRollupService.class));
 
         // MockMvc setup
         MockMvc mockMvc = MockMvcBuilders.standaloneSetup(restaurantApiController).build();
@@ -358,7 +364,8 @@ public class RestaurantApiControllerTest {
                 .thenThrow(new IllegalArgumentException());
 
         // Inject the mocked RestaurantService into RestaurantApiController
-        RestaurantApiController restaurantApiController = new RestaurantApiController(restaurantService);
+        RestaurantApiController restaurantApiController = new RestaurantApiController(restaurantService, mock(OrderIntakeQueue.class),
+                mock(RestaurantRollupService.class));
 
         // MockMvc setup
         MockMvc mockMvc = MockMvcBuilders.standaloneSetup(restaurantApiController).build();
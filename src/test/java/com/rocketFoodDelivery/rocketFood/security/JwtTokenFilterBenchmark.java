@@ -0,0 +1,93 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+
+/**
+ * Cost per authenticated request of {@link JwtTokenFilter}, verifying the bearer token on every
+ * request (cache=false) against resolving it from {@link VerifiedTokenCache} (cache=true). Requests
+ * cycle over a set of tokens, as many distinct users would send them. Not run by the test suite;
+ * run {@link #main} after mvn test-compile, with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class JwtTokenFilterBenchmark {
+    private static final String SECRET_KEY = "6c795412-a6e6-42d9-9e11-ac086572d7ec";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    @Param({ "false", "true" })
+    public boolean cache;
+
+    @Param({ "1000" })
+    public int users;
+
+    private JwtTokenFilter filter;
+    private MockHttpServletRequest[] requests;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil(SECRET_KEY);
+        filter = new JwtTokenFilter(new VerifiedTokenCache(jwtUtil, new SimpleMeterRegistry(), cache ? 10_000 : 0, 300),
+                new TokenVersionRegistry(mock(JdbcTemplate.class), mock(UserDetailsCache.class)));
+        requests = new MockHttpServletRequest[users];
+        for (int i = 0; i < users; i++) {
+            UserEntity user = new UserEntity();
+            user.setId(i + 1);
+            user.setEmail("user" + (i + 1) + "@example.com");
+            user.setCustomerId(i + 1);
+            requests[i] = new MockHttpServletRequest("GET", "/api/orders");
+            requests[i].addHeader("Authorization", "Bearer " + jwtUtil.generateAccessToken(user));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class RequestCursor {
+        int next;
+    }
+
+    @Benchmark
+    public Object filterRequest(RequestCursor cursor) throws Exception {
+        MockHttpServletRequest request = requests[cursor.next++ % requests.length];
+        try {
+            filter.doFilterInternal(request, new MockHttpServletResponse(), NO_OP_CHAIN);
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtTokenFilterBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,133 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.rocketFoodDelivery.rocketFood.exception.ServiceUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Encoding, legacy passwords and load shedding of {@link PasswordHashingService}. The pool tests
+ * use an encoder that blocks until released, to hold the hashing threads busy.
+ */
+public class PasswordHashingServiceTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final CountDownLatch interrupted = new CountDownLatch(1);
+    private final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private PasswordHashingService service;
+
+    @AfterEach
+    public void tearDown() {
+        release.countDown();
+        callers.shutdownNow();
+        if (service != null) {
+            service.stop();
+        }
+    }
+
+    @Test
+    public void testLegacyPlainTextMatchesAndIsUpgraded() {
+        service = new PasswordHashingService(meterRegistry, "bcrypt", 4, 1, 10, 5000);
+
+        assertTrue(service.matches("secret", "secret"));
+        assertFalse(service.matches("wrong", "secret"));
+        assertTrue(service.upgradeEncoding("secret"));
+
+        String encoded = service.encode("secret");
+        assertTrue(encoded.startsWith("{bcrypt}"));
+        assertTrue(service.matches("secret", encoded));
+        assertFalse(service.upgradeEncoding(encoded));
+    }
+
+    @Test
+    public void testSaturatedQueueIsRejected() throws Exception {
+        service = new PasswordHashingService(meterRegistry, blockingEncoder(), 1, 1, 5000);
+        // One check on the worker, one waiting in the queue
+        callers.submit(() -> service.matches("a", "a"));
+        waitForQueue(0);
+        callers.submit(() -> service.matches("b", "b"));
+        waitForQueue(1);
+
+        assertThrows(ServiceUnavailableException.class, () -> service.matches("c", "c"));
+        assertEquals(1.0, meterRegistry.counter("security.password-hashing.rejected").count());
+    }
+
+    @Test
+    public void testTimedOutCheckIsCancelled() throws Exception {
+        service = new PasswordHashingService(meterRegistry, blockingEncoder(), 1, 1, 50);
+
+        assertThrows(ServiceUnavailableException.class, () -> service.matches("a", "a"));
+
+        // The hashing thread is interrupted rather than left to finish a check nobody waits for
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(1.0, meterRegistry.counter("security.password-hashing.rejected").count());
+    }
+
+    @Test
+    public void testWorkerThreadsAreNumbered() throws Exception {
+        service = new PasswordHashingService(meterRegistry, blockingEncoder(), 2, 10, 5000);
+        callers.submit(() -> service.matches("a", "a"));
+        callers.submit(() -> service.matches("b", "b"));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (threadNames.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        assertEquals(Set.of("password-hashing-1", "password-hashing-2"), threadNames);
+    }
+
+    private void waitForQueue(int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < deadline) {
+            double queued = meterRegistry.get("security.password-hashing.queue").gauge().value();
+            double active = meterRegistry.get("security.password-hashing.active").gauge().value();
+            if (active == 1 && queued == size) {
+                return;
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Hashing pool never reached " + size + " queued checks");
+    }
+
+    private PasswordEncoder blockingEncoder() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                block();
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                block();
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+
+    private void block() {
+        threadNames.add(Thread.currentThread().getName());
+        try {
+            release.await();
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
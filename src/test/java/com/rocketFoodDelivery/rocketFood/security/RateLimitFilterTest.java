@@ -0,0 +1,77 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Client keys and 429 responses of {@link RateLimitFilter}, with a mocked {@link RateLimiter}.
+ */
+public class RateLimitFilterTest {
+    private final RateLimiter rateLimiter = mock(RateLimiter.class);
+
+    @AfterEach
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    public void testAnonymousClientIsKeyedOnPeerAddress() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter, true, Set.of());
+        MockHttpServletRequest request = request("203.0.113.7", "198.51.100.1");
+
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+        // X-Forwarded-For is ignored when the peer is not a trusted proxy
+        assertEquals("ip:203.0.113.7", request.getAttribute(RateLimitFilter.CLIENT_KEY_ATTRIBUTE));
+    }
+
+    @Test
+    public void testForwardedForIsReadFromTrustedProxies() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter, true, Set.of("10.0.0.1", "10.0.0.2"));
+
+        // Right-most hop that is not a trusted proxy, whatever the client put before it
+        MockHttpServletRequest request = request("10.0.0.1", "1.2.3.4, 198.51.100.1, 10.0.0.2");
+        filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        assertEquals("ip:198.51.100.1", request.getAttribute(RateLimitFilter.CLIENT_KEY_ATTRIBUTE));
+
+        MockHttpServletRequest direct = request("10.0.0.1", null);
+        filter.doFilter(direct, new MockHttpServletResponse(), new MockFilterChain());
+        assertEquals("ip:10.0.0.1", direct.getAttribute(RateLimitFilter.CLIENT_KEY_ATTRIBUTE));
+    }
+
+    @Test
+    public void testRejectedRequestGets429WithRetryAfter() throws Exception {
+        when(rateLimiter.tryAcquire(any(), anyString())).thenReturn(TimeUnit.MILLISECONDS.toNanos(1500));
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter, true, Set.of());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        filter.doFilter(request("203.0.113.7", null), response, chain);
+
+        assertEquals(429, response.getStatus());
+        assertEquals("2", response.getHeader("Retry-After"));
+        assertEquals(null, chain.getRequest());
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/restaurants");
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,49 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Request to group mapping of {@link RateLimitGroup#of}.
+ */
+public class RateLimitGroupTest {
+
+    @Test
+    public void testRequestsOutsideTheApiAreNotLimited() {
+        assertNull(RateLimitGroup.of("GET", "/"));
+        assertNull(RateLimitGroup.of("POST", "/login"));
+        assertNull(RateLimitGroup.of("GET", "/actuator/health"));
+    }
+
+    @Test
+    public void testReads() {
+        assertEquals(RateLimitGroup.READS, RateLimitGroup.of("GET", "/api/restaurants"));
+        assertEquals(RateLimitGroup.READS, RateLimitGroup.of("HEAD", "/api/orders/export"));
+        assertEquals(RateLimitGroup.READS, RateLimitGroup.of("OPTIONS", "/api/orders"));
+    }
+
+    @Test
+    public void testAuth() {
+        assertEquals(RateLimitGroup.AUTH, RateLimitGroup.of("POST", "/api/auth"));
+    }
+
+    @Test
+    public void testOrderWrites() {
+        assertEquals(RateLimitGroup.ORDER_WRITES, RateLimitGroup.of("POST", "/api/orders"));
+        assertEquals(RateLimitGroup.ORDER_WRITES, RateLimitGroup.of("POST", "/api/orders/batch"));
+        assertEquals(RateLimitGroup.ORDER_WRITES, RateLimitGroup.of("POST", "/api/12/status"));
+        assertEquals(RateLimitGroup.ORDER_WRITES, RateLimitGroup.of("POST", "/api/12/rating"));
+    }
+
+    @Test
+    public void testOtherWritesFallInTheDefaultWriteGroup() {
+        assertEquals(RateLimitGroup.WRITES, RateLimitGroup.of("POST", "/api/restaurants"));
+        assertEquals(RateLimitGroup.WRITES, RateLimitGroup.of("PUT", "/api/restaurants/3"));
+        assertEquals(RateLimitGroup.WRITES, RateLimitGroup.of("DELETE", "/api/restaurants/3"));
+        assertEquals(RateLimitGroup.WRITES, RateLimitGroup.of("POST", "/api/couriers/4/locations"));
+        assertEquals(RateLimitGroup.WRITES, RateLimitGroup.of("POST", "/api/admin/users/5/revoke-tokens"));
+        assertEquals(RateLimitGroup.WRITES, RateLimitGroup.of("POST", "/api/12/other"));
+    }
+}
@@ -0,0 +1,89 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Token bucket arithmetic of {@link RateLimiter}, driven with explicit timestamps. The order-writes
+ * group allows bursts of 4 requests refilled at 2 per second, one token every 500ms.
+ */
+public class RateLimiterTest {
+    private static final long T0 = TimeUnit.SECONDS.toNanos(1000);
+    private static final long INTERVAL = TimeUnit.MILLISECONDS.toNanos(500);
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        rateLimiter = new RateLimiter(meterRegistry, 10, 1, 4, 2, 100, 50, 30, 10, 60);
+    }
+
+    @Test
+    public void testBurstUpToCapacityThenRejected() {
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(RateLimitGroup.ORDER_WRITES, "user:1", T0));
+        }
+        assertEquals(INTERVAL, rateLimiter.tryAcquire(RateLimitGroup.ORDER_WRITES, "user:1", T0));
+        assertEquals(1.0, meterRegistry.counter("rate-limit.rejected", "group", "order-writes").count());
+    }
+
+    @Test
+    public void testTokensRefillAtTheConfiguredRate() {
+        for (int i = 0; i < 4; i++) {
+            rateLimiter.tryAcquire(RateLimitGroup.ORDER_WRITES, "user:1", T0);
+        }
+        // Wait reported for the next token shrinks as time passes
+        assertEquals(INTERVAL - 100, rateLimiter.tryAcquire(RateLimitGroup.ORDER_WRITES, "user:1", T0 + 100));
+        assertEquals(0, rateLimiter.tryAcquire(RateLimitGroup.ORDER_WRITES, "user:1", T0 + INTERVAL));
+        assertTrue(rateLimiter.tryAcquire(RateLimitGroup.ORDER_WRITES, "user:1", T0 + INTERVAL) > 0);
+
+        // A full refill allows a whole burst again, not more
+        long later = T0 + 10 * INTERVAL;
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(RateLimitGroup.ORDER_WRITES, "user:1", later));
+        }
+        assertTrue(rateLimiter.tryAcquire(RateLimitGroup.ORDER_WRITES, "user:1", later) > 0);
+    }
+
+    @Test
+    public void testClientsAndGroupsHaveSeparateBuckets() {
+        for (int i = 0; i < 4; i++) {
+            rateLimiter.tryAcquire(RateLimitGroup.ORDER_WRITES, "user:1", T0);
+        }
+        assertTrue(rateLimiter.tryAcquire(RateLimitGroup.ORDER_WRITES, "user:1", T0) > 0);
+        assertEquals(0, rateLimiter.tryAcquire(RateLimitGroup.ORDER_WRITES, "user:2", T0));
+        assertEquals(0, rateLimiter.tryAcquire(RateLimitGroup.READS, "user:1", T0));
+        assertEquals(0, rateLimiter.tryAcquire(RateLimitGroup.WRITES, "user:1", T0));
+    }
+
+    @Test
+    public void testChargeBooksPastTheBurst() {
+        assertEquals(0, rateLimiter.tryAcquire(RateLimitGroup.ORDER_WRITES, "user:1", T0));
+        // A batch of 10 orders: the request took one token, the other 9 are charged
+        rateLimiter.charge(RateLimitGroup.ORDER_WRITES, "user:1", 9, T0);
+
+        // 10 tokens booked from T0, a new request waits until only capacity - 1 are left ahead
+        assertEquals(7 * INTERVAL, rateLimiter.tryAcquire(RateLimitGroup.ORDER_WRITES, "user:1", T0));
+        assertEquals(0, rateLimiter.tryAcquire(RateLimitGroup.ORDER_WRITES, "user:1", T0 + 7 * INTERVAL));
+    }
+
+    @Test
+    public void testEvictIdleDropsOnlyFullBuckets() {
+        rateLimiter.tryAcquire(RateLimitGroup.ORDER_WRITES, "user:1", T0);
+        rateLimiter.tryAcquire(RateLimitGroup.ORDER_WRITES, "user:2", T0 + TimeUnit.SECONDS.toNanos(30));
+        assertEquals(2.0, meterRegistry.get("rate-limit.buckets").tag("group", "order-writes").gauge().value());
+
+        rateLimiter.evictIdle(T0 + TimeUnit.SECONDS.toNanos(61));
+
+        assertEquals(1.0, meterRegistry.get("rate-limit.buckets").tag("group", "order-writes").gauge().value());
+    }
+}
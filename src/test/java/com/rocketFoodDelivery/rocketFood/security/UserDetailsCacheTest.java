@@ -0,0 +1,148 @@
+package com.rocketFoodDelivery.rocketFood.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Expiry, bound and eviction of {@link UserDetailsCache}, on a clock moved by hand.
+ */
+public class UserDetailsCacheTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @Test
+    public void testEntriesExpireAfterTtl() {
+        UserDetailsCache cache = new UserDetailsCache(meterRegistry, 100, 60, now::get);
+        cache.putUserInCache(user(1, "Someone@Example.com", "{noop}secret"));
+
+        now.addAndGet(59_999);
+        UserEntity cached = (UserEntity) cache.getUserFromCache("someone@example.com");
+        assertNotNull(cached);
+        assertEquals(1, cached.getId());
+        assertTrue(cached.isEmployee());
+        assertEquals(4, cached.getCustomerId());
+
+        now.addAndGet(1);
+        assertNull(cache.getUserFromCache("someone@example.com"));
+        assertEquals(1.0, meterRegistry.counter("security.user-cache", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("security.user-cache", "result", "miss").count());
+    }
+
+    @Test
+    public void testCallersGetCopies() {
+        UserDetailsCache cache = new UserDetailsCache(meterRegistry, 100, 60, now::get);
+        UserEntity user = user(1, "someone@example.com", "{noop}secret");
+        cache.putUserInCache(user);
+        user.setPassword("{noop}changed");
+
+        UserEntity first = (UserEntity) cache.getUserFromCache("someone@example.com");
+        first.setPassword(null);
+
+        UserEntity second = (UserEntity) cache.getUserFromCache("someone@example.com");
+        assertNotSame(first, second);
+        assertEquals("{noop}secret", second.getPassword());
+    }
+
+    @Test
+    public void testSizeStaysWithinMaxEntries() {
+        UserDetailsCache cache = new UserDetailsCache(meterRegistry, 10, 60, now::get);
+        for (int id = 1; id <= 5; id++) {
+            cache.putUserInCache(user(id, "old" + id + "@example.com", "{noop}secret"));
+        }
+        now.addAndGet(60_000);
+        for (int id = 6; id <= 10; id++) {
+            cache.putUserInCache(user(id, "new" + id + "@example.com", "{noop}secret"));
+        }
+
+        // Full: the expired entries go first, the live ones stay
+        cache.putUserInCache(user(11, "new11@example.com", "{noop}secret"));
+        assertEquals(6.0, size());
+        for (int id = 6; id <= 11; id++) {
+            assertNotNull(cache.getUserFromCache("new" + id + "@example.com"));
+        }
+
+        // With nothing expired, arbitrary entries make room for a tenth of the bound
+        for (int id = 12; id <= 30; id++) {
+            cache.putUserInCache(user(id, "new" + id + "@example.com", "{noop}secret"));
+            assertTrue(size() <= 10);
+        }
+        assertNotNull(cache.getUserFromCache("new30@example.com"));
+    }
+
+    @Test
+    public void testZeroMaxEntriesDisablesCaching() {
+        UserDetailsCache cache = new UserDetailsCache(meterRegistry, 0, 60, now::get);
+        cache.putUserInCache(user(1, "someone@example.com", "{noop}secret"));
+
+        assertNull(cache.getUserFromCache("someone@example.com"));
+    }
+
+    @Test
+    public void testRemoveById() {
+        UserDetailsCache cache = new UserDetailsCache(meterRegistry, 100, 60, now::get);
+        cache.putUserInCache(user(1, "one@example.com", "{noop}secret"));
+        cache.putUserInCache(user(2, "two@example.com", "{noop}secret"));
+
+        cache.removeUserFromCache(1);
+
+        assertNull(cache.getUserFromCache("one@example.com"));
+        assertNotNull(cache.getUserFromCache("two@example.com"));
+    }
+
+    @Test
+    public void testStalePasswordIsReloadedOnMismatch() {
+        UserDetailsCache cache = new UserDetailsCache(meterRegistry, 100, 60, now::get);
+        cache.putUserInCache(user(1, "someone@example.com", "{noop}old"));
+        UserDetailsService userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername("someone@example.com"))
+                .thenReturn(user(1, "someone@example.com", "{noop}new"));
+        DaoAuthenticationProvider provider = new DaoAuthenticationProvider();
+        provider.setUserDetailsService(userDetailsService);
+        provider.setPasswordEncoder(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        provider.setUserCache(cache);
+
+        Authentication authentication = provider.authenticate(
+                new UsernamePasswordAuthenticationToken("someone@example.com", "new"));
+
+        assertEquals(1, ((UserEntity) authentication.getPrincipal()).getId());
+        verify(userDetailsService, times(1)).loadUserByUsername("someone@example.com");
+        assertEquals("{noop}new", ((UserEntity) cache.getUserFromCache("someone@example.com")).getPassword());
+    }
+
+    private double size() {
+        return meterRegistry.get("security.user-cache.size").gauge().value();
+    }
+
+    private static UserEntity user(int id, String email, String password) {
+        UserEntity user = UserEntity.builder()
+                .id(id)
+                .name("User " + id)
+                .email(email)
+                .password(password)
+                .tokenVersion(0)
+                .customerId(4)
+                .build();
+        user.setEmployee(true);
+        return user;
+    }
+}
@@ -0,0 +1,217 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rocketFoodDelivery.rocketFood.models.OrderLifecycle;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Windows of {@link CourierBatchDispatcher} against a mocked JdbcTemplate that keeps the pending
+ * orders (with their restaurant position), the couriers' positions and the written assignments.
+ */
+public class CourierBatchDispatcherTest {
+    private final Map<Integer, double[]> pendingOrders = new LinkedHashMap<>();
+    private final Map<Integer, double[]> courierPositions = new HashMap<>();
+    private final Map<Integer, Integer> writtenAssignments = new HashMap<>();
+    private final List<Integer> availableCouriers = new ArrayList<>();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CourierDispatcher courierDispatcher;
+    private CourierBatchDispatcher dispatcher;
+    private boolean positionsFail;
+    private boolean writeFails;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            Object[] ids = (Object[]) invocation.getRawArguments()[2];
+            for (Object id : ids) {
+                if (sql.startsWith("SELECT o.id")) {
+                    if (positionsFail) {
+                        throw new DataAccessResourceFailureException("connection reset");
+                    }
+                    if (pendingOrders.containsKey(id)) {
+                        handler.processRow(position((Integer) id, pendingOrders.get(id)));
+                    }
+                } else if (sql.startsWith("SELECT c.id")) {
+                    handler.processRow(position((Integer) id, courierPositions.get(id)));
+                } else if (writtenAssignments.containsKey(id)) {
+                    ResultSet rs = mock(ResultSet.class);
+                    when(rs.getInt("id")).thenReturn((Integer) id);
+                    when(rs.getInt("courier_id")).thenReturn(writtenAssignments.get(id));
+                    handler.processRow(rs);
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        doAnswer(invocation -> {
+            if (writeFails) {
+                throw new DataAccessResourceFailureException("connection reset");
+            }
+            for (Object[] update : invocation.<List<Object[]>>getArgument(1)) {
+                if (pendingOrders.remove(update[1]) != null) {
+                    writtenAssignments.put((Integer) update[1], (Integer) update[0]);
+                }
+            }
+            return new int[0];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        StatusRegistry statusRegistry = mock(StatusRegistry.class);
+        when(statusRegistry.getOrderStatusId(OrderLifecycle.PENDING)).thenReturn(1);
+        courierDispatcher = mock(CourierDispatcher.class);
+        when(courierDispatcher.findAvailableCouriers(anyInt())).thenAnswer(invocation -> new ArrayList<>(availableCouriers));
+        when(courierDispatcher.claim(anyInt())).thenReturn(true);
+
+        dispatcher = new CourierBatchDispatcher(jdbcTemplate, transactionTemplate, courierDispatcher, statusRegistry,
+                meterRegistry, true, 2000, 200, 2000);
+    }
+
+    @Test
+    public void testEachOrderGetsTheNearestFreeCourier() {
+        order(1, 48.85, 2.35);
+        order(2, 45.76, 4.84);
+        courier(10, 45.75, 4.85);
+        courier(11, 48.86, 2.34);
+
+        assertEquals(2, dispatcher.dispatch());
+
+        assertEquals(11, writtenAssignments.get(1));
+        assertEquals(10, writtenAssignments.get(2));
+        assertEquals(0, queued());
+    }
+
+    @Test
+    public void testOrdersBeyondTheFreeCouriersWaitForTheNextWindow() {
+        order(1, 48.85, 2.35);
+        order(2, 48.85, 2.35);
+        order(3, 48.85, 2.35);
+        courier(10, 48.85, 2.35);
+
+        assertEquals(1, dispatcher.dispatch());
+        assertEquals(10, writtenAssignments.get(1));
+        assertEquals(2, queued());
+
+        // Courier 10 is full now, a new one comes online
+        availableCouriers.remove(Integer.valueOf(10));
+        courier(11, 48.85, 2.35);
+        assertEquals(1, dispatcher.dispatch());
+        assertEquals(11, writtenAssignments.get(2));
+        assertEquals(1, queued());
+    }
+
+    @Test
+    public void testOrdersNoLongerPendingLeaveTheQueue() {
+        order(1, 48.85, 2.35);
+        dispatcher.enqueue(2);
+        courier(10, 48.85, 2.35);
+
+        assertEquals(1, dispatcher.dispatch());
+        assertEquals(0, queued());
+    }
+
+    @Test
+    public void testOrdersAreRequeuedWhenTheCourierLookupFails() {
+        order(1, 48.85, 2.35);
+        order(2, 48.85, 2.35);
+        when(courierDispatcher.findAvailableCouriers(anyInt())).thenThrow(new IllegalStateException("pool not loaded"));
+
+        assertThrows(IllegalStateException.class, dispatcher::dispatch);
+
+        assertEquals(2, queued());
+    }
+
+    @Test
+    public void testOrdersAreRequeuedWhenThePositionQueryFails() {
+        order(1, 48.85, 2.35);
+        order(2, 48.85, 2.35);
+        courier(10, 48.85, 2.35);
+        courier(11, 48.85, 2.35);
+        positionsFail = true;
+
+        assertThrows(DataAccessResourceFailureException.class, dispatcher::dispatch);
+        assertEquals(2, queued());
+
+        positionsFail = false;
+        assertEquals(2, dispatcher.dispatch());
+    }
+
+    @Test
+    public void testAssignedAndDeferredOrdersAreRequeuedWhenTheWriteFails() {
+        order(1, 48.85, 2.35);
+        order(2, 45.76, 4.84);
+        order(3, 43.30, 5.37);
+        courier(10, 48.85, 2.35);
+        courier(11, 45.76, 4.84);
+        // Filled up by an immediate assignment, so order 2 is deferred
+        when(courierDispatcher.claim(11)).thenReturn(false);
+        writeFails = true;
+
+        assertThrows(DataAccessResourceFailureException.class, dispatcher::dispatch);
+
+        assertEquals(3, queued());
+        verify(courierDispatcher).release(10);
+        verify(courierDispatcher, never()).release(11);
+
+        // Oldest first again: orders 1 and 2 fit the two couriers, order 3 waits
+        writeFails = false;
+        when(courierDispatcher.claim(11)).thenReturn(true);
+        assertEquals(2, dispatcher.dispatch());
+        assertEquals(10, writtenAssignments.get(1));
+        assertEquals(11, writtenAssignments.get(2));
+        assertEquals(1, queued());
+    }
+
+    private void order(int orderId, double latitude, double longitude) {
+        pendingOrders.put(orderId, new double[] { latitude, longitude });
+        dispatcher.enqueue(orderId);
+    }
+
+    private void courier(int courierId, double latitude, double longitude) {
+        courierPositions.put(courierId, new double[] { latitude, longitude });
+        availableCouriers.add(courierId);
+    }
+
+    private int queued() {
+        return (int) meterRegistry.get("couriers.dispatch.batch.pending").gauge().value();
+    }
+
+    private static ResultSet position(int id, double[] position) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt("id")).thenReturn(id);
+        when(rs.getDouble("latitude")).thenReturn(position[0]);
+        when(rs.getDouble("longitude")).thenReturn(position[1]);
+        return rs;
+    }
+}
@@ -0,0 +1,91 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayDeque;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Assignment latency of {@link CourierDispatcher} with thousands of couriers and many threads
+ * placing orders at once. The pool is filled directly instead of from the courier table, so only
+ * the in-memory claim path is measured. Each thread keeps a window of open orders and delivers the
+ * oldest one past it, as real couriers would. Not run by the test suite; run {@link #main} after
+ * mvn test-compile, with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.AverageTime, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+public class CourierDispatcherBenchmark {
+    private static final int CAPACITY = 3;
+
+    @Param({ "5000" })
+    public int couriers;
+
+    private CourierDispatcher dispatcher;
+
+    @Setup
+    public void setUp() {
+        dispatcher = new CourierDispatcher(mock(JdbcTemplate.class), mock(StatusRegistry.class), new SimpleMeterRegistry(), CAPACITY);
+        for (int id = 1; id <= couriers; id++) {
+            dispatcher.register(id, 0, true);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class OpenOrders {
+        static final int WINDOW = 100;
+
+        final ArrayDeque<Integer> couriers = new ArrayDeque<>();
+        CourierDispatcher dispatcher;
+
+        @TearDown(Level.Iteration)
+        public void deliverAll() {
+            couriers.forEach(dispatcher::release);
+            couriers.clear();
+        }
+    }
+
+    @Benchmark
+    public int assign(OpenOrders open) {
+        open.dispatcher = dispatcher;
+        OptionalInt courierId = dispatcher.claim();
+        if (courierId.isEmpty()) {
+            throw new IllegalStateException("No courier available");
+        }
+        open.couriers.add(courierId.getAsInt());
+        if (open.couriers.size() > OpenOrders.WINDOW) {
+            dispatcher.release(open.couriers.poll());
+        }
+        return courierId.getAsInt();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CourierDispatcherBenchmark.class.getSimpleName()).build()).run();
+    }
+}
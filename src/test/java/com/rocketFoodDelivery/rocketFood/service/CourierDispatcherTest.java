@@ -0,0 +1,171 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Claims and releases on a small {@link CourierDispatcher} pool. The courier table is a list of
+ * (id, active, active orders) rows served by a mocked JdbcTemplate.
+ */
+public class CourierDispatcherTest {
+    private static final int CAPACITY = 3;
+    private static final int THREADS = 8;
+
+    private final List<int[]> courierRows = new ArrayList<>();
+    private CourierDispatcher dispatcher;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        StatusRegistry statusRegistry = mock(StatusRegistry.class);
+        when(statusRegistry.findCourierStatus(anyInt())).thenReturn(Optional.empty());
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (int[] row : courierRows) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getInt("id")).thenReturn(row[0]);
+                when(rs.getBoolean("active")).thenReturn(row[1] == 1);
+                when(rs.getInt("active_orders")).thenReturn(row[2]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(), any());
+        dispatcher = new CourierDispatcher(jdbcTemplate, statusRegistry, new SimpleMeterRegistry(), CAPACITY);
+    }
+
+    @Test
+    public void testConcurrentClaimsNeverExceedCapacity() throws Exception {
+        for (int id = 1; id <= 10; id++) {
+            courierRows.add(new int[] { id, 1, 0 });
+        }
+        dispatcher.load();
+
+        CyclicBarrier start = new CyclicBarrier(THREADS);
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            tasks.add(() -> {
+                start.await();
+                int claimed = 0;
+                for (int i = 0; i < 10; i++) {
+                    if (dispatcher.claim().isPresent()) {
+                        claimed++;
+                    }
+                }
+                return claimed;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        int claimed = 0;
+        try {
+            for (Future<Integer> result : executor.invokeAll(tasks, 30, TimeUnit.SECONDS)) {
+                claimed += result.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(10 * CAPACITY, claimed);
+        for (int id = 1; id <= 10; id++) {
+            assertEquals(CAPACITY, dispatcher.getActiveOrders(id));
+        }
+        assertEquals(10, dispatcher.getPoolSizes().get("full"));
+        assertFalse(dispatcher.claim().isPresent());
+    }
+
+    @Test
+    public void testReleasedSlotIsClaimedAgainAndFreeCouriersComeFirst() {
+        courierRows.add(new int[] { 1, 1, 2 });
+        courierRows.add(new int[] { 2, 1, 0 });
+        dispatcher.load();
+
+        assertEquals(OptionalInt.of(2), dispatcher.claim());
+        dispatcher.release(1);
+        dispatcher.release(1);
+        assertEquals(0, dispatcher.getActiveOrders(1));
+        // Releasing below zero is ignored
+        dispatcher.release(1);
+        assertEquals(0, dispatcher.getActiveOrders(1));
+        assertEquals(OptionalInt.of(1), dispatcher.claim());
+
+        Map<String, Integer> pools = dispatcher.getPoolSizes();
+        assertEquals(2, pools.get("busy"));
+    }
+
+    @Test
+    public void testOfflineCouriersTakeNoOrders() {
+        courierRows.add(new int[] { 1, 0, 0 });
+        dispatcher.load();
+
+        assertFalse(dispatcher.claim().isPresent());
+        assertFalse(dispatcher.claim(1));
+        assertFalse(dispatcher.recordAssignment(1));
+        assertEquals(1, dispatcher.getPoolSizes().get("offline"));
+    }
+
+    @Test
+    public void testRequestedCourierIsHeldToCapacity() {
+        courierRows.add(new int[] { 1, 1, CAPACITY - 1 });
+        dispatcher.load();
+
+        assertTrue(dispatcher.recordAssignment(1));
+        assertFalse(dispatcher.recordAssignment(1));
+        assertEquals(CAPACITY, dispatcher.getActiveOrders(1));
+        // A courier the pool does not know yet is taken at the client's word
+        assertTrue(dispatcher.recordAssignment(99));
+    }
+
+    @Test
+    public void testReloadKeepsClaimsNotYetInTheTable() {
+        courierRows.add(new int[] { 1, 1, 0 });
+        dispatcher.load();
+        assertEquals(OptionalInt.of(1), dispatcher.claim());
+        assertEquals(OptionalInt.of(1), dispatcher.claim());
+
+        // The orders of both claims are not committed, the table still shows none; courier 2 is new
+        // and courier 1 is switched off
+        courierRows.clear();
+        courierRows.add(new int[] { 1, 0, 0 });
+        courierRows.add(new int[] { 2, 1, 1 });
+        dispatcher.load();
+
+        assertEquals(2, dispatcher.getActiveOrders(1));
+        assertEquals(1, dispatcher.getActiveOrders(2));
+        assertEquals(OptionalInt.of(2), dispatcher.claim());
+
+        // Back online, with its claims intact
+        courierRows.set(0, new int[] { 1, 1, 0 });
+        courierRows.remove(1);
+        dispatcher.load();
+        assertEquals(OptionalInt.of(1), dispatcher.claim());
+        assertEquals(CAPACITY, dispatcher.getActiveOrders(1));
+        assertEquals(0, dispatcher.getActiveOrders(2));
+        assertFalse(dispatcher.claim().isPresent());
+    }
+}
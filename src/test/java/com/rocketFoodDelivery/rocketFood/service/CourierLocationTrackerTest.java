@@ -0,0 +1,189 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierLocationDTO;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCourierTrailDTO;
+import com.rocketFoodDelivery.rocketFood.repository.CourierRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Ring buffers and flushes of {@link CourierLocationTracker} on a manual clock. A buffer holds 4
+ * pings, at most one ping per 30 seconds is persisted, and a courier goes idle after 1 minute.
+ * Rows written to courier_locations are captured from a mocked JdbcTemplate, which has no
+ * persisted trail to fall back on.
+ */
+public class CourierLocationTrackerTest {
+    private static final int COURIER_ID = 7;
+    private static final long T0 = 1_700_000_000_000L;
+
+    private final List<Long> persistedTimes = new ArrayList<>();
+    private long now = T0;
+    private JdbcTemplate jdbcTemplate;
+    private CourierLocationTracker tracker;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocation -> {
+            for (Object[] row : invocation.<List<Object[]>>getArgument(1)) {
+                persistedTimes.add(((Timestamp) row[3]).getTime());
+            }
+            return new int[0];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        doAnswer(invocation -> List.of())
+                .when(jdbcTemplate).query(anyString(), any(RowMapper.class), any(Object[].class));
+        tracker = new CourierLocationTracker(mock(CourierRepository.class), jdbcTemplate, new SimpleMeterRegistry(),
+                4, 30, 1, () -> now);
+    }
+
+    @Test
+    public void testRingWrapsAroundKeepingTheLatestPings() {
+        for (int i = 0; i < 6; i++) {
+            assertEquals(1, tracker.record(COURIER_ID, List.of(ping(i * 1000))));
+        }
+
+        ApiCourierTrailDTO trail = tracker.getTrail(COURIER_ID, 0).get();
+
+        assertEquals(List.of(T0 + 2000, T0 + 3000, T0 + 4000, T0 + 5000), times(trail.getTrail()));
+        assertEquals(T0 + 5000, trail.getLatest().getRecorded_at());
+    }
+
+    @Test
+    public void testOutOfOrderPingsAreSortedAndStaleOnesDropped() {
+        assertEquals(3, tracker.record(COURIER_ID, List.of(ping(3000), ping(1000), ping(2000))));
+        // Not newer than the latest ping, or stamped beyond the allowed clock skew
+        assertEquals(0, tracker.record(COURIER_ID, List.of(ping(2500), ping(3000), ping(120_000))));
+        assertEquals(1, tracker.record(COURIER_ID, List.of(ping(4000))));
+
+        ApiCourierTrailDTO trail = tracker.getTrail(COURIER_ID, T0 + 2000).get();
+
+        assertEquals(List.of(T0 + 2000, T0 + 3000, T0 + 4000), times(trail.getTrail()));
+    }
+
+    @Test
+    public void testFlushDownsamplesToOnePingPerPersistInterval() {
+        for (int i = 0; i < 4; i++) {
+            tracker.record(COURIER_ID, List.of(ping(i * 10_000)));
+        }
+        now = T0 + 30_000;
+        tracker.flush();
+        assertEquals(List.of(T0, T0 + 30_000), persistedTimes);
+
+        // The next flush carries on from the last persisted ping
+        tracker.record(COURIER_ID, List.of(ping(40_000), ping(50_000), ping(60_000)));
+        now = T0 + 60_000;
+        tracker.flush();
+        assertEquals(List.of(T0, T0 + 30_000, T0 + 60_000), persistedTimes);
+    }
+
+    @Test
+    public void testFailedFlushIsRetried() {
+        tracker.record(COURIER_ID, List.of(ping(0)));
+        doAnswer(invocation -> {
+            throw new DataAccessResourceFailureException("connection reset");
+        }).doAnswer(invocation -> {
+            for (Object[] row : invocation.<List<Object[]>>getArgument(1)) {
+                persistedTimes.add(((Timestamp) row[3]).getTime());
+            }
+            return new int[0];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        tracker.flush();
+        tracker.flush();
+
+        assertEquals(List.of(T0), persistedTimes);
+    }
+
+    @Test
+    public void testIdleCourierKeepsItsLastPositionAndLosesItsBuffer() {
+        tracker.record(COURIER_ID, List.of(ping(0), ping(10_000)));
+        now = T0 + 120_000;
+
+        tracker.flush();
+
+        // The latest ping is persisted although it is within the interval of the previous one
+        assertEquals(List.of(T0, T0 + 10_000), persistedTimes);
+        assertEquals(Optional.empty(), tracker.getTrail(COURIER_ID, 0));
+    }
+
+    @Test
+    public void testPingAfterRetirementStartsANewBuffer() {
+        tracker.record(COURIER_ID, List.of(ping(0)));
+        now = T0 + 120_000;
+        tracker.flush();
+
+        assertEquals(1, tracker.record(COURIER_ID, List.of(ping(115_000))));
+
+        assertEquals(List.of(T0 + 115_000), times(tracker.getTrail(COURIER_ID, 0).get().getTrail()));
+    }
+
+    @Test
+    public void testPingArrivingDuringTheFlushIsNotRetiredUnpersisted() {
+        tracker.record(COURIER_ID, List.of(ping(0)));
+        now = T0 + 120_000;
+        // Lands after the flush collected its rows and before it retires idle buffers
+        doAnswer(invocation -> {
+            for (Object[] row : invocation.<List<Object[]>>getArgument(1)) {
+                persistedTimes.add(((Timestamp) row[3]).getTime());
+            }
+            tracker.record(COURIER_ID, List.of(ping(20_000)));
+            return new int[0];
+        }).doAnswer(invocation -> {
+            for (Object[] row : invocation.<List<Object[]>>getArgument(1)) {
+                persistedTimes.add(((Timestamp) row[3]).getTime());
+            }
+            return new int[0];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        tracker.flush();
+        assertTrue(tracker.getTrail(COURIER_ID, 0).isPresent());
+
+        tracker.flush();
+        assertEquals(List.of(T0, T0 + 20_000), persistedTimes);
+        assertFalse(tracker.getTrail(COURIER_ID, 0).isPresent());
+    }
+
+    @Test
+    public void testRetiredRingRefusesPings() {
+        CourierLocationTracker.LocationRing ring = new CourierLocationTracker.LocationRing(4);
+        ring.add(List.of(ping(0)));
+        ring.collectUnpersisted(COURIER_ID, 30_000, T0 + 1, new ArrayList<>());
+
+        assertTrue(ring.retireIfIdle(T0 + 1));
+
+        // A recorder that fetched the ring before it was retired must go and create a new one
+        assertEquals(-1, ring.add(List.of(ping(1000))));
+    }
+
+    private ApiCourierLocationDTO ping(long offsetMs) {
+        return new ApiCourierLocationDTO(45.5, -73.6, T0 + offsetMs);
+    }
+
+    private static List<Long> times(List<ApiCourierLocationDTO> trail) {
+        List<Long> times = new ArrayList<>();
+        for (ApiCourierLocationDTO location : trail) {
+            times.add(location.getRecorded_at());
+        }
+        return times;
+    }
+}
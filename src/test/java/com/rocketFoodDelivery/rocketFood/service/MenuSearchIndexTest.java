@@ -0,0 +1,132 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiSearchResultDTO;
+import com.rocketFoodDelivery.rocketFood.repository.ProductRepository;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Tokenizing, prefix matching and ranking of {@link MenuSearchIndex} over three restaurants and
+ * their menus. A restaurant name word weighs 3, a product name word 2, a description word 1, and a
+ * prefix match half of that.
+ */
+public class MenuSearchIndexTest {
+
+    @Test
+    public void testTokenize() {
+        assertEquals(List.of("creme", "brulee", "a", "la", "carte"), new ArrayList<>(MenuSearchIndex.tokenize("Crème Brûlée, à la CARTE!")));
+        assertEquals(List.of("burger"), new ArrayList<>(MenuSearchIndex.tokenize("Burger  burger")));
+        assertEquals(List.of("7up", "2", "for", "1"), new ArrayList<>(MenuSearchIndex.tokenize("7UP 2-for-1")));
+        assertTrue(MenuSearchIndex.tokenize(null).isEmpty());
+        assertTrue(MenuSearchIndex.tokenize(" -- ").isEmpty());
+    }
+
+    @Test
+    public void testExactMatchOutranksPrefixMatch() {
+        MenuSearchIndex index = index(500);
+
+        List<ApiSearchResultDTO> exact = index.search("cafe", 10);
+        List<ApiSearchResultDTO> prefix = index.search("caf", 10);
+
+        assertEquals(1, exact.size());
+        assertEquals(3.0, exact.get(0).getScore());
+        assertEquals(1, prefix.size());
+        assertEquals(1.5, prefix.get(0).getScore());
+    }
+
+    @Test
+    public void testPrefixesShorterThanTheMinimumOnlyMatchExactly() {
+        MenuSearchIndex index = index(500);
+
+        assertTrue(index.search("b", 10).isEmpty());
+        assertEquals(List.of(1), ids(index.search("ba", 10).subList(0, 1)));
+    }
+
+    @Test
+    public void testPrefixExpansionIsCapped() {
+        // "ba" is a prefix of "barn" and "basil", in that order
+        assertEquals(List.of(1, 12), ids(index(500).search("ba", 10)));
+        assertEquals(List.of(1), ids(index(1).search("ba", 10)));
+    }
+
+    @Test
+    public void testEveryQueryWordMustMatch() {
+        MenuSearchIndex index = index(500);
+
+        assertEquals(List.of(10), ids(index.search("beef cheddar", 10)));
+        assertEquals(List.of(10, 11), ids(index.search("beef", 10)));
+        assertTrue(index.search("burger pizza", 10).isEmpty());
+        assertTrue(index.search("beef sushi", 10).isEmpty());
+    }
+
+    @Test
+    public void testRanking() {
+        MenuSearchIndex index = index(500);
+
+        List<ApiSearchResultDTO> results = index.search("creme", 10);
+
+        // Restaurant name before product name
+        assertEquals(List.of(2, 13), ids(results));
+        assertEquals(MenuSearchIndex.RESTAURANT, results.get(0).getType());
+        assertEquals(3.0, results.get(0).getScore());
+        assertEquals(MenuSearchIndex.PRODUCT, results.get(1).getType());
+        assertEquals(2.0, results.get(1).getScore());
+        assertEquals("Café Crème", results.get(1).getRestaurant_name());
+
+        // Equal scores: the shorter name first
+        assertEquals(List.of(1, 11), ids(index.search("burger", 10)));
+        // Scores add up over the query words
+        assertEquals(List.of(11), ids(index.search("double burger", 10)));
+        assertEquals(3.0, index.search("double burger", 10).get(0).getScore());
+
+        assertEquals(List.of(2), ids(index.search("creme", 1)));
+    }
+
+    @Test
+    public void testDeletedRestaurantTakesItsMenuAlong() {
+        MenuSearchIndex index = index(500);
+
+        index.deleteRestaurant(1);
+
+        assertTrue(index.search("burger", 10).isEmpty());
+        assertTrue(index.search("beef", 10).isEmpty());
+        assertEquals(List.of(12), ids(index.search("basil", 10)));
+    }
+
+    private static MenuSearchIndex index(int maxPrefixTerms) {
+        RestaurantRepository restaurantRepository = mock(RestaurantRepository.class);
+        when(restaurantRepository.findSearchableRestaurants()).thenReturn(List.of(
+                new Object[] { 1, "Burger Barn" },
+                new Object[] { 2, "Café Crème" },
+                new Object[] { 3, "Pizza Place" }));
+        ProductRepository productRepository = mock(ProductRepository.class);
+        when(productRepository.findSearchableProducts()).thenReturn(List.of(
+                new Object[] { 10, 1, "Cheeseburger", "Beef patty with cheddar" },
+                new Object[] { 11, 1, "Burger Deluxe", "Double beef" },
+                new Object[] { 12, 3, "Margherita", "Tomato, mozzarella and basil" },
+                new Object[] { 13, 2, "Crème brûlée", null }));
+        MenuSearchIndex index = new MenuSearchIndex(restaurantRepository, productRepository, new SimpleMeterRegistry(),
+                2, maxPrefixTerms);
+        index.reload();
+        return index;
+    }
+
+    private static List<Integer> ids(List<ApiSearchResultDTO> results) {
+        List<Integer> ids = new ArrayList<>();
+        for (ApiSearchResultDTO result : results) {
+            ids.add(result.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,159 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderDTO;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiProductForOrderApiDTO;
+
+/**
+ * Round trips through the segment files of {@link OrderArchiveStore}, including recovery from an
+ * append interrupted while the index entry was being written.
+ */
+public class OrderArchiveStoreTest {
+    private static final String SEGMENT_INDEX = "segment-000001.idx";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void testOrdersAreReadBackAfterReopening() throws Exception {
+        OrderArchiveStore store = open();
+        store.append(List.of(order(1, 10, null), order(2, 11, 4), order(3, 10, 5)));
+        store.close();
+
+        OrderArchiveStore reopened = open();
+        assertEquals(3, reopened.findAll(new int[] { 1, 2, 3 }).size());
+        assertArrayEquals(new int[] { 1, 3 }, reopened.findIdsByOwner("customer", 10));
+        assertArrayEquals(new int[] { 2, 3 }, reopened.findIdsAfter(1));
+        // An unrated order stays unrated in the archive
+        assertNull(reopened.find(1).get().getRestaurant_rating());
+        assertEquals(4, reopened.find(2).get().getRestaurant_rating());
+        reopened.close();
+    }
+
+    @Test
+    public void testPartialIndexEntryIsCutBeforeTheNextAppend() throws Exception {
+        OrderArchiveStore store = open();
+        store.append(List.of(order(1, 10, 3), order(2, 11, 4)));
+        store.append(List.of(order(3, 12, 5)));
+        store.close();
+
+        // The last append died halfway through writing its index entry
+        Path index = directory.resolve(SEGMENT_INDEX);
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.WRITE)) {
+            channel.truncate(2L * OrderArchiveStore.INDEX_ENTRY_BYTES + OrderArchiveStore.INDEX_ENTRY_BYTES / 2);
+        }
+
+        OrderArchiveStore reopened = open();
+        assertTrue(reopened.find(3).isEmpty());
+        assertEquals(2L * OrderArchiveStore.INDEX_ENTRY_BYTES, Files.size(index));
+        reopened.append(List.of(order(3, 12, 5), order(4, 13, 2)));
+        reopened.close();
+
+        OrderArchiveStore recovered = open();
+        List<ApiOrderDTO> orders = recovered.findAll(new int[] { 1, 2, 3, 4 });
+        assertEquals(4, orders.size());
+        for (int i = 0; i < orders.size(); i++) {
+            ApiOrderDTO order = orders.get(i);
+            assertEquals(i + 1, order.getId());
+            assertEquals(9 + i + 1, order.getCustomer_id());
+            assertEquals("Product " + (i + 1), order.getProducts().get(0).getProduct_name());
+        }
+        assertArrayEquals(new int[] { 1, 2, 3, 4 }, recovered.findIdsAfter(0));
+        recovered.close();
+    }
+
+    @Test
+    public void testOwnerLookupsMatchAScanOfEveryEntry() throws Exception {
+        // 0 MB segments hold one order each, 64 MB ones hold everything
+        for (long segmentMegabytes : new long[] { 0, 64 }) {
+            Path segmentDirectory = Files.createDirectory(directory.resolve("segments-" + segmentMegabytes));
+            OrderArchiveStore store = open(segmentDirectory, segmentMegabytes);
+            Random random = new Random(7);
+            List<ApiOrderDTO> archived = new ArrayList<>();
+            for (int batch = 0; batch < 4; batch++) {
+                List<ApiOrderDTO> orders = new ArrayList<>();
+                for (int i = 0; i < 25; i++) {
+                    ApiOrderDTO order = order(batch * 25 + i + 1, 1 + random.nextInt(6), 4);
+                    order.setCourier_id(random.nextInt(4));
+                    order.setRestaurant_id(1 + random.nextInt(3));
+                    orders.add(order);
+                }
+                // An interrupted run archives some orders a second time
+                if (batch > 0) {
+                    orders.add(archived.get(random.nextInt(archived.size())));
+                }
+                store.append(orders);
+                archived.addAll(orders);
+
+                // Lookups right after each append see the new entries
+                for (int ownerId = 0; ownerId <= 6; ownerId++) {
+                    assertArrayEquals(scan(archived, 0, ownerId), store.findIdsByOwner("customer", ownerId));
+                    assertArrayEquals(scan(archived, 1, ownerId), store.findIdsByOwner("courier", ownerId));
+                    assertArrayEquals(scan(archived, 2, ownerId), store.findIdsByOwner("restaurant", ownerId));
+                }
+            }
+            assertThrows(IllegalArgumentException.class, () -> store.findIdsByOwner("employee", 1));
+            store.close();
+        }
+    }
+
+    private static int[] scan(List<ApiOrderDTO> orders, int column, int ownerId) {
+        TreeSet<Integer> ids = new TreeSet<>();
+        for (ApiOrderDTO order : orders) {
+            int owner = column == 0 ? order.getCustomer_id() : column == 1 ? order.getCourier_id() : order.getRestaurant_id();
+            if (owner == ownerId) {
+                ids.add(order.getId());
+            }
+        }
+        return ids.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private OrderArchiveStore open() throws Exception {
+        return open(directory, 64);
+    }
+
+    private static OrderArchiveStore open(Path directory, long segmentMegabytes) throws Exception {
+        OrderArchiveStore store = new OrderArchiveStore(new ObjectMapper(), directory.toString(), segmentMegabytes);
+        store.open();
+        return store;
+    }
+
+    private static ApiOrderDTO order(int id, int customerId, Integer rating) {
+        ApiOrderDTO order = new ApiOrderDTO();
+        order.setId(id);
+        order.setCustomer_id(customerId);
+        order.setCourier_id(7);
+        order.setRestaurant_id(3);
+        order.setStatus("delivered");
+        order.setRestaurant_rating(rating);
+        ApiProductForOrderApiDTO product = new ApiProductForOrderApiDTO();
+        product.setId(id);
+        product.setProduct_name("Product " + id);
+        product.setQuantity(1);
+        product.setUnit_cost(500);
+        product.setTotal_cost(500);
+        List<ApiProductForOrderApiDTO> products = new ArrayList<>();
+        products.add(product);
+        order.setProducts(products);
+        order.setTotal_cost(500);
+        return order;
+    }
+}
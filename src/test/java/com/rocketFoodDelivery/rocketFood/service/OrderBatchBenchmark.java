@@ -0,0 +1,208 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCreateOrderDTO;
+import com.rocketFoodDelivery.rocketFood.models.OrderLifecycle;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Time to place the same orders one request at a time through {@link OrderPlacementService}, as
+ * POST /api/orders does, and as one POST /api/orders/batch through {@link OrderBatchService}.
+ * There is no database: every statement, batch, rating or rollup update and commit parks for
+ * roundTripMicros, so the comparison is of round trips per order plus the in-process work around
+ * them, not of MySQL's execution of the statements. A single order costs 6 round trips, a batch 4
+ * validation queries plus 5 per group of orders.batch.group-size. The mocked JDBC objects add a
+ * few microseconds per call to both sides. Not run by the test suite; run
+ * {@link #main} after mvn test-compile, with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderBatchBenchmark {
+    private static final int GROUP_SIZE = 100;
+
+    @Param({ "100", "1000" })
+    public int orders;
+
+    @Param({ "200" })
+    public int roundTripMicros;
+
+    private final AtomicInteger nextOrderId = new AtomicInteger();
+    private OrderPlacementService orderPlacementService;
+    private OrderBatchService orderBatchService;
+    private TransactionTemplate transactionTemplate;
+    private List<ApiCreateOrderDTO> batch;
+    // Mocked once, like the insert statement: creating mocks per call would dominate the in-process time
+    private final Map<Integer, ResultSet> rows = new HashMap<>();
+
+    @Setup
+    public void setUp() throws Exception {
+        for (int id : new int[] { 1, 5, 9, 10, 11 }) {
+            rows.put(id, row(id));
+        }
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocation -> {
+            roundTrip();
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object id : (Object[]) invocation.getRawArguments()[2]) {
+                handler.processRow(rows.get((Integer) id));
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        doAnswer(invocation -> {
+            roundTrip();
+            ((GeneratedKeyHolder) invocation.<KeyHolder>getArgument(1)).getKeyList()
+                    .add(Map.of("GENERATED_KEY", nextOrderId.incrementAndGet()));
+            return 1;
+        }).when(jdbcTemplate).update(any(PreparedStatementCreator.class), any(KeyHolder.class));
+        doAnswer(invocation -> {
+            roundTrip();
+            return new int[0];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        int[] batched = new int[1];
+        Connection connection = mock(Connection.class);
+        PreparedStatement ps = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString(), anyInt())).thenReturn(ps);
+        doAnswer(add -> batched[0]++).when(ps).addBatch();
+        doAnswer(execute -> {
+            roundTrip();
+            return new int[0];
+        }).when(ps).executeBatch();
+        ResultSet keys = mock(ResultSet.class);
+        when(ps.getGeneratedKeys()).thenReturn(keys);
+        when(keys.next()).thenAnswer(next -> {
+            if (batched[0] == 0) {
+                return false;
+            }
+            batched[0]--;
+            return true;
+        });
+        when(keys.getInt(1)).thenAnswer(key -> nextOrderId.incrementAndGet());
+        doAnswer(invocation -> invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection))
+                .when(jdbcTemplate).execute(any(ConnectionCallback.class));
+
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            Object result = invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            // The commit
+            roundTrip();
+            return result;
+        });
+        RestaurantRatingService restaurantRatingService = mock(RestaurantRatingService.class);
+        doAnswer(invocation -> roundTrip()).when(restaurantRatingService).recordRating(anyInt(), anyInt());
+        RestaurantRollupService restaurantRollupService = mock(RestaurantRollupService.class);
+        doAnswer(invocation -> roundTrip()).when(restaurantRollupService).recordPlacements(anyList());
+        StatusRegistry statusRegistry = mock(StatusRegistry.class);
+        when(statusRegistry.getOrderStatusId(OrderLifecycle.PENDING)).thenReturn(1);
+        CourierDispatcher courierDispatcher = mock(CourierDispatcher.class);
+        when(courierDispatcher.claim()).thenReturn(OptionalInt.of(9));
+
+        orderPlacementService = new OrderPlacementService(jdbcTemplate, restaurantRatingService,
+                mock(RestaurantCatalogIndex.class), statusRegistry, restaurantRollupService, courierDispatcher,
+                mock(CourierBatchDispatcher.class), new SimpleMeterRegistry());
+        orderBatchService = new OrderBatchService(jdbcTemplate, transactionTemplate, mock(RestaurantCatalogIndex.class),
+                statusRegistry, restaurantRollupService, courierDispatcher, mock(CourierBatchDispatcher.class),
+                new SimpleMeterRegistry(), GROUP_SIZE);
+
+        batch = new ArrayList<>(orders);
+        for (int i = 0; i < orders; i++) {
+            ApiCreateOrderDTO order = new ApiCreateOrderDTO();
+            order.setRestaurant_id(1);
+            order.setCustomer_id(5);
+            order.setProducts(List.of(Map.of("id", 10, "quantity", 2), Map.of("id", 11, "quantity", 1)));
+            batch.add(order);
+        }
+    }
+
+    @Benchmark
+    public int single() {
+        int placed = 0;
+        for (ApiCreateOrderDTO order : batch) {
+            // One transaction per request, as @Transactional gives placeOrder
+            transactionTemplate.execute(status -> orderPlacementService.placeOrder(order.getRestaurant_id(),
+                    order.getCustomer_id(), order.getCourier_id(), order.getProducts()));
+            placed++;
+        }
+        return placed;
+    }
+
+    @Benchmark
+    public int batch() {
+        return orderBatchService.placeOrders(batch).size();
+    }
+
+    /**
+     * Answers every lookup of both services: the placement row of restaurant 1 with customer 5,
+     * courier 9 and products 10 and 11, or one of the batch's set-based lookups.
+     */
+    private static ResultSet row(int id) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getInt("id")).thenReturn(id);
+        when(rs.getString("restaurant_name")).thenReturn("Restaurant");
+        when(rs.getInt("rating_sum")).thenReturn(9);
+        when(rs.getInt("rating_count")).thenReturn(2);
+        when(rs.getObject("customer_id")).thenReturn(5);
+        when(rs.getObject("courier_id")).thenReturn(9);
+        when(rs.getObject("product_id")).thenReturn(id);
+        when(rs.getInt("product_id")).thenReturn(id);
+        when(rs.getInt("restaurant_id")).thenReturn(1);
+        when(rs.getInt("cost")).thenReturn(100);
+        when(rs.getInt("product_cost")).thenReturn(100);
+        return rs;
+    }
+
+    private Object roundTrip() {
+        LockSupport.parkNanos(roundTripMicros * 1000L);
+        return null;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(OrderBatchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,207 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiBatchOrderResultDTO;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCreateOrderDTO;
+import com.rocketFoodDelivery.rocketFood.models.OrderLifecycle;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Per-order outcomes of {@link OrderBatchService} against a mocked JdbcTemplate. Restaurant 1 (rated)
+ * sells products 10 and 11, restaurant 2 (not rated yet) sells product 20, customers 5 and 6 and
+ * courier 9 exist. An order insert for customer 6 violates a constraint, so every write holding it
+ * fails. Groups hold 2 orders.
+ */
+public class OrderBatchServiceTest {
+    private static final int FAILING_CUSTOMER = 6;
+
+    private final List<List<Integer>> writtenGroups = new ArrayList<>();
+    private CourierDispatcher courierDispatcher;
+    private TransactionTemplate transactionTemplate;
+    private OrderBatchService orderBatchService;
+    private int nextOrderId = 100;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Object id : (Object[]) invocation.getRawArguments()[2]) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getInt("id")).thenReturn((Integer) id);
+                if (sql.contains("FROM restaurants") && ((Integer) id == 1 || (Integer) id == 2)) {
+                    when(rs.getInt("rating_sum")).thenReturn((Integer) id == 1 ? 9 : 0);
+                    when(rs.getInt("rating_count")).thenReturn((Integer) id == 1 ? 2 : 0);
+                    handler.processRow(rs);
+                } else if (sql.contains("FROM customers") && Set.of(5, 6).contains(id)
+                        || sql.contains("FROM courier") && id.equals(9)) {
+                    handler.processRow(rs);
+                } else if (sql.contains("FROM products") && Set.of(10, 11, 20).contains(id)) {
+                    when(rs.getInt("restaurant_id")).thenReturn((Integer) id / 10);
+                    when(rs.getInt("cost")).thenReturn(100);
+                    handler.processRow(rs);
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        doAnswer(invocation -> {
+            // Runs the insert batch against a mocked statement to see which customers it holds
+            List<Integer> customers = new ArrayList<>();
+            Connection connection = mock(Connection.class);
+            PreparedStatement ps = mock(PreparedStatement.class);
+            when(connection.prepareStatement(anyString(), anyInt())).thenReturn(ps);
+            doAnswer(bind -> {
+                if ((int) bind.getArgument(0) == 2) {
+                    customers.add(bind.getArgument(1));
+                }
+                return null;
+            }).when(ps).setInt(anyInt(), anyInt());
+            ResultSet keys = mock(ResultSet.class);
+            when(ps.getGeneratedKeys()).thenReturn(keys);
+            int[] remaining = new int[1];
+            when(keys.next()).thenAnswer(next -> remaining[0]-- > 0);
+            when(keys.getInt(1)).thenAnswer(key -> nextOrderId++);
+            doAnswer(execute -> {
+                if (customers.contains(FAILING_CUSTOMER)) {
+                    throw new DataIntegrityViolationException("Duplicate entry");
+                }
+                remaining[0] = customers.size();
+                writtenGroups.add(customers);
+                return new int[0];
+            }).when(ps).executeBatch();
+            return invocation.<ConnectionCallback<?>>getArgument(0).doInConnection(connection);
+        }).when(jdbcTemplate).execute(any(ConnectionCallback.class));
+        doAnswer(invocation -> new int[0]).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        StatusRegistry statusRegistry = mock(StatusRegistry.class);
+        when(statusRegistry.getOrderStatusId(OrderLifecycle.PENDING)).thenReturn(1);
+        courierDispatcher = mock(CourierDispatcher.class);
+        when(courierDispatcher.claim()).thenReturn(OptionalInt.of(9));
+        when(courierDispatcher.recordAssignment(9)).thenReturn(true);
+
+        orderBatchService = new OrderBatchService(jdbcTemplate, transactionTemplate, mock(RestaurantCatalogIndex.class),
+                statusRegistry, mock(RestaurantRollupService.class), courierDispatcher, mock(CourierBatchDispatcher.class),
+                new SimpleMeterRegistry(), 2);
+    }
+
+    @Test
+    public void testInvalidOrdersFailWithoutTheirNeighbours() {
+        List<ApiBatchOrderResultDTO> results = orderBatchService.placeOrders(List.of(
+                order(1, 5, 0, 10),
+                order(3, 5, 0, 10),
+                order(2, 5, 0, 20),
+                order(1, 7, 0, 10),
+                order(1, 5, 8, 10),
+                order(1, 5, 0, 20),
+                order(0, 5, 0, 10),
+                order(1, 5, 9, 11)));
+
+        assertEquals(8, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("No restaurant found with ID: 3", results.get(1).getError());
+        assertEquals("No rating found for restaurant with ID: 2", results.get(2).getError());
+        assertEquals("No customer found with ID: 7", results.get(3).getError());
+        assertEquals("No courier found with ID: 8", results.get(4).getError());
+        assertEquals("Product 20 does not belong to restaurant 1", results.get(5).getError());
+        assertEquals("Invalid or missing parameters", results.get(6).getError());
+        assertTrue(results.get(7).isSuccess());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(i, results.get(i).getIndex());
+        }
+        // The two valid orders make one group
+        assertEquals(List.of(List.of(5, 5)), writtenGroups);
+    }
+
+    @Test
+    public void testValidOrdersAreWrittenInGroups() {
+        List<ApiCreateOrderDTO> orders = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orders.add(order(1, 5, 0, 10));
+        }
+
+        List<ApiBatchOrderResultDTO> results = orderBatchService.placeOrders(orders);
+
+        assertEquals(3, writtenGroups.size());
+        verify(transactionTemplate, times(3)).execute(any());
+        for (int i = 0; i < results.size(); i++) {
+            assertEquals(100 + i, results.get(i).getOrder_id());
+        }
+    }
+
+    @Test
+    public void testFailedGroupIsRetriedOrderByOrder() {
+        List<ApiBatchOrderResultDTO> results = orderBatchService.placeOrders(List.of(
+                order(1, 5, 0, 10),
+                order(1, FAILING_CUSTOMER, 0, 10),
+                order(1, 5, 0, 11)));
+
+        // Group [0, 1] failed as a whole, then 0 and 1 alone; group [2] went through
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Order could not be saved", results.get(1).getError());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals(List.of(List.of(5), List.of(5)), writtenGroups);
+        // Both couriers of the failed group, then the one of the failed single order, are given back
+        verify(courierDispatcher, times(3)).release(9);
+    }
+
+    @Test
+    public void testOrdersWithoutAFreeCourierFailAlone() {
+        when(courierDispatcher.claim()).thenReturn(OptionalInt.of(9), OptionalInt.empty());
+
+        List<ApiBatchOrderResultDTO> results = orderBatchService.placeOrders(List.of(
+                order(1, 5, 0, 10),
+                order(1, 5, 0, 10)));
+
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("No courier is available right now", results.get(1).getError());
+    }
+
+    private static ApiCreateOrderDTO order(int restaurantId, int customerId, int courierId, int productId) {
+        ApiCreateOrderDTO order = new ApiCreateOrderDTO();
+        order.setRestaurant_id(restaurantId);
+        order.setCustomer_id(customerId);
+        order.setCourier_id(courierId);
+        Map<String, Integer> line = new HashMap<>();
+        line.put("id", productId);
+        line.put("quantity", 1);
+        order.setProducts(List.of(line));
+        return order;
+    }
+}
@@ -0,0 +1,170 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderDTO;
+
+/**
+ * NDJSON output of {@link OrderExportService}. Order line rows for ids above the requested after
+ * id come from a mocked JdbcTemplate, archived orders from a mocked {@link OrderArchiveStore}.
+ */
+public class OrderExportServiceTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<Map<String, Object>> rows = new ArrayList<>();
+    private final List<Integer> afterIds = new ArrayList<>();
+    private OrderArchiveStore orderArchiveStore;
+    private OrderExportService orderExportService;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocation -> {
+            // Runs the statement creator to see which after id it binds
+            Connection connection = mock(Connection.class);
+            PreparedStatement ps = mock(PreparedStatement.class);
+            when(connection.prepareStatement(anyString(), anyInt(), anyInt())).thenReturn(ps);
+            doAnswer(bind -> afterIds.add(bind.getArgument(1))).when(ps).setInt(anyInt(), anyInt());
+            invocation.<PreparedStatementCreator>getArgument(0).createPreparedStatement(connection);
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map<String, Object> row : rows) {
+                if ((int) row.get("id") > afterIds.get(afterIds.size() - 1)) {
+                    handler.processRow(resultSet(row));
+                }
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+        orderArchiveStore = mock(OrderArchiveStore.class);
+        when(orderArchiveStore.findIdsAfter(anyInt())).thenReturn(new int[0]);
+        orderExportService = new OrderExportService(jdbcTemplate, objectMapper, orderArchiveStore);
+    }
+
+    @Test
+    public void testOneOrderPerLine() throws Exception {
+        rows.add(line(1, 10));
+        rows.add(line(1, 11));
+        rows.add(line(2, 10));
+
+        List<JsonNode> orders = export(0);
+
+        assertEquals(2, orders.size());
+        assertEquals(1, orders.get(0).get("id").asInt());
+        assertEquals(2, orders.get(0).get("products").size());
+        assertEquals("customer@example.com", orders.get(0).get("customer_email").asText());
+        assertEquals(2, orders.get(1).get("id").asInt());
+    }
+
+    @Test
+    public void testResumesAfterTheGivenId() throws Exception {
+        rows.add(line(1, 10));
+        rows.add(line(2, 10));
+        rows.add(line(3, 10));
+
+        List<JsonNode> orders = export(2);
+
+        assertEquals(List.of(2), afterIds);
+        assertEquals(1, orders.size());
+        assertEquals(3, orders.get(0).get("id").asInt());
+        verify(orderArchiveStore).findIdsAfter(2);
+    }
+
+    @Test
+    public void testArchivedOrdersAreInterleavedById() throws Exception {
+        rows.add(line(2, 10));
+        rows.add(line(5, 10));
+        when(orderArchiveStore.findIdsAfter(0)).thenReturn(new int[] { 1, 3, 4, 7 });
+        when(orderArchiveStore.find(anyInt())).thenAnswer(invocation -> {
+            ApiOrderDTO order = new ApiOrderDTO();
+            order.setId(invocation.getArgument(0));
+            return Optional.of(order);
+        });
+
+        List<JsonNode> orders = export(0);
+
+        int[] ids = orders.stream().mapToInt(order -> order.get("id").asInt()).toArray();
+        assertEquals(Arrays.toString(new int[] { 1, 2, 3, 4, 5, 7 }), Arrays.toString(ids));
+    }
+
+    private List<JsonNode> export(int after) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        orderExportService.exportOrders(after, out);
+        String body = out.toString(StandardCharsets.UTF_8);
+        List<JsonNode> orders = new ArrayList<>();
+        if (body.isEmpty()) {
+            return orders;
+        }
+        assertEquals('\n', body.charAt(body.length() - 1));
+        for (String line : body.split("\n")) {
+            orders.add(objectMapper.readTree(line));
+        }
+        return orders;
+    }
+
+    private static Map<String, Object> line(int orderId, int productId) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", orderId);
+        row.put("customer_id", 5);
+        row.put("customer_name", "Customer");
+        row.put("customer_email", "customer@example.com");
+        row.put("restaurant_id", 3);
+        row.put("restaurant_name", "Restaurant");
+        row.put("courier_id", 7);
+        row.put("status", "delivered");
+        row.put("restaurant_rating", 4);
+        row.put("total_cost", null);
+        row.put("product_id", productId);
+        row.put("product_name", "Product " + productId);
+        row.put("product_quantity", 1);
+        row.put("unit_cost", 450);
+        return row;
+    }
+
+    /**
+     * A result set positioned on the row, answering getInt, getLong, getString and wasNull like JDBC does.
+     */
+    private static ResultSet resultSet(Map<String, Object> row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        Object[] last = new Object[1];
+        when(rs.getInt(anyString())).thenAnswer(invocation -> {
+            Object value = last[0] = row.get(invocation.<String>getArgument(0));
+            return value == null ? 0 : ((Number) value).intValue();
+        });
+        when(rs.getLong(anyString())).thenAnswer(invocation -> {
+            Object value = last[0] = row.get(invocation.<String>getArgument(0));
+            return value == null ? 0L : ((Number) value).longValue();
+        });
+        when(rs.getString(anyString())).thenAnswer(invocation -> {
+            Object value = last[0] = row.get(invocation.<String>getArgument(0));
+            return value == null ? null : value.toString();
+        });
+        when(rs.wasNull()).thenAnswer(invocation -> last[0] == null);
+        return rs;
+    }
+}
@@ -0,0 +1,98 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderDTO;
+
+/**
+ * Feeds {@link OrderHistoryAssembler} order line rows through a mocked result set.
+ */
+public class OrderHistoryAssemblerTest {
+
+    @Test
+    public void testLegacyLinesArePricedAtTheProductCost() {
+        // The query, not the assembler, resolves a missing unit cost
+        assertTrue(OrderHistoryAssembler.SELECT_ORDER_LINES.contains("COALESCE(op.product_unit_cost, p.cost) as unit_cost"));
+    }
+
+    @Test
+    public void testOrderWithoutStoredTotalSumsItsLines() throws Exception {
+        List<ApiOrderDTO> orders = assemble(
+                line(1, null, 10, 2, 450),
+                line(1, null, 11, 1, 1200),
+                line(2, 3000L, 10, 1, 450));
+
+        assertEquals(2, orders.size());
+        assertEquals("customer@example.com", orders.get(0).getCustomer_email());
+        assertEquals(2, orders.get(0).getProducts().size());
+        assertEquals(900, orders.get(0).getProducts().get(0).getTotal_cost());
+        assertEquals(2 * 450 + 1200, orders.get(0).getTotal_cost());
+        // A stored total wins over the lines
+        assertEquals(3000, orders.get(1).getTotal_cost());
+    }
+
+    @SafeVarargs
+    private static List<ApiOrderDTO> assemble(Map<String, Object>... rows) throws SQLException {
+        List<ApiOrderDTO> orders = new ArrayList<>();
+        OrderHistoryAssembler assembler = new OrderHistoryAssembler(orders::add);
+        for (Map<String, Object> row : rows) {
+            assembler.processRow(resultSet(row));
+        }
+        assembler.finish();
+        return orders;
+    }
+
+    private static Map<String, Object> line(int orderId, Long totalCost, int productId, int quantity, int unitCost) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", orderId);
+        row.put("customer_id", 5);
+        row.put("customer_name", "Customer");
+        row.put("customer_email", "customer@example.com");
+        row.put("restaurant_id", 3);
+        row.put("restaurant_name", "Restaurant");
+        row.put("courier_id", 7);
+        row.put("status", "delivered");
+        row.put("restaurant_rating", 4);
+        row.put("total_cost", totalCost);
+        row.put("product_id", productId);
+        row.put("product_name", "Product " + productId);
+        row.put("product_quantity", quantity);
+        row.put("unit_cost", unitCost);
+        return row;
+    }
+
+    /**
+     * A result set positioned on the row, answering getInt, getLong, getString and wasNull like JDBC does.
+     */
+    private static ResultSet resultSet(Map<String, Object> row) throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+        Object[] last = new Object[1];
+        when(rs.getInt(anyString())).thenAnswer(invocation -> {
+            Object value = last[0] = row.get(invocation.<String>getArgument(0));
+            return value == null ? 0 : ((Number) value).intValue();
+        });
+        when(rs.getLong(anyString())).thenAnswer(invocation -> {
+            Object value = last[0] = row.get(invocation.<String>getArgument(0));
+            return value == null ? 0L : ((Number) value).longValue();
+        });
+        when(rs.getString(anyString())).thenAnswer(invocation -> {
+            Object value = last[0] = row.get(invocation.<String>getArgument(0));
+            return value == null ? null : value.toString();
+        });
+        when(rs.wasNull()).thenAnswer(invocation -> last[0] == null);
+        return rs;
+    }
+}
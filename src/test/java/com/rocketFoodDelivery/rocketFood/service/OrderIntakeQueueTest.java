@@ -0,0 +1,141 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiBatchOrderResultDTO;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCreateOrderDTO;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiOrderIntakeStatusDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Buffering, draining and status tracking of {@link OrderIntakeQueue} on a manual clock. The
+ * buffer holds 3 orders, one writer drains it in batches of 2, and statuses of finished orders
+ * are kept for 60 seconds. Orders are submitted before the writer starts and drained by stop(),
+ * which waits for the buffer to empty.
+ */
+public class OrderIntakeQueueTest {
+    private static final long T0 = 1_700_000_000_000L;
+
+    private final List<List<ApiCreateOrderDTO>> batches = new ArrayList<>();
+    private long now = T0;
+    private SimpleMeterRegistry meterRegistry;
+    private OrderBatchService orderBatchService;
+    private OrderIntakeQueue queue;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        orderBatchService = mock(OrderBatchService.class);
+        // Customer 6 does not exist; any other customer gets order id 100 + customer id
+        when(orderBatchService.placeOrders(anyList())).thenAnswer(invocation -> {
+            List<ApiCreateOrderDTO> orders = invocation.getArgument(0);
+            batches.add(new ArrayList<>(orders));
+            List<ApiBatchOrderResultDTO> results = new ArrayList<>();
+            for (int i = 0; i < orders.size(); i++) {
+                int customerId = orders.get(i).getCustomer_id();
+                results.add(customerId == 6 ? ApiBatchOrderResultDTO.failed(i, "No customer found with ID: 6")
+                        : ApiBatchOrderResultDTO.created(i, 100 + customerId));
+            }
+            return results;
+        });
+        queue = new OrderIntakeQueue(orderBatchService, meterRegistry, true, 3, 1, 2, 60, () -> now);
+    }
+
+    @Test
+    public void testFullBufferRejectsOrders() {
+        for (int i = 1; i <= 3; i++) {
+            assertTrue(queue.submit(order(i)).isPresent());
+        }
+
+        assertEquals(Optional.empty(), queue.submit(order(4)));
+
+        assertEquals(3, queue.getDepth());
+        assertEquals(3, meterRegistry.counter("orders.intake.accepted").count());
+        assertEquals(1, meterRegistry.counter("orders.intake.rejected").count());
+        verify(orderBatchService, never()).placeOrders(anyList());
+    }
+
+    @Test
+    public void testStatusGoesFromQueuedToCreatedOrFailed() throws InterruptedException {
+        String created = queue.submit(order(5)).get();
+        String failed = queue.submit(order(6)).get();
+        String third = queue.submit(order(7)).get();
+
+        ApiOrderIntakeStatusDTO queued = queue.getStatus(created).get();
+        assertEquals("queued", queued.getStatus());
+        assertEquals(created, queued.getTracking_id());
+
+        queue.start();
+        queue.stop();
+
+        assertEquals(2, batches.size());
+        assertEquals(2, batches.get(0).size());
+        assertEquals("created", queue.getStatus(created).get().getStatus());
+        assertEquals(105, queue.getStatus(created).get().getOrder_id());
+        assertEquals("failed", queue.getStatus(failed).get().getStatus());
+        assertEquals("No customer found with ID: 6", queue.getStatus(failed).get().getError());
+        assertEquals(107, queue.getStatus(third).get().getOrder_id());
+        assertEquals(0, queue.getDepth());
+        assertEquals(3, meterRegistry.counter("orders.intake.drained").count());
+        assertFalse(queue.getStatus("unknown").isPresent());
+    }
+
+    @Test
+    public void testBatchThatThrowsFailsEveryOrderInIt() throws InterruptedException {
+        when(orderBatchService.placeOrders(anyList())).thenThrow(new IllegalStateException("connection reset"));
+        String first = queue.submit(order(5)).get();
+        String second = queue.submit(order(7)).get();
+
+        queue.start();
+        queue.stop();
+
+        for (String trackingId : List.of(first, second)) {
+            assertEquals("failed", queue.getStatus(trackingId).get().getStatus());
+            assertEquals("Order could not be saved", queue.getStatus(trackingId).get().getError());
+        }
+    }
+
+    @Test
+    public void testFinishedStatusesAreEvictedAfterTheirTtl() throws InterruptedException {
+        String finished = queue.submit(order(5)).get();
+        queue.start();
+        queue.stop();
+        String queued = queue.submit(order(7)).get();
+
+        now = T0 + 60_000;
+        queue.evictFinishedStatuses();
+        assertTrue(queue.getStatus(finished).isPresent());
+
+        now = T0 + 60_001;
+        queue.evictFinishedStatuses();
+        assertFalse(queue.getStatus(finished).isPresent());
+        // Still waiting for a writer, however long that takes
+        now = T0 + 3_600_000;
+        queue.evictFinishedStatuses();
+        assertEquals("queued", queue.getStatus(queued).get().getStatus());
+    }
+
+    private static ApiCreateOrderDTO order(int customerId) {
+        ApiCreateOrderDTO order = new ApiCreateOrderDTO();
+        order.setRestaurant_id(1);
+        order.setCustomer_id(customerId);
+        order.setProducts(List.of(Map.of("id", 10, "quantity", 1)));
+        return order;
+    }
+}
@@ -0,0 +1,120 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import com.rocketFoodDelivery.rocketFood.models.OrderLifecycle;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Placement against the stored rating aggregates of {@link OrderPlacementService}. The validation
+ * row (restaurant 1 with its stored rating_sum/rating_count, customer 2, courier 3, product 4) comes
+ * from a mocked JdbcTemplate.
+ */
+public class OrderPlacementServiceTest {
+    private static final int RESTAURANT_ID = 1;
+    private static final int CUSTOMER_ID = 2;
+    private static final int COURIER_ID = 3;
+    private static final int PRODUCT_ID = 4;
+
+    private RestaurantRatingService restaurantRatingService;
+    private OrderPlacementService orderPlacementService;
+    private int storedRatingSum;
+    private int storedRatingCount;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getString("restaurant_name")).thenReturn("Pizza Place");
+            when(rs.getInt("rating_sum")).thenReturn(storedRatingSum);
+            when(rs.getInt("rating_count")).thenReturn(storedRatingCount);
+            when(rs.getObject("customer_id")).thenReturn(CUSTOMER_ID);
+            when(rs.getString("customer_name")).thenReturn("Customer");
+            when(rs.getObject("courier_id")).thenReturn(COURIER_ID);
+            when(rs.getString("courier_name")).thenReturn("Courier");
+            when(rs.getObject("product_id")).thenReturn(PRODUCT_ID);
+            when(rs.getInt("product_id")).thenReturn(PRODUCT_ID);
+            when(rs.getInt("product_cost")).thenReturn(250);
+            invocation.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        doAnswer(invocation -> {
+            ((GeneratedKeyHolder) invocation.<KeyHolder>getArgument(1)).getKeyList().add(Map.of("GENERATED_KEY", 100));
+            return 1;
+        }).when(jdbcTemplate).update(any(PreparedStatementCreator.class), any(KeyHolder.class));
+
+        restaurantRatingService = mock(RestaurantRatingService.class);
+        StatusRegistry statusRegistry = mock(StatusRegistry.class);
+        when(statusRegistry.getOrderStatusId(OrderLifecycle.PENDING)).thenReturn(1);
+        CourierDispatcher courierDispatcher = mock(CourierDispatcher.class);
+        when(courierDispatcher.recordAssignment(COURIER_ID)).thenReturn(true);
+        orderPlacementService = new OrderPlacementService(jdbcTemplate, restaurantRatingService,
+                mock(RestaurantCatalogIndex.class), statusRegistry, mock(RestaurantRollupService.class),
+                courierDispatcher, mock(CourierBatchDispatcher.class), new SimpleMeterRegistry());
+    }
+
+    @Test
+    public void testStoredAggregatesRateTheOrder() {
+        storedRatingSum = 14;
+        storedRatingCount = 4;
+
+        Map<String, Object> order = place();
+
+        assertEquals(3, order.get("restaurant_rating"));
+        verify(restaurantRatingService, never()).backfillRating(anyInt());
+        verify(restaurantRatingService).recordRating(RESTAURANT_ID, 3);
+    }
+
+    @Test
+    public void testRestaurantWithOrdersButNoAggregatesYetIsBackfilled() {
+        // A database that predates rating_sum/rating_count: the columns read 0 until rebuilt
+        when(restaurantRatingService.backfillRating(RESTAURANT_ID))
+                .thenReturn(new RestaurantRatingService.RatingAggregate(9, 2));
+
+        Map<String, Object> order = place();
+
+        assertEquals(100, order.get("id"));
+        assertEquals(4, order.get("restaurant_rating"));
+        assertEquals(500, order.get("total_cost"));
+        verify(restaurantRatingService).recordRating(RESTAURANT_ID, 4);
+    }
+
+    @Test
+    public void testRestaurantWithoutRatedOrdersIsStillRejected() {
+        when(restaurantRatingService.backfillRating(RESTAURANT_ID))
+                .thenReturn(new RestaurantRatingService.RatingAggregate(0, 0));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, this::place);
+
+        assertEquals("No rating found for restaurant with ID: " + RESTAURANT_ID, e.getMessage());
+        verify(restaurantRatingService, never()).recordRating(anyInt(), anyInt());
+    }
+
+    private Map<String, Object> place() {
+        return orderPlacementService.placeOrder(RESTAURANT_ID, CUSTOMER_ID, COURIER_ID,
+                List.of(Map.of("id", PRODUCT_ID, "quantity", 2)));
+    }
+}
@@ -0,0 +1,192 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.rocketFoodDelivery.rocketFood.exception.ConflictException;
+import com.rocketFoodDelivery.rocketFood.models.CourierStatus;
+import com.rocketFoodDelivery.rocketFood.models.OrderLifecycle;
+import com.rocketFoodDelivery.rocketFood.models.OrderStatus;
+import com.rocketFoodDelivery.rocketFood.repository.CourierStatusRepository;
+import com.rocketFoodDelivery.rocketFood.repository.OrderRepository;
+import com.rocketFoodDelivery.rocketFood.repository.OrderStatusRepository;
+
+/**
+ * Hammers a single order with status transitions from many threads. The repository is replaced by
+ * an in-memory row whose conditional update behaves like the SQL one and the status registry is
+ * loaded from mocked lookup tables, so the test checks that the
+ * service never applies a transition the state machine does not allow and never loses an update.
+ */
+public class OrderServiceConcurrencyTest {
+    private static final int ORDER_ID = 42;
+    private static final int THREADS = 32;
+    private static final OrderLifecycle[] STATES = OrderLifecycle.values();
+    private static final Timestamp CREATED_AT = Timestamp.valueOf("2024-01-01 12:00:00");
+
+    private OrderRepository orderRepository;
+    private OrderService orderService;
+    private OrderRow row;
+
+    @BeforeEach
+    public void setUp() {
+        List<OrderStatus> orderStatuses = new ArrayList<>();
+        for (OrderLifecycle state : STATES) {
+            orderStatuses.add(new OrderStatus(state.ordinal() + 1, state.getStatusName()));
+        }
+        List<CourierStatus> courierStatuses = new ArrayList<>();
+        for (String name : StatusRegistry.COURIER_STATUS_NAMES) {
+            courierStatuses.add(new CourierStatus(courierStatuses.size() + 1, name));
+        }
+        OrderStatusRepository orderStatusRepository = mock(OrderStatusRepository.class);
+        CourierStatusRepository courierStatusRepository = mock(CourierStatusRepository.class);
+        when(orderStatusRepository.findAll()).thenReturn(orderStatuses);
+        when(courierStatusRepository.findAll()).thenReturn(courierStatuses);
+        StatusRegistry statusRegistry = new StatusRegistry(orderStatusRepository, courierStatusRepository);
+        statusRegistry.refresh();
+
+        orderRepository = mock(OrderRepository.class);
+        orderService = new OrderService(orderRepository, statusRegistry, mock(OrderEventHub.class),
+                mock(RestaurantRollupService.class), mock(CourierDispatcher.class));
+        row = new OrderRow();
+        when(orderRepository.findStatusSnapshot(anyInt())).thenAnswer(invocation -> row.snapshot());
+        when(orderRepository.transitionStatus(anyInt(), anyInt(), anyInt(), anyInt(), anyBoolean(), any())).thenAnswer(invocation ->
+                row.transition(invocation.getArgument(1), invocation.getArgument(2), invocation.getArgument(3)));
+    }
+
+    @Test
+    public void testOnlyOneOfManySimultaneousTransitionsApplies() throws Exception {
+        // Every thread reads the pending order before any of them writes
+        CyclicBarrier allRead = new CyclicBarrier(THREADS);
+        when(orderRepository.findStatusSnapshot(anyInt())).thenAnswer(invocation -> {
+            List<Object[]> snapshot = row.snapshot();
+            allRead.await(10, TimeUnit.SECONDS);
+            return snapshot;
+        });
+
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        runConcurrently(THREADS, thread -> {
+            try {
+                orderService.changeStatus(ORDER_ID, "in progress");
+                applied.incrementAndGet();
+            } catch (ConflictException e) {
+                conflicts.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, applied.get());
+        assertEquals(THREADS - 1, conflicts.get());
+        assertEquals(OrderLifecycle.IN_PROGRESS, row.state);
+        assertEquals(1, row.version);
+    }
+
+    @Test
+    public void testRandomTransitionsFollowTheStateMachine() throws Exception {
+        AtomicInteger applied = new AtomicInteger();
+        runConcurrently(THREADS, thread -> {
+            for (int attempt = 0; attempt < 500; attempt++) {
+                OrderLifecycle target = STATES[(thread + attempt) % STATES.length];
+                try {
+                    orderService.changeStatus(ORDER_ID, target.getStatusName());
+                    applied.incrementAndGet();
+                } catch (ConflictException e) {
+                    // Lost the race or not allowed from the current state
+                }
+            }
+        });
+
+        List<OrderLifecycle> history = row.history;
+        assertEquals(history.size() - 1, applied.get());
+        assertEquals(applied.get(), row.version);
+        for (int i = 1; i < history.size(); i++) {
+            assertTrue(history.get(i - 1).canMoveTo(history.get(i)), "Illegal transition in " + history);
+        }
+        assertTrue(row.state.nextStates().isEmpty(), "Order should end delivered or cancelled, was " + row.state);
+    }
+
+    @Test
+    public void testOrderWaitingForACourierCanOnlyBeCancelled() {
+        row.courierId = null;
+
+        assertThrows(ConflictException.class, () -> orderService.changeStatus(ORDER_ID, "in progress"));
+        assertEquals(OrderLifecycle.PENDING, row.state);
+
+        orderService.changeStatus(ORDER_ID, "cancelled");
+        assertEquals(OrderLifecycle.CANCELLED, row.state);
+    }
+
+    private void runConcurrently(int threads, ThreadBody body) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            futures.add(pool.submit((Callable<Void>) () -> {
+                start.await();
+                body.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<Void> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * An orders row with status ids 1..4 matching the order of {@link OrderLifecycle}.
+     */
+    private static class OrderRow {
+        OrderLifecycle state = OrderLifecycle.PENDING;
+        int version;
+        Integer courierId = 5;
+        final List<OrderLifecycle> history = Collections.synchronizedList(new ArrayList<>(List.of(OrderLifecycle.PENDING)));
+
+        synchronized List<Object[]> snapshot() {
+            Object[] columns = { state.ordinal() + 1, version, 7, 3, CREATED_AT, courierId };
+            List<Object[]> rows = new ArrayList<>();
+            rows.add(columns);
+            return rows;
+        }
+
+        synchronized int transition(int fromStatusId, int expectedVersion, int toStatusId) {
+            if (state.ordinal() + 1 != fromStatusId || version != expectedVersion) {
+                return 0;
+            }
+            state = STATES[toStatusId - 1];
+            version++;
+            history.add(state);
+            return 1;
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import com.rocketFoodDelivery.rocketFood.exception.ConflictException;
+import com.rocketFoodDelivery.rocketFood.models.OrderLifecycle;
+import com.rocketFoodDelivery.rocketFood.repository.OrderRepository;
+
+/**
+ * The same contention as {@link OrderServiceConcurrencyTest}, against MySQL: every transition runs
+ * the real conditional UPDATE on status_id and version, inside the real transaction. The order is
+ * inserted for the test on an existing restaurant, customer and courier, created on 2000-01-01 so
+ * its rollup buckets are its own, and removed afterwards.
+ */
+@SpringBootTest
+public class OrderServiceDatabaseConcurrencyTest {
+    // Each thread holds a pooled connection while it waits for the others, stay under the pool size
+    private static final int THREADS = 8;
+    private static final Timestamp CREATED_AT = Timestamp.valueOf("2000-01-01 12:00:00");
+    private static final OrderLifecycle[] STATES = OrderLifecycle.values();
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private StatusRegistry statusRegistry;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @SpyBean
+    private OrderRepository orderRepository;
+
+    private int orderId;
+    private int restaurantId;
+
+    @BeforeEach
+    public void setUp() {
+        List<Integer> restaurants = jdbcTemplate.queryForList("SELECT id FROM restaurants ORDER BY id LIMIT 1", Integer.class);
+        List<Integer> customers = jdbcTemplate.queryForList("SELECT id FROM customers ORDER BY id LIMIT 1", Integer.class);
+        List<Integer> couriers = jdbcTemplate.queryForList("SELECT id FROM courier ORDER BY id LIMIT 1", Integer.class);
+        assumeTrue(!restaurants.isEmpty() && !customers.isEmpty() && !couriers.isEmpty(),
+                "Needs a restaurant, a customer and a courier in the database");
+        restaurantId = restaurants.get(0);
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO orders (restaurant_id, customer_id, courier_id, status_id, restaurant_rating, " +
+                    "created_at, status_changed_at, version) VALUES (?, ?, ?, ?, 1, ?, ?, 0)",
+                    Statement.RETURN_GENERATED_KEYS);
+            ps.setInt(1, restaurantId);
+            ps.setInt(2, customers.get(0));
+            ps.setInt(3, couriers.get(0));
+            ps.setInt(4, statusRegistry.getOrderStatusId(OrderLifecycle.PENDING));
+            ps.setTimestamp(5, CREATED_AT);
+            ps.setTimestamp(6, CREATED_AT);
+            return ps;
+        }, keyHolder);
+        orderId = keyHolder.getKey().intValue();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (orderId == 0) {
+            return;
+        }
+        jdbcTemplate.update("DELETE FROM orders WHERE id = ?", orderId);
+        jdbcTemplate.update("DELETE FROM restaurant_order_rollups WHERE restaurant_id = ? AND bucket_start >= ? AND bucket_start < ?",
+                restaurantId, CREATED_AT.toLocalDateTime().toLocalDate().atStartOfDay(),
+                CREATED_AT.toLocalDateTime().toLocalDate().plusDays(1).atStartOfDay());
+    }
+
+    @Test
+    public void testOnlyOneOfManySimultaneousTransitionsApplies() throws Exception {
+        // Every thread reads the pending order before any of them runs its UPDATE
+        CyclicBarrier allRead = new CyclicBarrier(THREADS);
+        doAnswer(invocation -> {
+            Object snapshot = invocation.callRealMethod();
+            allRead.await(10, TimeUnit.SECONDS);
+            return snapshot;
+        }).when(orderRepository).findStatusSnapshot(anyInt());
+
+        AtomicInteger applied = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        runConcurrently(THREADS, thread -> {
+            try {
+                orderService.changeStatus(orderId, "in progress");
+                applied.incrementAndGet();
+            } catch (ConflictException e) {
+                conflicts.incrementAndGet();
+            }
+        });
+
+        assertEquals(1, applied.get());
+        assertEquals(THREADS - 1, conflicts.get());
+        Map<String, Object> row = readOrder();
+        assertEquals(statusRegistry.getOrderStatusId(OrderLifecycle.IN_PROGRESS), ((Number) row.get("status_id")).intValue());
+        assertEquals(1, ((Number) row.get("version")).intValue());
+    }
+
+    @Test
+    public void testRandomTransitionsFollowTheStateMachine() throws Exception {
+        AtomicInteger applied = new AtomicInteger();
+        runConcurrently(THREADS, thread -> {
+            for (int attempt = 0; attempt < 50; attempt++) {
+                OrderLifecycle target = STATES[(thread + attempt) % STATES.length];
+                try {
+                    orderService.changeStatus(orderId, target.getStatusName());
+                    applied.incrementAndGet();
+                } catch (ConflictException e) {
+                    // Lost the race or not allowed from the current state
+                }
+            }
+        });
+
+        Map<String, Object> row = readOrder();
+        // Every applied transition bumped the version exactly once, none was lost
+        assertEquals(applied.get(), ((Number) row.get("version")).intValue());
+        OrderLifecycle last = statusRegistry.findOrderStatus(((Number) row.get("status_id")).intValue())
+                .map(status -> OrderLifecycle.fromStatusName(status.getName()))
+                .orElseThrow();
+        assertTrue(last.nextStates().isEmpty(), "Order should end delivered or cancelled, was " + last);
+    }
+
+    private Map<String, Object> readOrder() {
+        return jdbcTemplate.queryForMap("SELECT status_id, version FROM orders WHERE id = ?", orderId);
+    }
+
+    private void runConcurrently(int threads, ThreadBody body) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int thread = i;
+            futures.add(pool.submit((Callable<Void>) () -> {
+                start.await();
+                body.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private interface ThreadBody {
+        void run(int thread) throws Exception;
+    }
+}
@@ -0,0 +1,70 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.repository.OrderRepository;
+
+/**
+ * Who may follow an order's status changes, per {@link OrderService#canFollowOrder} and
+ * {@link OrderService#canFollowCustomer}.
+ */
+public class OrderServiceTest {
+    private OrderRepository orderRepository;
+    private OrderService orderService;
+
+    @BeforeEach
+    public void setUp() {
+        orderRepository = mock(OrderRepository.class);
+        orderService = new OrderService(orderRepository, mock(StatusRegistry.class), mock(OrderEventHub.class),
+                mock(RestaurantRollupService.class), mock(CourierDispatcher.class));
+        // Order 7 of customer 5, delivered by courier 9
+        when(orderRepository.findStatusSnapshot(7)).thenReturn(Collections.singletonList(
+                new Object[] { 1, 0, 5, 3, Timestamp.valueOf("2024-01-01 12:00:00"), 9 }));
+        // Order 8 of customer 5, still waiting for a courier
+        when(orderRepository.findStatusSnapshot(8)).thenReturn(Collections.singletonList(
+                new Object[] { 1, 0, 5, 3, Timestamp.valueOf("2024-01-01 12:00:00"), null }));
+        when(orderRepository.findStatusSnapshot(99)).thenReturn(List.of());
+    }
+
+    @Test
+    public void testOrderCanBeFollowedByItsCustomerCourierAndEmployees() {
+        assertTrue(orderService.canFollowOrder(7, user(5, null, false)));
+        assertTrue(orderService.canFollowOrder(7, user(null, 9, false)));
+        assertTrue(orderService.canFollowOrder(7, user(null, null, true)));
+        assertTrue(orderService.canFollowOrder(99, user(null, null, true)));
+    }
+
+    @Test
+    public void testOrderCannotBeFollowedByOthers() {
+        assertFalse(orderService.canFollowOrder(7, user(6, null, false)));
+        assertFalse(orderService.canFollowOrder(7, user(null, 10, false)));
+        assertFalse(orderService.canFollowOrder(7, user(null, null, false)));
+        assertFalse(orderService.canFollowOrder(8, user(null, 9, false)));
+        assertFalse(orderService.canFollowOrder(99, user(5, null, false)));
+    }
+
+    @Test
+    public void testCustomerStreamIsForThatCustomerAndEmployees() {
+        assertTrue(orderService.canFollowCustomer(5, user(5, null, false)));
+        assertTrue(orderService.canFollowCustomer(5, user(null, null, true)));
+        assertFalse(orderService.canFollowCustomer(5, user(6, null, false)));
+        assertFalse(orderService.canFollowCustomer(5, user(null, 5, false)));
+    }
+
+    private static UserEntity user(Integer customerId, Integer courierId, boolean employee) {
+        UserEntity user = UserEntity.builder().id(1).customerId(customerId).courierId(courierId).build();
+        user.setEmployee(employee);
+        return user;
+    }
+}
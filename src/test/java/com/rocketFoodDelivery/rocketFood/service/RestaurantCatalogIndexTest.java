@@ -0,0 +1,151 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiRestaurantDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiRestaurantFacetsDto;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRepository;
+
+/**
+ * Filters and facet counts of {@link RestaurantCatalogIndex} over six restaurants, each checked
+ * against a scan of the entries, and the bitsets left behind by put and delete.
+ */
+public class RestaurantCatalogIndexTest {
+    private final List<ApiRestaurantDto> restaurants = new ArrayList<>(List.of(
+            new ApiRestaurantDto(1, "Burger Barn", 1, 4),
+            new ApiRestaurantDto(2, "Café Crème", 2, 4),
+            new ApiRestaurantDto(3, "Pizza Place", 1, 3),
+            new ApiRestaurantDto(4, "Sushi Bar", 3, 5),
+            new ApiRestaurantDto(5, "Taco Stand", 1, 0),
+            new ApiRestaurantDto(7, "Noodle House", 2, 3)));
+    private RestaurantCatalogIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new RestaurantCatalogIndex(mock(RestaurantRepository.class));
+        index.load(restaurants);
+    }
+
+    @Test
+    public void testFilterMatchesAScanOfTheEntries() {
+        assertMatchesScan();
+        assertEquals(List.of(1, 3, 5), ids(index.find(null, 1)));
+        assertEquals(List.of(2), ids(index.find(4, 2)));
+        assertTrue(index.find(5, 1).isEmpty());
+        // Out of range filters match nothing
+        assertTrue(index.find(6, null).isEmpty());
+        assertTrue(index.find(null, 4).isEmpty());
+    }
+
+    @Test
+    public void testFacetsAreNarrowedByTheOtherDimension() {
+        ApiRestaurantFacetsDto facets = index.facets(null, null);
+        assertEquals(6, facets.getTotal());
+        assertEquals(Map.of(1, 3, 2, 2, 3, 1), facets.getPriceRange());
+        assertEquals(Map.of(0, 1, 1, 0, 2, 0, 3, 2, 4, 2, 5, 1), facets.getRating());
+
+        facets = index.facets(3, 1);
+        assertEquals(1, facets.getTotal());
+        // The 3-star restaurants per price range, and the cheap restaurants per rating
+        assertEquals(Map.of(1, 1, 2, 1, 3, 0), facets.getPriceRange());
+        assertEquals(Map.of(0, 1, 1, 0, 2, 0, 3, 1, 4, 1, 5, 0), facets.getRating());
+
+        for (Integer rating : new Integer[] { null, 0, 1, 2, 3, 4, 5 }) {
+            for (Integer priceRange : new Integer[] { null, 1, 2, 3 }) {
+                facets = index.facets(rating, priceRange);
+                assertEquals(scan(rating, priceRange).size(), facets.getTotal());
+                for (int i = 1; i <= RestaurantCatalogIndex.MAX_PRICE_RANGE; i++) {
+                    assertEquals(scan(rating, i).size(), facets.getPriceRange().get(i));
+                }
+                for (int i = 0; i <= RestaurantCatalogIndex.MAX_RATING; i++) {
+                    assertEquals(scan(i, priceRange).size(), facets.getRating().get(i));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testPutMovesTheRestaurantWithoutStaleBits() {
+        ApiRestaurantDto moved = new ApiRestaurantDto(1, "Burger Barn", 3, 2);
+        restaurants.set(0, moved);
+
+        index.put(moved);
+
+        assertMatchesScan();
+        assertFalse(index.findIds(4, null).get(1));
+        assertFalse(index.findIds(null, 1).get(1));
+        assertTrue(index.findIds(2, 3).get(1));
+        assertEquals(2, index.get(1).get().getRating());
+
+        // A new restaurant
+        ApiRestaurantDto added = new ApiRestaurantDto(12, "Bagel Shop", 1, 4);
+        restaurants.add(added);
+        index.put(added);
+        assertMatchesScan();
+    }
+
+    @Test
+    public void testDeleteClearsEveryBit() {
+        restaurants.remove(1);
+
+        index.delete(2);
+        // Unknown ids are ignored
+        index.delete(99);
+
+        assertMatchesScan();
+        assertFalse(index.get(2).isPresent());
+        assertFalse(index.findIds(null, null).get(2));
+        assertEquals(5, index.facets(null, null).getTotal());
+        assertEquals(Map.of(1, 3, 2, 1, 3, 1), index.facets(null, null).getPriceRange());
+    }
+
+    @Test
+    public void testFindReturnsCopies() {
+        index.find(null, null).get(0).setRating(1);
+
+        assertEquals(4, index.get(1).get().getRating());
+        assertEquals(List.of(1, 2), ids(index.find(4, null)));
+    }
+
+    private void assertMatchesScan() {
+        for (Integer rating : new Integer[] { null, 0, 1, 2, 3, 4, 5 }) {
+            for (Integer priceRange : new Integer[] { null, 1, 2, 3 }) {
+                List<Integer> expected = scan(rating, priceRange);
+                assertEquals(expected, ids(index.find(rating, priceRange)), "rating " + rating + ", price range " + priceRange);
+                BitSet bits = index.findIds(rating, priceRange);
+                assertEquals(expected, bits.stream().boxed().toList());
+            }
+        }
+    }
+
+    private List<Integer> scan(Integer rating, Integer priceRange) {
+        List<Integer> ids = new ArrayList<>();
+        for (ApiRestaurantDto restaurant : restaurants) {
+            if ((rating == null || restaurant.getRating() == rating)
+                    && (priceRange == null || restaurant.getPriceRange() == priceRange)) {
+                ids.add(restaurant.getId());
+            }
+        }
+        ids.sort(null);
+        return ids;
+    }
+
+    private static List<Integer> ids(List<ApiRestaurantDto> restaurants) {
+        List<Integer> ids = new ArrayList<>();
+        for (ApiRestaurantDto restaurant : restaurants) {
+            ids.add(restaurant.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,164 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.rocketFoodDelivery.rocketFood.util.GeoDistance;
+
+/**
+ * {@link RestaurantGeoIndex#findNearest} against a haversine scan of every restaurant, on the
+ * default grid of 0.05 degree cells (about 5.6 km high). Restaurants are spread around a city,
+ * across the antimeridian and around both poles.
+ */
+public class RestaurantGeoIndexTest {
+    private static final double CELL_DEGREES = 0.05;
+
+    private final Map<Integer, double[]> positions = new LinkedHashMap<>();
+
+    @Test
+    public void testEarlyExitKeepsACloserRestaurantInTheNextRing() {
+        // Near the east edge of its cell: restaurant 1 is one ring west, restaurant 2 two rings east but closer
+        positions.put(1, new double[] { 0.001, -0.006 });
+        positions.put(2, new double[] { 0.001, 0.101 });
+        RestaurantGeoIndex index = index();
+
+        assertEquals(List.of(2), ids(index.findNearest(0.001, 0.049, 10, 1, null)));
+        assertEquals(List.of(2, 1), ids(index.findNearest(0.001, 0.049, 10, 2, null)));
+        assertMatchesBruteForce(index, 0.001, 0.049, 10, 1, null);
+    }
+
+    @Test
+    public void testSearchWrapsAroundTheAntimeridian() {
+        positions.put(1, new double[] { 10, -179.99 });
+        positions.put(2, new double[] { 10, 179.9 });
+        positions.put(3, new double[] { 10, 180 });
+        RestaurantGeoIndex index = index();
+
+        assertEquals(List.of(3, 1, 2), ids(index.findNearest(10, 179.99, 20, 3, null)));
+        assertEquals(List.of(3, 1, 2), ids(index.findNearest(10, -180, 20, 3, null)));
+        assertMatchesBruteForce(index, 10, 179.99, 20, 3, null);
+        assertMatchesBruteForce(index, 10, -179.95, 20, 3, null);
+    }
+
+    @Test
+    public void testSearchCrossesThePole() {
+        // 11 km apart over the pole, 180 degrees of longitude away
+        positions.put(1, new double[] { 89.95, 180 });
+        positions.put(2, new double[] { 89.95, 90 });
+        positions.put(3, new double[] { -89.95, 0 });
+        RestaurantGeoIndex index = index();
+
+        assertEquals(List.of(2, 1), ids(index.findNearest(89.95, 0, 20, 5, null)));
+        assertEquals(List.of(3), ids(index.findNearest(-90, 45, 20, 5, null)));
+        assertMatchesBruteForce(index, 89.95, 0, 20, 5, null);
+    }
+
+    @Test
+    public void testMatchesABruteForceScan() {
+        Random random = new Random(42);
+        double[][] centers = {
+                { 45.5, -73.6 },   // A city
+                { 0, 180 },        // The antimeridian at the equator
+                { 64, -179.9 },    // The antimeridian further north
+                { 86, 20 },        // High latitudes, where rings are still scanned
+                { 88.7, -120 },
+                { 89.8, 0 },       // Around the poles
+                { -89.9, 60 } };
+        int id = 1;
+        for (double[] center : centers) {
+            for (int i = 0; i < 300; i++) {
+                double[] position = around(random, center, 0.6);
+                positions.put(id++, position);
+            }
+        }
+        RestaurantGeoIndex index = index();
+        BitSet evenIds = new BitSet();
+        for (int i = 0; i < id; i += 2) {
+            evenIds.set(i);
+        }
+
+        for (double[] center : centers) {
+            for (int i = 0; i < 100; i++) {
+                double[] query = around(random, center, 0.6);
+                double radiusKm = 0.5 + random.nextDouble() * 49.5;
+                int limit = 1 + random.nextInt(20);
+                assertMatchesBruteForce(index, query[0], query[1], radiusKm, limit, i % 4 == 0 ? evenIds : null);
+            }
+        }
+    }
+
+    private RestaurantGeoIndex index() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (Map.Entry<Integer, double[]> entry : positions.entrySet()) {
+                ResultSet rs = mock(ResultSet.class);
+                when(rs.getInt("id")).thenReturn(entry.getKey());
+                when(rs.getDouble("latitude")).thenReturn(entry.getValue()[0]);
+                when(rs.getDouble("longitude")).thenReturn(entry.getValue()[1]);
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+        RestaurantGeoIndex index = new RestaurantGeoIndex(jdbcTemplate, CELL_DEGREES);
+        index.reload();
+        return index;
+    }
+
+    private void assertMatchesBruteForce(RestaurantGeoIndex index, double latitude, double longitude, double radiusKm,
+                                         int limit, BitSet allowed) {
+        List<RestaurantGeoIndex.Neighbor> expected = new ArrayList<>();
+        for (Map.Entry<Integer, double[]> entry : positions.entrySet()) {
+            double distanceKm = GeoDistance.haversineKm(latitude, longitude, entry.getValue()[0], entry.getValue()[1]);
+            if (distanceKm <= radiusKm && (allowed == null || allowed.get(entry.getKey()))) {
+                expected.add(new RestaurantGeoIndex.Neighbor(entry.getKey(), distanceKm));
+            }
+        }
+        expected.sort(Comparator.comparingDouble(RestaurantGeoIndex.Neighbor::getDistanceKm));
+        expected = expected.subList(0, Math.min(limit, expected.size()));
+
+        List<RestaurantGeoIndex.Neighbor> actual = index.findNearest(latitude, longitude, radiusKm, limit, allowed);
+
+        String query = "(" + latitude + ", " + longitude + ") within " + radiusKm + " km, limit " + limit;
+        assertEquals(ids(expected), ids(actual), query);
+    }
+
+    /**
+     * A point up to spread degrees of latitude and longitude from center. One past a pole is
+     * carried over it to the other side, and the longitude is wrapped into [-180, 180).
+     */
+    private static double[] around(Random random, double[] center, double spread) {
+        double latitude = center[0] + (random.nextDouble() * 2 - 1) * spread;
+        double longitude = center[1] + (random.nextDouble() * 2 - 1) * spread;
+        if (Math.abs(latitude) > 90) {
+            latitude = Math.signum(latitude) * 180 - latitude;
+            longitude += 180;
+        }
+        return new double[] { latitude, ((longitude + 180) % 360 + 360) % 360 - 180 };
+    }
+
+    private static List<Integer> ids(List<RestaurantGeoIndex.Neighbor> neighbors) {
+        List<Integer> ids = new ArrayList<>();
+        for (RestaurantGeoIndex.Neighbor neighbor : neighbors) {
+            ids.add(neighbor.getRestaurantId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,154 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.rocketFoodDelivery.rocketFood.models.OrderLifecycle;
+
+/**
+ * Upsert deltas of {@link RestaurantRollupService}, captured from a mocked JdbcTemplate. A delta
+ * is listed under "restaurant granularity bucket start" with its counters in column order: orders,
+ * items, revenue, rating sum, rating count, then pending, in progress, delivered and cancelled.
+ */
+public class RestaurantRollupServiceTest {
+    private static final LocalDateTime MORNING = LocalDateTime.of(2026, 3, 14, 10, 15, 30);
+
+    private final List<Map<String, List<Long>>> upserts = new ArrayList<>();
+    private final List<String> upsertSql = new ArrayList<>();
+    private JdbcTemplate jdbcTemplate;
+    private RestaurantRollupService restaurantRollupService;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        doAnswer(invocation -> {
+            upsertSql.add(invocation.getArgument(0));
+            Map<String, List<Long>> deltas = new LinkedHashMap<>();
+            for (Object[] row : invocation.<List<Object[]>>getArgument(1)) {
+                List<Long> counters = new ArrayList<>();
+                for (int i = 3; i < row.length; i++) {
+                    counters.add((Long) row[i]);
+                }
+                deltas.put(row[0] + " " + row[1] + " " + ((Timestamp) row[2]).toLocalDateTime(), counters);
+            }
+            upserts.add(deltas);
+            return new int[0];
+        }).when(jdbcTemplate).batchUpdate(anyString(), anyList());
+        StatusRegistry statusRegistry = mock(StatusRegistry.class);
+        for (OrderLifecycle state : OrderLifecycle.values()) {
+            when(statusRegistry.getOrderStatusId(state)).thenReturn(10 + state.ordinal());
+        }
+        restaurantRollupService = new RestaurantRollupService(jdbcTemplate, statusRegistry);
+    }
+
+    @Test
+    public void testPlacementsAreSummedPerBucketInOneBatch() {
+        restaurantRollupService.recordPlacements(List.of(
+                new RestaurantRollupService.Placement(1, MORNING, 2, 1500, 4),
+                new RestaurantRollupService.Placement(1, MORNING.plusMinutes(40), 1, 700, 5),
+                new RestaurantRollupService.Placement(1, MORNING.plusMinutes(50), 3, 900, 3),
+                new RestaurantRollupService.Placement(2, MORNING, 1, 300, 2)));
+
+        assertEquals(1, upserts.size());
+        Map<String, List<Long>> expected = new LinkedHashMap<>();
+        expected.put("1 HOUR 2026-03-14T10:00", counters(2, 3, 2200, 9, 2, 2, 0, 0, 0));
+        expected.put("1 DAY 2026-03-14T00:00", counters(3, 6, 3100, 12, 3, 3, 0, 0, 0));
+        expected.put("1 HOUR 2026-03-14T11:00", counters(1, 3, 900, 3, 1, 1, 0, 0, 0));
+        expected.put("2 HOUR 2026-03-14T10:00", counters(1, 1, 300, 2, 1, 1, 0, 0, 0));
+        expected.put("2 DAY 2026-03-14T00:00", counters(1, 1, 300, 2, 1, 1, 0, 0, 0));
+        assertEquals(expected, upserts.get(0));
+    }
+
+    @Test
+    public void testStatusChangeMovesTheOrderInTheBucketsOfItsCreation() {
+        LocalDateTime lastMinute = LocalDateTime.of(2026, 3, 14, 23, 59, 59);
+
+        restaurantRollupService.recordStatusChange(1, lastMinute, OrderLifecycle.PENDING, OrderLifecycle.IN_PROGRESS);
+        restaurantRollupService.recordStatusChange(1, lastMinute, OrderLifecycle.IN_PROGRESS, OrderLifecycle.CANCELLED);
+
+        Map<String, List<Long>> expected = new LinkedHashMap<>();
+        expected.put("1 HOUR 2026-03-14T23:00", counters(0, 0, 0, 0, 0, -1, 1, 0, 0));
+        expected.put("1 DAY 2026-03-14T00:00", counters(0, 0, 0, 0, 0, -1, 1, 0, 0));
+        assertEquals(expected, upserts.get(0));
+        // Revenue and items stay booked on cancellation
+        expected.put("1 HOUR 2026-03-14T23:00", counters(0, 0, 0, 0, 0, 0, -1, 0, 1));
+        expected.put("1 DAY 2026-03-14T00:00", counters(0, 0, 0, 0, 0, 0, -1, 0, 1));
+        assertEquals(expected, upserts.get(1));
+    }
+
+    @Test
+    public void testRatingChangeOnlyMovesTheRatingSum() {
+        restaurantRollupService.adjustRating(3, MORNING, -2);
+        restaurantRollupService.adjustRating(3, MORNING, 0);
+
+        assertEquals(1, upserts.size());
+        Map<String, List<Long>> expected = new LinkedHashMap<>();
+        expected.put("3 HOUR 2026-03-14T10:00", counters(0, 0, 0, -2, 0, 0, 0, 0, 0));
+        expected.put("3 DAY 2026-03-14T00:00", counters(0, 0, 0, -2, 0, 0, 0, 0, 0));
+        assertEquals(expected, upserts.get(0));
+    }
+
+    @Test
+    public void testUpsertAddsEveryCounter() {
+        restaurantRollupService.adjustRating(3, MORNING, 1);
+
+        String sql = upsertSql.get(0);
+        for (String column : List.of("orders_placed", "items", "revenue", "rating_sum", "rating_count",
+                "pending_count", "in_progress_count", "delivered_count", "cancelled_count")) {
+            assertTrue(sql.contains(column + " = " + column + " + VALUES(" + column + ")"), column);
+        }
+    }
+
+    @Test
+    public void testRebuildReplacesTheDaysOfTheRange() {
+        List<String> statements = new ArrayList<>();
+        List<List<Object>> arguments = new ArrayList<>();
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+            statements.add(invocation.getArgument(0));
+            arguments.add(Arrays.asList((Object[]) invocation.getRawArguments()[1]));
+            return statements.size() == 1 ? 100 : statements.size() == 2 ? 24 : 2;
+        });
+
+        int written = restaurantRollupService.rebuild(LocalDate.of(2026, 3, 14), LocalDate.of(2026, 3, 16));
+
+        // The rows deleted are not counted
+        assertEquals(26, written);
+        Timestamp start = Timestamp.valueOf("2026-03-14 00:00:00");
+        Timestamp end = Timestamp.valueOf("2026-03-16 00:00:00");
+        assertTrue(statements.get(0).startsWith("DELETE FROM restaurant_order_rollups"));
+        assertEquals(List.of(start, end), arguments.get(0));
+
+        assertTrue(statements.get(1).contains("DATE_FORMAT(o.created_at, '%Y-%m-%d %H:00:00')"));
+        assertEquals(List.of("HOUR", 10, 11, 12, 13, start, end, start, end), arguments.get(1));
+        assertTrue(statements.get(2).contains("DATE_FORMAT(o.created_at, '%Y-%m-%d 00:00:00')"));
+        assertEquals(List.of("DAY", 10, 11, 12, 13, start, end, start, end), arguments.get(2));
+        assertEquals(3, statements.size());
+    }
+
+    private static List<Long> counters(long... values) {
+        List<Long> counters = new ArrayList<>();
+        for (long value : values) {
+            counters.add(value);
+        }
+        return counters;
+    }
+}
@@ -0,0 +1,103 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.invocation.Invocation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import com.rocketFoodDelivery.rocketFood.dtos.ApiAddressDto;
+import com.rocketFoodDelivery.rocketFood.dtos.ApiCreateRestaurantDto;
+import com.rocketFoodDelivery.rocketFood.repository.AddressRepository;
+import com.rocketFoodDelivery.rocketFood.repository.OrderRepository;
+import com.rocketFoodDelivery.rocketFood.repository.OrderStatusRepository;
+import com.rocketFoodDelivery.rocketFood.repository.ProductOrderRepository;
+import com.rocketFoodDelivery.rocketFood.repository.ProductRepository;
+import com.rocketFoodDelivery.rocketFood.repository.RestaurantRepository;
+import com.rocketFoodDelivery.rocketFood.repository.UserRepository;
+
+public class RestaurantServiceTest {
+    private static final int RESTAURANT_ID = 7;
+
+    private JdbcTemplate jdbcTemplate;
+    private RestaurantGeoIndex restaurantGeoIndex;
+    private RestaurantService restaurantService;
+
+    @BeforeEach
+    public void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        restaurantGeoIndex = mock(RestaurantGeoIndex.class);
+        restaurantService = new RestaurantService(mock(RestaurantRepository.class), mock(ProductRepository.class),
+                mock(OrderRepository.class), mock(ProductOrderRepository.class), mock(UserRepository.class),
+                mock(AddressService.class), mock(OrderStatusRepository.class), mock(AddressRepository.class),
+                mock(RestaurantRatingService.class), mock(RestaurantCatalogIndex.class), restaurantGeoIndex,
+                mock(MenuSearchIndex.class), mock(OrderPlacementService.class), mock(OrderService.class),
+                mock(StatusRegistry.class), mock(OrderArchiveStore.class), mock(RestaurantRollupService.class),
+                jdbcTemplate);
+        when(jdbcTemplate.queryForObject(eq("SELECT COUNT(*) FROM restaurants WHERE id = ?"), any(RowMapper.class), eq(RESTAURANT_ID)))
+                .thenReturn(1);
+    }
+
+    @Test
+    public void testUpdateWithoutCoordinatesKeepsThem() {
+        ApiCreateRestaurantDto update = new ApiCreateRestaurantDto();
+        update.setName("Renamed");
+        update.setPriceRange(2);
+        update.setPhone("5550100");
+        ApiAddressDto address = new ApiAddressDto();
+        address.setStreetAddress("12 New Street");
+        update.setAddress(address);
+
+        assertTrue(restaurantService.updateRestaurant(RESTAURANT_ID, update).isPresent());
+
+        Object[] arguments = addressUpdateArguments();
+        String sql = (String) arguments[0];
+        // Coordinates left out of the request must not be overwritten with NULL
+        assertTrue(sql.contains("a.latitude = COALESCE(?, a.latitude)"), sql);
+        assertTrue(sql.contains("a.longitude = COALESCE(?, a.longitude)"), sql);
+        assertArrayEquals(new Object[] { "12 New Street", null, null, null, null, RESTAURANT_ID },
+                Arrays.copyOfRange(arguments, 1, arguments.length));
+        verify(restaurantGeoIndex).refresh(RESTAURANT_ID);
+    }
+
+    @Test
+    public void testUpdateWithCoordinatesMovesTheRestaurant() {
+        ApiCreateRestaurantDto update = new ApiCreateRestaurantDto();
+        update.setName("Moved");
+        update.setPriceRange(2);
+        update.setPhone("5550100");
+        ApiAddressDto address = new ApiAddressDto();
+        address.setLatitude(45.5);
+        address.setLongitude(-73.6);
+        update.setAddress(address);
+
+        assertTrue(restaurantService.updateRestaurant(RESTAURANT_ID, update).isPresent());
+
+        Object[] arguments = addressUpdateArguments();
+        assertEquals(45.5, arguments[4]);
+        assertEquals(-73.6, arguments[5]);
+    }
+
+    private Object[] addressUpdateArguments() {
+        List<Object[]> updates = mockingDetails(jdbcTemplate).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("update"))
+                .map(Invocation::getArguments)
+                .filter(arguments -> ((String) arguments[0]).startsWith("UPDATE addresses"))
+                .toList();
+        assertEquals(1, updates.size());
+        return updates.get(0);
+    }
+}
@@ -0,0 +1,82 @@
+package com.rocketFoodDelivery.rocketFood.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigInteger;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.rocketFoodDelivery.rocketFood.models.UserEntity;
+import com.rocketFoodDelivery.rocketFood.repository.EmployeeRepository;
+import com.rocketFoodDelivery.rocketFood.repository.UserRepository;
+import com.rocketFoodDelivery.rocketFood.security.UserDetailsCache;
+
+/**
+ * Login user mapping and cache eviction of {@link UserService}, on a mocked UserRepository.
+ */
+public class UserServiceTest {
+    private UserRepository userRepository;
+    private UserDetailsCache userDetailsCache;
+    private UserService userService;
+
+    @BeforeEach
+    public void setUp() {
+        userRepository = mock(UserRepository.class);
+        userDetailsCache = mock(UserDetailsCache.class);
+        userService = new UserService(userRepository, mock(EmployeeRepository.class), userDetailsCache);
+    }
+
+    @Test
+    public void testFindLoginUserMapsRoles() {
+        // The native query returns driver number types, BIGINT counts included
+        when(userRepository.findLoginByEmail("courier@example.com")).thenReturn(Collections.singletonList(
+                new Object[] { 9, "Courier", "courier@example.com", "{bcrypt}hash", BigInteger.valueOf(3), 1L, null, 12 }));
+
+        UserEntity user = userService.findLoginUser("courier@example.com").get();
+
+        assertEquals(9, user.getId());
+        assertEquals("Courier", user.getName());
+        assertEquals("courier@example.com", user.getEmail());
+        assertEquals("{bcrypt}hash", user.getPassword());
+        assertEquals(3, user.getTokenVersion());
+        assertTrue(user.isEmployee());
+        assertNull(user.getCustomerId());
+        assertEquals(12, user.getCourierId());
+    }
+
+    @Test
+    public void testFindLoginUserWithoutRoles() {
+        when(userRepository.findLoginByEmail("customer@example.com")).thenReturn(Collections.singletonList(
+                new Object[] { 7, "Customer", "customer@example.com", "{bcrypt}hash", 0, null, 4, null }));
+
+        UserEntity user = userService.findLoginUser("customer@example.com").get();
+
+        assertFalse(user.isEmployee());
+        assertEquals(4, user.getCustomerId());
+        assertNull(user.getCourierId());
+    }
+
+    @Test
+    public void testFindLoginUserUnknownEmail() {
+        when(userRepository.findLoginByEmail("nobody@example.com")).thenReturn(List.of());
+
+        assertTrue(userService.findLoginUser("nobody@example.com").isEmpty());
+    }
+
+    @Test
+    public void testUpdatePasswordEvictsCachedUser() {
+        userService.updatePassword(7, "{bcrypt}new");
+
+        verify(userRepository).updatePassword(7, "{bcrypt}new");
+        verify(userDetailsCache).removeUserFromCache(7);
+    }
+}
@@ -0,0 +1,75 @@
+package com.rocketFoodDelivery.rocketFood.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+import com.rocketFoodDelivery.rocketFood.exception.BadRequestException;
+
+/**
+ * Round trips of {@link CursorCodec} and the cursors it must refuse with a 400.
+ */
+public class CursorCodecTest {
+
+    @Test
+    public void testRoundTrip() {
+        CursorCodec.Cursor rating = CursorCodec.decode(CursorCodec.encode("4", 17));
+        assertEquals("4", rating.getSortKey());
+        assertEquals(4, rating.getSortKeyAsInt());
+        assertEquals(17, rating.getId());
+
+        CursorCodec.Cursor byId = CursorCodec.decode(CursorCodec.encode(null, 3));
+        assertEquals("", byId.getSortKey());
+        assertEquals(3, byId.getId());
+    }
+
+    @Test
+    public void testNamesWithSeparatorAndNonAsciiSurvive() {
+        String name = "Crêpes | Café ☕";
+        String token = CursorCodec.encode(name, 250);
+
+        CursorCodec.Cursor cursor = CursorCodec.decode(token);
+
+        assertEquals(name, cursor.getSortKey());
+        assertEquals(250, cursor.getId());
+        // Usable as a query parameter as is
+        assertFalse(token.contains("+") || token.contains("/") || token.contains("="));
+    }
+
+    @Test
+    public void testMalformedCursorsAreRejected() {
+        assertInvalid("");
+        assertInvalid("not base64!");
+        assertInvalid("%%%");
+        // Valid base64 without a separator, or without an id after it
+        assertInvalid(token("4"));
+        assertInvalid(token("4|"));
+    }
+
+    @Test
+    public void testTamperedCursorsAreRejected() {
+        assertInvalid(token("4|17 OR 1=1"));
+        assertInvalid(token("4|99999999999"));
+        assertInvalid(token("4|1.5"));
+        // A non numeric sort key is only refused where a number is expected
+        CursorCodec.Cursor cursor = CursorCodec.decode(token("five|17"));
+        assertThrows(BadRequestException.class, cursor::getSortKeyAsInt);
+        // Dropping characters from a real token
+        String valid = CursorCodec.encode("4", 17);
+        assertInvalid(valid.substring(0, valid.length() - 1));
+    }
+
+    private static String token(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void assertInvalid(String token) {
+        BadRequestException e = assertThrows(BadRequestException.class, () -> CursorCodec.decode(token));
+        assertEquals("Invalid cursor", e.getDetails());
+    }
+}
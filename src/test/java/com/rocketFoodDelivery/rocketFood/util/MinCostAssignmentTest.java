@@ -0,0 +1,112 @@
+package com.rocketFoodDelivery.rocketFood.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Assignments of {@link MinCostAssignment} on matrices with a known optimum, and on random
+ * matrices against an exhaustive search.
+ */
+public class MinCostAssignmentTest {
+
+    @Test
+    public void testKnownOptimum() {
+        double[][] cost = {
+                { 4, 1, 3 },
+                { 2, 0, 5 },
+                { 3, 2, 2 },
+        };
+        int[] match = MinCostAssignment.solve(cost);
+
+        assertArrayEquals(new int[] { 1, 0, 2 }, match);
+        assertEquals(5, total(cost, match), 1e-9);
+    }
+
+    @Test
+    public void testOptimumThatGreedyMisses() {
+        // Row 0 taking its cheapest column 0 forces row 1 onto 100
+        double[][] cost = {
+                { 1, 2 },
+                { 1, 100 },
+        };
+        assertArrayEquals(new int[] { 1, 0 }, MinCostAssignment.solve(cost));
+    }
+
+    @Test
+    public void testMoreColumnsThanRows() {
+        double[][] cost = {
+                { 9, 8, 1, 7 },
+                { 9, 1, 8, 7 },
+        };
+        assertArrayEquals(new int[] { 2, 1 }, MinCostAssignment.solve(cost));
+    }
+
+    @Test
+    public void testMoreRowsThanColumnsIsRefused() {
+        double[][] cost = {
+                { 1, 2 },
+                { 3, 4 },
+                { 5, 6 },
+        };
+        assertThrows(IllegalArgumentException.class, () -> MinCostAssignment.solve(cost));
+    }
+
+    @Test
+    public void testEmptyMatrix() {
+        assertEquals(0, MinCostAssignment.solve(new double[0][0]).length);
+    }
+
+    @Test
+    public void testRandomMatricesMatchExhaustiveSearch() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int rows = 1 + random.nextInt(5);
+            int columns = rows + random.nextInt(3);
+            double[][] cost = new double[rows][columns];
+            for (double[] row : cost) {
+                for (int j = 0; j < columns; j++) {
+                    row[j] = random.nextInt(50);
+                }
+            }
+
+            int[] match = MinCostAssignment.solve(cost);
+
+            Set<Integer> columnsUsed = new HashSet<>();
+            for (int column : match) {
+                columnsUsed.add(column);
+            }
+            assertEquals(rows, columnsUsed.size(), "every row gets a distinct column");
+            assertEquals(bruteForceMinimum(cost, 0, new boolean[columns]), total(cost, match), 1e-9);
+        }
+    }
+
+    private static double bruteForceMinimum(double[][] cost, int row, boolean[] used) {
+        if (row == cost.length) {
+            return 0;
+        }
+        double best = Double.POSITIVE_INFINITY;
+        for (int j = 0; j < used.length; j++) {
+            if (!used[j]) {
+                used[j] = true;
+                best = Math.min(best, cost[row][j] + bruteForceMinimum(cost, row + 1, used));
+                used[j] = false;
+            }
+        }
+        return best;
+    }
+
+    private static double total(double[][] cost, int[] match) {
+        double total = 0;
+        for (int i = 0; i < match.length; i++) {
+            total += cost[i][match[i]];
+        }
+        return total;
+    }
+}